@@ -0,0 +1,243 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming encoder and decoder of the JSON format of {@link SEDAPExpressJSONMessage}
+ * <p>
+ * Messages are written to and read from the stream one by one, so neither an object tree nor the whole document as string is built. The output is the same as Gson creates for a
+ * {@link SEDAPExpressJSONMessage}, unknown members are skipped when reading.
+ *
+ * @author Volker Voß
+ *
+ */
+public final class SEDAPExpressJSONCodec {
+
+    /** Value of the Content-Encoding header for gzip compressed bodies */
+    public static final String GZIP = "gzip";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private SEDAPExpressJSONCodec() {
+    }
+
+    /**
+     * Writes messages as JSON
+     *
+     * @param writer       Writer, not closed
+     * @param messages     Serialized messages
+     * @param offset       Offset of the first message, omitted if null
+     * @param nextOffset   Offset of the next message, omitted if null
+     * @param lostMessages Number of lost messages, omitted if null
+     * @throws IOException if the writer fails
+     */
+    public static void write(Writer writer, Iterable<String> messages, Long offset, Long nextOffset, Long lostMessages) throws IOException {
+
+	final JsonWriter json = new JsonWriter(writer);
+	json.beginObject();
+	// The offsets precede the messages, so a reader knows the offset of every message while reading them
+	if (offset != null) {
+	    json.name("offset").value(offset);
+	}
+	if (nextOffset != null) {
+	    json.name("nextOffset").value(nextOffset);
+	}
+	if (lostMessages != null) {
+	    json.name("lostMessages").value(lostMessages);
+	}
+	json.name("messages").beginArray();
+	for (String message : messages) {
+	    json.beginObject().name("message").value(message).endObject();
+	}
+	json.endArray();
+	json.endObject();
+	json.flush();
+    }
+
+    /**
+     * Writes messages as UTF-8 encoded JSON to a stream and closes it
+     *
+     * @param output       Stream
+     * @param compress     True to compress the JSON with gzip
+     * @param messages     Serialized messages
+     * @param offset       Offset of the first message, omitted if null
+     * @param nextOffset   Offset of the next message, omitted if null
+     * @param lostMessages Number of lost messages, omitted if null
+     * @throws IOException if the stream fails
+     */
+    public static void write(OutputStream output, boolean compress, Iterable<String> messages, Long offset, Long nextOffset, Long lostMessages) throws IOException {
+
+	try (Writer writer = new OutputStreamWriter(compress ? new GZIPOutputStream(output, SEDAPExpressJSONCodec.BUFFER_SIZE) : output, StandardCharsets.UTF_8)) {
+	    SEDAPExpressJSONCodec.write(writer, messages, offset, nextOffset, lostMessages);
+	}
+    }
+
+    /**
+     * Reads JSON and hands every message to the consumer as soon as it has been read
+     *
+     * @param reader   Reader, not closed
+     * @param consumer Consumer of the serialized messages
+     * @return offsets and lostMessages of the JSON, the messages are not contained
+     * @throws IOException if the reader fails or the JSON is malformed
+     */
+    public static SEDAPExpressJSONMessage read(Reader reader, Consumer<String> consumer) throws IOException {
+	return SEDAPExpressJSONCodec.read(reader, new SEDAPExpressJSONMessage(), consumer);
+    }
+
+    /**
+     * Reads JSON and hands every message to the consumer as soon as it has been read. The offsets and lostMessages are set in the result as soon as they have been read, so the consumer knows the
+     * offset of the messages, if the writer has put it in front of them.
+     *
+     * @param reader   Reader, not closed
+     * @param result   Receives offsets and lostMessages of the JSON, the messages are not added
+     * @param consumer Consumer of the serialized messages
+     * @return the result
+     * @throws IOException if the reader fails or the JSON is malformed
+     */
+    public static SEDAPExpressJSONMessage read(Reader reader, SEDAPExpressJSONMessage result, Consumer<String> consumer) throws IOException {
+
+	final JsonReader json = new JsonReader(reader);
+	json.beginObject();
+	while (json.hasNext()) {
+	    switch (json.nextName()) {
+	    case "messages" -> {
+		json.beginArray();
+		while (json.hasNext()) {
+		    final String message = SEDAPExpressJSONCodec.readMessage(json);
+		    if (message != null) {
+			consumer.accept(message);
+		    }
+		}
+		json.endArray();
+	    }
+	    case "offset" -> result.setOffset(SEDAPExpressJSONCodec.readLong(json));
+	    case "nextOffset" -> result.setNextOffset(SEDAPExpressJSONCodec.readLong(json));
+	    case "lostMessages" -> result.setLostMessages(SEDAPExpressJSONCodec.readLong(json));
+	    default -> json.skipValue();
+	    }
+	}
+	json.endObject();
+
+	return result;
+    }
+
+    /**
+     * Reads UTF-8 encoded JSON from a stream and closes it
+     *
+     * @param input      Stream
+     * @param compressed True if the stream is compressed with gzip
+     * @param consumer   Consumer of the serialized messages
+     * @return offsets and lostMessages of the JSON, the messages are not contained
+     * @throws IOException if the stream fails or the JSON is malformed
+     */
+    public static SEDAPExpressJSONMessage read(InputStream input, boolean compressed, Consumer<String> consumer) throws IOException {
+	return SEDAPExpressJSONCodec.read(input, compressed, new SEDAPExpressJSONMessage(), consumer);
+    }
+
+    /**
+     * Reads UTF-8 encoded JSON from a stream and closes it, see {@link #read(Reader, SEDAPExpressJSONMessage, Consumer)}
+     *
+     * @param input      Stream
+     * @param compressed True if the stream is compressed with gzip
+     * @param result     Receives offsets and lostMessages of the JSON, the messages are not added
+     * @param consumer   Consumer of the serialized messages
+     * @return the result
+     * @throws IOException if the stream fails or the JSON is malformed
+     */
+    public static SEDAPExpressJSONMessage read(InputStream input, boolean compressed, SEDAPExpressJSONMessage result, Consumer<String> consumer) throws IOException {
+
+	try (Reader reader = new InputStreamReader(compressed ? new GZIPInputStream(input, SEDAPExpressJSONCodec.BUFFER_SIZE) : input, StandardCharsets.UTF_8)) {
+	    return SEDAPExpressJSONCodec.read(reader, result, consumer);
+	}
+    }
+
+    /**
+     * Checks, if a header value like Accept-Encoding or Content-Encoding contains gzip
+     *
+     * @param header Header value, may be null
+     * @return true, if gzip is contained
+     */
+    public static boolean isGzip(String header) {
+
+	if (header == null) {
+	    return false;
+	}
+	for (String encoding : header.split(",")) {
+	    final int parameters = encoding.indexOf(';');
+	    final String name = ((parameters < 0) ? encoding : encoding.substring(0, parameters)).trim();
+	    if (SEDAPExpressJSONCodec.GZIP.equalsIgnoreCase(name)) {
+		// gzip;q=0 explicitly refuses gzip
+		return (parameters < 0) || !encoding.substring(parameters + 1).replace(" ", "").matches("q=0(\\.0*)?");
+	    }
+	}
+	return false;
+    }
+
+    private static String readMessage(JsonReader json) throws IOException {
+
+	if (json.peek() == JsonToken.NULL) {
+	    json.nextNull();
+	    return null;
+	}
+
+	String message = null;
+	json.beginObject();
+	while (json.hasNext()) {
+	    if ("message".equals(json.nextName()) && (json.peek() != JsonToken.NULL)) {
+		message = json.nextString();
+	    } else {
+		json.skipValue();
+	    }
+	}
+	json.endObject();
+	return message;
+    }
+
+    private static Long readLong(JsonReader json) throws IOException {
+
+	if (json.peek() == JsonToken.NULL) {
+	    json.nextNull();
+	    return null;
+	}
+	return json.nextLong();
+    }
+}
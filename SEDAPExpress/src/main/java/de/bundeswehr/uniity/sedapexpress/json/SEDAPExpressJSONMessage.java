@@ -13,6 +13,18 @@ import jakarta.validation.Valid;
 @Generated("jsonschema2pojo")
 public class SEDAPExpressJSONMessage {
 
+    @SerializedName("offset")
+    @Expose
+    private Long offset;
+
+    @SerializedName("nextOffset")
+    @Expose
+    private Long nextOffset;
+
+    @SerializedName("lostMessages")
+    @Expose
+    private Long lostMessages;
+
     @SerializedName("messages")
     @Expose
     @Valid
@@ -26,6 +38,30 @@ public class SEDAPExpressJSONMessage {
 	this.messages = messages;
     }
 
+    public Long getOffset() {
+	return this.offset;
+    }
+
+    public void setOffset(Long offset) {
+	this.offset = offset;
+    }
+
+    public Long getNextOffset() {
+	return this.nextOffset;
+    }
+
+    public void setNextOffset(Long nextOffset) {
+	this.nextOffset = nextOffset;
+    }
+
+    public Long getLostMessages() {
+	return this.lostMessages;
+    }
+
+    public void setLostMessages(Long lostMessages) {
+	this.lostMessages = lostMessages;
+    }
+
     @Override
     public String toString() {
 	StringBuilder sb = new StringBuilder();
@@ -34,6 +70,18 @@ public class SEDAPExpressJSONMessage {
 	sb.append('=');
 	sb.append(((this.messages == null) ? "<null>" : this.messages));
 	sb.append(',');
+	sb.append("offset");
+	sb.append('=');
+	sb.append(((this.offset == null) ? "<null>" : this.offset));
+	sb.append(',');
+	sb.append("nextOffset");
+	sb.append('=');
+	sb.append(((this.nextOffset == null) ? "<null>" : this.nextOffset));
+	sb.append(',');
+	sb.append("lostMessages");
+	sb.append('=');
+	sb.append(((this.lostMessages == null) ? "<null>" : this.lostMessages));
+	sb.append(',');
 	if (sb.charAt((sb.length() - 1)) == ',') {
 	    sb.setCharAt((sb.length() - 1), ']');
 	} else {
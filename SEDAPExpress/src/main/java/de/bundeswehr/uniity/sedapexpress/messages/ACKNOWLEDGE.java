@@ -120,6 +120,7 @@ public class ACKNOWLEDGE extends SEDAPExpressMessage {
 	super(message);
 
 	String value;
+	Byte byteValue;
 
 	// Recipient
 	if (message.hasNext()) {
@@ -150,8 +151,8 @@ public class ACKNOWLEDGE extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "ACKNOWLEDGE", "ACKNOWLEDGE(Iterator<String> message)", "Mandatory field \"numberOfTheMessage\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.NUMBER_MATCHER, value)) {
-		this.numberOfTheMessage = Byte.parseByte(value, 16);
+	    } else if ((byteValue = SEDAPExpressMessage.parseHexByte(SEDAPExpressMessage.NUMBER_MATCHER, value)) != null) {
+		this.numberOfTheMessage = byteValue;
 	    } else if (!value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "ACKNOWLEDGE", "ACKNOWLEDGE(Iterator<String> message)", "Mandatory field \"numberOfTheMessage\" contains invalid value!", value);
 	    }
@@ -182,10 +183,23 @@ public class ACKNOWLEDGE extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.ACKNOWLEDGE;
+    }
 
-	return SEDAPExpressMessage.removeSemicolons(serializeHeader().append((this.recipient != null) ? this.recipient : "").append(";").append((this.typeOfTheMessage != null) ? this.typeOfTheMessage : "").append(";")
-		.append((this.numberOfTheMessage != null) ? this.numberOfTheMessage : "").toString());
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
+
+	serializeHeader(writer);
+	writer.append(this.recipient).separator().append(this.typeOfTheMessage).separator();
+	if (this.numberOfTheMessage != null) {
+	    writer.appendHex(this.numberOfTheMessage, 2);
+	}
+    }
+
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
@@ -337,21 +337,35 @@ public class COMMAND extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
-
-	if (this.cmdTypeDependentParameters != null) {
+    public MessageType getMessageType() {
+	return MessageType.COMMAND;
+    }
 
-	    StringBuilder parameters = new StringBuilder();
-	    this.cmdTypeDependentParameters.forEach(entry -> parameters.append(entry + ";"));
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
 
-	    return SEDAPExpressMessage.removeSemicolons(serializeHeader().append((this.recipient != null) ? this.recipient : "").append(";").append((this.cmdId != null) ? SEDAPExpressMessage.HexFormater.toHexDigits(this.cmdId) : "")
-		    .append(";").append((this.cmdFlag != null) ? SEDAPExpressMessage.HexFormater.toHexDigits(this.cmdFlag.getFlagValue()) : "").append(";")
-		    .append((this.cmdType != null) ? SEDAPExpressMessage.HexFormater.toHexDigits(this.cmdType.getTypeValue()) : "").append(";").append((this.cmdTypeDependentParameters != null) ? parameters : "").toString());
-	} else {
-	    return SEDAPExpressMessage.removeSemicolons(
-		    serializeHeader().append((this.recipient != null) ? this.recipient : "").append(";").append((this.cmdId != null) ? this.cmdId : "").append(";").append((this.cmdType != null) ? this.cmdType : "").toString());
+	serializeHeader(writer);
+	writer.append(this.recipient).separator();
+	if (this.cmdId != null) {
+	    writer.appendHex(this.cmdId, 4);
+	}
+	writer.separator();
+	if (this.cmdFlag != null) {
+	    writer.appendHex(this.cmdFlag.getFlagValue(), 2);
 	}
+	writer.separator();
+	if (this.cmdType != null) {
+	    writer.appendHex(this.cmdType.getTypeValue(), 2);
+	}
+	writer.separator();
+	if (this.cmdTypeDependentParameters != null) {
+	    this.cmdTypeDependentParameters.forEach(parameter -> writer.append(parameter).separator());
+	}
+    }
 
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
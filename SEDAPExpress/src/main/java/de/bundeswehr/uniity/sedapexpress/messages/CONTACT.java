@@ -81,6 +81,8 @@ public class CONTACT extends SEDAPExpressMessage {
 
     }
 
+    private static final Source[] SOURCES = Source.values();
+
     private String contactID;
 
     private DeleteFlag deleteFlag;
@@ -457,6 +459,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	super(message);
 
 	String value;
+	Double doubleValue;
+	Boolean flagValue;
 
 	// ContactID
 	if (message.hasNext()) {
@@ -471,8 +475,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	// DeleteFlag
 	if (message.hasNext()) {
 	    value = message.next();
-	    if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.YES_NO_FLAG_MATCHER, value)) {
-		this.deleteFlag = DeleteFlag.valueOf(value);
+	    if ((flagValue = SEDAPExpressMessage.parseFlag(SEDAPExpressMessage.YES_NO_FLAG_MATCHER, value)) != null) {
+		this.deleteFlag = flagValue ? DeleteFlag.TRUE : DeleteFlag.FALSE;
 	    } else if (value.isBlank()) {
 		this.deleteFlag = DeleteFlag.FALSE;
 	    } else {
@@ -491,8 +495,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		latWarning = 1;
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.latitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.latitude = doubleValue;
 	    } else {
 		latWarning = 2;
 		latValue = value;
@@ -506,8 +510,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		lonWarning = 1;
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.longitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.longitude = doubleValue;
 	    } else {
 		lonWarning = 2;
 		lonValue = value;
@@ -521,8 +525,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"altitude\" is empty!");
-	    } else if (!value.isEmpty() && SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.altitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.altitude = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"altitude\" contains invalid value!", value);
 	    }
@@ -542,8 +546,8 @@ public class CONTACT extends SEDAPExpressMessage {
 		} else {
 		    SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Field \"relativeXDistance\" is empty!");
 		}
-	    } else if (!value.isEmpty() && SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.relativeXDistance = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.relativeXDistance = doubleValue;
 	    } else {
 		relXWarning = 2;
 		if (latWarning == 0 && lonWarning == 0) {
@@ -564,8 +568,8 @@ public class CONTACT extends SEDAPExpressMessage {
 		} else {
 		    SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Field \"relativeYDistance\" is empty!");
 		}
-	    } else if (!value.isEmpty() && SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.relativeYDistance = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.relativeYDistance = doubleValue;
 	    } else {
 		relYWarning = 2;
 		if (latWarning == 0 && lonWarning == 0) {
@@ -586,8 +590,8 @@ public class CONTACT extends SEDAPExpressMessage {
 		} else {
 		    SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Field \"relativeZDistance\" is empty!");
 		}
-	    } else if (!value.isEmpty() && SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.relativeZDistance = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.relativeZDistance = doubleValue;
 	    } else {
 		relZWarning = 2;
 		if (latWarning == 0 && lonWarning == 0) {
@@ -641,8 +645,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"speed\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.POSITIVE_DOUBLE_MATCHER, value)) {
-		this.speed = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.POSITIVE_DOUBLE_MATCHER, value)) != null) {
+		this.speed = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"speed\" contains invalid value!", value);
 	    }
@@ -653,8 +657,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"course\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.BEARING_MATCHER, value)) {
-		this.course = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.BEARING_MATCHER, value)) != null) {
+		this.course = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"course\" contains invalid value!", value);
 	    }
@@ -665,8 +669,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"heading\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.BEARING_MATCHER, value)) {
-		this.heading = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.BEARING_MATCHER, value)) != null) {
+		this.heading = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"heading\" contains invalid value!", value);
 	    }
@@ -677,8 +681,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"roll\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.roll = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.roll = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"roll\" contains invalid value!", value);
 	    }
@@ -689,8 +693,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"pitch\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.pitch = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.pitch = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"pitch\" contains invalid value!", value);
 	    }
@@ -701,8 +705,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"width\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.POSITIVE_DOUBLE_MATCHER, value)) {
-		this.width = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.POSITIVE_DOUBLE_MATCHER, value)) != null) {
+		this.width = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"width\" contains invalid value!", value);
 	    }
@@ -713,8 +717,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"length\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.POSITIVE_DOUBLE_MATCHER, value)) {
-		this.length = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.POSITIVE_DOUBLE_MATCHER, value)) != null) {
+		this.length = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"length\" contains invalid value!", value);
 	    }
@@ -725,8 +729,8 @@ public class CONTACT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"height\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.POSITIVE_DOUBLE_MATCHER, value)) {
-		this.height = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.POSITIVE_DOUBLE_MATCHER, value)) != null) {
+		this.height = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "CONTACT", "CONTACT(Iterator<String> message)", "Optional field \"height\" contains invalid value!", value);
 	    }
@@ -868,40 +872,52 @@ public class CONTACT extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.CONTACT;
+    }
 
-	StringBuilder sourceStr = new StringBuilder();
-	if (this.source != null)
-	    this.source.forEach(s -> sourceStr.append(s));
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
+
+	serializeHeader(writer);
+	writer.append(this.contactID).separator()
 
-	return SEDAPExpressMessage.removeSemicolons(serializeHeader()
+		.append(this.deleteFlag).separator()
 
-		.append(this.contactID).append(";")
+		.appendNumber(this.latitude).separator().appendNumber(this.longitude).separator().appendNumber(this.altitude).separator()
 
-		.append((this.deleteFlag != null) ? this.deleteFlag : "").append(";")
+		.appendNumber(this.relativeXDistance).separator().appendNumber(this.relativeYDistance).separator().appendNumber(this.relativeZDistance).separator()
 
-		.append((this.latitude != null) ? SEDAPExpressMessage.numberFormatter.format(this.latitude) : "").append(";").append(this.longitude != null ? SEDAPExpressMessage.numberFormatter.format(this.longitude) : "").append(";")
-		.append(this.altitude != null ? SEDAPExpressMessage.numberFormatter.format(this.altitude) : "").append(";")
+		.appendNumber(this.speed).separator().appendNumber(this.course).separator()
 
-		.append(this.relativeXDistance != null ? SEDAPExpressMessage.numberFormatter.format(this.relativeXDistance) : "").append(";")
-		.append(this.relativeYDistance != null ? SEDAPExpressMessage.numberFormatter.format(this.relativeYDistance) : "").append(";")
-		.append(this.relativeZDistance != null ? SEDAPExpressMessage.numberFormatter.format(this.relativeZDistance) : "").append(";")
+		.appendNumber(this.heading).separator().appendNumber(this.roll).separator().appendNumber(this.pitch).separator()
 
-		.append(this.speed != null ? SEDAPExpressMessage.numberFormatter.format(this.speed) : "").append(";").append(this.course != null ? SEDAPExpressMessage.numberFormatter.format(this.course) : "").append(";")
+		.appendNumber(this.width).separator().appendNumber(this.length).separator().appendNumber(this.height).separator()
 
-		.append(this.heading != null ? SEDAPExpressMessage.numberFormatter.format(this.heading) : "").append(";").append(this.roll != null ? SEDAPExpressMessage.numberFormatter.format(this.roll) : "").append(";")
-		.append(this.pitch != null ? SEDAPExpressMessage.numberFormatter.format(this.pitch) : "").append(";")
+		.append(this.name).separator();
 
-		.append(this.width != null ? SEDAPExpressMessage.numberFormatter.format(this.width) : "").append(";").append(this.length != null ? SEDAPExpressMessage.numberFormatter.format(this.length) : "").append(";")
-		.append(this.height != null ? SEDAPExpressMessage.numberFormatter.format(this.height) : "").append(";")
+	if (this.source != null) {
+	    // Fixed order, the iteration order of the set differs between runs
+	    for (Source s : CONTACT.SOURCES) {
+		if (this.source.contains(s)) {
+		    writer.append(s.getSourceValue());
+		}
+	    }
+	}
+	writer.separator()
 
-		.append(this.name != null ? this.name : "").append(";").append(!sourceStr.isEmpty() ? sourceStr.toString() : "").append(";")
+		.append(this.sidc).separator().append(this.mmsi).separator().append(this.icao).separator()
 
-		.append(this.sidc != null ? String.valueOf(this.sidc) : "").append(";").append(this.mmsi != null ? this.mmsi : "").append(";").append(this.icao != null ? this.icao : "").append(";")
+		.appendBase64(this.multimediaData).separator();
 
-		.append(this.multimediaData != null ? Base64.toBase64String(this.multimediaData) : "").append(";")
+	if (this.comment != null) {
+	    writer.appendBase64(this.comment.getBytes());
+	}
+    }
 
-		.append((this.comment != null) ? Base64.toBase64String(this.comment.getBytes()) : "").toString());
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
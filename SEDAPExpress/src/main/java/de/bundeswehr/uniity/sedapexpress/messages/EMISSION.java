@@ -487,6 +487,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	super(message);
 
 	String value;
+	Double doubleValue;
+	Boolean flagValue;
 
 	// EmissionID
 	if (message.hasNext()) {
@@ -499,8 +501,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	// DeleteFlag
 	if (message.hasNext()) {
 	    value = message.next();
-	    if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.YES_NO_FLAG_MATCHER, value)) {
-		this.deleteFlag = DeleteFlag.valueOf(value);
+	    if ((flagValue = SEDAPExpressMessage.parseFlag(SEDAPExpressMessage.YES_NO_FLAG_MATCHER, value)) != null) {
+		this.deleteFlag = flagValue ? DeleteFlag.TRUE : DeleteFlag.FALSE;
 	    } else if (value.isBlank()) {
 		this.deleteFlag = DeleteFlag.FALSE;
 	    } else {
@@ -515,8 +517,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Mandatory field \"sensorLatitude\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.sensorLatitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.sensorLatitude = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Mandatory field \"sensorLatitude\" contains invalid value!", value);
 	    }
@@ -527,8 +529,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Mandatory field \"sensorLongitude\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.sensorLongitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.sensorLongitude = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Mandatory field \"sensorLongitude\" contains invalid value!", value);
 	    }
@@ -539,8 +541,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"sensorAltitude\" is empty!");
-	    } else if (!value.isEmpty() && SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.sensorAltitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.sensorAltitude = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"sensorAltitude\" contains invalid value!", value);
 	    }
@@ -551,8 +553,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"emitterLatitude\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.emitterLatitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.emitterLatitude = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"emitterLatitude\" contains invalid value!", value);
 	    }
@@ -563,8 +565,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"emitterLongitude\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.emitterLongitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.emitterLongitude = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"emitterLongitude\" contains invalid value!", value);
 	    }
@@ -575,8 +577,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"emitterAltitude\" is empty!");
-	    } else if (!value.isEmpty() && SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.emitterAltitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.emitterAltitude = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"emitterAltitude\" contains invalid value!", value);
 	    }
@@ -587,8 +589,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Mandatory field \"bearing\" is empty!");
-	    } else if (!value.isEmpty() && SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.BEARING_MATCHER, value)) {
-		this.bearing = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.BEARING_MATCHER, value)) != null) {
+		this.bearing = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Mandatory field \"bearing\" contains invalid value!", value);
 	    }
@@ -612,8 +614,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"bandwidth\" is empty!");
-	    } else if (!value.isEmpty() && SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.bandwidth = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.bandwidth = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"bandwidth\" contains invalid value!", value);
 	    }
@@ -624,8 +626,8 @@ public class EMISSION extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"power\" is empty!");
-	    } else if (!value.isEmpty() && SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.power = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.power = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "EMISSION", "EMISSION(Iterator<String> message)", "Optional field \"power\" contains invalid value!", value);
 	    }
@@ -746,35 +748,38 @@ public class EMISSION extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.EMISSION;
+    }
 
-	return SEDAPExpressMessage.removeSemicolons(serializeHeader()
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
 
-		.append((this.emissionID != null) ? this.emissionID : "").append(";")
+	serializeHeader(writer);
+	writer.append(this.emissionID).separator()
 
-		.append(this.deleteFlag != null ? this.deleteFlag : "").append(";")
+		.append(this.deleteFlag).separator()
 
-		.append(this.sensorLatitude != null ? SEDAPExpressMessage.numberFormatter.format(this.sensorLatitude) : "").append(";")
-		.append(this.sensorLongitude != null ? SEDAPExpressMessage.numberFormatter.format(this.sensorLongitude) : "").append(";")
-		.append(this.sensorAltitude != null ? SEDAPExpressMessage.numberFormatter.format(this.sensorAltitude) : "").append(";")
+		.appendNumber(this.sensorLatitude).separator().appendNumber(this.sensorLongitude).separator().appendNumber(this.sensorAltitude).separator()
 
-		.append(this.emitterLatitude != null ? SEDAPExpressMessage.numberFormatter.format(this.emitterLatitude) : "").append(";")
-		.append(this.emitterLongitude != null ? SEDAPExpressMessage.numberFormatter.format(this.emitterLongitude) : "").append(";")
-		.append(this.emitterAltitude != null ? SEDAPExpressMessage.numberFormatter.format(this.emitterAltitude) : "").append(";")
+		.appendNumber(this.emitterLatitude).separator().appendNumber(this.emitterLongitude).separator().appendNumber(this.emitterAltitude).separator()
 
-		.append(this.bearing != null ? SEDAPExpressMessage.numberFormatter.format(this.bearing) : "").append(";")
+		.appendNumber(this.bearing).separator()
 
-		.append(this.frequencies != null ? getStringFromList(this.frequencies) : "").append(";").append(this.bandwidth != null ? SEDAPExpressMessage.numberFormatter.format(this.bandwidth) : "").append(";")
-		.append(this.power != null ? SEDAPExpressMessage.numberFormatter.format(this.power) : "").append(";").append(this.freqAgility != null ? this.freqAgility : "").append(";")
-		.append(this.prfAgility != null ? this.prfAgility : "").append(";")
+		.appendNumbers(this.frequencies).separator().appendNumber(this.bandwidth).separator().appendNumber(this.power).separator().append(this.freqAgility).separator().append(this.prfAgility).separator()
 
-		.append(this.function != null ? this.function : "").append(";")
+		.append(this.function).separator()
 
-		.append(this.spotNumber != null ? this.spotNumber : "").append(";")
+		.append(this.spotNumber).separator()
 
-		.append(this.sidc != null ? String.valueOf(this.sidc) : "").append(";")
+		.append(this.sidc).separator()
 
-		.append(this.comment != null ? this.comment : "").toString());
+		.append(this.comment);
+    }
+
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
@@ -193,10 +193,20 @@ public class GENERIC extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.GENERIC;
+    }
+
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
 
-	return SEDAPExpressMessage.removeSemicolons(
-		serializeHeader().append((this.contentType != null) ? this.contentType : "").append(";").append((this.encoding != null) ? this.encoding : "").append(";").append((this.content != null) ? this.content : "").toString());
+	serializeHeader(writer);
+	writer.append(this.contentType).separator().append(this.encoding).separator().append(this.content);
+    }
+
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
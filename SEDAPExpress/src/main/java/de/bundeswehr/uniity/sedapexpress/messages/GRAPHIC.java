@@ -394,14 +394,26 @@ public class GRAPHIC extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.GRAPHIC;
+    }
+
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
+
+	serializeHeader(writer);
+	writer.append(this.graphicType).separator().appendNumber(this.lineWidth).separator().append(this.lineColor).separator().append(this.fillColor).separator().append(this.textColor).separator()
+		.append(this.encoding).separator();
+	if ((this.annotation != null) && (this.encoding == DataEncoding.BASE64)) {
+	    writer.appendBase64(this.annotation.getBytes());
+	} else {
+	    writer.append(this.annotation);
+	}
+    }
 
-	return SEDAPExpressMessage.removeSemicolons(
-		serializeHeader().append((this.graphicType != null) ? this.graphicType : "").append(";").append((this.lineWidth != null) ? SEDAPExpressMessage.numberFormatter.format(this.lineWidth) : "")
-			.append(";").append((this.lineColor != null) ? this.lineColor : "").append(";").append((this.fillColor != null) ? this.fillColor : "").append(";")
-			.append((this.textColor != null) ? this.textColor : "").append(";")
-			.append((this.encoding != null) ? this.encoding : "").append(";")
-			.append((this.annotation != null) ? ((this.encoding == DataEncoding.BASE64) ? Base64.toBase64String(this.annotation.getBytes()) : this.annotation) : "").toString());
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
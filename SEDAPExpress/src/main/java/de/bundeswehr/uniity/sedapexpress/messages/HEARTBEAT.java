@@ -174,10 +174,20 @@ public class HEARTBEAT extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.HEARTBEAT;
+    }
 
-	return SEDAPExpressMessage.removeSemicolons(serializeHeader().append(this.recipient != null ? this.recipient : "").toString());
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
 
+	serializeHeader(writer);
+	writer.append(this.recipient);
+    }
+
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
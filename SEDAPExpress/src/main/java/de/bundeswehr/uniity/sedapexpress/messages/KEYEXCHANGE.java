@@ -422,16 +422,27 @@ public class KEYEXCHANGE extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.KEYEXCHANGE;
+    }
 
-	return SEDAPExpressMessage.removeSemicolons(serializeHeader()
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
 
-		.append((this.algorithmType != null) ? this.algorithmType : "").append(";").append((this.phase != null) ? this.phase : "").append(";")
-		.append((this.keyLengthSharedSecret != null) ? this.keyLengthSharedSecret : "").append(";")
-		.append((this.keyLengthDHKEM != null) ? this.keyLengthDHKEM : "").append(";")
-		.append((this.primeNumber != null) ? this.primeNumber : "").append(";")
-		.append((this.naturalNumber != null) ? this.naturalNumber : "").append(";")
-		.append((this.iv != null) ? SEDAPExpressMessage.HexFormater.toHexDigits(this.iv, 16) : "").append(";")
-		.append((this.publicKey != null) ? SEDAPExpressMessage.HexFormater.formatHex(this.publicKey.getEncoded()) : "").toString());
+	serializeHeader(writer);
+	writer.append(this.algorithmType).separator().append(this.phase).separator().append(this.keyLengthSharedSecret).separator().append(this.keyLengthDHKEM).separator().append(this.primeNumber).separator()
+		.append(this.naturalNumber).separator();
+	if (this.iv != null) {
+	    writer.appendHex(this.iv, 16);
+	}
+	writer.separator();
+	if (this.publicKey != null) {
+	    writer.appendHex(this.publicKey.getEncoded());
+	}
+    }
+
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 }
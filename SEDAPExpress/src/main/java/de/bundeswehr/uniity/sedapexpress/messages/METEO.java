@@ -259,14 +259,15 @@ public class METEO extends SEDAPExpressMessage {
 	super(message);
 
 	String value;
+	Double doubleValue;
 
 	// SpeedThroughWater
 	if (message.hasNext()) {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"speedThroughWater\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.speedThroughWater = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.speedThroughWater = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"speedThroughWater\" contains invalid value!", value);
 	    }
@@ -277,8 +278,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"waterSpeed\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.waterSpeed = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.waterSpeed = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"waterSpeed\" contains invalid value!", value);
 	    }
@@ -289,8 +290,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"waterDirection\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.waterDirection = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.waterDirection = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"waterDirection\" contains invalid value!", value);
 	    }
@@ -301,8 +302,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"waterTemperature\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.waterTemperature = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.waterTemperature = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"waterTemperature\" contains invalid value!", value);
 	    }
@@ -313,8 +314,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"waterDepth\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.waterDepth = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.waterDepth = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"waterDepth\" contains invalid value!", value);
 	    }
@@ -325,8 +326,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"airTemperature\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.airTemperature = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.airTemperature = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"airTemperature\" contains invalid value!", value);
 	    }
@@ -337,8 +338,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"dewPoint\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.dewPoint = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.dewPoint = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"dewPoint\" contains invalid value!", value);
 	    }
@@ -349,8 +350,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"humidityRel\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.humidityRel = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.humidityRel = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"humidityRel\" contains invalid value!", value);
 	    }
@@ -361,8 +362,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"pressure\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.pressure = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.pressure = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"pressure\" contains invalid value!", value);
 	    }
@@ -373,8 +374,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"windSpeed\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.windSpeed = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.windSpeed = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"windSpeed\" contains invalid value!", value);
 	    }
@@ -385,8 +386,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"windDirection\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.windDirection = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.windDirection = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"windDirection\" contains invalid value!", value);
 	    }
@@ -397,8 +398,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"visibility\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.visibility = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.visibility = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"visibility\" contains invalid value!", value);
 	    }
@@ -409,8 +410,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"cloudHeight\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.cloudHeight = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.cloudHeight = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"cloudHeight\" contains invalid value!", value);
 	    }
@@ -421,8 +422,8 @@ public class METEO extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "METEO", "METEO(Iterator<String> message)", "Optional field \"cloudCover\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.cloudCover = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.cloudCover = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "METEO", "METEO(Iterator<String> message)", "Optional field \"cloudCover\" contains invalid value!", value);
 	    }
@@ -466,26 +467,31 @@ public class METEO extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.METEO;
+    }
 
-	return SEDAPExpressMessage.removeSemicolons(serializeHeader()
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
 
-		.append((this.speedThroughWater != null) ? SEDAPExpressMessage.numberFormatter.format(this.speedThroughWater) : "").append(";")
-		.append(this.waterSpeed != null ? SEDAPExpressMessage.numberFormatter.format(this.waterSpeed) : "").append(";").append(this.waterDirection != null ? SEDAPExpressMessage.numberFormatter.format(this.waterDirection) : "")
-		.append(";").append(this.waterTemperature != null ? SEDAPExpressMessage.numberFormatter.format(this.waterTemperature) : "").append(";")
-		.append(this.waterDepth != null ? SEDAPExpressMessage.numberFormatter.format(this.waterDepth) : "").append(";")
+	serializeHeader(writer);
+	writer.appendNumber(this.speedThroughWater).separator().appendNumber(this.waterSpeed).separator().appendNumber(this.waterDirection).separator().appendNumber(this.waterTemperature).separator()
+		.appendNumber(this.waterDepth).separator()
 
-		.append(this.airTemperature != null ? SEDAPExpressMessage.numberFormatter.format(this.airTemperature) : "").append(";").append(this.dewPoint != null ? SEDAPExpressMessage.numberFormatter.format(this.dewPoint) : "")
-		.append(";").append(this.humidityRel != null ? SEDAPExpressMessage.numberFormatter.format(this.humidityRel) : "").append(";").append(this.pressure != null ? SEDAPExpressMessage.numberFormatter.format(this.pressure) : "")
-		.append(";")
+		.appendNumber(this.airTemperature).separator().appendNumber(this.dewPoint).separator().appendNumber(this.humidityRel).separator().appendNumber(this.pressure).separator()
 
-		.append(this.windSpeed != null ? SEDAPExpressMessage.numberFormatter.format(this.windSpeed) : "").append(";").append(this.windDirection != null ? SEDAPExpressMessage.numberFormatter.format(this.windDirection) : "")
-		.append(";")
+		.appendNumber(this.windSpeed).separator().appendNumber(this.windDirection).separator()
 
-		.append(this.visibility != null ? SEDAPExpressMessage.numberFormatter.format(this.visibility) : "").append(";").append(this.cloudHeight != null ? SEDAPExpressMessage.numberFormatter.format(this.cloudHeight) : "").append(";")
-		.append(this.cloudCover != null ? SEDAPExpressMessage.numberFormatter.format(this.cloudCover) : "")
-		
-		.append((this.reference != null) ? ";" + this.reference : "").toString());
+		.appendNumber(this.visibility).separator().appendNumber(this.cloudHeight).separator().appendNumber(this.cloudCover);
+
+	if (this.reference != null) {
+	    writer.separator().append(this.reference);
+	}
+    }
+
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
@@ -209,14 +209,15 @@ public class OWNUNIT extends SEDAPExpressMessage {
 	super(message);
 
 	String value;
+	Double doubleValue;
 
 	// Latitude
 	if (message.hasNext()) {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Mandatory field \"latitude\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.latitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.latitude = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Mandatory field \"longitude\" contains invalid value!", value);
 	    }
@@ -227,8 +228,8 @@ public class OWNUNIT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Mandatory field \"longitude\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.longitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.longitude = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Mandatory field \"longitude\" contains invalid value!", value);
 	    }
@@ -239,8 +240,8 @@ public class OWNUNIT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"altitude\" is empty!");
-	    } else if (!value.isEmpty() && SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.altitude = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.altitude = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"altitude\" contains invalid value!", value);
 	    }
@@ -251,8 +252,8 @@ public class OWNUNIT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"speed\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.speed = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.speed = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"speed\" contains invalid value!", value);
 	    }
@@ -263,8 +264,8 @@ public class OWNUNIT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"course\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.course = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.course = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"course\" contains invalid value!", value);
 	    }
@@ -275,8 +276,8 @@ public class OWNUNIT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"heading\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.BEARING_MATCHER, value)) {
-		this.heading = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.BEARING_MATCHER, value)) != null) {
+		this.heading = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"heading\" contains invalid value!", value);
 	    }
@@ -287,8 +288,8 @@ public class OWNUNIT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"roll\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.roll = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.roll = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"roll\" contains invalid value!", value);
 	    }
@@ -299,8 +300,8 @@ public class OWNUNIT extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.INFO, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"pitch\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.DOUBLE_MATCHER, value)) {
-		this.pitch = Double.valueOf(value);
+	    } else if ((doubleValue = SEDAPExpressMessage.parseDouble(SEDAPExpressMessage.DOUBLE_MATCHER, value)) != null) {
+		this.pitch = doubleValue;
 	    } else {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "OWNUNIT", "OWNUNIT(Iterator<String> message)", "Optional field \"pitch\" contains invalid value!", value);
 	    }
@@ -357,22 +358,28 @@ public class OWNUNIT extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.OWNUNIT;
+    }
 
-	return SEDAPExpressMessage.removeSemicolons(serializeHeader()
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
 
-		.append((this.latitude != null) ? SEDAPExpressMessage.numberFormatter.format(this.latitude) : "").append(";").append(this.longitude != null ? SEDAPExpressMessage.numberFormatter.format(this.longitude) : "").append(";")
-		.append(this.altitude != null ? SEDAPExpressMessage.numberFormatter.format(this.altitude) : "").append(";")
+	serializeHeader(writer);
+	writer.appendNumber(this.latitude).separator().appendNumber(this.longitude).separator().appendNumber(this.altitude).separator()
 
-		.append(this.speed != null ? SEDAPExpressMessage.numberFormatter.format(this.speed) : "").append(";").append(this.course != null ? SEDAPExpressMessage.numberFormatter.format(this.course) : "").append(";")
+		.appendNumber(this.speed).separator().appendNumber(this.course).separator()
 
-		.append(this.heading != null ? SEDAPExpressMessage.numberFormatter.format(this.heading) : "").append(";").append(this.roll != null ? SEDAPExpressMessage.numberFormatter.format(this.roll) : "").append(";")
-		.append(this.pitch != null ? SEDAPExpressMessage.numberFormatter.format(this.pitch) : "").append(";")
+		.appendNumber(this.heading).separator().appendNumber(this.roll).separator().appendNumber(this.pitch).separator()
 
-		.append(this.name != null ? this.name : "").append(";")
+		.append(this.name).separator()
 
-		.append(this.sidc != null ? String.valueOf(this.sidc) : "").toString());
+		.append(this.sidc);
+    }
 
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
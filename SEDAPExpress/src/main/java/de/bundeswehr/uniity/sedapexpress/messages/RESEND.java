@@ -120,6 +120,7 @@ public class RESEND extends SEDAPExpressMessage {
 	super(message);
 
 	String value;
+	Byte byteValue;
 
 	// Recipient
 	if (message.hasNext()) {
@@ -150,8 +151,8 @@ public class RESEND extends SEDAPExpressMessage {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "RESEND", "RESEND(Iterator<String> message)", "Mandatory field \"numberOfTheMissingMessage\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.NUMBER_MATCHER, value)) {
-		this.numberOfTheMissingMessage = Byte.parseByte(value, 16);
+	    } else if ((byteValue = SEDAPExpressMessage.parseHexByte(SEDAPExpressMessage.NUMBER_MATCHER, value)) != null) {
+		this.numberOfTheMissingMessage = byteValue;
 	    } else if (!value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "RESEND", "RESEND(Iterator<String> message)", "Mandatory field \"numberOfTheMissingMessage\" contains invalid value!", value);
 	    }
@@ -181,10 +182,24 @@ public class RESEND extends SEDAPExpressMessage {
 	return super.hashCode();
     }
 
+    @Override
+    public MessageType getMessageType() {
+	return MessageType.RESEND;
+    }
+
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
+
+	serializeHeader(writer);
+	writer.append(this.recipient).separator().append(this.nameOfTheMissingMessage).separator();
+	if (this.numberOfTheMissingMessage != null) {
+	    writer.appendHex(this.numberOfTheMissingMessage, 2);
+	}
+    }
+
     @Override
     public String toString() {
-	return SEDAPExpressMessage.removeSemicolons(serializeHeader().append((this.recipient != null) ? this.recipient : "").append(";").append((this.nameOfTheMissingMessage != null) ? this.nameOfTheMissingMessage : "").append(";")
-		.append((this.numberOfTheMissingMessage != null) ? SEDAPExpressMessage.HexFormater.toHexDigits(this.numberOfTheMissingMessage) : "").toString());
+	return serializeToString();
     }
 
 }
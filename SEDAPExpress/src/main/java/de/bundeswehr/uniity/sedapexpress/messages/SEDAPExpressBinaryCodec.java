@@ -0,0 +1,1038 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import de.bundeswehr.uniity.sedapexpress.messages.CONTACT.Source;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Acknowledgement;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Classification;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.DeleteFlag;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+
+/**
+ * Compact binary encoding of SEDAP-Express messages for narrowband links. A message consists of
+ * <ul>
+ * <li>the ordinal of its message type (1 byte),</li>
+ * <li>a presence bitmap as varint, one bit per field, so empty fields take no space,</li>
+ * <li>the present fields in the order of the text format.</li>
+ * </ul>
+ * Coordinates and other decimal values are written as zigzag varints of fixed-point numbers (latitude/longitude in 1e-7 degrees, other values in hundredths). A value with more decimal places is written
+ * as IEEE double behind a marker, so the encoding is lossless. Enumerations are written as ordinals, multimedia data and comments as raw bytes instead of Base64. Strings of uppercase hexadecimal digits
+ * (e.g. sender, MAC, contact ID) take half their length.<br>
+ * CONTACT and OWNUNIT are encoded field by field, the content of all other message types follows the binary header as text. Instances are not thread-safe, the buffers are reused for all messages.
+ * <p>
+ * With delta encoding, an instance holds the state of one link: the encoder remembers the fields last sent per contact (key: sender and contact ID) and per own unit (key: sender), and sends only the
+ * fields that have changed since then, together with the sender and contact ID. The type byte of such a delta frame has its highest bit set, a second bitmap behind the presence bitmap marks the
+ * fields, which have been removed. Every {@link #setKeyframeInterval(int, long) n-th update} or after a maximum age the complete message is sent as keyframe again, which is the normal encoding. The
+ * decoder merges a delta frame into the fields of the last keyframe and returns the complete message. Delta frames without preceding keyframe are dropped until the next keyframe arrives.
+ *
+ * @author Volker Voß
+ *
+ */
+public final class SEDAPExpressBinaryCodec {
+
+    /** Scale of latitudes and longitudes, about 1 cm */
+    static final double COORDINATE_SCALE = 1e7;
+
+    /** Scale of all other decimal values */
+    static final double VALUE_SCALE = 100;
+
+    // Presence bits of the header
+    private static final int NUMBER = 0;
+    private static final int TIME = 1;
+    private static final int SENDER = 2;
+    private static final int CLASSIFICATION = 3;
+    private static final int ACKNOWLEDGEMENT = 4;
+    private static final int ACKNOWLEDGEMENT_TRUE = 5;
+    private static final int MAC = 6;
+
+    /** First presence bit of the content */
+    private static final int CONTENT = 7;
+
+    /** Marker of a delta frame in the type byte */
+    private static final int DELTA = 0x80;
+
+    /** Default number of updates, after which a keyframe is sent */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 10;
+
+    /** Default maximum age of a keyframe in milliseconds */
+    public static final long DEFAULT_KEYFRAME_AGE = 10000;
+
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+    private static final Classification[] CLASSIFICATIONS = Classification.values();
+    private static final Source[] SOURCES = Source.values();
+
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    /** Fields of the message, written behind the presence bitmap */
+    private byte[] body = new byte[256];
+
+    private int position;
+
+    private long bitmap;
+
+    private byte[] data;
+
+    private int offset;
+
+    private int end;
+
+    /** Start of every field set or read, in the body when encoding and in the data when decoding */
+    private final int[] fieldStart = new int[Long.SIZE];
+
+    /** Fields read by the last decoding */
+    private long visited;
+
+    // Frame of the last encoded message
+    private int frameType;
+    private long frameBitmap;
+    private long frameCleared;
+    private byte[] frameData;
+    private int frameLength;
+
+    /** Buffer of delta frames and of complete messages rebuilt from delta frames */
+    private byte[] delta = new byte[256];
+
+    private boolean deltaEncoding = false;
+
+    private int keyframeInterval = SEDAPExpressBinaryCodec.DEFAULT_KEYFRAME_INTERVAL;
+
+    private long keyframeAge = SEDAPExpressBinaryCodec.DEFAULT_KEYFRAME_AGE;
+
+    /** Fields last sent per contact and own unit */
+    private final Map<String, FieldState> sentStates = new HashMap<>();
+
+    /** Fields last received per contact and own unit */
+    private final Map<String, FieldState> receivedStates = new HashMap<>();
+
+    /** State of the last encoded message, stored as soon as the message has been written */
+    private String pendingKey;
+    private FieldState pendingState;
+
+    private long deltaFrames = 0;
+
+    private long missingKeyframes = 0;
+
+    /**
+     * Encoded fields of a contact or own unit
+     */
+    private static final class FieldState {
+
+	private final MessageType type;
+
+	private long bitmap;
+
+	private final byte[][] fields;
+
+	private int updates = 0;
+
+	private final long keyframeTime;
+
+	private FieldState(MessageType type, long bitmap, byte[][] fields, long keyframeTime) {
+	    this.type = type;
+	    this.bitmap = bitmap;
+	    this.fields = fields;
+	    this.keyframeTime = keyframeTime;
+	}
+    }
+
+    /**
+     * Enables or disables delta encoding of CONTACT and OWNUNIT messages. Both sides of a link have to use the same setting. The states of all contacts are cleared, so the next update of every contact
+     * is sent as keyframe.
+     *
+     * @param enabled true, if only changed fields should be sent
+     */
+    public void setDeltaEncoding(boolean enabled) {
+
+	this.deltaEncoding = enabled;
+	resetStates();
+    }
+
+    /**
+     * Returns if delta encoding is enabled
+     *
+     * @return true, if only changed fields are sent
+     */
+    public boolean isDeltaEncoding() {
+	return this.deltaEncoding;
+    }
+
+    /**
+     * Sets when a contact is sent completely again, so a receiver, which has missed a keyframe, can rebuild the contact
+     *
+     * @param updates Number of updates from keyframe to keyframe, 1 sends only keyframes
+     * @param maxAge  Maximum age of a keyframe in milliseconds
+     */
+    public void setKeyframeInterval(int updates, long maxAge) {
+
+	if ((updates <= 0) || (maxAge < 0)) {
+	    throw new IllegalArgumentException("Invalid keyframe interval: updates=" + updates + " age=" + maxAge);
+	}
+
+	this.keyframeInterval = updates;
+	this.keyframeAge = maxAge;
+    }
+
+    /**
+     * Forgets the states of all contacts, e.g. after a receiver has joined the link. The next update of every contact is sent as keyframe.
+     */
+    public void resetStates() {
+
+	this.sentStates.clear();
+	this.receivedStates.clear();
+	this.pendingKey = null;
+    }
+
+    /**
+     * Returns the number of delta frames encoded or decoded
+     *
+     * @return Number of delta frames
+     */
+    public long getDeltaFrames() {
+	return this.deltaFrames;
+    }
+
+    /**
+     * Returns the number of delta frames dropped, because the keyframe of the contact has not been received
+     *
+     * @return Number of dropped delta frames
+     */
+    public long getMissingKeyframes() {
+	return this.missingKeyframes;
+    }
+
+    /**
+     * Encodes a message
+     *
+     * @param message Message
+     * @return encoded message without length prefix
+     */
+    public byte[] encode(SEDAPExpressMessage message) {
+
+	encodeFrame(message);
+
+	final byte[] result = new byte[getFrameHeaderSize() + this.frameLength];
+	result[0] = (byte) this.frameType;
+	int start = SEDAPExpressBinaryCodec.putVarint(result, 1, this.frameBitmap);
+	if ((this.frameType & SEDAPExpressBinaryCodec.DELTA) != 0) {
+	    start = SEDAPExpressBinaryCodec.putVarint(result, start, this.frameCleared);
+	}
+	System.arraycopy(this.frameData, 0, result, start, this.frameLength);
+	commitState();
+	return result;
+    }
+
+    /**
+     * Encodes a message with its length as varint in front into a buffer, so several messages can follow each other
+     *
+     * @param message Message
+     * @param buffer  destination, written from its current position
+     * @return number of bytes written
+     * @throws BufferOverflowException if the message does not fit, the position of the buffer is left unchanged
+     */
+    public int encode(SEDAPExpressMessage message, ByteBuffer buffer) {
+
+	encodeFrame(message);
+
+	final int length = getFrameHeaderSize() + this.frameLength;
+	final int total = SEDAPExpressBinaryCodec.varintSize(length) + length;
+	if (buffer.remaining() < total) {
+	    // The state is kept, so the same frame is encoded again into the next buffer
+	    throw new BufferOverflowException();
+	}
+
+	SEDAPExpressBinaryCodec.putVarint(buffer, length);
+	buffer.put((byte) this.frameType);
+	SEDAPExpressBinaryCodec.putVarint(buffer, this.frameBitmap);
+	if ((this.frameType & SEDAPExpressBinaryCodec.DELTA) != 0) {
+	    SEDAPExpressBinaryCodec.putVarint(buffer, this.frameCleared);
+	}
+	buffer.put(this.frameData, 0, this.frameLength);
+	commitState();
+	return total;
+    }
+
+    /**
+     * Decodes a message
+     *
+     * @param data   Buffer
+     * @param offset Start of the message
+     * @param length Length of the message without length prefix
+     * @return decoded message, null if the data is no valid message
+     */
+    public SEDAPExpressMessage decode(byte[] data, int offset, int length) {
+
+	this.data = data;
+	this.offset = offset;
+	this.end = offset + length;
+
+	try {
+	    final int typeByte = readByte();
+	    final MessageType type = SEDAPExpressBinaryCodec.readOrdinal(SEDAPExpressBinaryCodec.MESSAGE_TYPES, typeByte & ~SEDAPExpressBinaryCodec.DELTA);
+	    this.bitmap = readVarint();
+	    final boolean isDelta = (typeByte & SEDAPExpressBinaryCodec.DELTA) != 0;
+	    final long cleared = isDelta ? readVarint() : 0;
+
+	    this.visited = 0;
+	    final SEDAPExpressMessage message = decodeBody(type);
+	    if (this.offset != this.end) {
+		throw new IllegalArgumentException((this.end - this.offset) + " bytes left");
+	    }
+
+	    if (isDelta) {
+		return decodeDelta(type, message, cleared);
+	    }
+	    if (this.deltaEncoding) {
+		storeKeyframe(type, message);
+	    }
+	    return message;
+	} catch (RuntimeException e) {
+	    SEDAPExpressMessage.logger.logp(Level.WARNING, "SEDAPExpressBinaryCodec", "decode()", "Invalid binary message: " + e.getLocalizedMessage());
+	    return null;
+	} finally {
+	    this.data = null;
+	}
+    }
+
+    /**
+     * Decodes length prefixed messages, which follow each other. Invalid messages are skipped, decoding stops at an invalid length prefix.
+     *
+     * @param data     Buffer
+     * @param offset   Start of the first message
+     * @param length   Length of all messages
+     * @param consumer Receiver of the decoded messages
+     * @return Number of decoded messages
+     */
+    public int decodeAll(byte[] data, int offset, int length, Consumer<SEDAPExpressMessage> consumer) {
+
+	int messages = 0;
+	final int last = offset + length;
+	int start = offset;
+	while (start < last) {
+	    this.data = data;
+	    this.offset = start;
+	    this.end = last;
+
+	    final int messageLength;
+	    try {
+		messageLength = (int) readVarint();
+	    } catch (RuntimeException e) {
+		SEDAPExpressMessage.logger.logp(Level.WARNING, "SEDAPExpressBinaryCodec", "decodeAll()", "Invalid length prefix");
+		break;
+	    }
+	    if ((messageLength <= 0) || (messageLength > (last - this.offset))) {
+		SEDAPExpressMessage.logger.logp(Level.WARNING, "SEDAPExpressBinaryCodec", "decodeAll()", "Invalid length prefix " + messageLength);
+		break;
+	    }
+
+	    start = this.offset + messageLength;
+	    final SEDAPExpressMessage message = decode(data, this.offset, messageLength);
+	    if (message != null) {
+		consumer.accept(message);
+		messages++;
+	    }
+	}
+	this.data = null;
+	return messages;
+    }
+
+    private void encodeFrame(SEDAPExpressMessage message) {
+
+	encodeBody(message);
+
+	this.frameType = message.getMessageType().ordinal();
+	this.frameBitmap = this.bitmap;
+	this.frameData = this.body;
+	this.frameLength = this.position;
+	this.pendingKey = null;
+
+	if (!this.deltaEncoding) {
+	    return;
+	}
+
+	final String key = SEDAPExpressBinaryCodec.getStateKey(message);
+	if (key == null) {
+	    return;
+	}
+
+	final byte[][] fields = split(this.body, this.bitmap, this.position);
+	final FieldState state = this.sentStates.get(key);
+	final long now = System.currentTimeMillis();
+	this.pendingKey = key;
+
+	if ((message instanceof CONTACT contact) && (contact.getDeleteFlag() == DeleteFlag.TRUE)) {
+	    // Deleted contacts are sent completely and forgotten
+	    this.pendingState = null;
+	    return;
+	}
+
+	if ((state == null) || (state.type != message.getMessageType()) || ((state.updates + 1) >= this.keyframeInterval) || ((now - state.keyframeTime) >= this.keyframeAge)) {
+	    this.pendingState = new FieldState(message.getMessageType(), this.bitmap, fields, now);
+	    return;
+	}
+
+	// Changed fields and the key
+	long included = this.bitmap & SEDAPExpressBinaryCodec.getKeyBits(message.getMessageType());
+	for (long bits = this.bitmap; bits != 0; bits &= bits - 1) {
+	    final int bit = Long.numberOfTrailingZeros(bits);
+	    if (((state.bitmap & (1L << bit)) == 0) || !Arrays.equals(state.fields[bit], fields[bit])) {
+		included |= 1L << bit;
+	    }
+	}
+
+	this.frameType |= SEDAPExpressBinaryCodec.DELTA;
+	this.frameBitmap = included;
+	this.frameCleared = state.bitmap & ~this.bitmap;
+	this.frameLength = assemble(fields, included);
+	this.frameData = this.delta;
+
+	this.pendingState = new FieldState(message.getMessageType(), this.bitmap, fields, state.keyframeTime);
+	this.pendingState.updates = state.updates + 1;
+    }
+
+    private int getFrameHeaderSize() {
+	return 1 + SEDAPExpressBinaryCodec.varintSize(this.frameBitmap) + (((this.frameType & SEDAPExpressBinaryCodec.DELTA) != 0) ? SEDAPExpressBinaryCodec.varintSize(this.frameCleared) : 0);
+    }
+
+    /**
+     * Stores the state of the last encoded message after it has been written
+     */
+    private void commitState() {
+
+	if (this.pendingKey == null) {
+	    return;
+	}
+
+	if (this.pendingState == null) {
+	    this.sentStates.remove(this.pendingKey);
+	} else {
+	    this.sentStates.put(this.pendingKey, this.pendingState);
+	}
+	if ((this.frameType & SEDAPExpressBinaryCodec.DELTA) != 0) {
+	    this.deltaFrames++;
+	}
+	this.pendingKey = null;
+	this.pendingState = null;
+    }
+
+    private void storeKeyframe(MessageType type, SEDAPExpressMessage message) {
+
+	final String key = SEDAPExpressBinaryCodec.getStateKey(message);
+	if (key == null) {
+	    return;
+	}
+
+	if ((message instanceof CONTACT contact) && (contact.getDeleteFlag() == DeleteFlag.TRUE)) {
+	    this.receivedStates.remove(key);
+	} else {
+	    this.receivedStates.put(key, new FieldState(type, this.bitmap, split(this.data, this.bitmap, this.end), 0));
+	}
+    }
+
+    /**
+     * Merges a delta frame into the last state of the contact and decodes the complete message
+     */
+    private SEDAPExpressMessage decodeDelta(MessageType type, SEDAPExpressMessage changes, long cleared) {
+
+	if (!this.deltaEncoding) {
+	    throw new IllegalArgumentException("Delta frame without delta encoding");
+	}
+
+	final String key = SEDAPExpressBinaryCodec.getStateKey(changes);
+	if (key == null) {
+	    throw new IllegalArgumentException("Delta frame without key");
+	}
+
+	final FieldState state = this.receivedStates.get(key);
+	if ((state == null) || (state.type != type)) {
+	    this.missingKeyframes++;
+	    throw new IllegalArgumentException("No keyframe of " + key);
+	}
+
+	final byte[][] fields = split(this.data, this.bitmap, this.end);
+	for (long bits = cleared; bits != 0; bits &= bits - 1) {
+	    state.fields[Long.numberOfTrailingZeros(bits)] = null;
+	}
+	for (long bits = this.bitmap; bits != 0; bits &= bits - 1) {
+	    final int bit = Long.numberOfTrailingZeros(bits);
+	    state.fields[bit] = fields[bit];
+	}
+	state.bitmap = (state.bitmap & ~cleared) | this.bitmap;
+	this.deltaFrames++;
+
+	this.data = this.delta;
+	this.offset = 0;
+	this.end = assemble(state.fields, state.bitmap);
+	this.bitmap = state.bitmap;
+	final SEDAPExpressMessage message = decodeBody(type);
+	if (this.offset != this.end) {
+	    throw new IllegalArgumentException("Invalid state of " + key);
+	}
+	return message;
+    }
+
+    /**
+     * Copies the fields of an encoded message, the fields are ordered by their presence bit
+     *
+     * @param source Buffer of the fields
+     * @param fields Presence bitmap
+     * @param limit  End of the last field
+     * @return Fields indexed by their presence bit
+     */
+    private byte[][] split(byte[] source, long fields, int limit) {
+
+	if ((this.data == source) && ((this.visited & fields) != fields)) {
+	    throw new IllegalArgumentException("Unknown fields " + Long.toHexString(fields & ~this.visited));
+	}
+
+	final byte[][] result = new byte[Long.SIZE][];
+	for (long bits = fields; bits != 0;) {
+	    final int bit = Long.numberOfTrailingZeros(bits);
+	    bits &= bits - 1;
+	    final int fieldEnd = (bits != 0) ? this.fieldStart[Long.numberOfTrailingZeros(bits)] : limit;
+	    result[bit] = Arrays.copyOfRange(source, this.fieldStart[bit], fieldEnd);
+	}
+	return result;
+    }
+
+    /**
+     * Concatenates fields into the delta buffer
+     *
+     * @return Length of the fields
+     */
+    private int assemble(byte[][] fields, long present) {
+
+	int length = 0;
+	for (long bits = present; bits != 0; bits &= bits - 1) {
+	    length += fields[Long.numberOfTrailingZeros(bits)].length;
+	}
+	if (length > this.delta.length) {
+	    this.delta = new byte[Math.max(this.delta.length * 2, length)];
+	}
+
+	int start = 0;
+	for (long bits = present; bits != 0; bits &= bits - 1) {
+	    final byte[] field = fields[Long.numberOfTrailingZeros(bits)];
+	    System.arraycopy(field, 0, this.delta, start, field.length);
+	    start += field.length;
+	}
+	return length;
+    }
+
+    /**
+     * Returns the key of the state of a message, null if the message has no state
+     */
+    private static String getStateKey(SEDAPExpressMessage message) {
+
+	if (message.getSender() == null) {
+	    return null;
+	}
+
+	return switch (message.getMessageType()) {
+	case CONTACT -> (((CONTACT) message).getContactID() != null) ? "CONTACT;" + message.getSender() + ";" + ((CONTACT) message).getContactID() : null;
+	case OWNUNIT -> "OWNUNIT;" + message.getSender();
+	default -> null;
+	};
+    }
+
+    /**
+     * Returns the presence bits of the key, which are part of every delta frame
+     */
+    private static long getKeyBits(MessageType type) {
+	return (1L << SEDAPExpressBinaryCodec.SENDER) | ((type == MessageType.CONTACT) ? (1L << SEDAPExpressBinaryCodec.CONTENT) : 0);
+    }
+
+    private void encodeBody(SEDAPExpressMessage message) {
+
+	this.position = 0;
+	this.bitmap = 0;
+
+	if (message.getNumber() != null) {
+	    setBit(SEDAPExpressBinaryCodec.NUMBER);
+	    writeByte(message.getNumber());
+	}
+	if (message.getTime() != null) {
+	    setBit(SEDAPExpressBinaryCodec.TIME);
+	    writeVarint(message.getTime());
+	}
+	if (message.getSender() != null) {
+	    setBit(SEDAPExpressBinaryCodec.SENDER);
+	    writeString(message.getSender());
+	}
+	if (message.getClassification() != null) {
+	    setBit(SEDAPExpressBinaryCodec.CLASSIFICATION);
+	    writeByte(message.getClassification().ordinal());
+	}
+	if (message.getAcknowledgement() != null) {
+	    setBit(SEDAPExpressBinaryCodec.ACKNOWLEDGEMENT);
+	    if (message.getAcknowledgement() == Acknowledgement.TRUE) {
+		setBit(SEDAPExpressBinaryCodec.ACKNOWLEDGEMENT_TRUE);
+	    }
+	}
+	if (message.getMAC() != null) {
+	    setBit(SEDAPExpressBinaryCodec.MAC);
+	    writeString(message.getMAC());
+	}
+
+	int bit = SEDAPExpressBinaryCodec.CONTENT;
+	switch (message.getMessageType()) {
+
+	case CONTACT -> {
+	    final CONTACT contact = (CONTACT) message;
+	    writeString(bit++, contact.getContactID());
+	    if (contact.getDeleteFlag() != null) {
+		setBit(bit);
+		if (contact.getDeleteFlag() == DeleteFlag.TRUE) {
+		    setBit(bit + 1);
+		}
+	    }
+	    bit += 2;
+	    writeScaled(bit++, contact.getLatitude(), SEDAPExpressBinaryCodec.COORDINATE_SCALE);
+	    writeScaled(bit++, contact.getLongitude(), SEDAPExpressBinaryCodec.COORDINATE_SCALE);
+	    writeScaled(bit++, contact.getAltitude(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getRelativeXDistance(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getRelativeYDistance(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getRelativeZDistance(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getSpeed(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getCourse(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getHeading(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getRoll(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getPitch(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getWidth(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getLength(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, contact.getHeight(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeString(bit++, contact.getName());
+	    if ((contact.getSource() != null) && !contact.getSource().isEmpty()) {
+		// One bit per ordinal
+		setBit(bit);
+		long sources = 0;
+		for (Source source : contact.getSource()) {
+		    sources |= 1L << source.ordinal();
+		}
+		writeVarint(sources);
+	    }
+	    bit++;
+	    writeString(bit++, (contact.getSIDC() != null) ? String.valueOf(contact.getSIDC()) : null);
+	    writeString(bit++, contact.getMMSI());
+	    writeString(bit++, contact.getICAO());
+	    writeBytes(bit++, contact.getMultimediaData());
+	    writeBytes(bit, (contact.getComment() != null) ? contact.getComment().getBytes(StandardCharsets.UTF_8) : null);
+	}
+
+	case OWNUNIT -> {
+	    final OWNUNIT ownUnit = (OWNUNIT) message;
+	    writeScaled(bit++, ownUnit.getLatitude(), SEDAPExpressBinaryCodec.COORDINATE_SCALE);
+	    writeScaled(bit++, ownUnit.getLongitude(), SEDAPExpressBinaryCodec.COORDINATE_SCALE);
+	    writeScaled(bit++, ownUnit.getAltitude(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, ownUnit.getSpeed(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, ownUnit.getCourse(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, ownUnit.getHeading(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, ownUnit.getRoll(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeScaled(bit++, ownUnit.getPitch(), SEDAPExpressBinaryCodec.VALUE_SCALE);
+	    writeString(bit++, ownUnit.getName());
+	    writeString(bit, (ownUnit.getSIDC() != null) ? String.valueOf(ownUnit.getSIDC()) : null);
+	}
+
+	default -> {
+	    // The text format behind the header fields
+	    final String text = message.toString();
+	    int start = 0;
+	    for (int separators = 0; (separators < 7) && (start >= 0); separators++) {
+		start = text.indexOf(';', start) + 1;
+		if (start == 0) {
+		    start = -1;
+		}
+	    }
+	    if ((start > 0) && (start < text.length())) {
+		writeBytes(bit, text.substring(start).getBytes(StandardCharsets.UTF_8));
+	    }
+	}
+	}
+    }
+
+    private SEDAPExpressMessage decodeBody(MessageType type) {
+
+	final Byte number = isSet(SEDAPExpressBinaryCodec.NUMBER) ? (byte) readByte() : null;
+	final Long time = isSet(SEDAPExpressBinaryCodec.TIME) ? readVarint() : null;
+	final String sender = isSet(SEDAPExpressBinaryCodec.SENDER) ? readString() : null;
+	final Classification classification = isSet(SEDAPExpressBinaryCodec.CLASSIFICATION) ? SEDAPExpressBinaryCodec.readOrdinal(SEDAPExpressBinaryCodec.CLASSIFICATIONS, readByte()) : null;
+	// Both bits are read, so a delta frame may contain one of them
+	final boolean acknowledged = isSet(SEDAPExpressBinaryCodec.ACKNOWLEDGEMENT);
+	final boolean acknowledgedTrue = isSet(SEDAPExpressBinaryCodec.ACKNOWLEDGEMENT_TRUE);
+	final Acknowledgement acknowledgement = acknowledged ? (acknowledgedTrue ? Acknowledgement.TRUE : Acknowledgement.FALSE) : null;
+	final String mac = isSet(SEDAPExpressBinaryCodec.MAC) ? readString() : null;
+
+	int bit = SEDAPExpressBinaryCodec.CONTENT;
+	final SEDAPExpressMessage message;
+	switch (type) {
+
+	case CONTACT -> {
+	    final CONTACT contact = new CONTACT();
+	    contact.setContactID(readString(bit++));
+	    final boolean deleteFlag = isSet(bit);
+	    final boolean deleted = isSet(bit + 1);
+	    if (deleteFlag) {
+		contact.setDeleteFlag(DeleteFlag.getValueOfDeleteFlag(deleted));
+	    }
+	    bit += 2;
+	    contact.setLatitude(readScaled(bit++, SEDAPExpressBinaryCodec.COORDINATE_SCALE));
+	    contact.setLongitude(readScaled(bit++, SEDAPExpressBinaryCodec.COORDINATE_SCALE));
+	    contact.setAltitude(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setRelativeXDistance(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setRelativeYDistance(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setRelativeZDistance(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setSpeed(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setCourse(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setHeading(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setRoll(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setPitch(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setWidth(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setLength(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setHeight(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    contact.setName(readString(bit++));
+	    if (isSet(bit)) {
+		final long sources = readVarint();
+		final Set<Source> source = EnumSet.noneOf(Source.class);
+		for (Source value : SEDAPExpressBinaryCodec.SOURCES) {
+		    if ((sources & (1L << value.ordinal())) != 0) {
+			source.add(value);
+		    }
+		}
+		contact.setSource(source);
+	    }
+	    bit++;
+	    final String sidc = readString(bit++);
+	    contact.setSIDC((sidc != null) ? sidc.toCharArray() : null);
+	    contact.setMMSI(readString(bit++));
+	    contact.setICAO(readString(bit++));
+	    contact.setMultimediaData(readBytes(bit++));
+	    final byte[] comment = readBytes(bit);
+	    contact.setComment((comment != null) ? new String(comment, StandardCharsets.UTF_8) : null);
+	    message = contact;
+	}
+
+	case OWNUNIT -> {
+	    final OWNUNIT ownUnit = new OWNUNIT();
+	    ownUnit.setLatitude(readScaled(bit++, SEDAPExpressBinaryCodec.COORDINATE_SCALE));
+	    ownUnit.setLongitude(readScaled(bit++, SEDAPExpressBinaryCodec.COORDINATE_SCALE));
+	    ownUnit.setAltitude(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    ownUnit.setSpeed(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    ownUnit.setCourse(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    ownUnit.setHeading(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    ownUnit.setRoll(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    ownUnit.setPitch(readScaled(bit++, SEDAPExpressBinaryCodec.VALUE_SCALE));
+	    ownUnit.setName(readString(bit++));
+	    final String sidc = readString(bit);
+	    ownUnit.setSIDC((sidc != null) ? sidc.toCharArray() : null);
+	    message = ownUnit;
+	}
+
+	default -> {
+	    // Parsed by the text format with its header, which is replaced by the decoded values afterwards
+	    final byte[] content = readBytes(bit);
+	    final StringBuilder text = new StringBuilder(type.name()).append(';');
+	    if (number != null) {
+		text.append(SEDAPExpressBinaryCodec.HEX.toHexDigits(number));
+	    }
+	    text.append(';');
+	    if (time != null) {
+		text.append(SEDAPExpressBinaryCodec.HEX.toHexDigits(time).substring(4));
+	    }
+	    text.append(';').append((sender != null) ? sender : "").append(';');
+	    if (classification != null) {
+		text.append(classification.getClassification());
+	    }
+	    text.append(';').append((acknowledgement != null) ? acknowledgement.name() : "").append(';').append((mac != null) ? mac : "").append(';');
+	    if (content != null) {
+		text.append(new String(content, StandardCharsets.UTF_8));
+	    }
+	    message = SEDAPExpressMessage.deserialize(text.toString());
+	    if (message == null) {
+		throw new IllegalArgumentException("Invalid " + type + " content");
+	    }
+	}
+	}
+
+	message.setNumber(number);
+	message.setTime(time);
+	message.setSender(sender);
+	message.setClassification(classification);
+	message.setAcknowledgement(acknowledgement);
+	message.setMAC(mac);
+
+	return message;
+    }
+
+    private void setBit(int bit) {
+
+	this.bitmap |= 1L << bit;
+	this.fieldStart[bit] = this.position;
+    }
+
+    private boolean isSet(int bit) {
+
+	if ((this.bitmap & (1L << bit)) == 0) {
+	    return false;
+	}
+	this.visited |= 1L << bit;
+	this.fieldStart[bit] = this.offset;
+	return true;
+    }
+
+    private void ensure(int bytes) {
+
+	if ((this.position + bytes) > this.body.length) {
+	    final byte[] larger = new byte[Math.max(this.body.length * 2, this.position + bytes)];
+	    System.arraycopy(this.body, 0, larger, 0, this.position);
+	    this.body = larger;
+	}
+    }
+
+    private void writeByte(int value) {
+
+	ensure(1);
+	this.body[this.position++] = (byte) value;
+    }
+
+    private void writeVarint(long value) {
+
+	ensure(10);
+	this.position = SEDAPExpressBinaryCodec.putVarint(this.body, this.position, value);
+    }
+
+    /**
+     * Writes a decimal value as zigzag varint of a fixed-point number. The lowest bit marks a value, which can not be represented exactly and follows as IEEE double.
+     */
+    private void writeScaled(int bit, Double value, double scale) {
+
+	if (value == null) {
+	    return;
+	}
+	setBit(bit);
+
+	final double scaled = value * scale;
+	if (Math.abs(scaled) < 0x1p52) {
+	    final long fixed = Math.round(scaled);
+	    if ((fixed / scale) == value) {
+		writeVarint(((fixed << 1) ^ (fixed >> 63)) << 1);
+		return;
+	    }
+	}
+
+	writeVarint(1);
+	ensure(Long.BYTES);
+	long bits = Double.doubleToRawLongBits(value);
+	for (int i = 0; i < Long.BYTES; i++) {
+	    this.body[this.position++] = (byte) bits;
+	    bits >>>= 8;
+	}
+    }
+
+    /**
+     * Writes a string with its length, uppercase hexadecimal digits are packed into half the bytes
+     */
+    private void writeString(String value) {
+
+	if (SEDAPExpressBinaryCodec.isPackableHex(value)) {
+	    writeVarint(((long) (value.length() / 2) << 1) | 1);
+	    ensure(value.length() / 2);
+	    for (int i = 0; i < value.length(); i += 2) {
+		this.body[this.position++] = (byte) ((Character.digit(value.charAt(i), 16) << 4) | Character.digit(value.charAt(i + 1), 16));
+	    }
+	} else {
+	    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+	    writeVarint((long) bytes.length << 1);
+	    ensure(bytes.length);
+	    System.arraycopy(bytes, 0, this.body, this.position, bytes.length);
+	    this.position += bytes.length;
+	}
+    }
+
+    private void writeString(int bit, String value) {
+
+	if (value != null) {
+	    setBit(bit);
+	    writeString(value);
+	}
+    }
+
+    private void writeBytes(int bit, byte[] value) {
+
+	if (value != null) {
+	    setBit(bit);
+	    writeVarint(value.length);
+	    ensure(value.length);
+	    System.arraycopy(value, 0, this.body, this.position, value.length);
+	    this.position += value.length;
+	}
+    }
+
+    private static <E extends Enum<E>> E readOrdinal(E[] values, int ordinal) {
+
+	if (ordinal >= values.length) {
+	    throw new IllegalArgumentException("Invalid ordinal " + ordinal + " of " + values[0].getClass().getSimpleName());
+	}
+	return values[ordinal];
+    }
+
+    private static boolean isPackableHex(String value) {
+
+	if (value.isEmpty() || ((value.length() % 2) != 0)) {
+	    return false;
+	}
+	for (int i = 0; i < value.length(); i++) {
+	    final char c = value.charAt(i);
+	    if (!(((c >= '0') && (c <= '9')) || ((c >= 'A') && (c <= 'F')))) {
+		return false;
+	    }
+	}
+	return true;
+    }
+
+    private int readByte() {
+
+	if (this.offset >= this.end) {
+	    throw new IllegalArgumentException("Truncated message");
+	}
+	return this.data[this.offset++] & 0xFF;
+    }
+
+    private long readVarint() {
+
+	long value = 0;
+	for (int shift = 0; shift < 64; shift += 7) {
+	    final int b = readByte();
+	    value |= (long) (b & 0x7F) << shift;
+	    if (b < 0x80) {
+		return value;
+	    }
+	}
+	throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private Double readScaled(int bit, double scale) {
+
+	if (!isSet(bit)) {
+	    return null;
+	}
+
+	final long value = readVarint();
+	if ((value & 1) == 0) {
+	    final long zigzag = value >>> 1;
+	    return ((zigzag >>> 1) ^ -(zigzag & 1)) / scale;
+	}
+
+	long bits = 0;
+	for (int i = 0; i < Long.BYTES; i++) {
+	    bits |= (long) readByte() << (8 * i);
+	}
+	return Double.longBitsToDouble(bits);
+    }
+
+    private int readLength() {
+
+	final long length = readVarint();
+	if ((length < 0) || (length > (this.end - this.offset))) {
+	    throw new IllegalArgumentException("Truncated message");
+	}
+	return (int) length;
+    }
+
+    private String readString() {
+
+	final long header = readVarint();
+	final long length = header >>> 1;
+	if (length > (this.end - this.offset)) {
+	    throw new IllegalArgumentException("Truncated message");
+	}
+
+	final String value;
+	if ((header & 1) != 0) {
+	    value = SEDAPExpressBinaryCodec.HEX.formatHex(this.data, this.offset, this.offset + (int) length);
+	} else {
+	    value = new String(this.data, this.offset, (int) length, StandardCharsets.UTF_8);
+	}
+	this.offset += (int) length;
+	return value;
+    }
+
+    private String readString(int bit) {
+	return isSet(bit) ? readString() : null;
+    }
+
+    private byte[] readBytes(int bit) {
+
+	if (!isSet(bit)) {
+	    return null;
+	}
+
+	final int length = readLength();
+	final byte[] value = new byte[length];
+	System.arraycopy(this.data, this.offset, value, 0, length);
+	this.offset += length;
+	return value;
+    }
+
+    private static int varintSize(long value) {
+
+	int size = 1;
+	while ((value & ~0x7FL) != 0) {
+	    value >>>= 7;
+	    size++;
+	}
+	return size;
+    }
+
+    private static int putVarint(byte[] target, int position, long value) {
+
+	while ((value & ~0x7FL) != 0) {
+	    target[position++] = (byte) ((value & 0x7F) | 0x80);
+	    value >>>= 7;
+	}
+	target[position++] = (byte) value;
+	return position;
+    }
+
+    private static void putVarint(ByteBuffer target, long value) {
+
+	while ((value & ~0x7FL) != 0) {
+	    target.put((byte) ((value & 0x7F) | 0x80));
+	    value >>>= 7;
+	}
+	target.put((byte) value);
+    }
+}
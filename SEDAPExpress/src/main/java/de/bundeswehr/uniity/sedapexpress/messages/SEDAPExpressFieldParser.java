@@ -0,0 +1,213 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+/**
+ * Hand-written single pass parsers for the numeric, hexadecimal and flag fields of SEDAP-Express messages. Each method validates and converts a field in one step, without creating a regex Matcher and without parsing the value a
+ * second time.
+ * <p>
+ * The accepted syntax equals the one of the matching pattern in {@link SEDAPExpressMessage} (e.g. {@link SEDAPExpressMessage#DOUBLE_MATCHER}), except that the decimal separator has to be a dot.
+ *
+ * @author Volker Voß
+ *
+ */
+public final class SEDAPExpressFieldParser {
+
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /** Maximum number of significant digits which can be converted exactly without Double.parseDouble() */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private SEDAPExpressFieldParser() {
+	// Utility class, hide constructor
+    }
+
+    /**
+     * Parses a decimal number without exponent, e.g. "-12.345".
+     *
+     * @param value         field content
+     * @param allowNegative true, if a leading minus sign is permitted
+     * @return the parsed value or {@link Double#NaN}, if the field does not contain a valid number
+     */
+    public static double parseDouble(CharSequence value, boolean allowNegative) {
+
+	final int length = value.length();
+	if (length == 0) {
+	    return Double.NaN;
+	}
+
+	int i = 0;
+	boolean negative = false;
+	if (value.charAt(0) == '-') {
+	    if (!allowNegative) {
+		return Double.NaN;
+	    }
+	    negative = true;
+	    i++;
+	}
+
+	long mantissa = 0;
+	int significantDigits = 0;
+	int scale = 0;
+
+	// Integer part, at least one digit
+	final int integerStart = i;
+	while (i < length) {
+	    final int digit = value.charAt(i) - '0';
+	    if ((digit < 0) || (digit > 9)) {
+		break;
+	    }
+	    if ((mantissa != 0) || (digit != 0)) {
+		significantDigits++;
+		if (significantDigits <= SEDAPExpressFieldParser.MAX_EXACT_DIGITS) {
+		    mantissa = (mantissa * 10) + digit;
+		}
+	    }
+	    i++;
+	}
+	if (i == integerStart) {
+	    return Double.NaN;
+	}
+
+	// Fraction
+	if (i < length) {
+	    if (value.charAt(i) != '.') {
+		return Double.NaN;
+	    }
+	    i++;
+	    while (i < length) {
+		final int digit = value.charAt(i) - '0';
+		if ((digit < 0) || (digit > 9)) {
+		    return Double.NaN;
+		}
+		if ((mantissa != 0) || (digit != 0)) {
+		    significantDigits++;
+		}
+		if (significantDigits <= SEDAPExpressFieldParser.MAX_EXACT_DIGITS) {
+		    mantissa = (mantissa * 10) + digit;
+		    scale++;
+		}
+		i++;
+	    }
+	}
+
+	final double result;
+	if ((significantDigits <= SEDAPExpressFieldParser.MAX_EXACT_DIGITS) && (scale < SEDAPExpressFieldParser.POWERS_OF_TEN.length)) {
+	    // Mantissa and power of ten are exact doubles, so a single division is correctly rounded
+	    result = mantissa / SEDAPExpressFieldParser.POWERS_OF_TEN[scale];
+	} else {
+	    // Syntax already validated, let the JDK round the long value correctly
+	    return Double.parseDouble(value.toString());
+	}
+
+	return negative ? -result : result;
+    }
+
+    /**
+     * Parses a message number (two hexadecimal digits 00-7F, upper case).
+     *
+     * @param value field content
+     * @return the parsed value or -1, if the field does not contain a valid message number
+     */
+    public static int parseHexByte(CharSequence value) {
+
+	if (value.length() != 2) {
+	    return -1;
+	}
+
+	final char high = value.charAt(0);
+	if ((high < '0') || (high > '7')) {
+	    return -1;
+	}
+
+	final int low = SEDAPExpressFieldParser.hexDigit(value.charAt(1), false);
+	if (low < 0) {
+	    return -1;
+	}
+
+	return ((high - '0') << 4) | low;
+    }
+
+    /**
+     * Parses a time value (8 to 16 hexadecimal digits, upper or lower case).
+     *
+     * @param value field content
+     * @return the parsed value or null, if the field does not contain a valid time value
+     */
+    public static Long parseHexLong(CharSequence value) {
+
+	final int length = value.length();
+	if ((length < 8) || (length > 16)) {
+	    return null;
+	}
+
+	long result = 0;
+	for (int i = 0; i < length; i++) {
+	    final int digit = SEDAPExpressFieldParser.hexDigit(value.charAt(i), true);
+	    if (digit < 0) {
+		return null;
+	    }
+	    result = (result << 4) | digit;
+	}
+
+	// 16 digits with the highest bit set exceed the range of a signed long
+	if (result < 0) {
+	    return null;
+	}
+
+	return result;
+    }
+
+    /**
+     * Parses a flag ("TRUE" or "FALSE").
+     *
+     * @param value field content
+     * @return the parsed value or null, if the field does not contain a valid flag
+     */
+    public static Boolean parseFlag(CharSequence value) {
+
+	if ("TRUE".contentEquals(value)) {
+	    return Boolean.TRUE;
+	} else if ("FALSE".contentEquals(value)) {
+	    return Boolean.FALSE;
+	} else {
+	    return null;
+	}
+    }
+
+    private static int hexDigit(char ch, boolean allowLowerCase) {
+
+	if ((ch >= '0') && (ch <= '9')) {
+	    return ch - '0';
+	} else if ((ch >= 'A') && (ch <= 'F')) {
+	    return (ch - 'A') + 10;
+	} else if (allowLowerCase && (ch >= 'a') && (ch <= 'f')) {
+	    return (ch - 'a') + 10;
+	} else {
+	    return -1;
+	}
+    }
+}
@@ -25,14 +25,15 @@
  */
 package de.bundeswehr.uniity.sedapexpress.messages;
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HexFormat;
 import java.util.Iterator;
 import java.util.List;
@@ -63,7 +64,13 @@ public abstract class SEDAPExpressMessage implements Comparable<SEDAPExpressMess
 	}
     }
 
-    public static final NumberFormat numberFormatter = new DecimalFormat("##.############", DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+    /**
+     * Shared DecimalFormat with the number notation of SEDAP-Express messages. A DecimalFormat is not thread-safe, so this instance must not be used by concurrent threads.
+     *
+     * @deprecated The message serializers use {@link SEDAPExpressNumberFormatter}, which is thread-safe and creates no objects
+     */
+    @Deprecated
+    public static final NumberFormat numberFormatter = new DecimalFormat(SEDAPExpressNumberFormatter.PATTERN, DecimalFormatSymbols.getInstance(Locale.ENGLISH));
 
     public enum DeleteFlag {
 
@@ -183,6 +190,113 @@ public abstract class SEDAPExpressMessage implements Comparable<SEDAPExpressMess
 	return pattern.matcher(value).matches();
     }
 
+    public enum ValidationMode {
+
+	/** Hand-written single pass parsers (default) */
+	FAST,
+
+	/** Regular expressions followed by the JDK parsers, for diagnostic purposes */
+	STRICT;
+    }
+
+    private static volatile ValidationMode validationMode = ValidationMode.FAST;
+
+    public static ValidationMode getValidationMode() {
+	return SEDAPExpressMessage.validationMode;
+    }
+
+    /**
+     * Selects how numeric, hexadecimal and flag fields are validated during deserialization.
+     *
+     * @param validationMode FAST (default) or STRICT
+     */
+    public static void setValidationMode(ValidationMode validationMode) {
+	SEDAPExpressMessage.validationMode = validationMode;
+    }
+
+    /**
+     * Validates and converts a decimal field. In FAST mode the DOUBLE_MATCHER, POSITIVE_DOUBLE_MATCHER and BEARING_MATCHER patterns are evaluated by {@link SEDAPExpressFieldParser}, all other patterns by the regex.
+     *
+     * @param pattern pattern the value has to match
+     * @param value   field content
+     * @return converted value or null, if the value is invalid
+     */
+    public static Double parseDouble(Pattern pattern, String value) {
+
+	if (SEDAPExpressMessage.validationMode == ValidationMode.FAST) {
+	    if (pattern == SEDAPExpressMessage.DOUBLE_MATCHER) {
+		final double result = SEDAPExpressFieldParser.parseDouble(value, true);
+		return Double.isNaN(result) ? null : result;
+	    } else if ((pattern == SEDAPExpressMessage.POSITIVE_DOUBLE_MATCHER) || (pattern == SEDAPExpressMessage.BEARING_MATCHER)) {
+		final double result = SEDAPExpressFieldParser.parseDouble(value, false);
+		return Double.isNaN(result) ? null : result;
+	    }
+	}
+
+	try {
+	    return SEDAPExpressMessage.matchesPattern(pattern, value) ? Double.valueOf(value) : null;
+	} catch (NumberFormatException e) {
+	    return null;
+	}
+    }
+
+    /**
+     * Validates and converts a hexadecimal message number field (NUMBER_MATCHER).
+     *
+     * @param pattern pattern the value has to match
+     * @param value   field content
+     * @return converted value or null, if the value is invalid
+     */
+    public static Byte parseHexByte(Pattern pattern, String value) {
+
+	if ((SEDAPExpressMessage.validationMode == ValidationMode.FAST) && (pattern == SEDAPExpressMessage.NUMBER_MATCHER)) {
+	    final int result = SEDAPExpressFieldParser.parseHexByte(value);
+	    return (result < 0) ? null : (byte) result;
+	}
+
+	try {
+	    return SEDAPExpressMessage.matchesPattern(pattern, value) ? Byte.parseByte(value, 16) : null;
+	} catch (NumberFormatException e) {
+	    return null;
+	}
+    }
+
+    /**
+     * Validates and converts a hexadecimal time field (TIME_MATCHER).
+     *
+     * @param pattern pattern the value has to match
+     * @param value   field content
+     * @return converted value or null, if the value is invalid
+     */
+    public static Long parseHexLong(Pattern pattern, String value) {
+
+	if ((SEDAPExpressMessage.validationMode == ValidationMode.FAST) && (pattern == SEDAPExpressMessage.TIME_MATCHER)) {
+	    return SEDAPExpressFieldParser.parseHexLong(value);
+	}
+
+	try {
+	    return SEDAPExpressMessage.matchesPattern(pattern, value) ? Long.parseLong(value, 16) : null;
+	} catch (NumberFormatException e) {
+	    return null;
+	}
+    }
+
+    /**
+     * Validates and converts a flag field (YES_NO_FLAG_MATCHER).
+     *
+     * @param pattern pattern the value has to match
+     * @param value   field content
+     * @return converted value or null, if the value is invalid
+     */
+    public static Boolean parseFlag(Pattern pattern, String value) {
+
+	if ((SEDAPExpressMessage.validationMode == ValidationMode.FAST) && (pattern == SEDAPExpressMessage.YES_NO_FLAG_MATCHER)) {
+	    return SEDAPExpressFieldParser.parseFlag(value);
+	}
+
+	return SEDAPExpressMessage.matchesPattern(pattern, value) ? Boolean.valueOf(value) : null;
+    }
+
     private Byte number;
 
     private Long time;
@@ -243,8 +357,22 @@ public abstract class SEDAPExpressMessage implements Comparable<SEDAPExpressMess
 	this.mac = mac;
     }
 
+    /** Message types of classes, which do not give their type themselves */
+    private static final ClassValue<MessageType> MESSAGE_TYPES = new ClassValue<>() {
+
+	@Override
+	protected MessageType computeValue(Class<?> type) {
+	    return MessageType.valueOfMessageType(type.getSimpleName());
+	}
+    };
+
+    /**
+     * Gives the type of this message back. The standard messages return their type as a constant, other classes are mapped by their simple class name once.
+     *
+     * @return message type
+     */
     public MessageType getMessageType() {
-	return MessageType.valueOfMessageType(this.getClass().getSimpleName());
+	return SEDAPExpressMessage.MESSAGE_TYPES.get(this.getClass());
     }
 
     @Override
@@ -555,23 +683,98 @@ public abstract class SEDAPExpressMessage implements Comparable<SEDAPExpressMess
     }
 
     /**
-     *
+     * Factory which creates a concrete SEDAP-Express message from its serialized fields. The given iterator is positioned behind the message name.
+     */
+    @FunctionalInterface
+    public interface MessageFactory {
+
+	SEDAPExpressMessage create(Iterator<String> message);
+    }
+
+    /**
+     * Factories of the standard message types, indexed by the ordinal of the MessageType (copy-on-write)
      */
-    private static final ConcurrentHashMap<String, Constructor<?>> messageNameToConstructor = new ConcurrentHashMap<>();
+    private static volatile MessageFactory[] messageFactories;
     static {
 
-	final Class<?>[] paramTypes = new Class[] { Iterator.class };
+	final MessageFactory[] factories = new MessageFactory[MessageType.values().length];
+	for (MessageType type : MessageType.values()) {
+	    factories[type.ordinal()] = SEDAPExpressMessage.getDefaultMessageFactory(type);
+	}
+	SEDAPExpressMessage.messageFactories = factories;
+    }
+
+    /**
+     * Factories of application specific message types
+     */
+    private static final ConcurrentHashMap<String, MessageFactory> customMessageFactories = new ConcurrentHashMap<>();
+
+    private static MessageFactory getDefaultMessageFactory(MessageType type) {
+
+	return switch (type) {
+	case ACKNOWLEDGE -> ACKNOWLEDGE::new;
+	case COMMAND -> COMMAND::new;
+	case CONTACT -> CONTACT::new;
+	case EMISSION -> EMISSION::new;
+	case GENERIC -> GENERIC::new;
+	case GRAPHIC -> GRAPHIC::new;
+	case HEARTBEAT -> HEARTBEAT::new;
+	case KEYEXCHANGE -> KEYEXCHANGE::new;
+	case METEO -> METEO::new;
+	case OWNUNIT -> OWNUNIT::new;
+	case RESEND -> RESEND::new;
+	case STATUS -> STATUS::new;
+	case TEXT -> TEXT::new;
+	case TIMESYNC -> TIMESYNC::new;
+	};
+    }
+
+    /**
+     * Registers a factory for a message name. If the name is one of the standard message types, the default factory of this type is replaced. Application specific message classes have to override {@link #getMessageType()},
+     * because the subscriptions are based on the standard message types.
+     *
+     * @param messageName name of the message (first field of the serialized message)
+     * @param factory     factory creating the message object
+     */
+    public static void registerMessageFactory(String messageName, MessageFactory factory) {
 
-	Arrays.asList(
+	final MessageType type = SEDAPExpressMessage.getStandardMessageType(messageName);
 
-		ACKNOWLEDGE.class, COMMAND.class, CONTACT.class, EMISSION.class, GENERIC.class, GRAPHIC.class, HEARTBEAT.class, TIMESYNC.class, KEYEXCHANGE.class, METEO.class, OWNUNIT.class, RESEND.class, STATUS.class, TEXT.class)
-		.forEach(clazz -> {
-		    try {
-			SEDAPExpressMessage.messageNameToConstructor.put(clazz.getSimpleName(), clazz.getConstructor(paramTypes));
-		    } catch (NoSuchMethodException | SecurityException e) {
-			e.printStackTrace();
-		    }
-		});
+	if (type != null) {
+	    synchronized (SEDAPExpressMessage.customMessageFactories) {
+		final MessageFactory[] factories = SEDAPExpressMessage.messageFactories.clone();
+		factories[type.ordinal()] = factory;
+		SEDAPExpressMessage.messageFactories = factories;
+	    }
+	} else {
+	    SEDAPExpressMessage.customMessageFactories.put(messageName, factory);
+	}
+    }
+
+    /**
+     * Removes a registered factory. For a standard message type the default factory is restored.
+     *
+     * @param messageName name of the message (first field of the serialized message)
+     */
+    public static void unregisterMessageFactory(String messageName) {
+
+	final MessageType type = SEDAPExpressMessage.getStandardMessageType(messageName);
+
+	if (type != null) {
+	    SEDAPExpressMessage.registerMessageFactory(messageName, SEDAPExpressMessage.getDefaultMessageFactory(type));
+	} else {
+	    SEDAPExpressMessage.customMessageFactories.remove(messageName);
+	}
+    }
+
+    private static MessageType getStandardMessageType(String messageName) {
+
+	for (MessageType type : MessageType.values()) {
+	    if (type.name().equals(messageName)) {
+		return type;
+	    }
+	}
+	return null;
     }
 
     static {
@@ -615,12 +818,15 @@ public abstract class SEDAPExpressMessage implements Comparable<SEDAPExpressMess
 	try {
 
 	    String value;
+	    Byte byteValue;
+	    Long longValue;
+	    Boolean flagValue;
 	    if (message.hasNext()) {
 		value = message.next();
 		if (value.isEmpty()) {
 		    SEDAPExpressMessage.logger.logp(Level.INFO, "SEDAPExpressMessage", "SEDAPExpressMessage(Iterator<String> message)", "Optional field \"number\" is empty!", value);
-		} else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.NUMBER_MATCHER, value)) {
-		    this.number = Byte.parseByte(value, 16);
+		} else if ((byteValue = SEDAPExpressMessage.parseHexByte(SEDAPExpressMessage.NUMBER_MATCHER, value)) != null) {
+		    this.number = byteValue;
 		} else if (!value.isBlank()) {
 		    SEDAPExpressMessage.logger.logp(Level.SEVERE, "SEDAPExpressMessage", "SEDAPExpressMessage(Iterator<String> message)", "Optional field \"number\" contains invalid value!", value);
 		}
@@ -632,8 +838,8 @@ public abstract class SEDAPExpressMessage implements Comparable<SEDAPExpressMess
 		value = message.next();
 		if (value.isEmpty()) {
 		    SEDAPExpressMessage.logger.logp(Level.INFO, "SEDAPExpressMessage", "SEDAPExpressMessage(Iterator<String> message)", "Optional field \"time\" is empty!", value);
-		} else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.TIME_MATCHER, value)) {
-		    this.time = Long.parseLong(value, 16);
+		} else if ((longValue = SEDAPExpressMessage.parseHexLong(SEDAPExpressMessage.TIME_MATCHER, value)) != null) {
+		    this.time = longValue;
 		} else if (!value.isBlank()) {
 		    SEDAPExpressMessage.logger.logp(Level.SEVERE, "SEDAPExpressMessage", "SEDAPExpressMessage(Iterator<String> message)", "Optional field \"time\" contains invalid value!", value);
 		}
@@ -663,8 +869,8 @@ public abstract class SEDAPExpressMessage implements Comparable<SEDAPExpressMess
 
 	    if (message.hasNext()) {
 		value = message.next();
-		if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.YES_NO_FLAG_MATCHER, value)) {
-		    this.acknowledgement = Acknowledgement.valueOf(value);
+		if ((flagValue = SEDAPExpressMessage.parseFlag(SEDAPExpressMessage.YES_NO_FLAG_MATCHER, value)) != null) {
+		    this.acknowledgement = flagValue ? Acknowledgement.TRUE : Acknowledgement.FALSE;
 		} else if (value.isBlank()) {
 		    this.acknowledgement = Acknowledgement.FALSE;
 		} else {
@@ -711,26 +917,69 @@ public abstract class SEDAPExpressMessage implements Comparable<SEDAPExpressMess
      */
     public static SEDAPExpressMessage deserialize(String receivedMessage) {
 
-	final Iterator<String> messageArray = SEDAPExpressMessage.splitMessage(receivedMessage).iterator();
+	return SEDAPExpressMessage.deserialize(new SEDAPExpressMessageCursor().wrap(receivedMessage));
+    }
 
-	if (messageArray.hasNext()) {
+    /**
+     * Deserializes a SEDAP-Express message directly from a byte array slice, without splitting it into intermediate Strings first.
+     *
+     * @param data   buffer containing the serialized SEDAP-Message (ISO-8859-1/ASCII)
+     * @param offset start of the message within the buffer
+     * @param length length of the message in bytes
+     *
+     * @return deserialized SEDAP-Message object
+     */
+    public static SEDAPExpressMessage deserialize(byte[] data, int offset, int length) {
 
-	    try {
+	return SEDAPExpressMessage.deserialize(new SEDAPExpressMessageCursor().wrap(data, offset, length));
+    }
 
-		Constructor<?> constructor = SEDAPExpressMessage.messageNameToConstructor.get(messageArray.next());
+    /**
+     * Deserializes a SEDAP-Express message directly from the remaining bytes of a ByteBuffer. The position of the buffer is not changed.
+     *
+     * @param buffer buffer containing the serialized SEDAP-Message (ISO-8859-1/ASCII)
+     *
+     * @return deserialized SEDAP-Message object
+     */
+    public static SEDAPExpressMessage deserialize(ByteBuffer buffer) {
 
-		if (constructor != null) {
-		    return (SEDAPExpressMessage) constructor.newInstance(messageArray);
-		} else {
-		    return null;
-		}
+	return SEDAPExpressMessage.deserialize(new SEDAPExpressMessageCursor().wrap(buffer));
+    }
 
-	    } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-		SEDAPExpressMessage.logger.throwing("SEDAPExpressMessage", "deserialize(String receivedMessage)", e);
-		return null;
-	    }
+    /**
+     * Deserializes the SEDAP-Express message a cursor has been wrapped around. Receivers should keep one cursor per thread and wrap each received message with it, so no parser state has to be allocated per message.
+     *
+     * @param cursor cursor wrapped around a serialized SEDAP-Message, positioned at the message name
+     *
+     * @return deserialized SEDAP-Message object
+     */
+    public static SEDAPExpressMessage deserialize(SEDAPExpressMessageCursor cursor) {
 
+	if (!cursor.hasNext()) {
+	    return null;
+	}
+
+	final int nameIndex = cursor.getPosition();
+	final MessageType type = cursor.getMessageType(nameIndex);
+
+	final MessageFactory factory;
+	if (type != null) {
+	    cursor.setPosition(nameIndex + 1);
+	    factory = SEDAPExpressMessage.messageFactories[type.ordinal()];
+	} else if (!SEDAPExpressMessage.customMessageFactories.isEmpty()) {
+	    factory = SEDAPExpressMessage.customMessageFactories.get(cursor.next());
 	} else {
+	    factory = null;
+	}
+
+	if (factory == null) {
+	    return null;
+	}
+
+	try {
+	    return factory.create(cursor);
+	} catch (RuntimeException e) {
+	    SEDAPExpressMessage.logger.throwing("SEDAPExpressMessage", "deserialize(SEDAPExpressMessageCursor cursor)", e);
 	    return null;
 	}
     }
@@ -746,6 +995,113 @@ public abstract class SEDAPExpressMessage implements Comparable<SEDAPExpressMess
 	return message.toString() + '\n';
     }
 
+    /**
+     * Serializes a SEDAP-Express message including the line terminator directly into a ByteBuffer.
+     *
+     * @param message SEDAP-Message object
+     * @param buffer  destination, written from its current position
+     *
+     * @return number of bytes written
+     * @throws BufferOverflowException if the message does not fit, the position of the buffer is left unchanged
+     */
+    public static int serialize(SEDAPExpressMessage message, ByteBuffer buffer) {
+
+	final int position = buffer.position();
+	final SEDAPExpressMessageWriter writer = new SEDAPExpressMessageWriter(buffer);
+	writer.write(message);
+	try {
+	    writer.newLine();
+	} catch (BufferOverflowException e) {
+	    buffer.position(position);
+	    throw e;
+	}
+	return buffer.position() - position;
+    }
+
+    /**
+     * Serializes this message without line terminator into a ByteBuffer (ISO-8859-1). For encoding many messages without garbage, keep a {@link SEDAPExpressMessageWriter} and use
+     * {@link SEDAPExpressMessageWriter#write(SEDAPExpressMessage)} instead.
+     *
+     * @param buffer destination, written from its current position
+     * @return number of bytes written
+     * @throws BufferOverflowException if the message does not fit, the position of the buffer is left unchanged
+     */
+    public int serializeTo(ByteBuffer buffer) {
+	return new SEDAPExpressMessageWriter(buffer).write(this);
+    }
+
+    /**
+     * Serializes this message without line terminator into an Appendable, e.g. a StringBuilder or a Writer.
+     *
+     * @param appendable destination
+     * @return number of chars written
+     * @throws IOException if the Appendable fails
+     */
+    public int serializeTo(Appendable appendable) throws IOException {
+
+	try {
+	    return new SEDAPExpressMessageWriter(appendable).write(this);
+	} catch (UncheckedIOException e) {
+	    throw e.getCause();
+	}
+    }
+
+    /**
+     * Writes this message field by field. The standard messages write the header by {@link #serializeHeader(SEDAPExpressMessageWriter)} followed by their own fields. The default implementation writes the result of
+     * toString() for application specific messages which do not override this method.
+     *
+     * @param writer destination
+     */
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
+	writer.append(toString());
+    }
+
+    /**
+     * Returns the result of {@link #serializeTo(SEDAPExpressMessageWriter)} as String, used by toString() of the standard messages.
+     *
+     * @return serialized message without line terminator
+     */
+    protected String serializeToString() {
+
+	final StringBuilder result = new StringBuilder(128);
+	new SEDAPExpressMessageWriter(result).write(this);
+	return result.toString();
+    }
+
+    /**
+     * Writes the header fields, each followed by a separator.
+     *
+     * @param writer destination
+     */
+    protected void serializeHeader(SEDAPExpressMessageWriter writer) {
+
+	writer.append(this.getClass().getSimpleName()).separator();
+
+	if (this.number != null) {
+	    writer.appendHex(this.number, 2);
+	}
+	writer.separator();
+
+	if (this.time != null) {
+	    writer.appendHex(this.time, 12);
+	}
+	writer.separator();
+
+	writer.append(this.sender).separator();
+
+	if (this.classification != null) {
+	    writer.append(this.classification.getClassification());
+	}
+	writer.separator();
+
+	if (this.acknowledgement == Acknowledgement.TRUE) {
+	    writer.append(this.acknowledgement);
+	}
+	writer.separator();
+
+	writer.append(this.mac).separator();
+    }
+
     protected StringBuilder serializeHeader() {
 
 	StringBuilder result = new StringBuilder(this.getClass().getSimpleName()).append(';');
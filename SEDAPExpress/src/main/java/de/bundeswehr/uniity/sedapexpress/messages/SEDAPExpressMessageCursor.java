@@ -0,0 +1,355 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+
+/**
+ * Flyweight cursor over a single serialized SEDAP-Express message. The cursor scans the message once and only stores the offsets of the fields. Field values are materialized lazily, so the message constructors can consume the cursor
+ * as an {@link Iterator} without the intermediate char array, StringBuilders and list of {@link SEDAPExpressMessage#splitMessage(String)}.
+ * <p>
+ * A cursor can be reused for any number of messages by calling one of the <code>wrap</code> methods again. It is not thread safe, every receiving thread should use its own instance.
+ *
+ * @author Volker Voß
+ *
+ */
+public class SEDAPExpressMessageCursor implements Iterator<String> {
+
+    private byte[] data;
+
+    private String text;
+
+    private byte[] scratch;
+
+    private int[] fieldStart = new int[32];
+    private int[] fieldEnd = new int[32];
+
+    private int fieldCount;
+
+    private int position;
+
+    /**
+     * Instantiate a new empty cursor
+     */
+    public SEDAPExpressMessageCursor() {
+	// Empty, use wrap()
+    }
+
+    /**
+     * Wraps a serialized message given as byte array slice. A trailing line feed and/or carriage return is ignored.
+     *
+     * @param data   Buffer containing the message (ISO-8859-1/ASCII)
+     * @param offset Start of the message within the buffer
+     * @param length Length of the message in bytes
+     * @return this cursor
+     */
+    public SEDAPExpressMessageCursor wrap(byte[] data, int offset, int length) {
+
+	if ((offset < 0) || (length < 0) || (offset + length > data.length)) {
+	    throw new IndexOutOfBoundsException("Invalid slice: offset=" + offset + " length=" + length + " size=" + data.length);
+	}
+
+	int end = offset + length;
+	while ((end > offset) && ((data[end - 1] == '\n') || (data[end - 1] == '\r'))) {
+	    end--;
+	}
+
+	this.data = data;
+	this.text = null;
+	this.fieldCount = 0;
+	this.position = 0;
+
+	int start = offset;
+	for (int i = offset; i < end; i++) {
+	    if (data[i] == ';') {
+		addField(start, i);
+		start = i + 1;
+	    }
+	}
+	addField(start, end);
+
+	return this;
+    }
+
+    /**
+     * Wraps a serialized message given as byte array.
+     *
+     * @param data Buffer containing the message (ISO-8859-1/ASCII)
+     * @return this cursor
+     */
+    public SEDAPExpressMessageCursor wrap(byte[] data) {
+
+	return wrap(data, 0, data.length);
+    }
+
+    /**
+     * Wraps the remaining bytes of the given buffer. Heap buffers are scanned in place, the content of direct buffers is copied once into an internal array. The position of the buffer is not changed.
+     *
+     * @param buffer Buffer containing the message (ISO-8859-1/ASCII)
+     * @return this cursor
+     */
+    public SEDAPExpressMessageCursor wrap(ByteBuffer buffer) {
+
+	if (buffer.hasArray()) {
+	    return wrap(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+	}
+
+	final int length = buffer.remaining();
+	if ((this.scratch == null) || (this.scratch.length < length)) {
+	    this.scratch = new byte[Math.max(length, 256)];
+	}
+	buffer.get(buffer.position(), this.scratch, 0, length);
+
+	return wrap(this.scratch, 0, length);
+    }
+
+    /**
+     * Wraps a serialized message given as String.
+     *
+     * @param message Serialized SEDAP-Express message
+     * @return this cursor
+     */
+    public SEDAPExpressMessageCursor wrap(String message) {
+
+	this.data = null;
+	this.text = message;
+	this.fieldCount = 0;
+	this.position = 0;
+
+	final int end = message.length();
+	int start = 0;
+	for (int i = 0; i < end; i++) {
+	    if (message.charAt(i) == ';') {
+		addField(start, i);
+		start = i + 1;
+	    }
+	}
+	addField(start, end);
+
+	return this;
+    }
+
+    private void addField(int start, int end) {
+
+	if (this.fieldCount == this.fieldStart.length) {
+	    this.fieldStart = Arrays.copyOf(this.fieldStart, this.fieldCount * 2);
+	    this.fieldEnd = Arrays.copyOf(this.fieldEnd, this.fieldCount * 2);
+	}
+	this.fieldStart[this.fieldCount] = start;
+	this.fieldEnd[this.fieldCount] = end;
+	this.fieldCount++;
+    }
+
+    /**
+     * Returns the number of fields of the wrapped message (including the message name).
+     *
+     * @return number of fields
+     */
+    public int getFieldCount() {
+	return this.fieldCount;
+    }
+
+    /**
+     * Returns the index of the field which will be returned by the next call of {@link #next()}.
+     *
+     * @return index of the next field
+     */
+    public int getPosition() {
+	return this.position;
+    }
+
+    /**
+     * Sets the index of the field which will be returned by the next call of {@link #next()}.
+     *
+     * @param position index of the next field
+     */
+    public void setPosition(int position) {
+
+	if ((position < 0) || (position > this.fieldCount)) {
+	    throw new IndexOutOfBoundsException(position);
+	}
+	this.position = position;
+    }
+
+    /**
+     * Returns the length of a field.
+     *
+     * @param index index of the field
+     * @return length in bytes/characters
+     */
+    public int getFieldLength(int index) {
+
+	checkIndex(index);
+	return this.fieldEnd[index] - this.fieldStart[index];
+    }
+
+    /**
+     * Returns whether a field is empty.
+     *
+     * @param index index of the field
+     * @return true if the field has no content
+     */
+    public boolean isFieldEmpty(int index) {
+
+	return getFieldLength(index) == 0;
+    }
+
+    /**
+     * Returns a single character of a field.
+     *
+     * @param index index of the field
+     * @param pos   position within the field
+     * @return the character
+     */
+    public char charAt(int index, int pos) {
+
+	checkIndex(index);
+	final int i = this.fieldStart[index] + pos;
+	if ((pos < 0) || (i >= this.fieldEnd[index])) {
+	    throw new IndexOutOfBoundsException(pos);
+	}
+
+	return (this.data != null) ? (char) (this.data[i] & 0xFF) : this.text.charAt(i);
+    }
+
+    /**
+     * Compares the content of a field with the given value without materializing the field.
+     *
+     * @param index index of the field
+     * @param value value to compare with
+     * @return true if the content is equal
+     */
+    public boolean fieldEquals(int index, String value) {
+
+	checkIndex(index);
+	final int start = this.fieldStart[index];
+	final int length = this.fieldEnd[index] - start;
+	if (length != value.length()) {
+	    return false;
+	}
+
+	if (this.data != null) {
+	    for (int i = 0; i < length; i++) {
+		if ((this.data[start + i] & 0xFF) != value.charAt(i)) {
+		    return false;
+		}
+	    }
+	    return true;
+	} else {
+	    return this.text.regionMatches(start, value, 0, length);
+	}
+    }
+
+    /**
+     * Materializes a field as String.
+     *
+     * @param index index of the field
+     * @return content of the field
+     */
+    public String getField(int index) {
+
+	checkIndex(index);
+	final int start = this.fieldStart[index];
+	final int end = this.fieldEnd[index];
+
+	if (start == end) {
+	    return "";
+	} else if (this.data != null) {
+	    return new String(this.data, start, end - start, StandardCharsets.ISO_8859_1);
+	} else {
+	    return this.text.substring(start, end);
+	}
+    }
+
+    /**
+     * Determines the standard message type of a field by its first characters, without materializing the field.
+     *
+     * @param index index of the field containing the message name
+     * @return the matching message type or null, if the field does not contain a standard message name
+     */
+    public MessageType getMessageType(int index) {
+
+	if (getFieldLength(index) < 4) {
+	    return null;
+	}
+
+	final MessageType type = switch (charAt(index, 0)) {
+	case 'A' -> MessageType.ACKNOWLEDGE;
+	case 'C' -> (charAt(index, 2) == 'M') ? MessageType.COMMAND : MessageType.CONTACT;
+	case 'E' -> MessageType.EMISSION;
+	case 'G' -> (charAt(index, 1) == 'E') ? MessageType.GENERIC : MessageType.GRAPHIC;
+	case 'H' -> MessageType.HEARTBEAT;
+	case 'K' -> MessageType.KEYEXCHANGE;
+	case 'M' -> MessageType.METEO;
+	case 'O' -> MessageType.OWNUNIT;
+	case 'R' -> MessageType.RESEND;
+	case 'S' -> MessageType.STATUS;
+	case 'T' -> (charAt(index, 1) == 'E') ? MessageType.TEXT : MessageType.TIMESYNC;
+	default -> null;
+	};
+
+	return ((type != null) && fieldEquals(index, type.name())) ? type : null;
+    }
+
+    private void checkIndex(int index) {
+
+	if ((index < 0) || (index >= this.fieldCount)) {
+	    throw new IndexOutOfBoundsException(index);
+	}
+    }
+
+    @Override
+    public boolean hasNext() {
+	return this.position < this.fieldCount;
+    }
+
+    @Override
+    public String next() {
+
+	if (this.position >= this.fieldCount) {
+	    throw new NoSuchElementException();
+	}
+	return getField(this.position++);
+    }
+
+    @Override
+    public String toString() {
+
+	if (this.fieldCount == 0) {
+	    return "";
+	} else if (this.data != null) {
+	    return new String(this.data, this.fieldStart[0], this.fieldEnd[this.fieldCount - 1] - this.fieldStart[0], StandardCharsets.ISO_8859_1);
+	} else {
+	    return this.text.substring(this.fieldStart[0], this.fieldEnd[this.fieldCount - 1]);
+	}
+    }
+}
@@ -0,0 +1,433 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable writer which serializes SEDAP-Express messages directly into a ByteBuffer or an Appendable, without building intermediate Strings.
+ * <p>
+ * Field separators are not written immediately but counted and only emitted in front of the next non-empty content. Separators at the end of a message are therefore never written and need not be removed afterwards.
+ * Numbers are formatted with {@link SEDAPExpressNumberFormatter}, hex values and Base64 data are encoded in place.
+ * <p>
+ * Chars are written to a ByteBuffer as ISO-8859-1, the charset the receivers decode messages with. A writer is not thread-safe, use one instance per thread.
+ *
+ * @author Volker Voß
+ *
+ */
+public final class SEDAPExpressMessageWriter {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final char[] BASE64_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private ByteBuffer buffer;
+
+    private Appendable appendable;
+
+    /** The Appendable, if it is a StringBuilder, which takes char arrays without copying char by char */
+    private StringBuilder builder;
+
+    private final char[] numberBuffer = new char[SEDAPExpressNumberFormatter.MAX_LENGTH];
+
+    private int pendingSeparators;
+
+    private int written;
+
+    /**
+     * Creates a writer, which has to be wrapped around a destination before use.
+     */
+    public SEDAPExpressMessageWriter() {
+    }
+
+    /**
+     * Creates a writer for a ByteBuffer.
+     *
+     * @param buffer destination
+     */
+    public SEDAPExpressMessageWriter(ByteBuffer buffer) {
+	wrap(buffer);
+    }
+
+    /**
+     * Creates a writer for an Appendable, e.g. a StringBuilder.
+     *
+     * @param appendable destination
+     */
+    public SEDAPExpressMessageWriter(Appendable appendable) {
+	wrap(appendable);
+    }
+
+    /**
+     * Lets the writer write into a ByteBuffer, starting at its current position.
+     *
+     * @param buffer destination
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter wrap(ByteBuffer buffer) {
+
+	this.buffer = buffer;
+	this.appendable = null;
+	this.builder = null;
+	this.pendingSeparators = 0;
+	this.written = 0;
+	return this;
+    }
+
+    /**
+     * Lets the writer write into an Appendable.
+     *
+     * @param appendable destination
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter wrap(Appendable appendable) {
+
+	this.buffer = null;
+	this.appendable = appendable;
+	this.builder = (appendable instanceof StringBuilder) ? (StringBuilder) appendable : null;
+	this.pendingSeparators = 0;
+	this.written = 0;
+	return this;
+    }
+
+    /**
+     * Writes a message without line terminator. If the destination is a ByteBuffer, which has not enough space left, its position is restored and the BufferOverflowException is thrown.
+     *
+     * @param message message
+     * @return number of chars written
+     * @throws BufferOverflowException if the message does not fit into the ByteBuffer
+     * @throws UncheckedIOException    if the Appendable throws an IOException
+     */
+    public int write(SEDAPExpressMessage message) {
+
+	final int position = (this.buffer != null) ? this.buffer.position() : 0;
+
+	this.pendingSeparators = 0;
+	this.written = 0;
+	try {
+	    message.serializeTo(this);
+	} catch (BufferOverflowException e) {
+	    this.buffer.position(position);
+	    throw e;
+	}
+	// Trailing separators are dropped
+	this.pendingSeparators = 0;
+
+	return this.written;
+    }
+
+    /**
+     * Writes a line terminator, e.g. after a message written by {@link #write(SEDAPExpressMessage)}.
+     *
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter newLine() {
+
+	this.pendingSeparators = 0;
+	put('\n');
+	return this;
+    }
+
+    /**
+     * Returns the number of chars written since the last call of wrap() or write().
+     *
+     * @return number of chars
+     */
+    public int getWritten() {
+	return this.written;
+    }
+
+    /**
+     * Ends the current field, the separator is written when the next content follows.
+     *
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter separator() {
+
+	this.pendingSeparators++;
+	return this;
+    }
+
+    /**
+     * Appends a char.
+     *
+     * @param c char
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter append(char c) {
+
+	flushSeparators();
+	put(c);
+	return this;
+    }
+
+    /**
+     * Appends a text, nothing is written for null.
+     *
+     * @param text text
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter append(CharSequence text) {
+
+	if ((text == null) || (text.length() == 0)) {
+	    return this;
+	}
+
+	flushSeparators();
+	if (this.buffer != null) {
+	    for (int i = 0; i < text.length(); i++) {
+		putByte(text.charAt(i));
+	    }
+	    this.written += text.length();
+	} else {
+	    try {
+		this.appendable.append(text);
+	    } catch (IOException e) {
+		throw new UncheckedIOException(e);
+	    }
+	    this.written += text.length();
+	}
+	return this;
+    }
+
+    /**
+     * Appends chars, e.g. a SIDC, nothing is written for null.
+     *
+     * @param chars chars
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter append(char[] chars) {
+
+	if (chars == null) {
+	    return this;
+	}
+	return append(chars, 0, chars.length);
+    }
+
+    private SEDAPExpressMessageWriter append(char[] chars, int offset, int length) {
+
+	if (length == 0) {
+	    return this;
+	}
+
+	flushSeparators();
+	if (this.builder != null) {
+	    this.builder.append(chars, offset, length);
+	    this.written += length;
+	} else {
+	    for (int i = offset; i < (offset + length); i++) {
+		put(chars[i]);
+	    }
+	}
+	return this;
+    }
+
+    /**
+     * Appends the String representation of an object, e.g. an enum value, nothing is written for null.
+     *
+     * @param object object
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter append(Object object) {
+
+	if (object == null) {
+	    return this;
+	}
+	return append(object.toString());
+    }
+
+    /**
+     * Appends an integer value in decimal notation, nothing is written for null.
+     *
+     * @param value value
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter append(Integer value) {
+
+	if (value == null) {
+	    return this;
+	}
+
+	long number = value;
+	if (number == 0) {
+	    return append('0');
+	}
+
+	final char[] digits = this.numberBuffer;
+	int position = digits.length;
+	final boolean negative = number < 0;
+	number = Math.abs(number);
+	while (number > 0) {
+	    digits[--position] = (char) ('0' + (number % 10));
+	    number /= 10;
+	}
+	if (negative) {
+	    digits[--position] = '-';
+	}
+	return append(digits, position, digits.length - position);
+    }
+
+    /**
+     * Appends a number in the notation of SEDAP-Express messages, see {@link SEDAPExpressNumberFormatter}, nothing is written for null.
+     *
+     * @param value value
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter appendNumber(Double value) {
+
+	if (value == null) {
+	    return this;
+	}
+
+	final int length = SEDAPExpressNumberFormatter.format(value, this.numberBuffer, 0);
+	if (length >= 0) {
+	    return append(this.numberBuffer, 0, length);
+	}
+	return append(SEDAPExpressNumberFormatter.formatWithDecimalFormat(value));
+    }
+
+    /**
+     * Appends a #-separated list of numbers, nothing is written for null.
+     *
+     * @param values values
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter appendNumbers(Iterable<Double> values) {
+
+	if (values == null) {
+	    return this;
+	}
+
+	boolean first = true;
+	for (Double value : values) {
+	    if (!first) {
+		append('#');
+	    }
+	    appendNumber(value);
+	    first = false;
+	}
+	return this;
+    }
+
+    /**
+     * Appends the lowest digits of a value as upper case hex digits, like {@link java.util.HexFormat#toHexDigits(long, int)}.
+     *
+     * @param value  value
+     * @param digits number of hex digits
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter appendHex(long value, int digits) {
+
+	flushSeparators();
+	for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+	    put(SEDAPExpressMessageWriter.HEX_DIGITS[(int) (value >>> shift) & 0x0F]);
+	}
+	return this;
+    }
+
+    /**
+     * Appends bytes as upper case hex digits, nothing is written for null.
+     *
+     * @param data bytes
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter appendHex(byte[] data) {
+
+	if ((data == null) || (data.length == 0)) {
+	    return this;
+	}
+
+	flushSeparators();
+	for (byte b : data) {
+	    put(SEDAPExpressMessageWriter.HEX_DIGITS[(b >> 4) & 0x0F]);
+	    put(SEDAPExpressMessageWriter.HEX_DIGITS[b & 0x0F]);
+	}
+	return this;
+    }
+
+    /**
+     * Appends bytes Base64 encoded, nothing is written for null.
+     *
+     * @param data bytes
+     * @return this writer
+     */
+    public SEDAPExpressMessageWriter appendBase64(byte[] data) {
+
+	if ((data == null) || (data.length == 0)) {
+	    return this;
+	}
+
+	flushSeparators();
+	final char[] digits = SEDAPExpressMessageWriter.BASE64_DIGITS;
+	int i = 0;
+	for (; (i + 2) < data.length; i += 3) {
+	    final int bits = ((data[i] & 0xFF) << 16) | ((data[i + 1] & 0xFF) << 8) | (data[i + 2] & 0xFF);
+	    put(digits[bits >>> 18]);
+	    put(digits[(bits >>> 12) & 0x3F]);
+	    put(digits[(bits >>> 6) & 0x3F]);
+	    put(digits[bits & 0x3F]);
+	}
+
+	final int remaining = data.length - i;
+	if (remaining > 0) {
+	    final int bits = ((data[i] & 0xFF) << 16) | ((remaining == 2) ? ((data[i + 1] & 0xFF) << 8) : 0);
+	    put(digits[bits >>> 18]);
+	    put(digits[(bits >>> 12) & 0x3F]);
+	    put((remaining == 2) ? digits[(bits >>> 6) & 0x3F] : '=');
+	    put('=');
+	}
+	return this;
+    }
+
+    private void flushSeparators() {
+
+	while (this.pendingSeparators > 0) {
+	    put(';');
+	    this.pendingSeparators--;
+	}
+    }
+
+    private void put(char c) {
+
+	if (this.buffer != null) {
+	    putByte(c);
+	} else {
+	    try {
+		this.appendable.append(c);
+	    } catch (IOException e) {
+		throw new UncheckedIOException(e);
+	    }
+	}
+	this.written++;
+    }
+
+    private void putByte(char c) {
+	this.buffer.put((c <= 0xFF) ? (byte) c : (byte) '?');
+    }
+}
@@ -0,0 +1,279 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats double values the way SEDAP-Express messages carry them: plain decimal notation without grouping and exponent, at most 12 fraction digits, rounded HALF_EVEN, trailing zeros removed. This is the output of a
+ * DecimalFormat with the pattern {@value #PATTERN}, e.g. "53.5", "-0.000001", "0".
+ * <p>
+ * The formatter is thread-safe without locking: it has no mutable state, the digits are computed with long arithmetic and written into a caller supplied char array, so formatting creates no objects. Values which
+ * cannot be handled exactly this way (NaN, infinite, 1e15 and above, or the rare values lying exactly between two shortest decimal representations) are formatted by a private copy of a DecimalFormat.
+ *
+ * @author Volker Voß
+ *
+ */
+public final class SEDAPExpressNumberFormatter {
+
+    /** DecimalFormat pattern of numbers in SEDAP-Express messages */
+    public static final String PATTERN = "##.############";
+
+    /** Template for the fallback, only cloned and never used for formatting itself */
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat(SEDAPExpressNumberFormatter.PATTERN, DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+
+    /** Maximum number of fraction digits of a formatted value */
+    public static final int MAX_FRACTION_DIGITS = 12;
+
+    /** Minimum size of the char array passed to {@link #format(double, char[], int)} */
+    public static final int MAX_LENGTH = 32;
+
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private static final long[] LONG_POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L, 100000000000L, 1000000000000L,
+	    10000000000000L, 100000000000000L, 1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L };
+
+    /** Values with this magnitude or above are formatted by the DecimalFormat */
+    private static final double FAST_PATH_LIMIT = 1e15;
+
+    /** Products above this value do not fit into a long */
+    private static final double LONG_LIMIT = 9e18;
+
+    private static final double TWO_POW_53 = 0x1p53;
+
+    private SEDAPExpressNumberFormatter() {
+	// Utility class, hide constructor
+    }
+
+    /**
+     * Formats a value into a new String.
+     *
+     * @param value value
+     * @return formatted value
+     */
+    public static String format(double value) {
+
+	final char[] buffer = new char[SEDAPExpressNumberFormatter.MAX_LENGTH];
+	final int length = SEDAPExpressNumberFormatter.format(value, buffer, 0);
+	return (length >= 0) ? new String(buffer, 0, length) : SEDAPExpressNumberFormatter.formatWithDecimalFormat(value);
+    }
+
+    /**
+     * Formats a value into a char array.
+     *
+     * @param value  value
+     * @param buffer destination, at least {@link #MAX_LENGTH} chars behind offset
+     * @param offset index of the first char to write
+     * @return number of chars written or -1, if the value has to be formatted by {@link #formatWithDecimalFormat(double)}
+     */
+    public static int format(double value, char[] buffer, int offset) {
+
+	final double absValue = Math.abs(value);
+	if (!(absValue < SEDAPExpressNumberFormatter.FAST_PATH_LIMIT)) {
+	    // NaN, infinite or too large for a long mantissa
+	    return -1;
+	}
+
+	long mantissa = -1;
+	int scale = 0;
+
+	if (absValue != 0.0) {
+
+	    final long bits = Double.doubleToRawLongBits(absValue);
+	    final double ulp = Math.ulp(absValue);
+	    // Decimals exactly on the boundary of the rounding interval are rounded to an even significand
+	    final boolean evenSignificand = (bits & 1L) == 0;
+	    // Below a power of two the distance to the next smaller double is only half an ulp
+	    final boolean powerOfTwo = ((bits & 0x000FFFFFFFFFFFFFL) == 0) && (absValue >= (2 * Double.MIN_NORMAL));
+
+	    // Search the shortest decimal which still identifies the value, these are the digits Double.toString() and the DecimalFormat start from
+	    double signedDistance = 0;
+	    for (scale = 0; scale < SEDAPExpressNumberFormatter.POWERS_OF_TEN.length; scale++) {
+
+		final double power = SEDAPExpressNumberFormatter.POWERS_OF_TEN[scale];
+		final double high = absValue * power;
+		if (high >= SEDAPExpressNumberFormatter.LONG_LIMIT) {
+		    return -1;
+		}
+		// absValue * power == high + low exactly
+		final double low = Math.fma(absValue, power, -high);
+		final long floor = SEDAPExpressNumberFormatter.floor(high, low);
+
+		final double upperHalfInterval = ulp * power * 0.5;
+		final double lowerHalfInterval = powerOfTwo ? upperHalfInterval * 0.5 : upperHalfInterval;
+
+		double bestDistance = Double.MAX_VALUE;
+		for (long candidate = floor; candidate <= (floor + 1); candidate++) {
+
+		    final double distance = SEDAPExpressNumberFormatter.difference(candidate, high) - low;
+		    final double halfInterval = (distance < 0) ? lowerHalfInterval : upperHalfInterval;
+		    final double absDistance = Math.abs(distance);
+		    if ((absDistance < halfInterval) || (evenSignificand && (absDistance == halfInterval))) {
+			if (absDistance == bestDistance) {
+			    // Both neighbours identify the value and are equally close
+			    return -1;
+			}
+			if (absDistance < bestDistance) {
+			    // Like Double.toString(), choose the closer one
+			    mantissa = candidate;
+			    bestDistance = absDistance;
+			    signedDistance = distance;
+			}
+		    }
+		}
+
+		if (mantissa >= 0) {
+		    break;
+		}
+	    }
+
+	    if (mantissa < 0) {
+
+		// Very small value, round the exact value to 12 fraction digits
+		scale = SEDAPExpressNumberFormatter.MAX_FRACTION_DIGITS;
+		final double power = SEDAPExpressNumberFormatter.POWERS_OF_TEN[scale];
+		final double high = absValue * power;
+		final double low = Math.fma(absValue, power, -high);
+		final long floor = SEDAPExpressNumberFormatter.floor(high, low);
+		final double fraction = low - SEDAPExpressNumberFormatter.difference(floor, high);
+
+		// The shortest decimal representation may lie on the other side of the rounding boundary
+		if (Math.abs(fraction - 0.5) <= (ulp * power)) {
+		    return -1;
+		}
+		mantissa = (fraction > 0.5) ? floor + 1 : floor;
+
+	    } else if (scale > SEDAPExpressNumberFormatter.MAX_FRACTION_DIGITS) {
+
+		// Round the decimal digits HALF_EVEN to 12 fraction digits
+		final long divisor = SEDAPExpressNumberFormatter.LONG_POWERS_OF_TEN[scale - SEDAPExpressNumberFormatter.MAX_FRACTION_DIGITS];
+		final long remainder = mantissa % divisor;
+		mantissa /= divisor;
+		scale = SEDAPExpressNumberFormatter.MAX_FRACTION_DIGITS;
+
+		final long half = divisor / 2;
+		if ((remainder > half) || ((remainder == half) && SEDAPExpressNumberFormatter.roundUpTie(mantissa, signedDistance))) {
+		    mantissa++;
+		}
+	    }
+
+	    while ((scale > 0) && ((mantissa % 10) == 0)) {
+		mantissa /= 10;
+		scale--;
+	    }
+	} else {
+	    mantissa = 0;
+	}
+
+	int position = offset;
+	if (Double.doubleToRawLongBits(value) < 0) {
+	    buffer[position++] = '-';
+	}
+
+	final long integerPart = mantissa / SEDAPExpressNumberFormatter.LONG_POWERS_OF_TEN[scale];
+	position = SEDAPExpressNumberFormatter.writeDigits(integerPart, SEDAPExpressNumberFormatter.countDigits(integerPart), buffer, position);
+
+	if (scale > 0) {
+	    buffer[position++] = '.';
+	    position = SEDAPExpressNumberFormatter.writeDigits(mantissa % SEDAPExpressNumberFormatter.LONG_POWERS_OF_TEN[scale], scale, buffer, position);
+	}
+
+	return position - offset;
+    }
+
+    /**
+     * Formats a value with a copy of the DecimalFormat, used for the values {@link #format(double, char[], int)} does not handle.
+     *
+     * @param value value
+     * @return formatted value
+     */
+    public static String formatWithDecimalFormat(double value) {
+	return ((DecimalFormat) SEDAPExpressNumberFormatter.DECIMAL_FORMAT.clone()).format(value);
+    }
+
+    /**
+     * Decides a tie like the DecimalFormat: digits which are the exact value are rounded to even, otherwise the rounding direction depends on the side of the exact value.
+     *
+     * @param truncated      digits in front of the tie
+     * @param signedDistance decimal digits minus exact value
+     */
+    private static boolean roundUpTie(long truncated, double signedDistance) {
+
+	if (signedDistance == 0) {
+	    return (truncated & 1L) != 0;
+	}
+	return signedDistance < 0;
+    }
+
+    /**
+     * Returns floor(high + low) for a product split into its rounded value and the rounding error.
+     */
+    private static long floor(double high, double low) {
+
+	if (high >= SEDAPExpressNumberFormatter.TWO_POW_53) {
+	    // high is an integer, the rounding error may exceed 1
+	    return (long) high + (long) Math.floor(low);
+	}
+
+	long floor = (long) Math.floor(high);
+	if ((floor == high) && (low < 0)) {
+	    floor--;
+	}
+	return floor;
+    }
+
+    /**
+     * Returns candidate - high exactly, if both are close to each other.
+     */
+    private static double difference(long candidate, double high) {
+
+	if (high >= SEDAPExpressNumberFormatter.TWO_POW_53) {
+	    // high is an integer
+	    return candidate - (long) high;
+	}
+	return candidate - high;
+    }
+
+    private static int countDigits(long value) {
+
+	int digits = 1;
+	while ((digits < SEDAPExpressNumberFormatter.LONG_POWERS_OF_TEN.length) && (value >= SEDAPExpressNumberFormatter.LONG_POWERS_OF_TEN[digits])) {
+	    digits++;
+	}
+	return digits;
+    }
+
+    private static int writeDigits(long value, int digits, char[] buffer, int position) {
+
+	for (int i = position + digits - 1; i >= position; i--) {
+	    buffer[i] = (char) ('0' + (value % 10));
+	    value /= 10;
+	}
+	return position + digits;
+    }
+}
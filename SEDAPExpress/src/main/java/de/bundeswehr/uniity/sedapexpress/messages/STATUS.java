@@ -590,45 +590,64 @@ public class STATUS extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.STATUS;
+    }
 
-	String ammunitionStr = "";
-	if (this.ammunitionLevelNames != null) {
-	    Iterator<String> itString = this.ammunitionLevelNames.iterator();
-	    Iterator<Double> itDouble = this.ammunitionLevels.iterator();
-	    while (itString.hasNext()) {
-		ammunitionStr = "#" + itString.next() + "#" + itDouble.next();
-	    }
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
+
+	serializeHeader(writer);
+	writer.append(this.tecState).separator().append(this.opsState).separator();
+	STATUS.serializeLevels(writer, this.ammunitionLevelNames, this.ammunitionLevels);
+	writer.separator();
+	STATUS.serializeLevels(writer, this.fuelLevelNames, this.fuelLevels);
+	writer.separator();
+	STATUS.serializeLevels(writer, this.batterieLevelNames, this.batterieLevels);
+	writer.separator().append(this.cmdId).separator().append(this.cmdState).separator();
+	if (this.hostname != null) {
+	    writer.appendBase64(this.hostname.getBytes());
 	}
-
-	String fuelStr = "";
-	if (this.fuelLevelNames != null) {
-	    Iterator<String> itString = this.fuelLevelNames.iterator();
-	    Iterator<Double> itDouble = this.fuelLevels.iterator();
-	    while (itString.hasNext()) {
-		fuelStr = "#" + itString.next() + "#" + itDouble.next();
+	writer.separator();
+	if (this.mediaUrls != null) {
+	    boolean first = true;
+	    for (String url : this.mediaUrls) {
+		if (!first) {
+		    writer.append('#');
+		}
+		writer.appendBase64(url.getBytes());
+		first = false;
 	    }
 	}
-
-	String batterieStr = "";
-	if (this.batterieLevelNames != null) {
-	    Iterator<String> itString = this.batterieLevelNames.iterator();
-	    Iterator<Double> itDouble = this.batterieLevels.iterator();
-	    while (itString.hasNext()) {
-		batterieStr = "#" + itString.next() + "#" + itDouble.next();
-	    }
+	writer.separator();
+	if (this.freeText != null) {
+	    writer.appendBase64(this.freeText.getBytes());
 	}
+    }
 
-	StringBuilder urls = new StringBuilder();
-	if (this.mediaUrls != null) {
-	    this.mediaUrls.forEach(entry -> urls.append(Base64.toBase64String(entry.getBytes()) + "#"));
-	}
+    @Override
+    public String toString() {
+	return serializeToString();
+    }
+
+    /**
+     * Writes a #-separated list of name/level pairs
+     */
+    private static void serializeLevels(SEDAPExpressMessageWriter writer, List<String> names, List<Double> levels) {
 
-	return SEDAPExpressMessage.removeSemicolons(serializeHeader()
+	if ((names == null) || (levels == null)) {
+	    return;
+	}
 
-		.append((this.tecState != null) ? this.tecState : "").append(";").append((this.opsState != null) ? this.opsState : "").append(";").append(ammunitionStr.isBlank() ? "" : ammunitionStr.substring(2)).append(";")
-		.append(fuelStr.isBlank() ? "" : fuelStr.substring(2)).append(";").append(batterieStr.isBlank() ? "" : batterieStr.substring(2)).append(";").append((this.cmdId != null) ? this.cmdId : "").append(";")
-		.append((this.cmdState != null) ? this.cmdState : "").append(";").append((this.hostname != null) ? Base64.toBase64String(this.hostname.getBytes()) : "").append(";")
-		.append((this.mediaUrls != null) ? urls.subSequence(0, urls.length() - 1) : "").append(";").append((this.freeText != null) ? Base64.toBase64String(this.freeText.getBytes()) : "").toString());
+	Iterator<String> itString = names.iterator();
+	Iterator<Double> itDouble = levels.iterator();
+	boolean first = true;
+	while (itString.hasNext() && itDouble.hasNext()) {
+	    if (!first) {
+		writer.append('#');
+	    }
+	    writer.append(itString.next()).append('#').appendNumber(itDouble.next());
+	    first = false;
+	}
     }
 }
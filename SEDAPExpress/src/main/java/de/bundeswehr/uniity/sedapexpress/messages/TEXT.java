@@ -284,15 +284,28 @@ public class TEXT extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.TEXT;
+    }
+
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
 
-	return SEDAPExpressMessage
-		.removeSemicolons(serializeHeader()
-			.append((this.recipient != null) ? this.recipient : "").append(";")
-			.append((this.type != null) ? this.type : "").append(";")
-			.append((this.encoding != null) ? this.encoding : "").append(";")
-			.append((this.textContent != null) ? ((this.encoding == DataEncoding.BASE64) ? Base64.toBase64String(this.textContent.getBytes()) : this.textContent) : "")
-			.append((this.reference != null) ? ";" + this.reference : "").toString());
+	serializeHeader(writer);
+	writer.append(this.recipient).separator().append(this.type).separator().append(this.encoding).separator();
+	if ((this.textContent != null) && (this.encoding == DataEncoding.BASE64)) {
+	    writer.appendBase64(this.textContent.getBytes());
+	} else {
+	    writer.append(this.textContent);
+	}
+	if (this.reference != null) {
+	    writer.separator().append(this.reference);
+	}
+    }
+
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
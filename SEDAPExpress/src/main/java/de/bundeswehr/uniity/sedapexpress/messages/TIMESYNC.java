@@ -107,14 +107,15 @@ public class TIMESYNC extends SEDAPExpressMessage {
 	super(message);
 
 	String value;
+	Long longValue;
 
 	// Timestamp
 	if (message.hasNext()) {
 	    value = message.next();
 	    if (value.isEmpty()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "TIMESYNC", "TIMESYNC(Iterator<String> message)", "Mandatory field \"timestamp\" is empty!");
-	    } else if (SEDAPExpressMessage.matchesPattern(SEDAPExpressMessage.TIME_MATCHER, value)) {
-		this.timestamp = Long.parseLong(value, 16);
+	    } else if ((longValue = SEDAPExpressMessage.parseHexLong(SEDAPExpressMessage.TIME_MATCHER, value)) != null) {
+		this.timestamp = longValue;
 	    } else if (!value.isBlank()) {
 		SEDAPExpressMessage.logger.logp(Level.SEVERE, "TIMESYNC", "TIMESYNC(Iterator<String> message)", "Mandatory field \"timestamp\" contains invalid value!", value);
 	    }
@@ -141,9 +142,22 @@ public class TIMESYNC extends SEDAPExpressMessage {
     }
 
     @Override
-    public String toString() {
+    public MessageType getMessageType() {
+	return MessageType.TIMESYNC;
+    }
 
-	return SEDAPExpressMessage.removeSemicolons(serializeHeader().append((this.timestamp != null) ? SEDAPExpressMessage.HexFormater.toHexDigits(this.timestamp) : "").toString());
+    @Override
+    protected void serializeTo(SEDAPExpressMessageWriter writer) {
+
+	serializeHeader(writer);
+	if (this.timestamp != null) {
+	    writer.appendHex(this.timestamp, 12);
+	}
+    }
+
+    @Override
+    public String toString() {
+	return serializeToString();
     }
 
 }
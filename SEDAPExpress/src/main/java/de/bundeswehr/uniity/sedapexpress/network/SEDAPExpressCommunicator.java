@@ -33,17 +33,24 @@ import java.util.Base64;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.HexFormat;
+import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressBinaryCodec;
 import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
 import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Acknowledgement;
 import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
 import de.bundeswehr.uniity.sedapexpress.messages.TIMESYNC;
+import de.bundeswehr.uniity.sedapexpress.processing.SEDAPExpressAsyncSubscriber;
+import de.bundeswehr.uniity.sedapexpress.processing.SEDAPExpressAsyncSubscriber.OverflowPolicy;
 import de.bundeswehr.uniity.sedapexpress.processing.SEDAPExpressInputLoggingSubscriber;
 import de.bundeswehr.uniity.sedapexpress.processing.SEDAPExpressOutputLoggingSubscriber;
 import de.bundeswehr.uniity.sedapexpress.processing.SEDAPExpressSubscriber;
@@ -61,6 +68,202 @@ public abstract class SEDAPExpressCommunicator {
 	SEDAPExpressCommunicator.logger.setLevel(Level.ALL);
     }
 
+    /**
+     * Kind of threads a communicator uses for receiving, sending and processing requests
+     */
+    public enum ThreadMode {
+
+	/** Platform threads, the default */
+	PLATFORM,
+
+	/** Virtual threads, which make thousands of blocking connections cheap (requires Java 21 or newer at runtime) */
+	VIRTUAL
+    }
+
+    /**
+     * Encoding of the messages on the wire
+     */
+    public enum Encoding {
+
+	/** Text format with one message per line, the default */
+	TEXT,
+
+	/** Compact binary format of {@link SEDAPExpressBinaryCodec} for narrowband links, each message preceded by its length. Supported by the UDP and the MQTT client. */
+	BINARY
+    }
+
+    /** Factory for virtual threads, null if the Java runtime does not support them */
+    private static final ThreadFactory virtualThreadFactory = SEDAPExpressCommunicator.createVirtualThreadFactory();
+
+    private static volatile ThreadMode defaultThreadMode = ThreadMode.PLATFORM;
+
+    private ThreadMode threadMode = SEDAPExpressCommunicator.defaultThreadMode;
+
+    private ThreadFactory threadFactory = SEDAPExpressCommunicator.getThreadFactory(SEDAPExpressCommunicator.defaultThreadMode);
+
+    private static ThreadFactory createVirtualThreadFactory() {
+
+	try {
+	    // Thread.ofVirtual().factory(), called reflectively to stay compatible with Java 17
+	    final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+	    return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+	} catch (ReflectiveOperationException | RuntimeException e) {
+	    return null;
+	}
+    }
+
+    private static ThreadFactory getThreadFactory(ThreadMode mode) {
+	return (mode == ThreadMode.VIRTUAL) ? SEDAPExpressCommunicator.virtualThreadFactory : Thread::new;
+    }
+
+    /**
+     * Checks, if the Java runtime supports virtual threads
+     *
+     * @return true, if {@link ThreadMode#VIRTUAL} can be used
+     */
+    public static boolean isVirtualThreadSupported() {
+	return SEDAPExpressCommunicator.virtualThreadFactory != null;
+    }
+
+    /**
+     * Sets the thread mode of all communicators created afterwards.
+     *
+     * @param mode thread mode
+     * @return true, if the mode has been set, false if virtual threads are not supported by the Java runtime
+     */
+    public static boolean setDefaultThreadMode(ThreadMode mode) {
+
+	if ((mode == ThreadMode.VIRTUAL) && !SEDAPExpressCommunicator.isVirtualThreadSupported()) {
+	    return false;
+	}
+	SEDAPExpressCommunicator.defaultThreadMode = mode;
+	return true;
+    }
+
+    /**
+     * Gives the thread mode for communicators created from now on back
+     *
+     * @return thread mode
+     */
+    public static ThreadMode getDefaultThreadMode() {
+	return SEDAPExpressCommunicator.defaultThreadMode;
+    }
+
+    /**
+     * Sets the thread mode of this communicator. It has to be set before {@link #connect()}.
+     *
+     * @param mode thread mode
+     * @return true, if the mode has been set, false if virtual threads are not supported by the Java runtime
+     */
+    public boolean setThreadMode(ThreadMode mode) {
+
+	if ((mode == ThreadMode.VIRTUAL) && !SEDAPExpressCommunicator.isVirtualThreadSupported()) {
+	    return false;
+	}
+	this.threadMode = mode;
+	this.threadFactory = SEDAPExpressCommunicator.getThreadFactory(mode);
+	return true;
+    }
+
+    /**
+     * Gives the thread mode of this communicator back
+     *
+     * @return thread mode
+     */
+    public ThreadMode getThreadMode() {
+	return this.threadMode;
+    }
+
+    /**
+     * Sets an own factory for all threads of this communicator, e.g. to name them or to change their priority. Request processing pools are sized as for {@link ThreadMode#PLATFORM}. It has to be set before
+     * {@link #connect()}.
+     *
+     * @param threadFactory thread factory
+     */
+    public void setThreadFactory(ThreadFactory threadFactory) {
+
+	this.threadMode = ThreadMode.PLATFORM;
+	this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Gives the thread factory of this communicator back
+     *
+     * @return thread factory
+     */
+    public ThreadFactory getThreadFactory() {
+	return this.threadFactory;
+    }
+
+    /**
+     * Creates and starts a thread with the thread factory of this communicator
+     *
+     * @param runnable task of the thread
+     * @return the started thread
+     */
+    protected Thread startThread(Runnable runnable) {
+
+	final Thread thread = this.threadFactory.newThread(runnable);
+	thread.start();
+	return thread;
+    }
+
+    /**
+     * Creates an executor for processing requests. With virtual threads every task gets its own thread, otherwise a pool with a fixed number of threads is used.
+     *
+     * @param platformThreads number of threads, if platform threads are used
+     * @return executor
+     */
+    protected ExecutorService createExecutor(int platformThreads) {
+
+	if (this.threadMode == ThreadMode.VIRTUAL) {
+	    try {
+		// Executors.newThreadPerTaskExecutor(), called reflectively to stay compatible with Java 17
+		return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, this.threadFactory);
+	    } catch (ReflectiveOperationException e) {
+		SEDAPExpressCommunicator.logger.logp(Level.WARNING, "SEDAPExpressCommunicator", "createExecutor()", "Could not create thread per task executor, using a cached pool", e);
+		return Executors.newCachedThreadPool(this.threadFactory);
+	    }
+	}
+	return Executors.newFixedThreadPool(platformThreads, this.threadFactory);
+    }
+
+    private Encoding encoding = Encoding.TEXT;
+
+    /**
+     * Sets the encoding of sent and received messages. Both sides of a link have to use the same encoding.
+     *
+     * @param encoding encoding
+     * @return true, if the encoding has been set, false if this communicator does not support it
+     */
+    public boolean setEncoding(Encoding encoding) {
+
+	if (!isEncodingSupported(encoding)) {
+	    return false;
+	}
+	this.encoding = encoding;
+	return true;
+    }
+
+    /**
+     * Gives the encoding of sent and received messages back
+     *
+     * @return encoding
+     */
+    public Encoding getEncoding() {
+	return this.encoding;
+    }
+
+    /**
+     * Checks, if this communicator supports an encoding
+     *
+     * @param encoding encoding
+     * @return true, if the encoding can be used
+     */
+    protected boolean isEncodingSupported(Encoding encoding) {
+	return encoding == Encoding.TEXT;
+    }
+
     protected CopyOnWriteArraySet<SEDAPExpressInputLoggingSubscriber> inputLogger = new CopyOnWriteArraySet<>();
     protected CopyOnWriteArraySet<SEDAPExpressOutputLoggingSubscriber> outputLogger = new CopyOnWriteArraySet<>();
 
@@ -108,9 +311,36 @@ public abstract class SEDAPExpressCommunicator {
 	this.outputLogger.forEach(il -> il.processSEDAPExpressOutputLoggingMessage(message));
     }
 
-    protected ConcurrentHashMap<MessageType, Set<SEDAPExpressSubscriber>> subscriptions = new ConcurrentHashMap<>();
+    protected SEDAPExpressSubscriptionTable subscriptions = new SEDAPExpressSubscriptionTable();
 
+    /** Asynchronous subscribers by the subscriber they deliver to */
+    private final ConcurrentHashMap<SEDAPExpressSubscriber, SEDAPExpressAsyncSubscriber> asyncSubscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Gives a copy of the current subscriptions back
+     *
+     * @return subscribers by message type
+     * @deprecated Changes of the returned map have no effect, use {@link #getSubscriptionTable()}
+     */
+    @Deprecated
     public ConcurrentHashMap<MessageType, Set<SEDAPExpressSubscriber>> getSubscriptions() {
+
+	final ConcurrentHashMap<MessageType, Set<SEDAPExpressSubscriber>> copy = new ConcurrentHashMap<>();
+	for (MessageType type : MessageType.values()) {
+	    final List<SEDAPExpressSubscriber> subscribers = this.subscriptions.getSubscribers(type);
+	    if (!subscribers.isEmpty()) {
+		copy.put(type, new CopyOnWriteArraySet<>(subscribers));
+	    }
+	}
+	return copy;
+    }
+
+    /**
+     * Gives the subscriptions of this communicator back
+     *
+     * @return subscription table
+     */
+    public SEDAPExpressSubscriptionTable getSubscriptionTable() {
 	return this.subscriptions;
     }
 
@@ -122,12 +352,7 @@ public abstract class SEDAPExpressCommunicator {
      */
     public void subscribeMessages(SEDAPExpressSubscriber subscriber, Collection<MessageType> clazzes) {
 
-	clazzes.forEach(clazz -> {
-
-	    this.subscriptions.computeIfAbsent(clazz, x -> new CopyOnWriteArraySet<SEDAPExpressSubscriber>());
-
-	    this.subscriptions.get(clazz).add(subscriber);
-	});
+	clazzes.forEach(clazz -> this.subscriptions.subscribe(subscriber, clazz));
 
     }
 
@@ -143,6 +368,89 @@ public abstract class SEDAPExpressCommunicator {
 
     }
 
+    /**
+     * Subscribe one or more message types with a filter, only matching messages are delivered. Previous subscriptions of these types by the subscriber are replaced.
+     *
+     * @param subscriber the subscriber for the message types
+     * @param filter     Filter of the messages
+     * @param clazzes    Collection of message types which should be subscribed
+     */
+    public void subscribeMessages(SEDAPExpressSubscriber subscriber, SEDAPExpressSubscriptionFilter filter, Collection<MessageType> clazzes) {
+
+	clazzes.forEach(clazz -> this.subscriptions.subscribe(subscriber, filter, clazz));
+    }
+
+    /**
+     * Subscribe one or more message types with a filter, only matching messages are delivered. Previous subscriptions of these types by the subscriber are replaced.
+     *
+     * @param subscriber the subscriber for the message types
+     * @param filter     Filter of the messages
+     * @param clazzes    Message types which should be subscribed
+     */
+    public void subscribeMessages(SEDAPExpressSubscriber subscriber, SEDAPExpressSubscriptionFilter filter, MessageType... clazzes) {
+
+	subscribeMessages(subscriber, filter, Arrays.asList(clazzes));
+    }
+
+    /**
+     * Subscribe one or more message types with an own delivering thread and a bounded buffer, so the subscriber does not delay the receiving of messages. The thread is created by the thread factory of this
+     * communicator. A subscriber already subscribed asynchronously keeps its buffer.
+     *
+     * @param subscriber the subscriber for the message types
+     * @param capacity   Maximum number of messages waiting for the subscriber
+     * @param policy     Behaviour if the subscriber is too slow and the buffer is full
+     * @param clazzes    Collection of message types which should be subscribed
+     * @return the asynchronous subscriber, which gives the lag of the subscriber
+     */
+    public SEDAPExpressAsyncSubscriber subscribeMessagesAsync(SEDAPExpressSubscriber subscriber, int capacity, OverflowPolicy policy, Collection<MessageType> clazzes) {
+
+	return subscribeMessagesAsync(subscriber, capacity, policy, null, clazzes);
+    }
+
+    /**
+     * Subscribe one or more message types with a filter, an own delivering thread and a bounded buffer. Only matching messages are put into the buffer.
+     *
+     * @param subscriber the subscriber for the message types
+     * @param capacity   Maximum number of messages waiting for the subscriber
+     * @param policy     Behaviour if the subscriber is too slow and the buffer is full
+     * @param filter     Filter of the messages, null for all messages
+     * @param clazzes    Collection of message types which should be subscribed
+     * @return the asynchronous subscriber, which gives the lag of the subscriber
+     */
+    public SEDAPExpressAsyncSubscriber subscribeMessagesAsync(SEDAPExpressSubscriber subscriber, int capacity, OverflowPolicy policy, SEDAPExpressSubscriptionFilter filter, Collection<MessageType> clazzes) {
+
+	final SEDAPExpressAsyncSubscriber asyncSubscriber = this.asyncSubscribers.computeIfAbsent(subscriber, x -> new SEDAPExpressAsyncSubscriber(subscriber, capacity, policy, this.threadFactory));
+	if (filter == null) {
+	    subscribeMessages(asyncSubscriber, clazzes);
+	} else {
+	    subscribeMessages(asyncSubscriber, filter, clazzes);
+	}
+	return asyncSubscriber;
+    }
+
+    /**
+     * Subscribe one or more message types with an own delivering thread and a bounded buffer, so the subscriber does not delay the receiving of messages
+     *
+     * @param subscriber the subscriber for the message types
+     * @param capacity   Maximum number of messages waiting for the subscriber
+     * @param policy     Behaviour if the subscriber is too slow and the buffer is full
+     * @param clazzes    Message types which should be subscribed
+     * @return the asynchronous subscriber, which gives the lag of the subscriber
+     */
+    public SEDAPExpressAsyncSubscriber subscribeMessagesAsync(SEDAPExpressSubscriber subscriber, int capacity, OverflowPolicy policy, MessageType... clazzes) {
+	return subscribeMessagesAsync(subscriber, capacity, policy, Arrays.asList(clazzes));
+    }
+
+    /**
+     * Gives the asynchronous subscriber of a subscriber back
+     *
+     * @param subscriber the subscriber
+     * @return the asynchronous subscriber or null, if the subscriber is not subscribed asynchronously
+     */
+    public SEDAPExpressAsyncSubscriber getAsyncSubscriber(SEDAPExpressSubscriber subscriber) {
+	return this.asyncSubscribers.get(subscriber);
+    }
+
     /**
      * Unsubscribe one or more message types
      *
@@ -150,12 +458,21 @@ public abstract class SEDAPExpressCommunicator {
      * @param clazzes    Collection of message types which should be unsubscribe
      */
     public void unsubscribeMessages(SEDAPExpressSubscriber subscriber, Collection<MessageType> clazzes) {
-	clazzes.forEach(clazz ->
 
-	this.subscriptions.computeIfPresent(clazz, (x, value) -> {
-	    value.remove(subscriber);
-	    return value;
-	}));
+	final SEDAPExpressAsyncSubscriber asyncSubscriber = this.asyncSubscribers.get(subscriber);
+
+	clazzes.forEach(clazz -> {
+	    this.subscriptions.unsubscribe(subscriber, clazz);
+	    if (asyncSubscriber != null) {
+		this.subscriptions.unsubscribe(asyncSubscriber, clazz);
+	    }
+	});
+
+	// Stop the delivering thread, when the subscriber has no subscription left
+	if ((asyncSubscriber != null) && !this.subscriptions.isSubscribed(asyncSubscriber)) {
+	    this.asyncSubscribers.remove(subscriber, asyncSubscriber);
+	    asyncSubscriber.close();
+	}
     }
 
     /**
@@ -185,8 +502,8 @@ public abstract class SEDAPExpressCommunicator {
      */
     protected void distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage message) {
 
-	if ((message != null) && this.subscriptions.containsKey(message.getMessageType())) {
-	    this.subscriptions.get(message.getMessageType()).forEach(subscriber -> subscriber.processSEDAPExpressMessage(message));
+	if (message != null) {
+	    this.subscriptions.distribute(message);
 	}
     }
 
@@ -285,7 +602,7 @@ public abstract class SEDAPExpressCommunicator {
 
     public byte timesyncNumber = 0;
 
-    class TimeSyncRunnable extends Thread implements SEDAPExpressSubscriber {
+    class TimeSyncRunnable implements Runnable, SEDAPExpressSubscriber {
 
 	TIMESYNC timesyncAnswer;
 
@@ -379,7 +696,7 @@ public abstract class SEDAPExpressCommunicator {
      */
     public void doTimesync() {
 
-	new TimeSyncRunnable().start();
+	startThread(new TimeSyncRunnable());
     }
 
     public String createSenderId() {
@@ -0,0 +1,302 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+
+/**
+ * Packs several messages into one datagram
+ * <p>
+ * A datagram is sent, when the next message does not fit any more or the first message has waited for the packing delay. The delay is watched by a packing thread, which is started with the first packed
+ * message. Without packing every message is sent in its own datagram. The receivers split the datagrams at the line feeds or length prefixes of the messages.
+ *
+ * @author Volker Voß
+ *
+ */
+final class SEDAPExpressDatagramPacker {
+
+    private static final Logger logger = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    /**
+     * Writes a message behind the messages already packed
+     */
+    @FunctionalInterface
+    interface Encoder {
+
+	/**
+	 * @param message  Message to be written
+	 * @param datagram Destination, written from its current position
+	 * @throws BufferOverflowException if the message does not fit, the position of the datagram is left unchanged
+	 * @throws IOException             if the message can not be encoded
+	 */
+	void encode(SEDAPExpressMessage message, ByteBuffer datagram) throws IOException;
+    }
+
+    /**
+     * Sends one datagram
+     */
+    @FunctionalInterface
+    interface Sender {
+
+	/**
+	 * @param datagram Content of the datagram between position and limit
+	 * @return true, if the datagram has been sent
+	 * @throws IOException if the datagram can not be sent
+	 */
+	boolean send(ByteBuffer datagram) throws IOException;
+    }
+
+    /** Guards the datagram and the encoder of the owner */
+    private final ReentrantLock lock;
+
+    /** Signalled, when the datagram gets its first message or the packing changes */
+    private final Condition packed;
+
+    private final Sender sender;
+
+    private final Function<Runnable, Thread> threadStarter;
+
+    /** Messages of the next datagram, written by the thread holding the lock */
+    private ByteBuffer datagram;
+
+    /** Maximum datagram size while packing, 0 if every message is sent in its own datagram */
+    private int packingSize;
+
+    private long packingDelayNanos;
+
+    /** Time, when the datagram has to be sent at the latest */
+    private long packingDeadline;
+
+    private Thread packingThread;
+
+    private boolean running = true;
+
+    private volatile long sentMessages = 0;
+
+    private volatile long sentDatagrams = 0;
+
+    /**
+     * @param lock          Lock of the owner, which also guards its encoder
+     * @param sender        Sends the datagrams
+     * @param threadStarter   Starts the packing thread, e.g. {@link SEDAPExpressCommunicator#startThread(Runnable)}
+     * @param maxDatagramSize Maximum datagram size in bytes, 0 sends every message in its own datagram
+     * @param maxDelayNanos   Maximum time a message waits for further messages in nanoseconds
+     */
+    SEDAPExpressDatagramPacker(ReentrantLock lock, Sender sender, Function<Runnable, Thread> threadStarter, int maxDatagramSize, long maxDelayNanos) {
+
+	this.lock = lock;
+	this.packed = lock.newCondition();
+	this.sender = sender;
+	this.threadStarter = threadStarter;
+	this.datagram = SEDAPExpressDatagramPacker.allocate(maxDatagramSize);
+	this.packingSize = maxDatagramSize;
+	this.packingDelayNanos = maxDelayNanos;
+    }
+
+    private static ByteBuffer allocate(int maxDatagramSize) {
+	return ByteBuffer.allocateDirect((maxDatagramSize == 0) ? SEDAPExpressUDPClient.MAX_UDP_PAYLOAD : maxDatagramSize);
+    }
+
+    /**
+     * Sends a message or collects it for sending
+     *
+     * @param message Message to be sent
+     * @param encoder Writes the message into the datagram, called while holding the lock
+     * @return true, if the message has been sent or collected for sending
+     * @throws IOException if a datagram can not be sent
+     */
+    boolean send(SEDAPExpressMessage message, Encoder encoder) throws IOException {
+
+	this.lock.lock();
+	try {
+	    final boolean empty = this.datagram.position() == 0;
+	    try {
+		encoder.encode(message, this.datagram);
+	    } catch (BufferOverflowException e) {
+		if (empty) {
+		    SEDAPExpressDatagramPacker.logger.logp(Level.WARNING, "SEDAPExpressDatagramPacker", "send()", "Message does not fit into one datagram: " + message);
+		    return false;
+		}
+		// Send the collected messages and start a new datagram
+		if (!flush()) {
+		    return false;
+		}
+		return send(message, encoder);
+	    }
+	    this.sentMessages++;
+
+	    if ((this.packingSize == 0) || (this.packingDelayNanos == 0) || !this.datagram.hasRemaining()) {
+		return flush();
+	    }
+
+	    if (empty) {
+		this.packingDeadline = System.nanoTime() + this.packingDelayNanos;
+		if (this.packingThread == null) {
+		    this.packingThread = this.threadStarter.apply(this::sendPacked);
+		}
+		this.packed.signal();
+	    }
+
+	    return true;
+	} finally {
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Sends the collected messages as one datagram, the caller has to hold the lock
+     *
+     * @return true, if the datagram has been sent or there was nothing to send
+     * @throws IOException if the datagram can not be sent
+     */
+    boolean flush() throws IOException {
+
+	if (this.datagram.position() == 0) {
+	    return true;
+	}
+
+	try {
+	    final boolean sent = this.sender.send(this.datagram.flip());
+	    if (sent) {
+		this.sentDatagrams++;
+	    }
+	    return sent;
+	} finally {
+	    this.datagram.clear();
+	}
+    }
+
+    /**
+     * Sends the packed messages when their packing delay has passed
+     */
+    private void sendPacked() {
+
+	this.lock.lock();
+	try {
+	    while (this.running) {
+		if (this.datagram.position() == 0) {
+		    this.packed.await();
+		} else {
+		    final long delay = this.packingDeadline - System.nanoTime();
+		    if (delay > 0) {
+			this.packed.awaitNanos(delay);
+		    } else {
+			try {
+			    flush();
+			} catch (IOException e) {
+			    SEDAPExpressDatagramPacker.logger.logp(Level.WARNING, "SEDAPExpressDatagramPacker", "sendPacked()", "Could not send datagram: " + e.getLocalizedMessage());
+			}
+		    }
+		}
+	    }
+	} catch (InterruptedException e) {
+	    // Stop packing
+	} finally {
+	    this.packingThread = null;
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Changes the packing, the messages collected so far are sent before
+     *
+     * @param maxDatagramSize Maximum datagram size in bytes, 0 sends every message in its own datagram
+     * @param maxDelayNanos   Maximum time a message waits for further messages in nanoseconds, 0 sends every message in its own datagram
+     * @param flush           True, if the collected messages can be sent
+     */
+    void setPacking(int maxDatagramSize, long maxDelayNanos, boolean flush) {
+
+	this.lock.lock();
+	try {
+	    if (flush) {
+		flush();
+	    }
+	    this.datagram = SEDAPExpressDatagramPacker.allocate(maxDatagramSize);
+	    this.packingSize = maxDatagramSize;
+	    this.packingDelayNanos = maxDelayNanos;
+	    this.packed.signal();
+	} catch (IOException e) {
+	    SEDAPExpressDatagramPacker.logger.logp(Level.WARNING, "SEDAPExpressDatagramPacker", "setPacking()", "Could not send datagram: " + e.getLocalizedMessage());
+	} finally {
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Sends the collected messages and ends the packing thread
+     *
+     * @param flush True, if the collected messages can be sent
+     * @throws IOException if the datagram can not be sent
+     */
+    void stop(boolean flush) throws IOException {
+
+	this.lock.lock();
+	try {
+	    if (flush) {
+		flush();
+	    }
+	} finally {
+	    this.running = false;
+	    this.packed.signal();
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Gives the maximum datagram size for packing back
+     *
+     * @return Datagram size in bytes, 0 if packing is disabled
+     */
+    int getPackingSize() {
+	return this.packingSize;
+    }
+
+    /**
+     * Gives the maximum time a packed message waits for further messages back
+     *
+     * @return Delay in nanoseconds
+     */
+    long getPackingDelayNanos() {
+	return this.packingDelayNanos;
+    }
+
+    long getSentMessages() {
+	return this.sentMessages;
+    }
+
+    long getSentDatagrams() {
+	return this.sentDatagrams;
+    }
+}
@@ -25,21 +25,33 @@
  */
 package de.bundeswehr.uniity.sedapexpress.network;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.paho.mqttv5.client.IMqttToken;
+import org.eclipse.paho.mqttv5.client.MqttActionListener;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
 import org.eclipse.paho.mqttv5.client.MqttCallback;
-import org.eclipse.paho.mqttv5.client.MqttClient;
 import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
 import org.eclipse.paho.mqttv5.client.MqttDisconnectResponse;
 import org.eclipse.paho.mqttv5.client.persist.MemoryPersistence;
@@ -48,7 +60,12 @@ import org.eclipse.paho.mqttv5.common.MqttMessage;
 import org.eclipse.paho.mqttv5.common.MqttSecurityException;
 import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
 
+import de.bundeswehr.uniity.sedapexpress.messages.CONTACT;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressBinaryCodec;
 import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.DeleteFlag;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessageCursor;
 
 /**
  * MQTT Client for the communication with a MQTT SEDAP-Express server (e.g. Eclipse Mosquitto)
@@ -63,6 +80,15 @@ public class SEDAPExpressMQTTClient extends SEDAPExpressCommunicator implements
 	SEDAPExpressTCPClient.logger.setLevel(Level.ALL);
     }
 
+    /** Default number of publishes waiting for their acknowledgement at the same time */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 32;
+
+    /** Default QoS of published messages */
+    public static final int DEFAULT_QOS = 1;
+
+    /** Default maximum size of a batched payload in bytes */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64 * 1024;
+
     private Exception lastException = null;
 
     private final String mqttAddress;
@@ -83,10 +109,73 @@ public class SEDAPExpressMQTTClient extends SEDAPExpressCommunicator implements
 
     private boolean status = true;
 
-    private MqttClient client;
+    private MqttAsyncClient client;
 
     private final LinkedBlockingQueue<SEDAPExpressMessage> outQueue = new LinkedBlockingQueue<>();
 
+    private Thread publishingThread;
+
+    private int maxInFlight = SEDAPExpressMQTTClient.DEFAULT_MAX_IN_FLIGHT;
+
+    /** Free places of the in-flight window */
+    private Semaphore inFlight;
+
+    /** QoS by the ordinal of the message type */
+    private final int[] qos = new int[MessageType.values().length];
+    {
+	Arrays.fill(this.qos, SEDAPExpressMQTTClient.DEFAULT_QOS);
+    }
+
+    /** Time messages are collected per topic before they are published together in nanoseconds, 0 if every message is published on its own */
+    private volatile long batchInterval = 0;
+
+    private volatile int maxBatchSize = SEDAPExpressMQTTClient.DEFAULT_MAX_BATCH_SIZE;
+
+    /** If true, every CONTACT is published retained to its own topic root/name/CONTACT/contactID */
+    private volatile boolean retainedContacts = false;
+
+    /** Group of the shared subscription, null for a normal subscription */
+    private String shareGroup;
+
+    /** Subscribed message types, null for all */
+    private EnumSet<MessageType> subscribedTypes;
+
+    private final AtomicLong publishedMessages = new AtomicLong();
+
+    private final AtomicLong publishedPayloads = new AtomicLong();
+
+    private final AtomicLong failedMessages = new AtomicLong();
+
+    /** Releases the in-flight place of a publish, the user context is the number of messages in the payload */
+    private final MqttActionListener publishListener = new MqttActionListener() {
+
+	@Override
+	public void onSuccess(IMqttToken token) {
+
+	    SEDAPExpressMQTTClient.this.inFlight.release();
+	    SEDAPExpressMQTTClient.this.publishedMessages.addAndGet((Integer) token.getUserContext());
+	    SEDAPExpressMQTTClient.this.publishedPayloads.incrementAndGet();
+	}
+
+	@Override
+	public void onFailure(IMqttToken token, Throwable exception) {
+
+	    SEDAPExpressMQTTClient.this.inFlight.release();
+	    SEDAPExpressMQTTClient.this.failedMessages.addAndGet((Integer) token.getUserContext());
+	    SEDAPExpressMQTTClient.logger.logp(Level.WARNING, "SEDAPExpressMQTTClient", "onFailure()", "Could not publish message: " + exception.getLocalizedMessage());
+	}
+    };
+
+    private final SEDAPExpressMessageCursor cursor = new SEDAPExpressMessageCursor();
+
+    /** Decoder of binary payloads, used by the callback thread only */
+    private final SEDAPExpressBinaryCodec decoder = new SEDAPExpressBinaryCodec();
+
+    /** Encoder of binary messages, used by the publishing thread only */
+    private final SEDAPExpressBinaryCodec encoder = new SEDAPExpressBinaryCodec();
+
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(1024);
+
     /**
      * Instantiate a new SEDAP-Express MQTT client
      * 
@@ -206,7 +295,7 @@ public class SEDAPExpressMQTTClient extends SEDAPExpressCommunicator implements
     @Override
     public boolean connect() {
 
-	new Thread(() -> {
+	startThread(() -> {
 
 	    this.status = true;
 
@@ -216,7 +305,7 @@ public class SEDAPExpressMQTTClient extends SEDAPExpressCommunicator implements
 
 		try {
 
-		    this.client = new MqttClient(this.mqttAddress, this.clientUsername, new MemoryPersistence());
+		    this.client = new MqttAsyncClient(this.mqttAddress, this.clientUsername, new MemoryPersistence());
 		    this.client.setCallback(this);
 
 		    final MqttConnectionOptions options = new MqttConnectionOptions();
@@ -232,26 +321,17 @@ public class SEDAPExpressMQTTClient extends SEDAPExpressCommunicator implements
 			options.setSocketFactory(SSLUtils.getSocketFactory(this.caCertificateStream, this.clientCertificateStream, this.clientKeyFileStream, ""));
 		    }
 
-		    this.client.connect(options);
-
-		    this.client.subscribe(this.mqttRoot + "/+/+", 1);
-
-		    while (this.status) {
-
-			final MqttMessage mqttMmessage = new MqttMessage();
+		    this.client.connect(options).waitForCompletion();
 
-			final SEDAPExpressMessage msg = this.outQueue.take();
+		    final String[] subscriptionFilters = getSubscriptionFilters();
+		    final int[] subscriptionQoS = new int[subscriptionFilters.length];
+		    Arrays.fill(subscriptionQoS, 1);
+		    this.client.subscribe(subscriptionFilters, subscriptionQoS).waitForCompletion();
 
-			logInput(msg.toString());
-			mqttMmessage.setPayload(msg.toString().getBytes());
+		    this.inFlight = new Semaphore(this.maxInFlight);
+		    this.publishingThread = Thread.currentThread();
 
-			try {
-			    SEDAPExpressMQTTClient.this.client.publish(this.mqttRoot + "/" + msg.getClass().getSimpleName(), mqttMmessage);
-			} catch (final MqttException e) {
-			    e.printStackTrace();
-			}
-
-		    }
+		    publishMessages();
 
 		} catch (final MqttSecurityException e) {
 
@@ -267,6 +347,10 @@ public class SEDAPExpressMQTTClient extends SEDAPExpressCommunicator implements
 		    this.status = false;
 		    e.printStackTrace();
 
+		} catch (final InterruptedException e) {
+		    // Stopped
+		    this.status = false;
+
 		} catch (final Exception e) {
 		    SEDAPExpressMQTTClient.logger.logp(Level.INFO, "SEDAPExpressMQTTClient", "connect()", "MQTT error occurred: " + e.getLocalizedMessage());
 		    logInput("Could not connect to MQTT server ...");
@@ -281,7 +365,7 @@ public class SEDAPExpressMQTTClient extends SEDAPExpressCommunicator implements
 
 	    }
 
-	}).start();
+	});
 
 	// Warten solange Status ob irgendwann verbunden
 	// Wenn Verbindung fehlschlägt, dann auch status == false
@@ -301,14 +385,355 @@ public class SEDAPExpressMQTTClient extends SEDAPExpressCommunicator implements
 
     }
 
+    /**
+     * Publishes the queued messages until the client is stopped. Up to the maximum number of in-flight publishes are sent without waiting for their acknowledgements. If batching is enabled, the messages of one topic are collected for the batch interval and published as one payload with one message per line.
+     * In the binary encoding every message of a payload is prefixed with its length instead.
+     *
+     * @throws InterruptedException if the client has been stopped
+     */
+    private void publishMessages() throws InterruptedException {
+
+	final Map<String, ByteArrayOutputStream> batches = new LinkedHashMap<>();
+	final Map<String, Integer> batchSizes = new LinkedHashMap<>();
+	final Map<String, Integer> batchQoS = new LinkedHashMap<>();
+	long flushTime = 0;
+
+	while (this.status) {
+
+	    final SEDAPExpressMessage msg;
+	    if (batches.isEmpty()) {
+		msg = this.outQueue.take();
+	    } else {
+		msg = this.outQueue.poll(flushTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+	    }
+
+	    if (msg != null) {
+		final String text = msg.toString();
+		logInput(text);
+		final boolean binary = getEncoding() == Encoding.BINARY;
+		final byte[] payload = binary ? encodeBinary(msg) : text.getBytes(StandardCharsets.ISO_8859_1);
+
+		final String topic = this.mqttRoot + "/" + msg.getClass().getSimpleName();
+		final MessageType type = msg.getMessageType();
+		final int messageQoS = (type != null) ? this.qos[type.ordinal()] : SEDAPExpressMQTTClient.DEFAULT_QOS;
+		final long interval = this.batchInterval;
+
+		if (this.retainedContacts && (msg instanceof CONTACT contact) && (contact.getContactID() != null)) {
+		    final String contactTopic = topic + "/" + SEDAPExpressMQTTClient.toTopicLevel(contact.getContactID());
+		    if (contact.getDeleteFlag() == DeleteFlag.TRUE) {
+			// Current subscribers get the deletion, the empty retained message removes the contact from the picture of later ones
+			publish(contactTopic, payload, messageQoS, false, 1);
+			publish(contactTopic, new byte[0], messageQoS, true, 0);
+		    } else {
+			publish(contactTopic, payload, messageQoS, true, 1);
+		    }
+		} else if (interval == 0) {
+		    publish(topic, payload, messageQoS, false, 1);
+		} else {
+		    if (batches.isEmpty()) {
+			flushTime = System.nanoTime() + interval;
+		    }
+
+		    ByteArrayOutputStream batch = batches.get(topic);
+		    final int separator = binary ? 0 : 1;
+		    if ((batch != null) && ((batch.size() + separator + payload.length) > this.maxBatchSize)) {
+			publish(topic, batch.toByteArray(), batchQoS.get(topic), false, batchSizes.get(topic));
+			batch = null;
+		    }
+
+		    if (batch == null) {
+			batch = new ByteArrayOutputStream(Math.min(this.maxBatchSize, 4096));
+			batch.writeBytes(payload);
+			batches.put(topic, batch);
+			batchSizes.put(topic, 1);
+			batchQoS.put(topic, messageQoS);
+		    } else {
+			if (!binary) {
+			    batch.write('\n');
+			}
+			batch.writeBytes(payload);
+			batchSizes.merge(topic, 1, Integer::sum);
+			batchQoS.merge(topic, messageQoS, Math::max);
+		    }
+		}
+	    }
+
+	    if (!batches.isEmpty() && ((System.nanoTime() - flushTime) >= 0)) {
+		for (final Map.Entry<String, ByteArrayOutputStream> batch : batches.entrySet()) {
+		    publish(batch.getKey(), batch.getValue().toByteArray(), batchQoS.get(batch.getKey()), false, batchSizes.get(batch.getKey()));
+		}
+		batches.clear();
+		batchSizes.clear();
+		batchQoS.clear();
+	    }
+	}
+    }
+
+    /**
+     * Encodes a message binary with its length in front, so a batched payload is a sequence of such messages
+     */
+    private byte[] encodeBinary(SEDAPExpressMessage message) {
+
+	while (true) {
+	    try {
+		this.encodeBuffer.clear();
+		this.encoder.encode(message, this.encodeBuffer);
+		return Arrays.copyOf(this.encodeBuffer.array(), this.encodeBuffer.position());
+	    } catch (BufferOverflowException e) {
+		this.encodeBuffer = ByteBuffer.allocate(this.encodeBuffer.capacity() * 2);
+	    }
+	}
+    }
+
+    /**
+     * Publishes a payload as soon as there is a free place in the in-flight window
+     */
+    private void publish(String topic, byte[] payload, int qos, boolean retained, int messages) throws InterruptedException {
+
+	this.inFlight.acquire();
+	try {
+	    this.client.publish(topic, payload, qos, retained, messages, this.publishListener);
+	} catch (final MqttException e) {
+	    this.inFlight.release();
+	    this.failedMessages.addAndGet(messages);
+	    this.lastException = e;
+	    SEDAPExpressMQTTClient.logger.logp(Level.WARNING, "SEDAPExpressMQTTClient", "publish()", "Could not publish message: " + e.getLocalizedMessage());
+	}
+    }
+
+    /**
+     * Converts a contactID into a topic level, the level separator and the wildcards are not allowed within a level
+     *
+     * @param contactID ContactID
+     * @return Topic level
+     */
+    static String toTopicLevel(String contactID) {
+	return contactID.replace('/', '_').replace('+', '_').replace('#', '_');
+    }
+
+    /**
+     * Checks, if the message type of a topic has been filtered. The type is the last level or, for per contact topics, the level before the contactID.
+     *
+     * @param topic Topic of a received message
+     * @return true, if messages of this topic are ignored
+     */
+    private boolean isFiltered(String topic) {
+
+	final int last = topic.lastIndexOf('/');
+	if (this.filterTopics.contains(topic.substring(last))) {
+	    return true;
+	}
+
+	final int previous = topic.lastIndexOf('/', last - 1);
+	return (previous >= 0) && this.filterTopics.contains(topic.substring(previous, last));
+    }
+
+    /**
+     * Lets the client publish every CONTACT retained to its own topic root/name/CONTACT/contactID, instead of root/name/CONTACT. The broker keeps the last state of every contact, so a console subscribing to root/name/CONTACT/+ gets the complete picture at once. A CONTACT with delete flag
+     * is published to the current subscribers and removes the retained message. Per contact topics are not batched.
+     *
+     * @param retainedContacts true, to publish retained per contact topics
+     */
+    public void setRetainedContacts(boolean retainedContacts) {
+	this.retainedContacts = retainedContacts;
+    }
+
+    /**
+     * Gives back, if every CONTACT is published retained to its own topic
+     *
+     * @return true, if retained per contact topics are used
+     */
+    public boolean isRetainedContacts() {
+	return this.retainedContacts;
+    }
+
+    /**
+     * Lets the client subscribe as member of an MQTT v5 shared subscription group ($share/group/...). The broker distributes the messages of a topic among all members of a group, so several clients can share the processing load. Retained messages are not sent to shared subscriptions. Has to be set before connecting.
+     *
+     * @param group Name of the group, null for a normal subscription
+     */
+    public void setSharedSubscription(String group) {
+
+	if ((group != null) && (group.isEmpty() || (group.indexOf('/') >= 0) || (group.indexOf('+') >= 0) || (group.indexOf('#') >= 0))) {
+	    throw new IllegalArgumentException("Invalid share group: " + group);
+	}
+
+	this.shareGroup = group;
+    }
+
+    /**
+     * Gives the group of the shared subscription back
+     *
+     * @return Name of the group, null for a normal subscription
+     */
+    public String getSharedSubscription() {
+	return this.shareGroup;
+    }
+
+    /**
+     * Restricts the subscription to the topics of the given message types, e.g. to let a group of clients share only the CONTACT processing. Has to be set before connecting.
+     *
+     * @param types Message types, none to subscribe to all types
+     */
+    public void setSubscribedTypes(MessageType... types) {
+	this.subscribedTypes = (types.length == 0) ? null : EnumSet.copyOf(Arrays.asList(types));
+    }
+
+    /**
+     * Gives the subscribed message types back
+     *
+     * @return Message types, null if all types are subscribed
+     */
+    public Set<MessageType> getSubscribedTypes() {
+	return (this.subscribedTypes == null) ? null : EnumSet.copyOf(this.subscribedTypes);
+    }
+
+    /**
+     * Creates the topic filters to subscribe to, matching the published topics root/name/TYPE and root/name/CONTACT/contactID. With restricted message types there is one filter per type, CONTACT additionally covers the per contact topics.
+     *
+     * @return Topic filters
+     */
+    String[] getSubscriptionFilters() {
+
+	final List<String> filters = new ArrayList<>();
+	if (this.subscribedTypes == null) {
+	    filters.add(this.mqttRoot + "/+");
+	    filters.add(this.mqttRoot + "/" + MessageType.CONTACT.name() + "/+");
+	} else {
+	    for (final MessageType type : this.subscribedTypes) {
+		filters.add(this.mqttRoot + "/" + type.name());
+		if (type == MessageType.CONTACT) {
+		    filters.add(this.mqttRoot + "/" + type.name() + "/+");
+		}
+	    }
+	}
+
+	if (this.shareGroup != null) {
+	    filters.replaceAll(filter -> "$share/" + this.shareGroup + "/" + filter);
+	}
+
+	return filters.toArray(new String[filters.size()]);
+    }
+
+    /**
+     * Sets the number of publishes, which may wait for their acknowledgement at the same time. Has to be set before connecting.
+     *
+     * @param maxInFlight Maximum number of in-flight publishes, 1 waits for every acknowledgement before the next publish
+     */
+    public void setMaxInFlight(int maxInFlight) {
+
+	if (maxInFlight < 1) {
+	    throw new IllegalArgumentException("Invalid in-flight window: " + maxInFlight);
+	}
+
+	this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Gives the number of publishes back, which may wait for their acknowledgement at the same time
+     *
+     * @return Maximum number of in-flight publishes
+     */
+    public int getMaxInFlight() {
+	return this.maxInFlight;
+    }
+
+    /**
+     * Sets the QoS for publishing messages of the given types
+     *
+     * @param qos   QoS 0 (at most once), 1 (at least once) or 2 (exactly once)
+     * @param types Message types
+     */
+    public void setQoS(int qos, MessageType... types) {
+
+	if ((qos < 0) || (qos > 2)) {
+	    throw new IllegalArgumentException("Invalid QoS: " + qos);
+	}
+
+	for (final MessageType type : types) {
+	    this.qos[type.ordinal()] = qos;
+	}
+    }
+
+    /**
+     * Gives the QoS for publishing messages of the given type back
+     *
+     * @param type Message type
+     * @return QoS
+     */
+    public int getQoS(MessageType type) {
+	return this.qos[type.ordinal()];
+    }
+
+    /**
+     * Lets the client collect the messages of each topic for the given interval and publish them as one payload, with one message per line. The payload gets the highest QoS of the contained messages.
+     *
+     * @param interval       Time messages are collected in milliseconds, 0 publishes every message on its own (default)
+     * @param maxPayloadSize Maximum payload size in bytes, a larger batch is published before the interval has passed
+     */
+    public void setBatching(long interval, int maxPayloadSize) {
+
+	if ((interval < 0) || (maxPayloadSize < 1)) {
+	    throw new IllegalArgumentException("Invalid batching: interval=" + interval + " size=" + maxPayloadSize);
+	}
+
+	this.maxBatchSize = maxPayloadSize;
+	this.batchInterval = TimeUnit.MILLISECONDS.toNanos(interval);
+    }
+
+    /**
+     * Gives the number of messages back, whose publishing has been completed, i.e. acknowledged by the server for QoS 1 and 2
+     *
+     * @return published messages
+     */
+    public long getPublishedMessages() {
+	return this.publishedMessages.get();
+    }
+
+    /**
+     * Gives the number of completed publishes back, a batched publish contains several messages
+     *
+     * @return published payloads
+     */
+    public long getPublishedPayloads() {
+	return this.publishedPayloads.get();
+    }
+
+    /**
+     * Gives the number of messages back, which could not be published
+     *
+     * @return failed messages
+     */
+    public long getFailedMessages() {
+	return this.failedMessages.get();
+    }
+
     @Override
     public void messageArrived(final String topic, final MqttMessage message) throws Exception {
 
 	try {
 	    if (message != null) {
 
-		if (!this.filterTopics.contains(topic.substring(topic.lastIndexOf("/"))))
-		    distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(new String(message.getPayload())));
+		if (isFiltered(topic)) {
+		    return;
+		}
+
+		final byte[] payload = message.getPayload();
+		if (getEncoding() == Encoding.BINARY) {
+		    // Length prefixed messages
+		    this.decoder.decodeAll(payload, 0, payload.length, this::distributeReceivedSEDAPExpressMessage);
+		} else {
+		    // A batched payload contains one message per line
+		    int start = 0;
+		    for (int i = 0; i <= payload.length; i++) {
+			if ((i == payload.length) || (payload[i] == '\n')) {
+			    if (i > start) {
+				distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(this.cursor.wrap(payload, start, i - start)));
+			    }
+			    start = i + 1;
+			}
+		    }
+		}
 	    }
 	} catch (Exception e) {
 
@@ -320,12 +745,33 @@ public class SEDAPExpressMQTTClient extends SEDAPExpressCommunicator implements
 	}
     }
 
+    /**
+     * Supports the text and the binary encoding, every binary payload is a sequence of length prefixed messages
+     */
+    @Override
+    protected boolean isEncodingSupported(Encoding encoding) {
+	return true;
+    }
+
     @Override
     public void stopCommunicator() {
 
 	logInput("Stopping MQTT Client...");
 
 	this.status = false;
+
+	if (this.publishingThread != null) {
+	    this.publishingThread.interrupt();
+	}
+
+	if (this.client != null) {
+	    try {
+		this.client.disconnect().waitForCompletion(2000);
+		this.client.close();
+	    } catch (final MqttException e) {
+		this.lastException = e;
+	    }
+	}
     }
 
     public boolean isReady() {
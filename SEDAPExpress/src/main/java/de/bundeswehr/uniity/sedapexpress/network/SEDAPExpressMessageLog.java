@@ -0,0 +1,213 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+
+/**
+ * Bounded log of serialized messages for consumers reading at their own pace, e.g. the clients of the REST server. Every message gets a sequence number, each consumer remembers the offset of the
+ * next message it wants to read. When the log is full, the oldest message is overwritten, consumers falling behind are told how many messages they have lost. Readers can wait for new messages (long
+ * poll).
+ *
+ * @author Volker Voß
+ *
+ */
+public final class SEDAPExpressMessageLog {
+
+    /** Default number of messages kept */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /**
+     * Messages read from the log
+     *
+     * @param messages     Serialized messages without line terminator
+     * @param offset       Sequence number of the first message
+     * @param nextOffset   Offset for the next read
+     * @param lostMessages Number of requested messages, which have already been overwritten
+     */
+    public record Slice(List<String> messages, long offset, long nextOffset, long lostMessages) {
+    }
+
+    private final String[] entries;
+
+    /** Sequence number of the next appended message */
+    private long nextSequence = 0;
+
+    private boolean closed = false;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition appended = this.lock.newCondition();
+
+    /**
+     * Creates a new log
+     *
+     * @param capacity Number of messages kept
+     */
+    public SEDAPExpressMessageLog(int capacity) {
+
+	if (capacity < 1) {
+	    throw new IllegalArgumentException("Invalid capacity: " + capacity);
+	}
+
+	this.entries = new String[capacity];
+    }
+
+    /**
+     * Creates a new log for {@link #DEFAULT_CAPACITY} messages
+     */
+    public SEDAPExpressMessageLog() {
+	this(SEDAPExpressMessageLog.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Appends a message, which is serialized once for all consumers
+     *
+     * @param message Message
+     * @return Sequence number of the message
+     */
+    public long append(SEDAPExpressMessage message) {
+	return append(message.toString());
+    }
+
+    /**
+     * Appends a serialized message
+     *
+     * @param message Serialized message without line terminator
+     * @return Sequence number of the message
+     */
+    public long append(String message) {
+
+	this.lock.lock();
+	try {
+	    final long sequence = this.nextSequence++;
+	    this.entries[(int) (sequence % this.entries.length)] = message;
+	    this.appended.signalAll();
+	    return sequence;
+	} finally {
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Reads the messages starting at the given offset. If there is no such message yet, the reader waits until one is appended, the timeout has passed or the log has been closed. An offset
+     * behind the end of the log, e.g. from before a restart of the server, starts at the oldest kept message.
+     *
+     * @param offset      Sequence number of the first message to read, a negative value starts at the oldest kept message
+     * @param maxMessages Maximum number of messages to read
+     * @param timeout     Maximum time to wait for a message, 0 to return immediately
+     * @param unit        Unit of the timeout
+     * @return Read messages, possibly none
+     * @throws InterruptedException if the waiting thread has been interrupted
+     */
+    public Slice read(long offset, int maxMessages, long timeout, TimeUnit unit) throws InterruptedException {
+
+	this.lock.lock();
+	try {
+	    long first = getFirstSequence();
+	    long start = ((offset < 0) || (offset > this.nextSequence)) ? first : offset;
+
+	    long nanos = unit.toNanos(timeout);
+	    while ((start == this.nextSequence) && (nanos > 0) && !this.closed) {
+		nanos = this.appended.awaitNanos(nanos);
+	    }
+
+	    // Messages may have been overwritten while waiting
+	    first = getFirstSequence();
+	    final long lost = Math.max(0, first - start);
+	    start = Math.max(start, first);
+
+	    final int count = (int) Math.min(maxMessages, this.nextSequence - start);
+	    final List<String> messages = new ArrayList<>(count);
+	    for (long sequence = start; sequence < (start + count); sequence++) {
+		messages.add(this.entries[(int) (sequence % this.entries.length)]);
+	    }
+
+	    return new Slice(messages, start, start + count, lost);
+	} finally {
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Wakes up all waiting readers and lets further reads return immediately
+     */
+    public void close() {
+
+	this.lock.lock();
+	try {
+	    this.closed = true;
+	    this.appended.signalAll();
+	} finally {
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Gives the sequence number of the oldest kept message back
+     *
+     * @return Sequence number
+     */
+    public long getFirstSequence() {
+
+	this.lock.lock();
+	try {
+	    return Math.max(0, this.nextSequence - this.entries.length);
+	} finally {
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Gives the sequence number of the next appended message back
+     *
+     * @return Sequence number
+     */
+    public long getNextSequence() {
+
+	this.lock.lock();
+	try {
+	    return this.nextSequence;
+	} finally {
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Gives the number of messages the log keeps back
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+	return this.entries.length;
+    }
+}
@@ -0,0 +1,349 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import de.bundeswehr.uniity.sedapexpress.messages.CONTACT;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+
+/**
+ * Bounded queue of serialized messages waiting to be written to one connection
+ * <p>
+ * Messages are added by any thread and written by the I/O thread of the connection with gathering writes. A message is only removed after it has been written completely, so a partial write never truncates a line.
+ * If the queued bytes exceed the limit, the {@link SlowConsumerPolicy} decides what happens.
+ *
+ * @author Volker Voß
+ *
+ */
+public final class SEDAPExpressOutboundQueue {
+
+    /**
+     * Behaviour when a receiver does not read fast enough and the queue is full
+     */
+    public enum SlowConsumerPolicy {
+
+	/** The oldest messages not yet being written are dropped */
+	DROP_OLDEST,
+
+	/** A queued CONTACT is replaced by a newer one of the same contact, if this does not suffice the oldest messages are dropped */
+	COALESCE,
+
+	/** The new message is rejected and the connection should be closed */
+	DISCONNECT,
+
+	/** The new message is rejected and the sender has to wait until the queue has been written, only for connections written by the sending thread */
+	BLOCK
+    }
+
+    /** Default maximum of queued bytes per connection */
+    public static final long DEFAULT_MAX_QUEUED_BYTES = 8 * 1024 * 1024;
+
+    /** Maximum number of messages written by one gathering write */
+    private static final int MAX_GATHER = 64;
+
+    private static final class Entry {
+
+	private ByteBuffer buffer;
+	private final String key;
+
+	private Entry(ByteBuffer buffer, String key) {
+	    this.buffer = buffer;
+	    this.key = key;
+	}
+    }
+
+    private final SlowConsumerPolicy policy;
+
+    private final long maxQueuedBytes;
+
+    /** Messages not yet handed to the I/O thread, guarded by this */
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+
+    /** Queued CONTACTs by their coalescing key, guarded by this */
+    private final HashMap<String, Entry> latest = new HashMap<>();
+
+    /** Messages currently being written, only accessed by the I/O thread */
+    private final ByteBuffer[] writing = new ByteBuffer[SEDAPExpressOutboundQueue.MAX_GATHER];
+    private int writingStart = 0;
+    private int writingEnd = 0;
+
+    private volatile long queuedBytes = 0;
+    private volatile long writtenBytes = 0;
+    private volatile long droppedMessages = 0;
+    private volatile long coalescedMessages = 0;
+
+    /**
+     * Instantiate a new outbound queue
+     *
+     * @param policy         Behaviour if the queue is full
+     * @param maxQueuedBytes Maximum number of queued bytes
+     */
+    public SEDAPExpressOutboundQueue(SlowConsumerPolicy policy, long maxQueuedBytes) {
+
+	this.policy = policy;
+	this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    /**
+     * Instantiate a new outbound queue, which drops the oldest messages if more than {@link #DEFAULT_MAX_QUEUED_BYTES} are queued
+     */
+    public SEDAPExpressOutboundQueue() {
+	this(SlowConsumerPolicy.DROP_OLDEST, SEDAPExpressOutboundQueue.DEFAULT_MAX_QUEUED_BYTES);
+    }
+
+    /**
+     * Gives the key, by which messages are coalesced, back
+     *
+     * @param message Message
+     * @return sender and contact ID of a CONTACT, otherwise null
+     */
+    public static String getCoalescingKey(SEDAPExpressMessage message) {
+
+	if ((message instanceof CONTACT contact) && (contact.getContactID() != null)) {
+	    return contact.getSender() + ';' + contact.getContactID();
+	}
+	return null;
+    }
+
+    /**
+     * Adds a serialized message. The buffer must not be changed afterwards, a shared buffer has to be added as {@link ByteBuffer#duplicate()}.
+     *
+     * @param buffer Serialized message including the line end
+     * @param key    Coalescing key, see {@link #getCoalescingKey(SEDAPExpressMessage)}, or null
+     * @return false, if the message has been rejected because of {@link SlowConsumerPolicy#DISCONNECT} or {@link SlowConsumerPolicy#BLOCK}
+     */
+    public synchronized boolean offer(ByteBuffer buffer, String key) {
+
+	final int length = buffer.remaining();
+
+	if ((this.queuedBytes + length) > this.maxQueuedBytes) {
+
+	    if (this.policy == SlowConsumerPolicy.BLOCK) {
+		// A message longer than the limit is accepted as soon as the queue is empty
+		if (this.queuedBytes > 0) {
+		    return false;
+		}
+	    } else if (this.policy == SlowConsumerPolicy.DISCONNECT) {
+		this.droppedMessages++;
+		return false;
+	    }
+
+	    if ((this.policy == SlowConsumerPolicy.COALESCE) && (key != null)) {
+		final Entry queued = this.latest.get(key);
+		if (queued != null) {
+		    // Replace the outdated state of the contact at its position in the queue, a longer state drops the oldest other messages to keep the limit
+		    final int growth = length - queued.buffer.remaining();
+		    if (growth > 0) {
+			dropOldest(growth, queued);
+		    }
+		    this.queuedBytes += growth;
+		    queued.buffer = buffer;
+		    this.coalescedMessages++;
+		    return true;
+		}
+	    }
+
+	    if (this.policy != SlowConsumerPolicy.BLOCK) {
+		dropOldest(length, null);
+	    }
+	}
+
+	final Entry entry = new Entry(buffer, key);
+	this.pending.add(entry);
+	if ((key != null) && (this.policy == SlowConsumerPolicy.COALESCE)) {
+	    this.latest.put(key, entry);
+	}
+	this.queuedBytes += length;
+	return true;
+    }
+
+    /**
+     * Adds a message
+     *
+     * @param message Message
+     * @return false, if the message has been rejected because of {@link SlowConsumerPolicy#DISCONNECT} or {@link SlowConsumerPolicy#BLOCK}
+     */
+    public boolean offer(SEDAPExpressMessage message) {
+	return offer(SEDAPExpressOutboundQueue.encode(message), SEDAPExpressOutboundQueue.getCoalescingKey(message));
+    }
+
+    /**
+     * Serializes a message including the line end into a read only buffer, which can be shared by several queues with {@link ByteBuffer#duplicate()}
+     *
+     * @param message Message
+     * @return serialized message
+     */
+    public static ByteBuffer encode(SEDAPExpressMessage message) {
+
+	return ByteBuffer.wrap(SEDAPExpressMessage.serialize(message).getBytes(StandardCharsets.ISO_8859_1)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Drops the oldest messages until a message of the given length fits
+     *
+     * @param length Length of the message
+     * @param keep   Entry not to be dropped, or null
+     */
+    private void dropOldest(int length, Entry keep) {
+
+	final Iterator<Entry> iterator = this.pending.iterator();
+	while (((this.queuedBytes + length) > this.maxQueuedBytes) && iterator.hasNext()) {
+	    final Entry entry = iterator.next();
+	    if (entry == keep) {
+		continue;
+	    }
+	    iterator.remove();
+	    if (entry.key != null) {
+		this.latest.remove(entry.key, entry);
+	    }
+	    this.queuedBytes -= entry.buffer.remaining();
+	    this.droppedMessages++;
+	}
+    }
+
+    /**
+     * Writes as many queued messages as the channel accepts. Only one thread may write a queue.
+     *
+     * @param channel Channel to write to
+     * @return true, if the queue has been written completely
+     * @throws IOException if the channel could not be written
+     */
+    public boolean writeTo(GatheringByteChannel channel) throws IOException {
+
+	while (true) {
+	    if (this.writingStart == this.writingEnd) {
+		if (!takePending()) {
+		    return true;
+		}
+	    }
+
+	    final long written = channel.write(this.writing, this.writingStart, this.writingEnd - this.writingStart);
+	    while ((this.writingStart < this.writingEnd) && !this.writing[this.writingStart].hasRemaining()) {
+		this.writing[this.writingStart++] = null;
+	    }
+
+	    synchronized (this) {
+		this.queuedBytes -= written;
+		this.writtenBytes += written;
+	    }
+
+	    if (this.writingStart < this.writingEnd) {
+		// Channel does not accept more data at the moment
+		return false;
+	    }
+	}
+    }
+
+    private synchronized boolean takePending() {
+
+	this.writingStart = 0;
+	this.writingEnd = 0;
+
+	Entry entry;
+	while ((this.writingEnd < this.writing.length) && ((entry = this.pending.poll()) != null)) {
+	    if (entry.key != null) {
+		this.latest.remove(entry.key, entry);
+	    }
+	    this.writing[this.writingEnd++] = entry.buffer;
+	}
+	return this.writingEnd > 0;
+    }
+
+    /**
+     * Removes all queued messages, has to be called by the writing thread
+     */
+    public synchronized void clear() {
+
+	Arrays.fill(this.writing, null);
+	this.writingStart = 0;
+	this.writingEnd = 0;
+	this.pending.clear();
+	this.latest.clear();
+	this.queuedBytes = 0;
+    }
+
+    /**
+     * Checks, if no message is queued
+     *
+     * @return true, if no bytes are queued
+     */
+    public boolean isEmpty() {
+	return this.queuedBytes == 0;
+    }
+
+    /**
+     * Gives the number of bytes waiting to be written back
+     *
+     * @return queued bytes
+     */
+    public long getQueuedBytes() {
+	return this.queuedBytes;
+    }
+
+    /**
+     * Gives the number of bytes written so far back
+     *
+     * @return written bytes
+     */
+    public long getWrittenBytes() {
+	return this.writtenBytes;
+    }
+
+    /**
+     * Gives the number of messages dropped or rejected because the queue was full back
+     *
+     * @return dropped messages
+     */
+    public long getDroppedMessages() {
+	return this.droppedMessages;
+    }
+
+    /**
+     * Gives the number of messages replaced by a newer message of the same contact back
+     *
+     * @return coalesced messages
+     */
+    public long getCoalescedMessages() {
+	return this.coalescedMessages;
+    }
+
+    /**
+     * Gives the slow consumer policy of this queue back
+     *
+     * @return policy
+     */
+    public SlowConsumerPolicy getPolicy() {
+	return this.policy;
+    }
+}
@@ -0,0 +1,612 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.InterfaceAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressOutboundQueue.SlowConsumerPolicy;
+import de.bundeswehr.uniity.sedapexpress.protobuf.SEDAPExpressProtobufCodec;
+
+/**
+ * Receiver/sender class for SEDAP-Express messages in the Protobuf format (see sedapexpress.proto). Every message is preceded by its length as varint, like MessageLite.writeDelimitedTo(), so messages can follow
+ * each other on a TCP stream. Over UDP several length prefixed messages are packed into one datagram.
+ *
+ * @author Volker Voß
+ *
+ */
+public class SEDAPExpressProtobufCommunicator extends SEDAPExpressCommunicator implements Runnable {
+
+    protected static Logger logger = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    static {
+	SEDAPExpressProtobufCommunicator.logger.setLevel(Level.ALL);
+    }
+
+    /**
+     * Transport of the length prefixed messages
+     */
+    public enum Transport {
+
+	/** TCP connection to a server */
+	TCP,
+
+	/** UDP datagrams, each containing one or more messages */
+	UDP
+    }
+
+    /** Maximum length of a varint encoded 32 bit value */
+    private static final int MAX_LENGTH_PREFIX = 5;
+
+    private final Transport transport;
+
+    private final String host;
+
+    private final int port;
+
+    private int localPort;
+
+    private boolean status = true;
+
+    private Exception lastException = null;
+
+    private Thread ownThread;
+
+    /** Used by the receiving thread only */
+    private final SEDAPExpressProtobufCodec decoder = new SEDAPExpressProtobufCodec();
+
+    /** Guards the encoder and the packed datagram */
+    private final ReentrantLock sendLock = new ReentrantLock();
+
+    private final SEDAPExpressProtobufCodec encoder = new SEDAPExpressProtobufCodec();
+
+    private SocketChannel socket;
+
+    /** Messages waiting to be sent over TCP, written by the thread holding the write lock */
+    private volatile SEDAPExpressOutboundQueue output = new SEDAPExpressOutboundQueue(SlowConsumerPolicy.BLOCK, SEDAPExpressOutboundQueue.DEFAULT_MAX_QUEUED_BYTES);
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private DatagramChannel channel;
+
+    /** Resolved destination, cached to avoid a name lookup per datagram */
+    private InetSocketAddress destination;
+
+    private final SEDAPExpressDatagramPacker packer = new SEDAPExpressDatagramPacker(this.sendLock, this::sendPackedDatagram, this::startThread, SEDAPExpressUDPClient.DEFAULT_PACKING_SIZE, TimeUnit.MILLISECONDS.toNanos(SEDAPExpressUDPClient.DEFAULT_PACKING_DELAY));
+
+    /** Messages sent over TCP */
+    private volatile long sentMessages = 0;
+
+    private volatile long receivedMessages = 0;
+
+    private volatile long invalidMessages = 0;
+
+    /**
+     * Instantiate a new SEDAP-Express Protobuf communicator. Over TCP it connects to the given server, over UDP it receives on the same port it sends to, unless {@link #setLocalPort(int)} is used.
+     *
+     * @param transport TCP or UDP
+     * @param host      Host/IP to be used
+     * @param port      Port to be used
+     */
+    public SEDAPExpressProtobufCommunicator(Transport transport, String host, int port) {
+
+	super();
+
+	this.transport = transport;
+	this.host = host;
+	this.port = port;
+	this.localPort = port;
+    }
+
+    public Transport getTransport() {
+	return this.transport;
+    }
+
+    public String getHost() {
+	return this.host;
+    }
+
+    /**
+     * Sets the port datagrams are received on, by default the port they are sent to. It has to be set before {@link #connect()}.
+     *
+     * @param localPort Local UDP port, 0 for an ephemeral port
+     */
+    public void setLocalPort(int localPort) {
+	this.localPort = localPort;
+    }
+
+    public int getLocalPort() {
+	return this.localPort;
+    }
+
+    @Override
+    public boolean connect() {
+
+	try {
+	    if (this.transport == Transport.TCP) {
+		this.socket = SelectorProvider.provider().openSocketChannel();
+		this.socket.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+		this.socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		this.socket.configureBlocking(true);
+		this.socket.connect(new InetSocketAddress(this.host, this.port));
+
+		SEDAPExpressProtobufCommunicator.logger.logp(Level.INFO, "SEDAPExpressProtobufCommunicator", "connect()", "Connected to " + this.host + ":" + this.port);
+		logInput("Connected to " + this.host + ":" + this.port);
+	    } else {
+		this.channel = DatagramChannel.open();
+		this.channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+		this.channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+		this.channel.setOption(StandardSocketOptions.SO_RCVBUF, SEDAPExpressUDPClient.DEFAULT_SOCKET_RECEIVE_BUFFER_SIZE);
+		this.channel.bind(new InetSocketAddress(this.localPort));
+		this.channel.configureBlocking(true);
+		this.localPort = ((InetSocketAddress) this.channel.getLocalAddress()).getPort();
+		this.destination = new InetSocketAddress(this.host, this.port);
+
+		SEDAPExpressProtobufCommunicator.logger.logp(Level.INFO, "SEDAPExpressProtobufCommunicator", "connect()", "UDP listening on port: " + this.localPort);
+		logInput("UDP listening on port: " + this.localPort);
+	    }
+
+	    this.lastException = null;
+
+	    if (this.ownThread == null) {
+		this.ownThread = startThread(this); // Start receiving thread
+	    }
+
+	    return true;
+	} catch (Exception e) {
+	    SEDAPExpressProtobufCommunicator.logger.logp(Level.INFO, "SEDAPExpressProtobufCommunicator", "connect()", "Could not connect " + this.transport + " " + this.host + ":" + this.port + ": " + e.getLocalizedMessage());
+	    logInput("Could not connect " + this.transport + " " + this.host + ":" + this.port);
+	    this.lastException = e;
+	    return false;
+	}
+    }
+
+    @Override
+    public void run() {
+
+	if (this.transport == Transport.TCP) {
+	    receiveStream();
+	} else {
+	    receiveDatagrams();
+	}
+    }
+
+    private void receiveStream() {
+
+	while (this.status) {
+
+	    try {
+		final SEDAPExpressStreamFramer input = new SEDAPExpressStreamFramer(this::processDelimited, SEDAPExpressTCPServer.MAX_MESSAGE_LENGTH + SEDAPExpressProtobufCommunicator.MAX_LENGTH_PREFIX);
+
+		while (this.status) {
+		    if (input.read(this.socket) < 0) { // Waiting for data
+			throw new EOFException("Connection closed by " + this.host);
+		    }
+		}
+
+	    } catch (Exception e) {
+		this.lastException = e;
+
+		try {
+		    this.socket.close();
+		} catch (IOException e1) {
+		}
+
+		if (this.status) { // If not manually triggered, reconnect attempt after 2 seconds
+		    SEDAPExpressProtobufCommunicator.logger.logp(Level.SEVERE, "SEDAPExpressProtobufCommunicator", "receiveStream()", "Waiting 2 seconds for reconnect to: " + this.host + ":" + this.port + " (" + e + ")");
+		    logInput("Waiting 2 seconds for reconnect to: " + this.host + ":" + this.port);
+		    try {
+			Thread.sleep(2000);
+		    } catch (InterruptedException ex) {
+		    }
+
+		    this.writeLock.lock();
+		    try {
+			// A partly written message must not be continued on the new connection
+			this.output.clear();
+		    } finally {
+			this.writeLock.unlock();
+		    }
+
+		    while (this.status && !connect()) {
+			try {
+			    Thread.sleep(2000);
+			} catch (InterruptedException ex) {
+			}
+		    }
+		}
+	    }
+	}
+    }
+
+    private void receiveDatagrams() {
+
+	final Set<InetAddress> localIPAddresses = SEDAPExpressProtobufCommunicator.getLocalIPAddresses();
+
+	// Both buffers are reused for all datagrams
+	final ByteBuffer buffer = ByteBuffer.allocateDirect(SEDAPExpressUDPClient.MAX_DATAGRAM_SIZE);
+	final byte[] data = new byte[SEDAPExpressUDPClient.MAX_DATAGRAM_SIZE];
+
+	while (this.status) {
+
+	    try {
+		buffer.clear();
+		final InetSocketAddress sender = (InetSocketAddress) this.channel.receive(buffer); // Waiting for data
+
+		// Do not receive datagrams from yourself
+		if ((sender.getPort() == this.localPort) && localIPAddresses.contains(sender.getAddress())) {
+		    continue;
+		}
+
+		buffer.flip().get(data, 0, buffer.limit());
+		if (processDelimited(data, 0, buffer.limit()) < buffer.limit()) {
+		    this.invalidMessages++;
+		    SEDAPExpressProtobufCommunicator.logger.logp(Level.FINE, "SEDAPExpressProtobufCommunicator", "receiveDatagrams()", "Truncated message in datagram from " + sender);
+		}
+
+	    } catch (Exception e) {
+		this.lastException = e;
+
+		if (this.status) {
+		    SEDAPExpressProtobufCommunicator.logger.logp(Level.SEVERE, "SEDAPExpressProtobufCommunicator", "receiveDatagrams()", "Could not receive on port " + this.localPort + ": " + e);
+		    logInput("Could not receive on port " + this.localPort);
+		    try {
+			Thread.sleep(2000);
+		    } catch (InterruptedException ex) {
+		    }
+		}
+	    }
+	}
+    }
+
+    /**
+     * Distributes all complete length prefixed messages of the data, one input stream is used for all of them. A message, which can not be decoded, is skipped.
+     *
+     * @param data   Buffer
+     * @param offset Start of the first message within the buffer
+     * @param length Number of bytes in the buffer
+     * @return Number of consumed bytes, the remaining bytes belong to an incomplete message
+     * @throws IOException if a length prefix is invalid, the following data can not be assigned to messages any more
+     */
+    int processDelimited(byte[] data, int offset, int length) throws IOException {
+
+	final CodedInputStream input = CodedInputStream.newInstance(data, offset, length);
+	int consumed = 0;
+
+	while (consumed < length) {
+
+	    // Check, if the message is complete
+	    int position = offset + consumed;
+	    final int end = offset + length;
+	    int messageLength = 0;
+	    for (int shift = 0;; shift += 7) {
+		if (position == end) {
+		    return consumed;
+		}
+		if (shift == (7 * SEDAPExpressProtobufCommunicator.MAX_LENGTH_PREFIX)) {
+		    throw new IOException("Malformed length prefix");
+		}
+		final byte b = data[position++];
+		messageLength |= (b & 0x7F) << shift;
+		if (b >= 0) {
+		    break;
+		}
+	    }
+	    if ((messageLength < 0) || (messageLength > SEDAPExpressTCPServer.MAX_MESSAGE_LENGTH)) {
+		throw new IOException("Message length " + messageLength + " exceeds " + SEDAPExpressTCPServer.MAX_MESSAGE_LENGTH + " bytes");
+	    }
+	    if ((end - position) < messageLength) {
+		return consumed;
+	    }
+
+	    input.readRawVarint32();
+	    final int limit = input.pushLimit(messageLength);
+	    try {
+		final SEDAPExpressMessage message = this.decoder.decode(input);
+		this.receivedMessages++;
+		distributeReceivedSEDAPExpressMessage(message);
+	    } catch (IOException | RuntimeException e) {
+		this.invalidMessages++;
+		SEDAPExpressProtobufCommunicator.logger.logp(Level.FINE, "SEDAPExpressProtobufCommunicator", "processDelimited()", "Could not decode message: " + e.getLocalizedMessage());
+		input.skipRawBytes(input.getBytesUntilLimit());
+	    }
+	    input.popLimit(limit);
+
+	    consumed = input.getTotalBytesRead();
+	}
+
+	return consumed;
+    }
+
+    @Override
+    public boolean sendSEDAPExpressMessage(SEDAPExpressMessage message) throws IOException {
+
+	return (this.transport == Transport.TCP) ? sendStream(message) : sendDatagram(message);
+    }
+
+    private boolean sendStream(SEDAPExpressMessage message) throws IOException {
+
+	final ByteBuffer data;
+	this.sendLock.lock();
+	try {
+	    data = ByteBuffer.wrap(this.encoder.encodeDelimited(message)).asReadOnlyBuffer();
+	} finally {
+	    this.sendLock.unlock();
+	}
+
+	final SEDAPExpressOutboundQueue queue = this.output;
+	final String key = SEDAPExpressOutboundQueue.getCoalescingKey(message);
+
+	while (!queue.offer(data, key)) {
+	    if (queue.getPolicy() != SlowConsumerPolicy.BLOCK) {
+		return false;
+	    }
+
+	    // Queue is full, wait for the writing thread and help writing
+	    this.writeLock.lock();
+	    try {
+		if (!writeQueued()) {
+		    return false; // Reconnecting
+		}
+	    } finally {
+		this.writeLock.unlock();
+	    }
+	}
+	this.sentMessages++;
+
+	// Checking again after unlocking ensures that no message stays in the queue without a writing thread
+	while (!this.output.isEmpty() && this.writeLock.tryLock()) {
+	    try {
+		if (!writeQueued()) {
+		    break;
+		}
+	    } finally {
+		this.writeLock.unlock();
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * Writes all queued messages, the write lock has to be held.
+     *
+     * @return false, if the communicator is reconnecting and the messages are sent later
+     */
+    private boolean writeQueued() throws IOException {
+
+	final SocketChannel channel = this.socket;
+	if ((channel == null) || !channel.isConnected()) {
+	    return false;
+	}
+
+	try {
+	    while (!this.output.writeTo(channel)) {
+		// Only a part has been written, write the rest
+	    }
+	    return true;
+	} catch (IOException e) {
+	    this.lastException = e;
+	    throw e;
+	}
+    }
+
+    private boolean sendDatagram(SEDAPExpressMessage message) throws IOException {
+
+	return this.packer.send(message, (sent, datagram) -> {
+	    // Written directly behind the messages already packed
+	    final int position = datagram.position();
+	    try {
+		final CodedOutputStream stream = CodedOutputStream.newInstance(datagram);
+		this.encoder.writeDelimitedTo(sent, stream);
+		stream.flush();
+	    } catch (CodedOutputStream.OutOfSpaceException e) {
+		datagram.position(position);
+		throw new BufferOverflowException();
+	    }
+	});
+    }
+
+    /**
+     * Sends one datagram, called by the packer while holding the send lock
+     */
+    private boolean sendPackedDatagram(ByteBuffer datagram) throws IOException {
+
+	try {
+	    return this.channel.send(datagram, this.destination) > 0;
+	} catch (IOException e) {
+	    this.lastException = e;
+	    throw e;
+	}
+    }
+
+    /**
+     * Sets the packing of messages into datagrams. A datagram is sent, when the next message does not fit any more or the first message has waited for the given delay. By default datagrams of
+     * {@link SEDAPExpressUDPClient#DEFAULT_PACKING_SIZE} bytes are waiting {@link SEDAPExpressUDPClient#DEFAULT_PACKING_DELAY} milliseconds. A single message larger than the datagram size can not be sent.
+     *
+     * @param maxDatagramSize Maximum datagram size in bytes
+     * @param maxDelay        Maximum time a message waits for further messages in milliseconds, 0 sends every message in its own datagram
+     */
+    public void setPacking(int maxDatagramSize, long maxDelay) {
+
+	if ((maxDatagramSize <= 0) || (maxDatagramSize > SEDAPExpressUDPClient.MAX_UDP_PAYLOAD) || (maxDelay < 0)) {
+	    throw new IllegalArgumentException("Invalid packing: size=" + maxDatagramSize + " delay=" + maxDelay);
+	}
+
+	this.packer.setPacking(maxDatagramSize, TimeUnit.MILLISECONDS.toNanos(maxDelay), this.channel != null);
+    }
+
+    /**
+     * Gives the maximum datagram size for packing back
+     *
+     * @return Datagram size in bytes
+     */
+    public int getPackingSize() {
+	return this.packer.getPackingSize();
+    }
+
+    /**
+     * Gives the maximum time a packed message waits for further messages back
+     *
+     * @return Delay in milliseconds
+     */
+    public long getPackingDelay() {
+	return TimeUnit.NANOSECONDS.toMillis(this.packer.getPackingDelayNanos());
+    }
+
+    /**
+     * Sets the behaviour if messages are sent faster than the TCP connection can transfer them, by default the sending threads wait ({@link SlowConsumerPolicy#BLOCK}). Messages not yet sent are discarded.
+     *
+     * @param policy         Slow consumer policy
+     * @param maxQueuedBytes Maximum number of queued bytes
+     */
+    public void setSlowConsumerPolicy(SlowConsumerPolicy policy, long maxQueuedBytes) {
+
+	this.writeLock.lock();
+	try {
+	    this.output = new SEDAPExpressOutboundQueue(policy, maxQueuedBytes);
+	} finally {
+	    this.writeLock.unlock();
+	}
+    }
+
+    /**
+     * Gives the number of bytes waiting to be sent over TCP back
+     *
+     * @return queued bytes
+     */
+    public long getQueuedBytes() {
+	return this.output.getQueuedBytes();
+    }
+
+    /**
+     * Gives the number of messages back, which have been sent or collected for sending
+     *
+     * @return sent messages
+     */
+    public long getSentMessages() {
+	return this.sentMessages + this.packer.getSentMessages();
+    }
+
+    /**
+     * Gives the number of sent datagrams back
+     *
+     * @return sent datagrams
+     */
+    public long getSentDatagrams() {
+	return this.packer.getSentDatagrams();
+    }
+
+    /**
+     * Gives the number of received and distributed messages back
+     *
+     * @return received messages
+     */
+    public long getReceivedMessages() {
+	return this.receivedMessages;
+    }
+
+    /**
+     * Gives the number of received messages back, which could not be decoded
+     *
+     * @return invalid messages
+     */
+    public long getInvalidMessages() {
+	return this.invalidMessages;
+    }
+
+    private static Set<InetAddress> getLocalIPAddresses() {
+
+	final Set<InetAddress> localIPAddresses = new HashSet<>();
+	try {
+	    final Enumeration<NetworkInterface> enumInterf = NetworkInterface.getNetworkInterfaces();
+	    while (enumInterf.hasMoreElements()) {
+		final NetworkInterface networkInterface = enumInterf.nextElement();
+		if (networkInterface.isUp()) {
+		    for (final InterfaceAddress ip : networkInterface.getInterfaceAddresses()) {
+			localIPAddresses.add(ip.getAddress());
+		    }
+		}
+	    }
+	} catch (SocketException e) {
+	}
+	return localIPAddresses;
+    }
+
+    @Override
+    public void stopCommunicator() {
+
+	try {
+	    // Send the messages still waiting for packing
+	    this.packer.stop((this.channel != null) && this.channel.isOpen());
+	} catch (IOException e) {
+	    this.lastException = e;
+	} finally {
+	    this.status = false;
+	}
+
+	try {
+	    if (this.socket != null) {
+		this.socket.close();
+	    }
+	    if (this.channel != null) {
+		this.channel.close();
+	    }
+	} catch (IOException e) {
+	    this.lastException = e;
+	}
+
+	SEDAPExpressProtobufCommunicator.logger.logp(Level.INFO, "SEDAPExpressProtobufCommunicator", "stopCommunicator()", "Protobuf " + this.transport + " communicator stopped");
+	logInput("Protobuf " + this.transport + " communicator stopped");
+    }
+
+    @Override
+    public Exception getLastException() {
+
+	return this.lastException;
+    }
+
+}
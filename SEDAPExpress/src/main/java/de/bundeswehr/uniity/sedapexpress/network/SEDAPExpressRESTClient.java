@@ -25,19 +25,23 @@
  */
 package de.bundeswehr.uniity.sedapexpress.network;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import com.google.gson.Gson;
-
-import de.bundeswehr.uniity.sedapexpress.json.Message;
+import de.bundeswehr.uniity.sedapexpress.json.SEDAPExpressJSONCodec;
 import de.bundeswehr.uniity.sedapexpress.json.SEDAPExpressJSONMessage;
 import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
 
@@ -64,15 +68,29 @@ public class SEDAPExpressRESTClient extends SEDAPExpressCommunicator implements
 
     private boolean status = true;
 
-    private final Gson gson = new Gson();
+    private volatile boolean compressRequests = false;
+
+    /** Default time a request waits at the server for new messages in milliseconds */
+    public static final int DEFAULT_POLL_TIMEOUT = 10000;
+
+    private final LinkedBlockingQueue<SEDAPExpressMessage> messageBuffer = new LinkedBlockingQueue<>();
+
+    /** Offset of the next message to receive, negative to start with the oldest message kept by the server */
+    private volatile long offset = -1;
+
+    private int pollTimeout = SEDAPExpressRESTClient.DEFAULT_POLL_TIMEOUT;
+
+    private volatile long lostMessages = 0;
 
-    private static final LinkedBlockingQueue<SEDAPExpressMessage> messageBuffer = new LinkedBlockingQueue<>();
+    private Thread receivingThread;
+
+    private Thread sendingThread;
 
     /**
      * Instantiate a new SEDAP-Express REST client
      *
      * @param url          URL of the SEDAP-Express REST server
-     * @param requestDelay Delay between HTTP requests
+     * @param requestDelay Delay between HTTP requests, if the server does not support waiting for new messages
      */
     public SEDAPExpressRESTClient(String url, int requestDelay) {
 
@@ -94,7 +112,8 @@ public class SEDAPExpressRESTClient extends SEDAPExpressCommunicator implements
 	try {
 	    this.client = HttpClient.newHttpClient();
 
-	    new Thread(this).start();
+	    this.receivingThread = startThread(this);
+	    this.sendingThread = startThread(this::sendMessages);
 
 	    return true;
 
@@ -117,98 +136,211 @@ public class SEDAPExpressRESTClient extends SEDAPExpressCommunicator implements
 
 	while (this.status) {
 
+	    boolean received = false;
+	    final long requestTime = System.nanoTime();
+
 	    try {
 
-		// Messages abrufen
+		// Messages abrufen, the server answers as soon as there are messages behind the offset or the poll timeout has passed
 		logInput("REST client sending request for new messages...");
 		HttpRequest request = HttpRequest.newBuilder()
-			.uri(new URI(this.url + "SEDAPEXPRESS"))
-			.headers("Content-Type", "text/plain;charset=UTF-8")
+			.uri(new URI(this.url + "SEDAPEXPRESS?offset=" + this.offset + "&timeout=" + this.pollTimeout))
+			.headers("Content-Type", "text/plain;charset=UTF-8", "Accept-Encoding", SEDAPExpressJSONCodec.GZIP)
+			.timeout(Duration.ofMillis(this.pollTimeout + 10000L))
 			.GET()
 			.build();
 
-		HttpResponse<String> requestResponse = this.client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+		HttpResponse<InputStream> requestResponse = this.client.send(request, HttpResponse.BodyHandlers.ofInputStream());
 
 		switch (requestResponse.statusCode()) {
 
 		case 200 -> {
 
+		    // Every message is distributed as soon as it has been read from the response
+		    final int[] messages = new int[1];
+		    final SEDAPExpressJSONMessage jsonMessage = new SEDAPExpressJSONMessage();
 		    try {
-			SEDAPExpressJSONMessage jsonMessage = this.gson.fromJson(requestResponse.body(), SEDAPExpressJSONMessage.class);
-
-			logInput("REST client received " + jsonMessage.getMessages().size() + " messages from the server!");
-
-			jsonMessage.getMessages().forEach(message -> distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(message.getMessage())));
+			SEDAPExpressJSONCodec.read(requestResponse.body(), SEDAPExpressJSONCodec.isGzip(requestResponse.headers().firstValue("Content-Encoding").orElse(null)), jsonMessage, message -> {
+			    messages[0]++;
+			    // The offset is advanced before distributing, so neither a broken response nor a failing subscriber lets the message be received again
+			    if (jsonMessage.getOffset() != null) {
+				this.offset = jsonMessage.getOffset() + messages[0];
+			    }
+			    distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(message));
+			});
+
+			logInput("REST client received " + messages[0] + " messages from the server!");
+
+			if (jsonMessage.getNextOffset() != null) {
+			    this.offset = jsonMessage.getNextOffset();
+			}
+			if ((jsonMessage.getLostMessages() != null) && (jsonMessage.getLostMessages() > 0)) {
+			    this.lostMessages += jsonMessage.getLostMessages();
+			    SEDAPExpressRESTClient.logger.logp(Level.WARNING, "SEDAPExpressRESTClient", "run()", "Lost " + jsonMessage.getLostMessages() + " messages, which the server did not keep any more!");
+			}
 
 		    } catch (Exception e) {
+			this.lastException = e;
 			SEDAPExpressRESTClient.logger.logp(Level.SEVERE, "SEDAPExpressRESTClient", "run()", "Could not porcess server response!", e.getLocalizedMessage());
-
 		    }
+		    received = messages[0] > 0;
 		}
 		default -> {
+		    requestResponse.body().close();
 		    logInput("REST client received HTTP error code: " + requestResponse.statusCode());
 		    SEDAPExpressRESTClient.logger.logp(Level.SEVERE, "SEDAPExpressRESTClient", "run()", "REST request got response error: " + requestResponse.statusCode());
 		}
 
 		}
 
-		// Messages senden
-		if (!SEDAPExpressRESTClient.messageBuffer.isEmpty()) {
-
-		    logInput("REST client sending " + SEDAPExpressRESTClient.messageBuffer.size() + " messages to the server...");
+	    } catch (final Exception e) {
+		this.lastException = e;
 
-		    SEDAPExpressJSONMessage jsonMessage = new SEDAPExpressJSONMessage();
-		    int msgCounter = 0;
-		    while (!SEDAPExpressRESTClient.messageBuffer.isEmpty()) {
-			jsonMessage.getMessages().add(new Message(SEDAPExpressRESTClient.messageBuffer.take().toString()));
-			msgCounter++;
+		if (this.status) {
+		    SEDAPExpressTCPServer.logger.logp(Level.SEVERE, "SEDAPExpressRESTClient", "run()", "Could not connect to HTTP server... waiting 2 seconds for next try!", e.getLocalizedMessage());
+		    logInput("Could not connect to HTTP server... waiting 2 seconds for next try!");
+		    logInput("Error message: " + e.getLocalizedMessage());
+		    try {
+			Thread.sleep(2000);
+		    } catch (InterruptedException ex) {
 		    }
+		}
 
-		    HttpRequest post = HttpRequest.newBuilder()
-			    .uri(new URI(this.url + "SEDAPEXPRESS"))
-			    .headers("Content-Type", "application/json;charset=UTF-8")
-			    .POST(HttpRequest.BodyPublishers.ofString(this.gson.toJson(jsonMessage)))
-			    .build();
+	    }
 
-		    HttpResponse<String> postResponse = this.client.send(post, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+	    // A request without messages is only repeated immediately, if the server has waited the poll timeout for them. A server without offsets, a server with too many waiting requests or a poll
+	    // timeout of 0 lets the request return immediately, so the request delay is kept.
+	    if (!received && ((this.pollTimeout == 0) || ((System.nanoTime() - requestTime) < TimeUnit.MILLISECONDS.toNanos(this.pollTimeout)))) {
+		try {
+		    Thread.sleep(this.requestDelay);
+		} catch (InterruptedException e) {
+		}
+	    }
+	}
+    }
 
-		    switch (postResponse.statusCode()) {
+    /**
+     * Sends the queued messages to the server, independently of the waiting requests for new messages
+     */
+    private void sendMessages() {
 
-		    case 200 -> {
+	final List<SEDAPExpressMessage> messages = new ArrayList<>();
 
-			logInput("REST client sent " + msgCounter + " messages successfully to the server!");
+	while (this.status) {
 
-		    }
-		    default -> {
-			logInput("REST client received HTTP error code: " + postResponse.statusCode());
-			SEDAPExpressRESTClient.logger.logp(Level.SEVERE, "SEDAPExpressRESTClient", "run()", "REST client got post error: " + postResponse.statusCode());
-		    }
+	    try {
+		messages.add(this.messageBuffer.take());
+		this.messageBuffer.drainTo(messages);
 
-		    }
+		// Messages senden
+		logInput("REST client sending " + messages.size() + " messages to the server...");
+
+		final List<String> serialized = new ArrayList<>(messages.size());
+		messages.forEach(message -> serialized.add(message.toString()));
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		SEDAPExpressJSONCodec.write(body, this.compressRequests, serialized, null, null, null);
 
+		HttpRequest.Builder post = HttpRequest.newBuilder()
+			.uri(new URI(this.url + "SEDAPEXPRESS"))
+			.headers("Content-Type", "application/json;charset=UTF-8")
+			.POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+		if (this.compressRequests) {
+		    post.header("Content-Encoding", SEDAPExpressJSONCodec.GZIP);
 		}
 
+		HttpResponse<String> postResponse = this.client.send(post.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+
+		switch (postResponse.statusCode()) {
+
+		case 200 -> {
+
+		    logInput("REST client sent " + messages.size() + " messages successfully to the server!");
+
+		}
+		default -> {
+		    logInput("REST client received HTTP error code: " + postResponse.statusCode());
+		    SEDAPExpressRESTClient.logger.logp(Level.SEVERE, "SEDAPExpressRESTClient", "sendMessages()", "REST client got post error: " + postResponse.statusCode());
+		}
+
+		}
+
+	    } catch (final InterruptedException e) {
+		return;
 	    } catch (final Exception e) {
 		this.lastException = e;
 
 		if (this.status) {
-		    SEDAPExpressTCPServer.logger.logp(Level.SEVERE, "SEDAPExpressRESTClient", "run()", "Could not connect to HTTP server... waiting 2 seconds for next try!", e.getLocalizedMessage());
-		    logInput("Could not connect to HTTP server... waiting 2 seconds for next try!");
-		    logInput("Error message: " + e.getLocalizedMessage());
+		    SEDAPExpressTCPServer.logger.logp(Level.SEVERE, "SEDAPExpressRESTClient", "sendMessages()", "Could not send messages to HTTP server... waiting 2 seconds for next try!", e.getLocalizedMessage());
+		    logInput("Could not send messages to HTTP server... waiting 2 seconds for next try!");
 		    try {
 			Thread.sleep(2000);
 		    } catch (InterruptedException ex) {
+			return;
 		    }
 		}
-
 	    }
 
-	    try {
-		Thread.sleep(this.requestDelay);
-	    } catch (InterruptedException e) {
-	    }
+	    messages.clear();
+	}
+    }
 
+    /**
+     * Sets the time a request waits at the server for new messages. A longer time saves requests, the latency of new messages does not depend on it.
+     *
+     * @param pollTimeout Time in milliseconds, at most {@link SEDAPExpressRESTServer#MAX_POLL_TIMEOUT}
+     */
+    public void setPollTimeout(int pollTimeout) {
+
+	if ((pollTimeout < 0) || (pollTimeout > SEDAPExpressRESTServer.MAX_POLL_TIMEOUT)) {
+	    throw new IllegalArgumentException("Invalid poll timeout: " + pollTimeout);
 	}
+
+	this.pollTimeout = pollTimeout;
+    }
+
+    /**
+     * Gives the time a request waits at the server for new messages back
+     *
+     * @return Time in milliseconds
+     */
+    public int getPollTimeout() {
+	return this.pollTimeout;
+    }
+
+    /**
+     * Enables the gzip compression of the messages sent to the server. Only servers supporting Content-Encoding gzip can read them, responses are compressed anyway if the server supports it.
+     *
+     * @param compressRequests true to compress the sent messages
+     */
+    public void setCompressRequests(boolean compressRequests) {
+	this.compressRequests = compressRequests;
+    }
+
+    /**
+     * Checks, if the messages sent to the server are compressed with gzip
+     *
+     * @return true, if compressed
+     */
+    public boolean isCompressRequests() {
+	return this.compressRequests;
+    }
+
+    /**
+     * Gives the offset of the next message to receive back
+     *
+     * @return Offset, negative before the first response
+     */
+    public long getOffset() {
+	return this.offset;
+    }
+
+    /**
+     * Gives the number of messages back, which the server had overwritten before this client could receive them
+     *
+     * @return lost messages
+     */
+    public long getLostMessages() {
+	return this.lostMessages;
     }
 
     @Override
@@ -223,7 +355,7 @@ public class SEDAPExpressRESTClient extends SEDAPExpressCommunicator implements
 	    return false;
 	}
 
-	SEDAPExpressRESTClient.messageBuffer.add(message);
+	this.messageBuffer.add(message);
 
 	return true;
     }
@@ -233,6 +365,14 @@ public class SEDAPExpressRESTClient extends SEDAPExpressCommunicator implements
 
 	this.status = false;
 
+	// Ends waiting requests
+	if (this.receivingThread != null) {
+	    this.receivingThread.interrupt();
+	}
+	if (this.sendingThread != null) {
+	    this.sendingThread.interrupt();
+	}
+
 	SEDAPExpressRESTClient.logger.logp(Level.INFO, "SEDAPExpressRESTClient", "stopCommunicator()", "REST server stopped");
 	logInput("REST server stopped");
     }
@@ -28,20 +28,21 @@ package de.bundeswehr.uniity.sedapexpress.network;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
-import de.bundeswehr.uniity.sedapexpress.json.Message;
-import de.bundeswehr.uniity.sedapexpress.json.SEDAPExpressJSONMessage;
+import de.bundeswehr.uniity.sedapexpress.json.SEDAPExpressJSONCodec;
 import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressMessageLog.Slice;
 
 /**
  * REST server class for SEDAP-Express
@@ -64,22 +65,57 @@ public class SEDAPExpressRESTServer extends SEDAPExpressCommunicator implements
 
     private boolean status = true;
 
-    private final Gson gson = new Gson();
+    private ExecutorService executor;
 
-    private ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(10);
+    /** Executor of the GET requests waiting for new messages */
+    private ExecutorService pollExecutor;
 
-    private static final LinkedBlockingQueue<SEDAPExpressMessage> messageBuffer = new LinkedBlockingQueue<>();
+    /** Free places for GET requests waiting for new messages */
+    private final Semaphore waitingRequests = new Semaphore(SEDAPExpressRESTServer.MAX_WAITING_REQUESTS);
+
+    /** Maximum time a GET request waits for new messages in milliseconds */
+    public static final long MAX_POLL_TIMEOUT = 30000;
+
+    /** Maximum number of messages per GET response */
+    public static final int MAX_MESSAGES_PER_RESPONSE = 1000;
+
+    /** Number of threads handling POST requests and GET requests answered immediately */
+    private static final int HANDLER_THREADS = 64;
+
+    /** Maximum number of GET requests waiting for new messages, further requests are answered immediately */
+    public static final int MAX_WAITING_REQUESTS = 64;
+
+    /** Seconds to wait for running exchanges when the server is stopped, the HTTP server of Java 17 always waits this long */
+    private int stopDelay = 5;
+
+    /** Messages for the clients, read by every client from its own offset */
+    private final SEDAPExpressMessageLog messageLog;
+
+    /** Offset of the requests without offset, which share the messages like the former message buffer */
+    private long sharedOffset = -1;
 
     /**
      * Instantiate a new SEDAP-Express REST server
      *
-     * @param port Port to be used
+     * @param port        Port to be used
+     * @param logCapacity Number of messages kept for the clients
      */
-    public SEDAPExpressRESTServer(final int port) {
+    public SEDAPExpressRESTServer(final int port, final int logCapacity) {
 
 	super();
 
 	this.port = port;
+	this.messageLog = new SEDAPExpressMessageLog(logCapacity);
+    }
+
+    /**
+     * Instantiate a new SEDAP-Express REST server, which keeps the last {@link SEDAPExpressMessageLog#DEFAULT_CAPACITY} messages for the clients
+     *
+     * @param port Port to be used
+     */
+    public SEDAPExpressRESTServer(final int port) {
+
+	this(port, SEDAPExpressMessageLog.DEFAULT_CAPACITY);
     }
 
     public boolean connect() {
@@ -90,7 +126,9 @@ public class SEDAPExpressRESTServer extends SEDAPExpressCommunicator implements
 	try {
 
 	    this.server = HttpServer.create(new InetSocketAddress(this.port), 64);
-	    this.server.setExecutor(this.threadPoolExecutor);
+	    this.executor = createExecutor(SEDAPExpressRESTServer.HANDLER_THREADS);
+	    this.pollExecutor = createExecutor(SEDAPExpressRESTServer.MAX_WAITING_REQUESTS);
+	    this.server.setExecutor(this.executor);
 	    this.server.createContext("/", this);
 	    this.server.start();
 
@@ -114,54 +152,144 @@ public class SEDAPExpressRESTServer extends SEDAPExpressCommunicator implements
 
 	if ("GET".equals(exchange.getRequestMethod())) {
 
+	    // GET /SEDAPEXPRESS?offset=<next sequence number>&timeout=<milliseconds>&max=<messages>
+	    final String query = exchange.getRequestURI().getRawQuery();
+	    final String offsetParameter = SEDAPExpressRESTServer.getParameter(query, "offset");
+	    final long timeout = Math.min(SEDAPExpressRESTServer.parseLong(SEDAPExpressRESTServer.getParameter(query, "timeout"), 0), SEDAPExpressRESTServer.MAX_POLL_TIMEOUT);
+	    final int max = (int) Math.min(SEDAPExpressRESTServer.parseLong(SEDAPExpressRESTServer.getParameter(query, "max"), SEDAPExpressRESTServer.MAX_MESSAGES_PER_RESPONSE), SEDAPExpressRESTServer.MAX_MESSAGES_PER_RESPONSE);
+
+	    // Waiting requests get their own threads, so they never delay POST requests. If too many requests are waiting already, the request is answered immediately.
+	    if ((offsetParameter != null) && (timeout > 0) && this.waitingRequests.tryAcquire()) {
+		try {
+		    this.pollExecutor.execute(() -> {
+			try {
+			    sendMessages(exchange, offsetParameter, timeout, max);
+			} finally {
+			    this.waitingRequests.release();
+			}
+		    });
+		    return;
+		} catch (RejectedExecutionException e) {
+		    this.waitingRequests.release();
+		}
+	    }
+
+	    sendMessages(exchange, offsetParameter, 0, max);
+
+	} else if ("POST".equals(exchange.getRequestMethod())) {
+
 	    try {
+		// Every message is distributed as soon as it has been read from the request body
+		final int[] received = new int[1];
+		SEDAPExpressJSONCodec.read(exchange.getRequestBody(), SEDAPExpressJSONCodec.isGzip(exchange.getRequestHeaders().getFirst("Content-Encoding")), message -> {
+		    received[0]++;
+		    distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(message));
+		});
 
-		SEDAPExpressJSONMessage jsonMessage = new SEDAPExpressJSONMessage();
+		logInput("REST server received " + received[0] + " messages from the client!");
 
-		while (!SEDAPExpressRESTServer.messageBuffer.isEmpty()) {
-		    jsonMessage.getMessages().add(new Message(SEDAPExpressRESTServer.messageBuffer.take().toString()));
+		exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+		handleResponse(exchange, "", "{\"success\":\"true\"}", 200);
+	    } catch (Exception e) {
 
-		}
+		lastException =e;
+		handleResponse(exchange, "", "{\"success\":\"false\"}", 400);
+	    }
+	}
 
-		handleResponse(exchange, "", this.gson.toJson(jsonMessage), 200);
+    }
 
-		logInput("REST server sent " + jsonMessage.getMessages().size() + " messages successfully to the client!");
+    /**
+     * Answers a GET request with the messages behind its offset
+     *
+     * @param exchange        Exchange, closed afterwards
+     * @param offsetParameter Offset of the request, null for the shared messages
+     * @param timeout         Time to wait for new messages in milliseconds
+     * @param max             Maximum number of messages
+     */
+    private void sendMessages(HttpExchange exchange, String offsetParameter, long timeout, int max) {
 
-	    } catch (final Exception e) {
+	try {
 
-		lastException =e;
+	    final Slice slice;
+	    if (offsetParameter != null) {
+		slice = this.messageLog.read(SEDAPExpressRESTServer.parseLong(offsetParameter, -1), Math.max(max, 1), timeout, TimeUnit.MILLISECONDS);
+	    } else {
+		// Clients without offset share the messages
+		synchronized (this.messageLog) {
+		    slice = this.messageLog.read(this.sharedOffset, this.messageLog.getCapacity(), 0, TimeUnit.MILLISECONDS);
+		    this.sharedOffset = slice.nextOffset();
+		}
 	    }
 
-	} else if ("POST".equals(exchange.getRequestMethod())) {
+	    // The messages are streamed as chunked response, compressed if the client accepts it
+	    final boolean compress = SEDAPExpressJSONCodec.isGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+	    exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+	    if (compress) {
+		exchange.getResponseHeaders().set("Content-Encoding", SEDAPExpressJSONCodec.GZIP);
+	    }
+	    exchange.sendResponseHeaders(200, 0);
+	    if (offsetParameter != null) {
+		SEDAPExpressJSONCodec.write(exchange.getResponseBody(), compress, slice.messages(), slice.offset(), slice.nextOffset(), slice.lostMessages());
+	    } else {
+		SEDAPExpressJSONCodec.write(exchange.getResponseBody(), compress, slice.messages(), null, null, null);
+	    }
 
-	    try {
-		String postBodyStr = new String(exchange.getRequestBody().readAllBytes());
+	    logInput("REST server sent " + slice.messages().size() + " messages successfully to the client!");
 
-		SEDAPExpressJSONMessage jsonMessage = this.gson.fromJson(postBodyStr, SEDAPExpressJSONMessage.class);
+	} catch (final Exception e) {
 
-		logInput("REST server received " + jsonMessage.getMessages().size() + " messages from the client!");
+	    lastException =e;
+	} finally {
+	    exchange.close();
+	}
+    }
 
-		jsonMessage.getMessages().forEach(message -> distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(message.getMessage())));
+    /**
+     * Searches a parameter in a raw URI query
+     *
+     * @param query Query, may be null
+     * @param name  Name of the parameter
+     * @return Value of the parameter, null if not found
+     */
+    static String getParameter(String query, String name) {
 
-		exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
-		handleResponse(exchange, postBodyStr, "{\"success\":\"true\"}", 200);
-	    } catch (Exception e) {
+	if (query == null) {
+	    return null;
+	}
 
-		lastException =e;
-		handleResponse(exchange, "", "{\"success\":\"false\"}", 400);
+	for (final String parameter : query.split("&")) {
+	    final int separator = parameter.indexOf('=');
+	    if ((separator == name.length()) && parameter.startsWith(name)) {
+		return parameter.substring(separator + 1);
 	    }
 	}
 
+	return null;
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+
+	if (value == null) {
+	    return defaultValue;
+	}
+
+	try {
+	    return Long.parseLong(value);
+	} catch (final NumberFormatException e) {
+	    return defaultValue;
+	}
     }
 
     private void handleResponse(HttpExchange httpExchange, String requestParamValue, String responseString, int responseCode) throws IOException {
 
 	OutputStream outputStream = httpExchange.getResponseBody();
 
-	// this line is a must
-	httpExchange.sendResponseHeaders(responseCode, responseString.length());
+	// Content-Length in bytes, not in characters
+	final byte[] response = responseString.getBytes(StandardCharsets.UTF_8);
+	httpExchange.sendResponseHeaders(responseCode, response.length);
 
-	outputStream.write(responseString.getBytes());
+	outputStream.write(response);
 
 	outputStream.flush();
 
@@ -181,7 +309,7 @@ public class SEDAPExpressRESTServer extends SEDAPExpressCommunicator implements
 	    return false;
 	}
 
-	SEDAPExpressRESTServer.messageBuffer.add(message);
+	this.messageLog.append(message);
 
 	return true;
     }
@@ -191,12 +319,56 @@ public class SEDAPExpressRESTServer extends SEDAPExpressCommunicator implements
 
 	this.status = false;
 
-	this.server.stop(5000);
+	this.messageLog.close(); // Ends the waiting requests
+	try {
+	    // The waiting requests get their answers, before the HTTP server closes their connections
+	    if (this.waitingRequests.tryAcquire(SEDAPExpressRESTServer.MAX_WAITING_REQUESTS, this.stopDelay, TimeUnit.SECONDS)) {
+		this.waitingRequests.release(SEDAPExpressRESTServer.MAX_WAITING_REQUESTS);
+	    }
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	}
+	this.server.stop(this.stopDelay);
+	if (this.executor != null) {
+	    this.executor.shutdown();
+	}
+	if (this.pollExecutor != null) {
+	    this.pollExecutor.shutdown();
+	}
 
 	SEDAPExpressRESTServer.logger.logp(Level.INFO, "SEDAPExpressRESTServer", "stopCommunicator()", "REST server stopped");
 	logInput("REST server stopped");
     }
 
+    /**
+     * Sets the seconds to wait for running exchanges when the server is stopped, the tests don't wait
+     *
+     * @param seconds Seconds to wait
+     */
+    void setStopDelay(int seconds) {
+
+	this.stopDelay = seconds;
+    }
+
+    /**
+     * Gives the number of GET requests waiting for new messages back
+     *
+     * @return Number of waiting requests
+     */
+    int getWaitingRequests() {
+
+	return SEDAPExpressRESTServer.MAX_WAITING_REQUESTS - this.waitingRequests.availablePermits();
+    }
+
+    /**
+     * Gives the log of the messages for the clients back
+     *
+     * @return Message log
+     */
+    public SEDAPExpressMessageLog getMessageLog() {
+	return this.messageLog;
+    }
+
     @Override
     public Exception getLastException() {
 
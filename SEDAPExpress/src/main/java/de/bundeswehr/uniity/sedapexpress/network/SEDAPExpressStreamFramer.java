@@ -0,0 +1,204 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Receive buffer of one stream connection, which splits the received bytes into messages
+ * <p>
+ * The buffer starts with {@link #INITIAL_BUFFER_SIZE} bytes. It grows for a long message up to a maximum size and shrinks back as soon as the unread data fits into the initial size again, so a single long
+ * message does not keep a large buffer per connection. The {@link Decoder} finds the messages, {@link LineDecoder} splits SEDAP-Express lines.
+ *
+ * @author Volker Voß
+ *
+ */
+final class SEDAPExpressStreamFramer {
+
+    private static final Logger logger = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    /** Initial size of the receive buffer */
+    static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Finds and distributes the complete messages of the received bytes
+     */
+    interface Decoder {
+
+	/**
+	 * Processes all complete messages
+	 *
+	 * @param data   Buffer
+	 * @param offset Start of the unread data
+	 * @param length Number of unread bytes
+	 * @return Number of consumed bytes, the remaining bytes belong to an incomplete message and are passed again with the next data
+	 * @throws IOException if the stream can not be split into messages any more
+	 */
+	int decode(byte[] data, int offset, int length) throws IOException;
+
+	/**
+	 * Called, when the buffer has reached its maximum size without a complete message. The unread data is discarded afterwards.
+	 *
+	 * @throws IOException if the stream can not be continued
+	 */
+	default void overflow() throws IOException {
+	    throw new IOException("Message exceeds the receive buffer");
+	}
+    }
+
+    /**
+     * Receiver of the lines split by a {@link LineDecoder}
+     */
+    @FunctionalInterface
+    interface LineConsumer {
+
+	void accept(byte[] data, int offset, int length);
+    }
+
+    /**
+     * Splits the stream at line feeds. A line longer than the maximum buffer size is discarded up to its line feed.
+     */
+    static final class LineDecoder implements Decoder {
+
+	private final LineConsumer consumer;
+
+	private final String source;
+
+	/** Number of unread bytes already searched for a line feed */
+	private int scanned = 0;
+
+	/** True while the rest of a too long line is skipped */
+	private boolean discarding = false;
+
+	/**
+	 * @param consumer Receiver of the lines without line feed
+	 * @param source   Remote address for the log
+	 */
+	LineDecoder(LineConsumer consumer, String source) {
+
+	    this.consumer = consumer;
+	    this.source = source;
+	}
+
+	@Override
+	public int decode(byte[] data, int offset, int length) {
+
+	    final int end = offset + length;
+	    int start = offset;
+	    for (int i = offset + this.scanned; i < end; i++) {
+		if (data[i] == '\n') {
+		    if (this.discarding) {
+			this.discarding = false;
+		    } else if (i > start) {
+			this.consumer.accept(data, start, i - start);
+		    }
+		    start = i + 1;
+		}
+	    }
+
+	    this.scanned = end - start;
+	    return start - offset;
+	}
+
+	@Override
+	public void overflow() {
+
+	    SEDAPExpressStreamFramer.logger.logp(Level.WARNING, "SEDAPExpressStreamFramer", "overflow()", "Discarded message longer than " + this.scanned + " bytes from " + this.source);
+	    this.scanned = 0;
+	    this.discarding = true;
+	}
+    }
+
+    private final Decoder decoder;
+
+    private final int maxBufferSize;
+
+    private ByteBuffer input = ByteBuffer.allocate(SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE);
+
+    /**
+     * @param decoder       Splits the received bytes into messages
+     * @param maxBufferSize Maximum size of the buffer, the longest message including its framing
+     */
+    SEDAPExpressStreamFramer(Decoder decoder, int maxBufferSize) {
+
+	this.decoder = decoder;
+	this.maxBufferSize = maxBufferSize;
+    }
+
+    /**
+     * Reads the available bytes from the channel and processes the complete messages
+     *
+     * @param channel Channel to read from
+     * @return Number of bytes read, -1 at the end of the stream
+     * @throws IOException if the channel can not be read or the decoder fails
+     */
+    int read(ReadableByteChannel channel) throws IOException {
+
+	final int read = channel.read(this.input);
+	if (read > 0) {
+	    process();
+	}
+	return read;
+    }
+
+    private void process() throws IOException {
+
+	final byte[] data = this.input.array();
+	final int end = this.input.position();
+	final int consumed = this.decoder.decode(data, 0, end);
+
+	// Keep the beginning of an incomplete message
+	if (consumed > 0) {
+	    System.arraycopy(data, consumed, data, 0, end - consumed);
+	    this.input.position(end - consumed);
+	}
+
+	if (!this.input.hasRemaining()) {
+	    if (this.input.capacity() < this.maxBufferSize) {
+		this.input = ByteBuffer.allocate(Math.min(this.input.capacity() * 2, this.maxBufferSize)).put(this.input.flip());
+	    } else {
+		this.decoder.overflow();
+		this.input = ByteBuffer.allocate(SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE);
+	    }
+	} else if ((this.input.capacity() > SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE) && (this.input.position() < SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE)) {
+	    // Release the enlarged buffer of a long message as soon as the unread data fits into the initial one
+	    this.input = ByteBuffer.allocate(SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE).put(this.input.flip());
+	}
+    }
+
+    /**
+     * Gives the current size of the buffer back
+     *
+     * @return Capacity in bytes
+     */
+    int getCapacity() {
+	return this.input.capacity();
+    }
+}
@@ -0,0 +1,334 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.bundeswehr.uniity.sedapexpress.messages.CONTACT;
+import de.bundeswehr.uniity.sedapexpress.messages.CONTACT.Source;
+import de.bundeswehr.uniity.sedapexpress.messages.EMISSION;
+import de.bundeswehr.uniity.sedapexpress.messages.OWNUNIT;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Classification;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+
+/**
+ * Declarative filter of a subscription, only matching messages are delivered to the subscriber
+ * <p>
+ * All set criteria have to be fulfilled. A criterion is only checked for message types having the concerned field: the sender and the classification for all messages, the contact ID and the source for CONTACT,
+ * the battle dimension of the SIDC for CONTACT and OWNUNIT and the position for CONTACT, OWNUNIT and EMISSION (emitter position). A message without a value for a checked field does not match. The filter must not
+ * be changed after it has been used for a subscription.
+ *
+ * @author Volker Voß
+ *
+ */
+public final class SEDAPExpressSubscriptionFilter {
+
+    /**
+     * Battle dimension of a MIL-STD-2525B/C symbol identification code (third character)
+     */
+    public enum BattleDimension {
+
+	Space('P'), Air('A'), Ground('G'), Sea_Surface('S'), Subsurface('U'), SOF('F'), Other('X'), Unknown('Z');
+
+	char battleDimension;
+
+	public char getBattleDimension() {
+	    return this.battleDimension;
+	}
+
+	BattleDimension(char battleDimension) {
+	    this.battleDimension = battleDimension;
+	}
+
+	/**
+	 * Gives the battle dimension of a SIDC back
+	 *
+	 * @param sidc Symbol identification code
+	 * @return battle dimension or null, if the SIDC has none
+	 */
+	public static BattleDimension valueOfSIDC(char[] sidc) {
+
+	    if ((sidc == null) || (sidc.length < 3)) {
+		return null;
+	    }
+	    final char battleDimension = Character.toUpperCase(sidc[2]);
+	    for (BattleDimension value : BattleDimension.values()) {
+		if (value.battleDimension == battleDimension) {
+		    return value;
+		}
+	    }
+	    return null;
+	}
+    }
+
+    private Set<String> senders = null;
+
+    private String contactIDPrefix = null;
+
+    private Classification classificationCeiling = null;
+
+    private Set<Source> sources = null;
+
+    private Set<BattleDimension> battleDimensions = null;
+
+    private boolean boundingBox = false;
+    private double minLatitude;
+    private double minLongitude;
+    private double maxLatitude;
+    private double maxLongitude;
+
+    /**
+     * Instantiate a new filter, which matches all messages until criteria are set
+     */
+    public SEDAPExpressSubscriptionFilter() {
+	// Nothing to do
+    }
+
+    /**
+     * Only messages of one of these senders match
+     *
+     * @param senders Sender IDs
+     * @return this filter
+     */
+    public SEDAPExpressSubscriptionFilter senders(String... senders) {
+
+	this.senders = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(senders)));
+	return this;
+    }
+
+    /**
+     * Only CONTACTs with a contact ID starting with this prefix match
+     *
+     * @param contactIDPrefix Prefix of the contact ID
+     * @return this filter
+     */
+    public SEDAPExpressSubscriptionFilter contactIDPrefix(String contactIDPrefix) {
+
+	this.contactIDPrefix = contactIDPrefix;
+	return this;
+    }
+
+    /**
+     * Only messages classified at most with this classification match, messages without classification do not match
+     *
+     * @param classificationCeiling Highest classification
+     * @return this filter
+     */
+    public SEDAPExpressSubscriptionFilter classificationCeiling(Classification classificationCeiling) {
+
+	this.classificationCeiling = classificationCeiling;
+	return this;
+    }
+
+    /**
+     * Only CONTACTs with at least one of these sources match
+     *
+     * @param sources Sources
+     * @return this filter
+     */
+    public SEDAPExpressSubscriptionFilter sources(Source... sources) {
+
+	this.sources = Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(sources)));
+	return this;
+    }
+
+    /**
+     * Only CONTACTs and OWNUNITs with a SIDC of one of these battle dimensions match
+     *
+     * @param battleDimensions Battle dimensions
+     * @return this filter
+     */
+    public SEDAPExpressSubscriptionFilter battleDimensions(BattleDimension... battleDimensions) {
+
+	this.battleDimensions = Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(battleDimensions)));
+	return this;
+    }
+
+    /**
+     * Only messages with a position inside this area match. If the minimum longitude is greater than the maximum longitude, the area crosses the antimeridian.
+     *
+     * @param minLatitude  Southern border in degrees
+     * @param minLongitude Western border in degrees
+     * @param maxLatitude  Northern border in degrees
+     * @param maxLongitude Eastern border in degrees
+     * @return this filter
+     */
+    public SEDAPExpressSubscriptionFilter boundingBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+
+	if ((minLatitude > maxLatitude) || (minLatitude < -90) || (maxLatitude > 90) || (minLongitude < -180) || (minLongitude > 180) || (maxLongitude < -180) || (maxLongitude > 180)) {
+	    throw new IllegalArgumentException("Invalid bounding box");
+	}
+
+	this.boundingBox = true;
+	this.minLatitude = minLatitude;
+	this.minLongitude = minLongitude;
+	this.maxLatitude = maxLatitude;
+	this.maxLongitude = maxLongitude;
+	return this;
+    }
+
+    public Set<String> getSenders() {
+	return this.senders;
+    }
+
+    public String getContactIDPrefix() {
+	return this.contactIDPrefix;
+    }
+
+    public Classification getClassificationCeiling() {
+	return this.classificationCeiling;
+    }
+
+    public Set<Source> getSources() {
+	return this.sources;
+    }
+
+    public Set<BattleDimension> getBattleDimensions() {
+	return this.battleDimensions;
+    }
+
+    public boolean hasBoundingBox() {
+	return this.boundingBox;
+    }
+
+    public double getMinLatitude() {
+	return this.minLatitude;
+    }
+
+    public double getMinLongitude() {
+	return this.minLongitude;
+    }
+
+    public double getMaxLatitude() {
+	return this.maxLatitude;
+    }
+
+    public double getMaxLongitude() {
+	return this.maxLongitude;
+    }
+
+    /**
+     * Checks, if messages of a type have a position
+     *
+     * @param type Message type
+     * @return true, if the bounding box is checked for this type
+     */
+    static boolean hasPosition(MessageType type) {
+	return (type == MessageType.CONTACT) || (type == MessageType.OWNUNIT) || (type == MessageType.EMISSION);
+    }
+
+    static Double getLatitude(SEDAPExpressMessage message) {
+
+	if (message instanceof CONTACT contact) {
+	    return contact.getLatitude();
+	} else if (message instanceof OWNUNIT ownunit) {
+	    return ownunit.getLatitude();
+	} else if (message instanceof EMISSION emission) {
+	    return emission.getEmitterLatitude();
+	}
+	return null;
+    }
+
+    static Double getLongitude(SEDAPExpressMessage message) {
+
+	if (message instanceof CONTACT contact) {
+	    return contact.getLongitude();
+	} else if (message instanceof OWNUNIT ownunit) {
+	    return ownunit.getLongitude();
+	} else if (message instanceof EMISSION emission) {
+	    return emission.getEmitterLongitude();
+	}
+	return null;
+    }
+
+    /**
+     * Checks, if a position lies inside the bounding box
+     *
+     * @param latitude  Latitude in degrees
+     * @param longitude Longitude in degrees
+     * @return true, if the position is inside
+     */
+    boolean contains(double latitude, double longitude) {
+
+	if ((latitude < this.minLatitude) || (latitude > this.maxLatitude)) {
+	    return false;
+	}
+	if (this.minLongitude <= this.maxLongitude) {
+	    return (longitude >= this.minLongitude) && (longitude <= this.maxLongitude);
+	}
+	return (longitude >= this.minLongitude) || (longitude <= this.maxLongitude); // Crossing the antimeridian
+    }
+
+    /**
+     * Checks, if a message fulfills all criteria of this filter
+     *
+     * @param message Message to be checked
+     * @return true, if the message matches
+     */
+    public boolean matches(SEDAPExpressMessage message) {
+
+	if ((this.senders != null) && !this.senders.contains(message.getSender())) {
+	    return false;
+	}
+
+	if ((this.classificationCeiling != null) && ((message.getClassification() == null) || (message.getClassification().compareTo(this.classificationCeiling) > 0))) {
+	    return false;
+	}
+
+	if (message instanceof CONTACT contact) {
+
+	    if ((this.contactIDPrefix != null) && ((contact.getContactID() == null) || !contact.getContactID().startsWith(this.contactIDPrefix))) {
+		return false;
+	    }
+
+	    if ((this.sources != null) && ((contact.getSource() == null) || Collections.disjoint(this.sources, contact.getSource()))) {
+		return false;
+	    }
+	}
+
+	if ((this.battleDimensions != null) && ((message instanceof CONTACT) || (message instanceof OWNUNIT))) {
+	    final char[] sidc = (message instanceof CONTACT contact) ? contact.getSIDC() : ((OWNUNIT) message).getSIDC();
+	    if (!this.battleDimensions.contains(BattleDimension.valueOfSIDC(sidc))) {
+		return false;
+	    }
+	}
+
+	if (this.boundingBox && SEDAPExpressSubscriptionFilter.hasPosition(message.getMessageType())) {
+	    final Double latitude = SEDAPExpressSubscriptionFilter.getLatitude(message);
+	    final Double longitude = SEDAPExpressSubscriptionFilter.getLongitude(message);
+	    if ((latitude == null) || (longitude == null) || !contains(latitude, longitude)) {
+		return false;
+	    }
+	}
+
+	return true;
+    }
+}
@@ -0,0 +1,380 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.processing.SEDAPExpressSubscriber;
+
+/**
+ * Subscribers of a communicator by message type
+ * <p>
+ * The subscribers are kept in an array indexed by the ordinal of the message type. Every change replaces the affected arrays, so distributing a message reads a consistent snapshot without locking, hashing or
+ * allocating an iterator.
+ * <p>
+ * Subscriptions with a {@link SEDAPExpressSubscriptionFilter} are compiled per message type into an index: filters with senders are put into buckets per sender, filters with a bounding box into the cells of a
+ * grid. A message is only checked against the filters of its sender and of the grid cell of its position and against the remaining filters. Subscribers without filter receive a message first.
+ *
+ * @author Volker Voß
+ *
+ */
+public final class SEDAPExpressSubscriptionTable {
+
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+
+    private static final SEDAPExpressSubscriber[] NO_SUBSCRIBERS = new SEDAPExpressSubscriber[0];
+
+    /** Size of a grid cell in degrees */
+    private static final int CELL_SIZE = 5;
+    private static final int LATITUDE_CELLS = 180 / SEDAPExpressSubscriptionTable.CELL_SIZE;
+    private static final int LONGITUDE_CELLS = 360 / SEDAPExpressSubscriptionTable.CELL_SIZE;
+
+    /** Filters covering more cells are not put into the grid */
+    private static final int MAX_CELLS_PER_FILTER = 64;
+
+    /**
+     * Subscriber with its filter
+     */
+    private record Registration(SEDAPExpressSubscriber subscriber, SEDAPExpressSubscriptionFilter filter) {
+    }
+
+    private static final Registration[] NO_REGISTRATIONS = new Registration[0];
+
+    /**
+     * Immutable index of the filtered subscriptions of one message type
+     */
+    private static final class FilterIndex {
+
+	private final Map<String, Registration[]> bySender = new HashMap<>();
+	private final Registration[][] grid;
+	private final Registration[] others;
+
+	private FilterIndex(MessageType type, List<Registration> registrations) {
+
+	    final Map<String, List<Registration>> senderLists = new HashMap<>();
+	    final List<List<Registration>> cellLists = new ArrayList<>();
+	    final List<Registration> otherList = new ArrayList<>();
+	    boolean spatial = false;
+
+	    for (Registration registration : registrations) {
+		final SEDAPExpressSubscriptionFilter filter = registration.filter();
+		if (filter.getSenders() != null) {
+		    filter.getSenders().forEach(sender -> senderLists.computeIfAbsent(sender, x -> new ArrayList<>()).add(registration));
+		} else if (filter.hasBoundingBox() && SEDAPExpressSubscriptionFilter.hasPosition(type) && (FilterIndex.cells(filter).length <= SEDAPExpressSubscriptionTable.MAX_CELLS_PER_FILTER)) {
+		    if (!spatial) {
+			for (int i = 0; i < (SEDAPExpressSubscriptionTable.LATITUDE_CELLS * SEDAPExpressSubscriptionTable.LONGITUDE_CELLS); i++) {
+			    cellLists.add(null);
+			}
+			spatial = true;
+		    }
+		    for (int cell : FilterIndex.cells(filter)) {
+			if (cellLists.get(cell) == null) {
+			    cellLists.set(cell, new ArrayList<>());
+			}
+			cellLists.get(cell).add(registration);
+		    }
+		} else {
+		    otherList.add(registration);
+		}
+	    }
+
+	    senderLists.forEach((sender, list) -> this.bySender.put(sender, list.toArray(SEDAPExpressSubscriptionTable.NO_REGISTRATIONS)));
+
+	    if (spatial) {
+		this.grid = new Registration[cellLists.size()][];
+		for (int i = 0; i < this.grid.length; i++) {
+		    this.grid[i] = (cellLists.get(i) == null) ? SEDAPExpressSubscriptionTable.NO_REGISTRATIONS : cellLists.get(i).toArray(SEDAPExpressSubscriptionTable.NO_REGISTRATIONS);
+		}
+	    } else {
+		this.grid = null;
+	    }
+
+	    this.others = otherList.toArray(SEDAPExpressSubscriptionTable.NO_REGISTRATIONS);
+	}
+
+	private static int latitudeCell(double latitude) {
+	    return Math.max(0, Math.min(SEDAPExpressSubscriptionTable.LATITUDE_CELLS - 1, (int) Math.floor((latitude + 90) / SEDAPExpressSubscriptionTable.CELL_SIZE)));
+	}
+
+	private static int longitudeCell(double longitude) {
+	    return Math.floorMod((int) Math.floor((longitude + 180) / SEDAPExpressSubscriptionTable.CELL_SIZE), SEDAPExpressSubscriptionTable.LONGITUDE_CELLS);
+	}
+
+	/**
+	 * Gives the grid cells overlapped by the bounding box of a filter back
+	 */
+	private static int[] cells(SEDAPExpressSubscriptionFilter filter) {
+
+	    final int minLatitude = FilterIndex.latitudeCell(filter.getMinLatitude());
+	    final int maxLatitude = FilterIndex.latitudeCell(filter.getMaxLatitude());
+	    final int minLongitude = (int) Math.floor((filter.getMinLongitude() + 180) / SEDAPExpressSubscriptionTable.CELL_SIZE);
+	    int maxLongitude = (int) Math.floor((filter.getMaxLongitude() + 180) / SEDAPExpressSubscriptionTable.CELL_SIZE);
+	    if (filter.getMinLongitude() > filter.getMaxLongitude()) {
+		maxLongitude += SEDAPExpressSubscriptionTable.LONGITUDE_CELLS; // Crossing the antimeridian
+	    }
+	    final int longitudes = Math.min(maxLongitude - minLongitude + 1, SEDAPExpressSubscriptionTable.LONGITUDE_CELLS);
+
+	    final int[] cells = new int[(maxLatitude - minLatitude + 1) * longitudes];
+	    int i = 0;
+	    for (int latitude = minLatitude; latitude <= maxLatitude; latitude++) {
+		for (int longitude = 0; longitude < longitudes; longitude++) {
+		    cells[i++] = (latitude * SEDAPExpressSubscriptionTable.LONGITUDE_CELLS) + ((minLongitude + longitude) % SEDAPExpressSubscriptionTable.LONGITUDE_CELLS);
+		}
+	    }
+	    return cells;
+	}
+
+	private void distribute(SEDAPExpressMessage message) {
+
+	    if (!this.bySender.isEmpty() && (message.getSender() != null)) {
+		FilterIndex.distribute(this.bySender.get(message.getSender()), message);
+	    }
+
+	    if (this.grid != null) {
+		final Double latitude = SEDAPExpressSubscriptionFilter.getLatitude(message);
+		final Double longitude = SEDAPExpressSubscriptionFilter.getLongitude(message);
+		if ((latitude != null) && (longitude != null)) {
+		    FilterIndex.distribute(this.grid[(FilterIndex.latitudeCell(latitude) * SEDAPExpressSubscriptionTable.LONGITUDE_CELLS) + FilterIndex.longitudeCell(longitude)], message);
+		}
+	    }
+
+	    FilterIndex.distribute(this.others, message);
+	}
+
+	private static void distribute(Registration[] registrations, SEDAPExpressMessage message) {
+
+	    if (registrations != null) {
+		for (Registration registration : registrations) {
+		    if (registration.filter().matches(message)) {
+			registration.subscriber().processSEDAPExpressMessage(message);
+		    }
+		}
+	    }
+	}
+    }
+
+    /** Subscribers without filter by the ordinal of the message type, replaced on every change */
+    private volatile SEDAPExpressSubscriber[][] subscribers;
+
+    /** Index of the filtered subscriptions by the ordinal of the message type, null if there are none */
+    private volatile FilterIndex[] indexes;
+
+    /** Filtered subscriptions by the ordinal of the message type, guarded by this */
+    private final List<List<Registration>> registrations = new ArrayList<>();
+
+    /**
+     * Instantiate a new empty subscription table
+     */
+    public SEDAPExpressSubscriptionTable() {
+
+	final SEDAPExpressSubscriber[][] empty = new SEDAPExpressSubscriber[SEDAPExpressSubscriptionTable.MESSAGE_TYPES.length][];
+	Arrays.fill(empty, SEDAPExpressSubscriptionTable.NO_SUBSCRIBERS);
+	this.subscribers = empty;
+	this.indexes = new FilterIndex[SEDAPExpressSubscriptionTable.MESSAGE_TYPES.length];
+	for (int i = 0; i < SEDAPExpressSubscriptionTable.MESSAGE_TYPES.length; i++) {
+	    this.registrations.add(new ArrayList<>());
+	}
+    }
+
+    /**
+     * Subscribe a message type, a subscriber is added only once per type. A filter of a previous subscription of the type is removed.
+     *
+     * @param subscriber the subscriber for the message type
+     * @param type       Message type which should be subscribed
+     */
+    public synchronized void subscribe(SEDAPExpressSubscriber subscriber, MessageType type) {
+
+	removeFilter(subscriber, type);
+
+	final SEDAPExpressSubscriber[] current = this.subscribers[type.ordinal()];
+	if (indexOf(current, subscriber) >= 0) {
+	    return;
+	}
+
+	final SEDAPExpressSubscriber[] changed = Arrays.copyOf(current, current.length + 1);
+	changed[current.length] = subscriber;
+	replace(type, changed);
+    }
+
+    /**
+     * Subscribe a message type with a filter. A previous subscription of the type by the subscriber is replaced.
+     *
+     * @param subscriber the subscriber for the message type
+     * @param filter     Filter of the messages
+     * @param type       Message type which should be subscribed
+     */
+    public synchronized void subscribe(SEDAPExpressSubscriber subscriber, SEDAPExpressSubscriptionFilter filter, MessageType type) {
+
+	removeSubscriber(subscriber, type);
+
+	final List<Registration> registrationsOfType = this.registrations.get(type.ordinal());
+	registrationsOfType.removeIf(registration -> registration.subscriber().equals(subscriber));
+	registrationsOfType.add(new Registration(subscriber, filter));
+	rebuildIndex(type);
+    }
+
+    /**
+     * Unsubscribe a message type
+     *
+     * @param subscriber the original subscriber of the message type
+     * @param type       Message type which should be unsubscribed
+     */
+    public synchronized void unsubscribe(SEDAPExpressSubscriber subscriber, MessageType type) {
+
+	removeSubscriber(subscriber, type);
+	removeFilter(subscriber, type);
+    }
+
+    private void removeSubscriber(SEDAPExpressSubscriber subscriber, MessageType type) {
+
+	final SEDAPExpressSubscriber[] current = this.subscribers[type.ordinal()];
+	final int index = indexOf(current, subscriber);
+	if (index < 0) {
+	    return;
+	}
+
+	final SEDAPExpressSubscriber[] changed = (current.length == 1) ? SEDAPExpressSubscriptionTable.NO_SUBSCRIBERS : new SEDAPExpressSubscriber[current.length - 1];
+	System.arraycopy(current, 0, changed, 0, index);
+	System.arraycopy(current, index + 1, changed, index, current.length - index - 1);
+	replace(type, changed);
+    }
+
+    private void removeFilter(SEDAPExpressSubscriber subscriber, MessageType type) {
+
+	if (this.registrations.get(type.ordinal()).removeIf(registration -> registration.subscriber().equals(subscriber))) {
+	    rebuildIndex(type);
+	}
+    }
+
+    private void rebuildIndex(MessageType type) {
+
+	final List<Registration> registrationsOfType = this.registrations.get(type.ordinal());
+	final FilterIndex[] changed = this.indexes.clone();
+	changed[type.ordinal()] = registrationsOfType.isEmpty() ? null : new FilterIndex(type, registrationsOfType);
+	this.indexes = changed;
+    }
+
+    private void replace(MessageType type, SEDAPExpressSubscriber[] changed) {
+
+	final SEDAPExpressSubscriber[][] table = this.subscribers.clone();
+	table[type.ordinal()] = changed;
+	this.subscribers = table;
+    }
+
+    private static int indexOf(SEDAPExpressSubscriber[] subscribers, SEDAPExpressSubscriber subscriber) {
+
+	for (int i = 0; i < subscribers.length; i++) {
+	    if (subscribers[i].equals(subscriber)) {
+		return i;
+	    }
+	}
+	return -1;
+    }
+
+    /**
+     * Gives the subscribers of a message type back
+     *
+     * @param type Message type
+     * @return unmodifiable list of the subscribers with and without filter
+     */
+    public synchronized List<SEDAPExpressSubscriber> getSubscribers(MessageType type) {
+
+	final List<Registration> registrationsOfType = this.registrations.get(type.ordinal());
+	if (registrationsOfType.isEmpty()) {
+	    return List.of(this.subscribers[type.ordinal()]);
+	}
+
+	final List<SEDAPExpressSubscriber> result = new ArrayList<>(Arrays.asList(this.subscribers[type.ordinal()]));
+	registrationsOfType.forEach(registration -> result.add(registration.subscriber()));
+	return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Gives the filter of a subscription back
+     *
+     * @param subscriber the subscriber
+     * @param type       Message type
+     * @return the filter or null, if the type is subscribed without filter or not at all
+     */
+    public synchronized SEDAPExpressSubscriptionFilter getFilter(SEDAPExpressSubscriber subscriber, MessageType type) {
+
+	for (Registration registration : this.registrations.get(type.ordinal())) {
+	    if (registration.subscriber().equals(subscriber)) {
+		return registration.filter();
+	    }
+	}
+	return null;
+    }
+
+    /**
+     * Checks, if a subscriber has subscribed any message type
+     *
+     * @param subscriber the subscriber
+     * @return true, if at least one message type is subscribed
+     */
+    public synchronized boolean isSubscribed(SEDAPExpressSubscriber subscriber) {
+
+	for (SEDAPExpressSubscriber[] subscribersOfType : this.subscribers) {
+	    if (indexOf(subscribersOfType, subscriber) >= 0) {
+		return true;
+	    }
+	}
+	for (List<Registration> registrationsOfType : this.registrations) {
+	    for (Registration registration : registrationsOfType) {
+		if (registration.subscriber().equals(subscriber)) {
+		    return true;
+		}
+	    }
+	}
+	return false;
+    }
+
+    /**
+     * Distribute a message to the subscribers of its type, whose filter it matches
+     *
+     * @param message Message to be distributed
+     */
+    public void distribute(SEDAPExpressMessage message) {
+
+	final int type = message.getMessageType().ordinal();
+
+	for (SEDAPExpressSubscriber subscriber : this.subscribers[type]) {
+	    subscriber.processSEDAPExpressMessage(message);
+	}
+
+	final FilterIndex index = this.indexes[type];
+	if (index != null) {
+	    index.distribute(message);
+	}
+    }
+}
@@ -25,24 +25,21 @@
  */
 package de.bundeswehr.uniity.sedapexpress.network;
 
-import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
 import java.nio.channels.SocketChannel;
 import java.nio.channels.spi.SelectorProvider;
 import java.nio.charset.StandardCharsets;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
-import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
-import de.bundeswehr.uniity.sedapexpress.processing.SEDAPExpressSubscriber;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessageCursor;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressOutboundQueue.SlowConsumerPolicy;
 
 /**
  * TCP receiver/sender class for SEDAP-Express
@@ -67,10 +64,15 @@ public class SEDAPExpressTCPClient extends SEDAPExpressCommunicator implements R
 
     private boolean status = true;
 
-    private final ConcurrentLinkedDeque<SEDAPExpressTCPClient> clients;
-
     private Thread ownThread;
 
+    private final SEDAPExpressMessageCursor cursor = new SEDAPExpressMessageCursor();
+
+    /** Messages waiting to be sent, written by the thread holding the write lock */
+    private volatile SEDAPExpressOutboundQueue output = new SEDAPExpressOutboundQueue(SlowConsumerPolicy.BLOCK, SEDAPExpressOutboundQueue.DEFAULT_MAX_QUEUED_BYTES);
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
     public String getHost() {
 
 	return this.host;
@@ -88,44 +90,14 @@ public class SEDAPExpressTCPClient extends SEDAPExpressCommunicator implements R
 
 	this.host = host;
 	this.port = port;
-
-	this.clients = new ConcurrentLinkedDeque<>();
-	this.subscriptions = new ConcurrentHashMap<MessageType, Set<SEDAPExpressSubscriber>>();
-    }
-
-    /**
-     * Instantiate a new SEDAP-Express TCP Client (initiated from a TCP Server)
-     *
-     * @param socket        SocketChannel to be used
-     * @param clients       Client list to be used
-     * @param subscriptions Subscription list to be used
-     */
-    protected SEDAPExpressTCPClient(SocketChannel socket, ConcurrentLinkedDeque<SEDAPExpressTCPClient> clients, ConcurrentHashMap<MessageType, Set<SEDAPExpressSubscriber>> subscriptions) {
-
-	super();
-
-	this.socket = socket;
-
-	try {
-	    this.host = socket.getRemoteAddress().toString().substring(1);
-	} catch (IOException e) {
-	    this.host = "";
-	}
-
-	this.port = 0; // Unused
-
-	this.clients = clients;
-	this.subscriptions = subscriptions;
-
     }
 
     public boolean connect() {
 
-	if (this.clients.isEmpty())
-	    logInput("TCP client started!");
+	logInput("TCP client started!");
 
 	try {
-	    // No socket given from server
+	    // Not connected yet
 	    if (this.socket == null) {
 		this.socket = SelectorProvider.provider().openSocketChannel();
 		this.socket.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
@@ -142,8 +114,7 @@ public class SEDAPExpressTCPClient extends SEDAPExpressCommunicator implements R
 		this.lastException = null;
 
 		if (this.ownThread == null) {
-		    this.ownThread = new Thread(this);
-		    this.ownThread.start();// Start receiving thread
+		    this.ownThread = startThread(this); // Start receiving thread
 		}
 
 		return true;
@@ -154,8 +125,7 @@ public class SEDAPExpressTCPClient extends SEDAPExpressCommunicator implements R
 		    this.lastException = null;
 
 		    if (this.ownThread == null) {
-			this.ownThread = new Thread(this);
-			this.ownThread.start();// Start receiving thread
+			this.ownThread = startThread(this); // Start receiving thread
 		    }
 
 		    return true;
@@ -177,45 +147,40 @@ public class SEDAPExpressTCPClient extends SEDAPExpressCommunicator implements R
 	while (this.status) {
 
 	    try {
-		try (final BufferedReader br = new BufferedReader(Channels.newReader(this.socket, StandardCharsets.ISO_8859_1))) {
+		try {
+		    final SEDAPExpressStreamFramer input = new SEDAPExpressStreamFramer(new SEDAPExpressStreamFramer.LineDecoder(this::processMessage, this.host), SEDAPExpressTCPServer.MAX_MESSAGE_LENGTH);
 
 		    while (this.status) {
-			String message = br.readLine(); // Waiting for data
-
-			try {
-			    if (message != null) {
-				distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(message));
-			    } else {
-				break;
-			    }
-			} catch (Exception e) {
-
-			    if (this.status) { // Only if not manually triggered
-				this.lastException = e;
-				SEDAPExpressTCPClient.logger.log(Level.SEVERE, "SEDAPExpressTCPClient, could not deserialize message: " + message, e);
-				this.status = this.socket.isConnected();
-			    }
+			// Reading the channel directly holds no monitor, so a virtual receiving thread does not pin its carrier thread
+			if (input.read(this.socket) < 0) { // Waiting for data
+			    throw new EOFException("Connection closed by " + this.host);
 			}
 		    }
 
 		} catch (Exception e) {
 		    this.lastException = e;
 
+		    try {
+			this.socket.close();
+		    } catch (IOException e1) {
+		    }
+
 		    if (this.status) { // Only if not manually triggered
 			SEDAPExpressTCPClient.logger.log(Level.WARNING, "SEDAPExpressTCPClient: " + e);
 		    }
 
-		    if (!this.clients.isEmpty()) { // If initiated by server, then end client thread
-			this.status = false;
-			this.clients.remove(this);
-			SEDAPExpressTCPClient.logger.logp(Level.INFO, "SEDAPExpressTCPClient", "run()", "Removed client " + this.host);
-			logInput("Remove client " + this.host);
-
-		    } else if (this.status) { // If client initiated by user, then reconnect attempt after 2 seconds
+		    if (this.status) { // Reconnect attempt after 2 seconds
 			SEDAPExpressTCPServer.logger.logp(Level.SEVERE, "SEDAPExpressTCPClient", "run()", "Waiting 2 seconds for reconnect to: " + this.host + ":" + this.port);
 			logInput("Waiting 2 seconds for reconnect to: " + this.host + ":" + this.port);
 			Thread.sleep(2000);
-			this.socket = null;
+			this.writeLock.lock();
+			try {
+			    // A partly written line must not be continued on the new connection
+			    this.output.clear();
+			    this.socket = null;
+			} finally {
+			    this.writeLock.unlock();
+			}
 			connect();
 		    }
 		}
@@ -228,9 +193,20 @@ public class SEDAPExpressTCPClient extends SEDAPExpressCommunicator implements R
 		}
 
 		this.status = false;
-		if (!this.clients.isEmpty()) {
-		    this.clients.remove(this);
-		}
+	    }
+	}
+    }
+
+    private void processMessage(byte[] data, int offset, int length) {
+
+	try {
+	    distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(this.cursor.wrap(data, offset, length)));
+	} catch (Exception e) {
+
+	    if (this.status) { // Only if not manually triggered
+		this.lastException = e;
+		SEDAPExpressTCPClient.logger.log(Level.SEVERE, "SEDAPExpressTCPClient, could not deserialize message: " + new String(data, offset, length, StandardCharsets.ISO_8859_1), e);
+		this.status = this.socket.isConnected();
 	    }
 	}
     }
@@ -238,17 +214,112 @@ public class SEDAPExpressTCPClient extends SEDAPExpressCommunicator implements R
     @Override
     public boolean sendSEDAPExpressMessage(SEDAPExpressMessage message) throws IOException {
 
-	try {
-	    if (this.socket.write(ByteBuffer.wrap(SEDAPExpressMessage.serialize(message).getBytes())) >= 0) {
-		return true;
+	final SEDAPExpressOutboundQueue queue = this.output;
+	final ByteBuffer data = SEDAPExpressOutboundQueue.encode(message);
+	final String key = SEDAPExpressOutboundQueue.getCoalescingKey(message);
+
+	while (!queue.offer(data, key)) {
+	    if (queue.getPolicy() != SlowConsumerPolicy.BLOCK) {
+		return false;
+	    }
+
+	    // Queue is full, wait for the writing thread and help writing
+	    this.writeLock.lock();
+	    try {
+		if (!writeQueued()) {
+		    return false; // Reconnecting
+		}
+	    } finally {
+		this.writeLock.unlock();
 	    }
+	}
+
+	flush();
+	return true;
+    }
+
+    /**
+     * Writes the queued messages until every line has been written completely. If another thread is already writing, it also writes the newly queued messages, so concurrently sent messages are combined into one
+     * gathering write.
+     */
+    private void flush() throws IOException {
+
+	// Checking again after unlocking ensures that no message stays in the queue without a writing thread
+	while (!this.output.isEmpty() && this.writeLock.tryLock()) {
+	    try {
+		if (!writeQueued()) {
+		    return;
+		}
+	    } finally {
+		this.writeLock.unlock();
+	    }
+	}
+    }
+
+    /**
+     * Writes all queued messages, the write lock has to be held.
+     *
+     * @return false, if the client is reconnecting and the messages are sent with the next message
+     */
+    private boolean writeQueued() throws IOException {
+
+	final SocketChannel channel = this.socket;
+	if (channel == null) {
 	    return false;
+	}
 
+	try {
+	    while (!this.output.writeTo(channel)) {
+		// Only a part has been written, write the rest
+	    }
+	    return true;
 	} catch (IOException e) {
 	    this.lastException = e;
 	    throw e;
 	}
+    }
+
+    /**
+     * Sets the behaviour if messages are sent faster than the connection can transfer them, by default the sending threads wait ({@link SlowConsumerPolicy#BLOCK}). Messages not yet sent are discarded.
+     *
+     * @param policy         Slow consumer policy
+     * @param maxQueuedBytes Maximum number of queued bytes
+     */
+    public void setSlowConsumerPolicy(SlowConsumerPolicy policy, long maxQueuedBytes) {
+
+	this.writeLock.lock();
+	try {
+	    this.output = new SEDAPExpressOutboundQueue(policy, maxQueuedBytes);
+	} finally {
+	    this.writeLock.unlock();
+	}
+    }
+
+    /**
+     * Gives the number of bytes waiting to be sent back, a growing value indicates a congested connection
+     *
+     * @return queued bytes
+     */
+    public long getQueuedBytes() {
+	return this.output.getQueuedBytes();
+    }
 
+    /**
+     * Gives the number of bytes sent on this connection back
+     *
+     * @return sent bytes
+     */
+    public long getSentBytes() {
+	return this.output.getWrittenBytes();
+    }
+
+    /**
+     * Gives the number of messages dropped because the queue of messages to be sent was full back
+     *
+     * @return dropped messages
+     */
+    public long getDroppedMessages() {
+	return this.output.getDroppedMessages();
     }
 
     public boolean isStatus() {
@@ -267,10 +338,7 @@ public class SEDAPExpressTCPClient extends SEDAPExpressCommunicator implements R
 	}
 
 	SEDAPExpressTCPClient.logger.logp(Level.INFO, "SEDAPExpressTCPClient", "stopCommunicator()", "TCP client stopped");
-
-	if (this.clients.isEmpty()) // Nur bei TCP Client
-	    logInput("TCP client stopped");
-
+	logInput("TCP client stopped");
     }
 
     @Override
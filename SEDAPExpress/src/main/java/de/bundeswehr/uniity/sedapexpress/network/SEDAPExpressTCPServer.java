@@ -27,16 +27,31 @@ package de.bundeswehr.uniity.sedapexpress.network;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessageCursor;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressOutboundQueue.SlowConsumerPolicy;
 
 /**
  * TCP receiver/sender class for SEDAP-Express
+ * <p>
+ * All client connections are served by a single selector thread with non-blocking reads and writes, instead of one thread per client. Every connection has its own buffer, which collects the received bytes until a
+ * message is complete, and its own bounded queue of outgoing messages, which is written with gathering writes whenever the socket accepts more data. A sent message is serialized once and shared read only by
+ * all queues. If a client reads too slowly, its queue is limited by the {@link SlowConsumerPolicy}. Received messages are distributed to the subscribers of this server.
  *
  * @author Volker Voß
  *
@@ -48,15 +63,62 @@ public class SEDAPExpressTCPServer extends SEDAPExpressCommunicator implements R
 	SEDAPExpressTCPServer.logger.setLevel(Level.ALL);
     }
 
+    /** Maximum number of pending connections, bursts of connecting clients are accepted without SYN retransmissions */
+    private static final int BACKLOG = 1024;
+
+    /** Maximum length of a received message, longer messages are discarded */
+    static final int MAX_MESSAGE_LENGTH = 8 * 1024 * 1024;
+
     private Exception lastException = null;
 
     private ServerSocketChannel serverSocket;
+    private Selector selector;
     private final String intf;
     private final int port;
 
-    private boolean status = true;
+    private volatile boolean status = true;
+
+    private final ConcurrentLinkedDeque<Connection> clients = new ConcurrentLinkedDeque<>();
+
+    /** Connections with new outgoing messages, they are written by the selector thread */
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
 
-    private ConcurrentLinkedDeque<SEDAPExpressTCPClient> clients = new ConcurrentLinkedDeque<>();
+    private volatile SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP_OLDEST;
+
+    private volatile long maxQueuedBytes = SEDAPExpressOutboundQueue.DEFAULT_MAX_QUEUED_BYTES;
+
+    /**
+     * State of a client connection, only accessed by the selector thread except for the outgoing queue
+     */
+    private static final class Connection {
+
+	private final SocketChannel channel;
+	private final String host;
+	private SelectionKey key;
+
+	private SEDAPExpressStreamFramer input;
+	private final SEDAPExpressMessageCursor cursor = new SEDAPExpressMessageCursor();
+
+	private final SEDAPExpressOutboundQueue output;
+	/** True while the connection is in the pending writes */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	/** Set if a message has been rejected, the connection is closed by the selector thread */
+	private volatile boolean overflow = false;
+
+	private Connection(SocketChannel channel, SEDAPExpressOutboundQueue output) {
+
+	    this.channel = channel;
+	    this.output = output;
+
+	    String remoteAddress;
+	    try {
+		remoteAddress = channel.getRemoteAddress().toString().substring(1);
+	    } catch (IOException e) {
+		remoteAddress = "";
+	    }
+	    this.host = remoteAddress;
+	}
+    }
 
     /**
      * Instantiate a new SEDAP-Express TCP Server on the given interface
@@ -86,16 +148,19 @@ public class SEDAPExpressTCPServer extends SEDAPExpressCommunicator implements R
 
 	try {
 
+	    this.selector = Selector.open();
+
 	    this.serverSocket = ServerSocketChannel.open();
-	    this.serverSocket.configureBlocking(true);
-	    this.serverSocket.bind(new InetSocketAddress(this.intf, this.port));
+	    this.serverSocket.configureBlocking(false);
+	    this.serverSocket.bind(new InetSocketAddress(this.intf, this.port), SEDAPExpressTCPServer.BACKLOG);
+	    this.serverSocket.register(this.selector, SelectionKey.OP_ACCEPT);
 
 	    SEDAPExpressTCPServer.logger.logp(Level.INFO, "SEDAPExpressTCPServer", "run()", "TCP server listening on port: " + this.port);
 	    logInput("TCP server listening on port: " + this.port);
 
 	    this.lastException = null;
 
-	    new Thread(this).start();
+	    startThread(this);
 
 	    return true;
 
@@ -105,65 +170,251 @@ public class SEDAPExpressTCPServer extends SEDAPExpressCommunicator implements R
 	}
     }
 
+    /**
+     * Returns the number of connected clients
+     *
+     * @return number of clients
+     */
+    public int getNumberOfClients() {
+	return this.clients.size();
+    }
+
     @Override
     public void run() {
 
-	while (this.status) {
-
-	    try {
-		while (this.status) {
-		    SocketChannel clientSocket = this.serverSocket.accept();
-		    SEDAPExpressTCPClient newClient = new SEDAPExpressTCPClient(clientSocket, this.clients, this.subscriptions);
-		    this.clients.add(newClient);
-		    newClient.inputLogger = this.inputLogger;
-		    newClient.outputLogger = this.outputLogger;
+	try {
+	    while (this.status) {
 
-		    newClient.connect();
+		this.selector.select();
 
-		    SEDAPExpressTCPServer.logger.logp(Level.INFO, "SEDAPExpressTCPServer", "run()", "Added new client " + newClient.getHost());
-		    logInput("Added new client " + newClient.getHost());
-		}
-	    } catch (Exception e) {
-		if (this.status) { // Only if not manually triggered
-		    this.lastException = e;
-		    SEDAPExpressTCPServer.logger.logp(Level.SEVERE, "SEDAPExpressTCPServer", "run()", "Could not listening on port: " + this.port);
-		    logInput("Could not listening on port: " + this.port);
+		Connection connection;
+		while ((connection = this.pendingWrites.poll()) != null) {
+		    connection.scheduled.set(false);
+		    if (connection.key.isValid()) {
+			write(connection);
+		    }
 		}
-		this.status = false;
-	    } finally {
-		try {
-		    this.serverSocket.close();
-		} catch (IOException e) {
+
+		final Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+		while (keys.hasNext()) {
+
+		    final SelectionKey key = keys.next();
+		    keys.remove();
+
+		    if (!key.isValid()) {
+			continue;
+		    }
+
+		    if (key.isAcceptable()) {
+			accept();
+		    } else {
+			connection = (Connection) key.attachment();
+			if (key.isReadable()) {
+			    read(connection);
+			}
+			if (key.isValid() && key.isWritable()) {
+			    write(connection);
+			}
+		    }
 		}
 	    }
+	} catch (Exception e) {
+	    if (this.status) { // Only if not manually triggered
+		this.lastException = e;
+		SEDAPExpressTCPServer.logger.logp(Level.SEVERE, "SEDAPExpressTCPServer", "run()", "Could not listening on port: " + this.port, e);
+		logInput("Could not listening on port: " + this.port);
+	    }
+	    this.status = false;
+	} finally {
+	    this.clients.forEach(client -> close(client, false));
+	    try {
+		this.serverSocket.close();
+		this.selector.close();
+	    } catch (IOException e) {
+	    }
+	}
+    }
+
+    private void accept() throws IOException {
+
+	// Accept all pending connections at once
+	SocketChannel channel;
+	while ((channel = this.serverSocket.accept()) != null) {
+
+	    channel.configureBlocking(false);
+	    channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+
+	    final Connection connection = new Connection(channel, new SEDAPExpressOutboundQueue(this.slowConsumerPolicy, this.maxQueuedBytes));
+	    connection.input = new SEDAPExpressStreamFramer(new SEDAPExpressStreamFramer.LineDecoder((data, offset, length) -> processMessage(connection, data, offset, length), connection.host), SEDAPExpressTCPServer.MAX_MESSAGE_LENGTH);
+	    connection.key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+	    this.clients.add(connection);
+
+	    SEDAPExpressTCPServer.logger.logp(Level.INFO, "SEDAPExpressTCPServer", "accept()", "Added new client " + connection.host);
+	    logInput("Added new client " + connection.host);
+	}
+    }
+
+    /**
+     * Reads the available bytes of a connection and distributes all completely received messages.
+     */
+    private void read(Connection connection) {
+
+	try {
+	    if (connection.input.read(connection.channel) < 0) {
+		close(connection, true);
+	    }
+	} catch (IOException e) {
+	    this.lastException = e;
+	    close(connection, true);
+	}
+    }
+
+    private void processMessage(Connection connection, byte[] data, int offset, int length) {
+
+	try {
+	    distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(connection.cursor.wrap(data, offset, length)));
+	} catch (Exception e) {
+	    this.lastException = e;
+	    SEDAPExpressTCPServer.logger.log(Level.SEVERE, "SEDAPExpressTCPServer, could not deserialize message: " + new String(data, offset, length, StandardCharsets.ISO_8859_1), e);
+	}
+    }
+
+    /**
+     * Writes queued messages until the queue is empty or the socket does not accept more data.
+     */
+    private void write(Connection connection) {
+
+	if (connection.overflow) {
+	    SEDAPExpressTCPServer.logger.logp(Level.WARNING, "SEDAPExpressTCPServer", "write()", "Disconnecting slow client " + connection.host + ", more than " + this.maxQueuedBytes + " bytes queued");
+	    logInput("Disconnecting slow client " + connection.host);
+	    close(connection, true);
+	    return;
+	}
+
+	try {
+	    if (connection.output.writeTo(connection.channel)) {
+		connection.key.interestOps(SelectionKey.OP_READ);
+	    } else {
+		// Socket buffer is full, continue when the channel is writable again
+		connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+	    }
+	} catch (IOException e) {
+	    this.lastException = e;
+	    close(connection, true);
 	}
+    }
 
+    private void close(Connection connection, boolean remove) {
+
+	connection.key.cancel();
+	try {
+	    connection.channel.close();
+	} catch (IOException e) {
+	}
+	connection.output.clear();
+
+	if (remove) {
+	    this.clients.remove(connection);
+	    if (this.status) { // Only if not manually triggered
+		SEDAPExpressTCPServer.logger.logp(Level.INFO, "SEDAPExpressTCPServer", "close()", "Removed client " + connection.host);
+		logInput("Removed client " + connection.host);
+	    }
+	}
     }
 
     @Override
     public boolean sendSEDAPExpressMessage(SEDAPExpressMessage message) throws IOException {
 
-	ConcurrentLinkedDeque<SEDAPExpressTCPClient> removeClients = new ConcurrentLinkedDeque<>();
+	if (this.clients.isEmpty()) {
+	    return false;
+	}
 
-	this.clients.forEach(client -> {
+	// Serialize once, every client gets its own read only view of the same bytes
+	final ByteBuffer data = SEDAPExpressOutboundQueue.encode(message);
+	final String key = SEDAPExpressOutboundQueue.getCoalescingKey(message);
 
-	    if (client.isStatus()) {
-		try {
-		    client.sendSEDAPExpressMessage(message);
-		} catch (Exception e) {
-		    removeClients.add(client);
-		    if (this.status) { // Only if not manually triggered
-			SEDAPExpressTCPServer.logger.logp(Level.INFO, "SEDAPExpressTCPServer", "run()", "Removed client " + client.getHost());
-			logInput("Removed client " + client.getHost());
-		    }
-		}
+	boolean wakeup = false;
+	for (Connection client : this.clients) {
+	    if (!client.output.offer(data.duplicate(), key)) {
+		client.overflow = true;
+	    }
+	    // The selector thread writes everything queued until it takes the connection, so it is scheduled only once
+	    if (client.scheduled.compareAndSet(false, true)) {
+		this.pendingWrites.add(client);
+		wakeup = true;
 	    }
+	}
+	if (wakeup) {
+	    this.selector.wakeup();
+	}
+
+	return true;
+    }
+
+    /**
+     * Sets the behaviour for clients, which do not read fast enough. Only affects clients connecting afterwards, {@link SlowConsumerPolicy#BLOCK} is not supported.
+     *
+     * @param policy         Slow consumer policy
+     * @param maxQueuedBytes Maximum number of bytes queued per client
+     */
+    public void setSlowConsumerPolicy(SlowConsumerPolicy policy, long maxQueuedBytes) {
+
+	if (policy == SlowConsumerPolicy.BLOCK) {
+	    throw new IllegalArgumentException("A slow client must not block the other clients");
+	}
+	this.slowConsumerPolicy = policy;
+	this.maxQueuedBytes = maxQueuedBytes;
+    }
 
-	    this.clients.removeAll(removeClients);
+    /**
+     * Gives the slow consumer policy back
+     *
+     * @return policy
+     */
+    public SlowConsumerPolicy getSlowConsumerPolicy() {
+	return this.slowConsumerPolicy;
+    }
 
-	});
+    /**
+     * Gives the number of bytes waiting to be sent to all clients back
+     *
+     * @return queued bytes
+     */
+    public long getQueuedBytes() {
 
-	return false;
+	long queuedBytes = 0;
+	for (Connection client : this.clients) {
+	    queuedBytes += client.output.getQueuedBytes();
+	}
+	return queuedBytes;
+    }
+
+    /**
+     * Gives the number of messages, which have been dropped for the connected clients because they read too slowly, back
+     *
+     * @return dropped messages
+     */
+    public long getDroppedMessages() {
+
+	long droppedMessages = 0;
+	for (Connection client : this.clients) {
+	    droppedMessages += client.output.getDroppedMessages();
+	}
+	return droppedMessages;
+    }
+
+    /**
+     * Gives the size of the largest receive buffer of the connected clients back
+     *
+     * @return Capacity in bytes
+     */
+    int getMaxReceiveBufferSize() {
+
+	int size = 0;
+	for (Connection client : this.clients) {
+	    size = Math.max(size, client.input.getCapacity());
+	}
+	return size;
     }
 
     @Override
@@ -171,13 +422,10 @@ public class SEDAPExpressTCPServer extends SEDAPExpressCommunicator implements R
 
 	this.status = false;
 
-	try {
-	    this.serverSocket.close();
-	} catch (IOException e) {
+	if (this.selector != null) {
+	    this.selector.wakeup();
 	}
 
-	this.clients.forEach(SEDAPExpressTCPClient::stopCommunicator);
-
 	SEDAPExpressTCPServer.logger.logp(Level.INFO, "SEDAPExpressTCPServer", "stopCommunicator()", "TCP server stopped");
 	logInput("TCP server stopped");
     }
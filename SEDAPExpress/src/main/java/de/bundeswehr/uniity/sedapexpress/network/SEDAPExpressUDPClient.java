@@ -27,20 +27,35 @@ package de.bundeswehr.uniity.sedapexpress.network;
 
 import java.io.IOException;
 import java.net.BindException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.net.Inet6Address;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.InterfaceAddress;
-import java.net.MulticastSocket;
 import java.net.NetworkInterface;
+import java.net.SocketAddress;
 import java.net.SocketException;
-import java.util.Arrays;
+import java.net.SocketOption;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressBinaryCodec;
 import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessageCursor;
 
 /**
  * UDP receiver/sender class for SEDAP-Express
@@ -55,9 +70,48 @@ public class SEDAPExpressUDPClient extends SEDAPExpressCommunicator implements R
 	SEDAPExpressTCPClient.logger.setLevel(Level.ALL);
     }
 
+    /** Space reserved for every received datagram, larger than the maximum UDP payload so no datagram is truncated */
+    static final int MAX_DATAGRAM_SIZE = 65536;
+
+    /** Size of the direct receive buffer, a batch ends when less than {@link #MAX_DATAGRAM_SIZE} bytes are left */
+    static final int RECEIVE_BUFFER_SIZE = 4 * SEDAPExpressUDPClient.MAX_DATAGRAM_SIZE;
+
+    /** Maximum number of datagrams drained from the socket per wake-up */
+    static final int MAX_BATCH = 1024;
+
+    /** Maximum payload of an IPv4 UDP datagram */
+    public static final int MAX_UDP_PAYLOAD = 65507;
+
+    /** Default datagram size for packing, the payload of a 1500 bytes Ethernet frame without IPv4 and UDP headers */
+    public static final int DEFAULT_PACKING_SIZE = 1472;
+
+    /** Default time a packed message waits for further messages in milliseconds */
+    public static final long DEFAULT_PACKING_DELAY = 5;
+
+    /** Default size of the socket receive buffer (SO_RCVBUF), the operating system may limit it */
+    public static final int DEFAULT_SOCKET_RECEIVE_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    /** Default time to live of sent multicast datagrams, which do not leave the local network */
+    public static final int DEFAULT_TIME_TO_LIVE = 1;
+
     private Exception lastException = null;
 
-    private DatagramSocket socket;
+    private DatagramChannel channel;
+
+    /** Channel for sending, in multicast mode an own channel with an ephemeral port, so the own datagrams can be told apart from those of other local members */
+    private DatagramChannel sendChannel;
+
+    /** Network interface for multicast, null selects the first interface supporting multicast */
+    private NetworkInterface networkInterface;
+
+    private int timeToLive = SEDAPExpressUDPClient.DEFAULT_TIME_TO_LIVE;
+
+    private boolean loopback = true;
+
+    /** Joined multicast groups */
+    private final Map<InetAddress, MembershipKey> memberships = new ConcurrentHashMap<>();
+
+    private Selector selector;
 
     private final String receiver;
 
@@ -67,6 +121,28 @@ public class SEDAPExpressUDPClient extends SEDAPExpressCommunicator implements R
 
     private Thread ownThread;
 
+    private int socketReceiveBufferSize = SEDAPExpressUDPClient.DEFAULT_SOCKET_RECEIVE_BUFFER_SIZE;
+
+    private final SEDAPExpressMessageCursor cursor = new SEDAPExpressMessageCursor();
+
+    /** Decoder of binary datagrams, used by the receiving thread only */
+    private final SEDAPExpressBinaryCodec decoder = new SEDAPExpressBinaryCodec();
+
+    /** Encoder of binary messages, used by the thread holding the send lock */
+    private final SEDAPExpressBinaryCodec encoder = new SEDAPExpressBinaryCodec();
+
+    private volatile long receivedDatagrams = 0;
+
+    private volatile long droppedDatagrams = 0;
+
+    /** Resolved destination, cached to avoid a name lookup per message */
+    private volatile InetSocketAddress destination;
+
+    /** Guards the encoder and the packed datagram */
+    private final ReentrantLock sendLock = new ReentrantLock();
+
+    private final SEDAPExpressDatagramPacker packer = new SEDAPExpressDatagramPacker(this.sendLock, this::sendPackedDatagram, this::startThread, 0, TimeUnit.MILLISECONDS.toNanos(SEDAPExpressUDPClient.DEFAULT_PACKING_DELAY));
+
     /**
      * Instantiate a new SEDAP-Express UDP Client
      *
@@ -84,23 +160,45 @@ public class SEDAPExpressUDPClient extends SEDAPExpressCommunicator implements R
     public boolean connect() {
 
 	try {
-	    if (InetAddress.getByName(this.receiver).isMulticastAddress()) {
-		this.socket = new MulticastSocket(this.port);
+	    final InetAddress receiverAddress = InetAddress.getByName(this.receiver);
+	    final boolean multicast = receiverAddress.isMulticastAddress();
+	    if (multicast) {
+		this.channel = DatagramChannel.open(SEDAPExpressUDPClient.getProtocolFamily(receiverAddress));
+	    } else {
+		this.channel = DatagramChannel.open();
+	    }
+
+	    this.channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+	    this.channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+	    this.channel.setOption(StandardSocketOptions.SO_RCVBUF, this.socketReceiveBufferSize);
+	    this.channel.bind(new InetSocketAddress(this.port));
+	    this.channel.configureBlocking(false);
+	    this.selector = Selector.open();
+	    this.channel.register(this.selector, SelectionKey.OP_READ);
+
+	    if (multicast) {
+		if (this.networkInterface == null) {
+		    this.networkInterface = SEDAPExpressUDPClient.findMulticastInterface(receiverAddress);
+		}
+		this.sendChannel = DatagramChannel.open(SEDAPExpressUDPClient.getProtocolFamily(receiverAddress));
+		this.sendChannel.setOption(StandardSocketOptions.IP_MULTICAST_IF, this.networkInterface);
+		this.sendChannel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, this.timeToLive);
+		this.sendChannel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, this.loopback);
+		this.sendChannel.bind(null);
+		joinGroup(receiverAddress);
 	    } else {
-		this.socket = new DatagramSocket(this.port);
+		this.sendChannel = this.channel;
 	    }
 
-	    SEDAPExpressTCPServer.logger.logp(Level.INFO, "SEDAPExpressUDPClient", "run()", "UDP server listening on port: " + this.port);
+	    SEDAPExpressTCPServer.logger.logp(Level.INFO, "SEDAPExpressUDPClient", "run()", "UDP server listening on port: " + this.port + " (receive buffer " + this.channel.getOption(StandardSocketOptions.SO_RCVBUF) + " bytes)");
 	    logInput("UDP server listening on port: " + this.port);
 
-	    this.socket.setBroadcast(true);
-	    this.socket.setReuseAddress(true);
+	    this.destination = new InetSocketAddress(this.receiver, this.port);
 
 	    this.lastException = null;
 
 	    if (this.ownThread == null) {
-		this.ownThread = new Thread(this);
-		this.ownThread.start();// Start receiving thread
+		this.ownThread = startThread(this); // Start receiving thread
 	    }
 
 	    return true;
@@ -122,7 +220,9 @@ public class SEDAPExpressUDPClient extends SEDAPExpressCommunicator implements R
     @Override
     public void run() {
 
-	HashSet<InetAddress> localIPAddresses = new HashSet<>();
+	final HashSet<InetAddress> localIPAddresses = new HashSet<>();
+	// In multicast mode only the own datagrams are dropped, the ones of other local members are received
+	final int ownPort = (this.sendChannel != this.channel) ? ((InetSocketAddress) getLocalSendAddress()).getPort() : -1;
 
 	try {
 	    final Enumeration<NetworkInterface> enumInterf = NetworkInterface.getNetworkInterfaces();
@@ -143,22 +243,46 @@ public class SEDAPExpressUDPClient extends SEDAPExpressCommunicator implements R
 
 	}
 
+	// Datagrams are received back to back into one direct buffer, so the JDK does not copy them through a temporary buffer
+	final ByteBuffer buffer = ByteBuffer.allocateDirect(SEDAPExpressUDPClient.RECEIVE_BUFFER_SIZE);
+	final byte[] data = new byte[SEDAPExpressUDPClient.RECEIVE_BUFFER_SIZE];
+	final int[] ends = new int[SEDAPExpressUDPClient.MAX_BATCH];
+
 	while (this.status) {
 
 	    try {
 
-		final DatagramPacket packet = new DatagramPacket(new byte[65000], 65000);
-
-		this.socket.receive(packet);
-
-		final InetAddress sender = packet.getAddress();
+		this.selector.select(); // Waiting for data
+		this.selector.selectedKeys().clear();
+
+		// Drain all queued datagrams before parsing, this frees the socket buffer as fast as possible during bursts
+		int count;
+		do {
+		    buffer.clear();
+		    count = 0;
+		    while ((count < SEDAPExpressUDPClient.MAX_BATCH) && (buffer.remaining() >= SEDAPExpressUDPClient.MAX_DATAGRAM_SIZE)) {
+			final int start = buffer.position();
+			final SocketAddress sender = this.channel.receive(buffer);
+			if (sender == null) {
+			    break;
+			}
+
+			// Do not receive packages from yourself
+			if (localIPAddresses.contains(((InetSocketAddress) sender).getAddress()) && ((ownPort < 0) || (((InetSocketAddress) sender).getPort() == ownPort))) {
+			    buffer.position(start);
+			    continue;
+			}
+			ends[count++] = buffer.position();
+		    }
 
-		// Do not receive packages from yourself
-		if (localIPAddresses.contains(sender)) {
-		    continue;
-		}
+		    buffer.flip().get(data, 0, buffer.limit());
 
-		Arrays.asList(new String(packet.getData(), 0, packet.getLength()).split("\n")).forEach(message -> distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(message)));
+		    int start = 0;
+		    for (int i = 0; i < count; i++) {
+			processDatagram(data, start, ends[i] - start);
+			start = ends[i];
+		    }
+		} while ((count == SEDAPExpressUDPClient.MAX_BATCH) || (buffer.limit() > SEDAPExpressUDPClient.RECEIVE_BUFFER_SIZE - SEDAPExpressUDPClient.MAX_DATAGRAM_SIZE));
 
 	    } catch (final Exception e) {
 		this.lastException = e;
@@ -176,27 +300,497 @@ public class SEDAPExpressUDPClient extends SEDAPExpressCommunicator implements R
 	}
     }
 
+    /**
+     * Splits a received datagram at the line feeds, or at the length prefixes in binary encoding, and distributes the contained messages. Datagrams without any valid message are counted as dropped.
+     *
+     * @param data   Buffer containing the datagram
+     * @param offset Start of the datagram within the buffer
+     * @param length Length of the datagram in bytes
+     * @return Number of distributed messages
+     */
+    int processDatagram(byte[] data, int offset, int length) {
+
+	this.receivedDatagrams++;
+
+	if (getEncoding() == Encoding.BINARY) {
+	    final int messages = this.decoder.decodeAll(data, offset, length, this::distributeMessage);
+	    if (messages == 0) {
+		this.droppedDatagrams++;
+	    }
+	    return messages;
+	}
+
+	int messages = 0;
+	final int end = offset + length;
+	int start = offset;
+	for (int i = offset; i <= end; i++) {
+	    if ((i == end) || (data[i] == '\n')) {
+		if (i > start) {
+		    SEDAPExpressMessage message = null;
+		    try {
+			message = SEDAPExpressMessage.deserialize(this.cursor.wrap(data, start, i - start));
+		    } catch (Exception e) {
+			this.lastException = e;
+		    }
+		    if (message != null) {
+			distributeMessage(message);
+			messages++;
+		    } else {
+			SEDAPExpressUDPClient.logger.logp(Level.FINE, "SEDAPExpressUDPClient", "processDatagram()", "Could not deserialize message: " + new String(data, start, i - start, StandardCharsets.ISO_8859_1));
+		    }
+		}
+		start = i + 1;
+	    }
+	}
+
+	if (messages == 0) {
+	    this.droppedDatagrams++;
+	}
+
+	return messages;
+    }
+
+    /**
+     * Distributes a received message. A failing subscriber is logged, the further messages of the datagram and the drained datagrams are distributed nevertheless.
+     */
+    private void distributeMessage(SEDAPExpressMessage message) {
+
+	try {
+	    distributeReceivedSEDAPExpressMessage(message);
+	} catch (Exception e) {
+	    this.lastException = e;
+	    SEDAPExpressUDPClient.logger.logp(Level.SEVERE, "SEDAPExpressUDPClient", "distributeMessage()", "Could not distribute message: " + message.getMessageType(), e);
+	    logInput("Could not distribute message: " + message.getMessageType());
+	}
+    }
+
+    /**
+     * Sends a message. If packing is enabled, the message is collected with further messages into one datagram, which is sent when it is full or the packing delay has passed.
+     *
+     * @param message Message to be sent
+     * @return true, if the message has been sent or collected for sending
+     */
     @Override
     public boolean sendSEDAPExpressMessage(SEDAPExpressMessage message) throws IOException {
 
-	byte[] data = SEDAPExpressMessage.serialize(message).getBytes();
+	return this.packer.send(message, (sent, datagram) -> {
+	    if (getEncoding() == Encoding.BINARY) {
+		this.encoder.encode(sent, datagram);
+	    } else {
+		SEDAPExpressMessage.serialize(sent, datagram);
+	    }
+	});
+    }
+
+    /**
+     * Sends one datagram to the receiver, called by the packer while holding the send lock
+     */
+    private boolean sendPackedDatagram(ByteBuffer datagram) throws IOException {
+
+	InetSocketAddress target = this.destination;
+	if ((target == null) || target.isUnresolved()) {
+	    target = new InetSocketAddress(this.receiver, this.port);
+	    this.destination = target;
+	}
+
 	try {
-	    this.socket.send(new DatagramPacket(data, data.length, InetAddress.getByName(this.receiver), this.port));
+	    return this.sendChannel.send(datagram, target) > 0;
 	} catch (IOException e) {
 	    this.lastException = e;
 	    throw e;
 	}
+    }
+
+    /**
+     * Lets the client pack several messages into one datagram. A datagram is sent, when the next message does not fit any more or the first message has waited for the given delay. The receivers already split datagrams at the line feeds or length prefixes. A single message larger than the datagram size can not be sent.
+     *
+     * @param maxDatagramSize Maximum datagram size in bytes, e.g. {@link #DEFAULT_PACKING_SIZE} to avoid IP fragmentation
+     * @param maxDelay        Maximum time a message waits for further messages in milliseconds
+     */
+    public void setPacking(int maxDatagramSize, long maxDelay) {
+
+	if ((maxDatagramSize <= 0) || (maxDatagramSize > SEDAPExpressUDPClient.MAX_UDP_PAYLOAD) || (maxDelay < 0)) {
+	    throw new IllegalArgumentException("Invalid packing: size=" + maxDatagramSize + " delay=" + maxDelay);
+	}
+
+	this.packer.setPacking(maxDatagramSize, TimeUnit.MILLISECONDS.toNanos(maxDelay), this.sendChannel != null);
+    }
+
+    /**
+     * Lets the client send every message in its own datagram again, which is the default
+     */
+    public void disablePacking() {
+
+	this.packer.setPacking(0, this.packer.getPackingDelayNanos(), this.sendChannel != null);
+    }
+
+    /**
+     * Gives the maximum datagram size for packing back
+     *
+     * @return Datagram size in bytes, 0 if packing is disabled
+     */
+    public int getPackingSize() {
+	return this.packer.getPackingSize();
+    }
+
+    /**
+     * Gives the maximum time a packed message waits for further messages back
+     *
+     * @return Delay in milliseconds
+     */
+    public long getPackingDelay() {
+	return TimeUnit.NANOSECONDS.toMillis(this.packer.getPackingDelayNanos());
+    }
+
+    /**
+     * Gives the number of sent datagrams back
+     *
+     * @return sent datagrams
+     */
+    public long getSentDatagrams() {
+	return this.packer.getSentDatagrams();
+    }
+
+    /**
+     * Gives the number of messages back, which have been sent or collected for sending
+     *
+     * @return sent messages
+     */
+    public long getSentMessages() {
+	return this.packer.getSentMessages();
+    }
+
+    /**
+     * Joins a multicast group on the network interface of this client, the group of the receiver is joined by {@link #connect()}
+     *
+     * @param group Multicast group
+     * @return true, if the group has been joined
+     */
+    public boolean joinGroup(InetAddress group) {
+
+	if (!group.isMulticastAddress()) {
+	    throw new IllegalArgumentException("No multicast address: " + group);
+	}
+
+	if (this.sendChannel == this.channel) {
+	    SEDAPExpressUDPClient.logger.logp(Level.WARNING, "SEDAPExpressUDPClient", "joinGroup()", "Client is not connected in multicast mode");
+	    return false;
+	}
+
+	try {
+	    final MembershipKey key = this.channel.join(group, this.networkInterface);
+	    this.memberships.put(group, key);
+
+	    SEDAPExpressUDPClient.logger.logp(Level.INFO, "SEDAPExpressUDPClient", "joinGroup()", "Joined multicast group " + group.getHostAddress() + " on " + this.networkInterface.getName());
+	    logInput("Joined multicast group " + group.getHostAddress() + " on " + this.networkInterface.getName());
+	    return true;
+	} catch (IOException | RuntimeException e) {
+	    this.lastException = e;
+	    SEDAPExpressUDPClient.logger.logp(Level.WARNING, "SEDAPExpressUDPClient", "joinGroup()", "Could not join multicast group " + group.getHostAddress() + ": " + e.getLocalizedMessage());
+	    return false;
+	}
+    }
+
+    /**
+     * Leaves a joined multicast group
+     *
+     * @param group Multicast group
+     * @return true, if the group had been joined
+     */
+    public boolean leaveGroup(InetAddress group) {
+
+	final MembershipKey key = this.memberships.remove(group);
+	if (key == null) {
+	    return false;
+	}
+
+	key.drop();
+	SEDAPExpressUDPClient.logger.logp(Level.INFO, "SEDAPExpressUDPClient", "leaveGroup()", "Left multicast group " + group.getHostAddress());
+	logInput("Left multicast group " + group.getHostAddress());
+	return true;
+    }
+
+    /**
+     * Gives the joined multicast groups back
+     *
+     * @return Joined groups
+     */
+    public Set<InetAddress> getGroups() {
+	return Set.copyOf(this.memberships.keySet());
+    }
+
+    /**
+     * Sets the network interface for multicast. If it is changed while connected, the joined groups are joined again on the new interface.
+     *
+     * @param networkInterface Network interface, null selects the first interface supporting multicast on connect
+     */
+    public void setNetworkInterface(NetworkInterface networkInterface) {
+
+	this.networkInterface = networkInterface;
+
+	if ((networkInterface != null) && (this.sendChannel != null) && (this.sendChannel != this.channel)) {
+	    try {
+		this.sendChannel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+	    } catch (IOException e) {
+		this.lastException = e;
+		SEDAPExpressUDPClient.logger.logp(Level.WARNING, "SEDAPExpressUDPClient", "setNetworkInterface()", "Could not set network interface: " + e.getLocalizedMessage());
+	    }
+	    for (final InetAddress group : getGroups()) {
+		leaveGroup(group);
+		joinGroup(group);
+	    }
+	}
+    }
+
+    /**
+     * Gives the network interface used for multicast back
+     *
+     * @return Network interface, null if not yet selected
+     */
+    public NetworkInterface getNetworkInterface() {
+	return this.networkInterface;
+    }
+
+    /**
+     * Sets the time to live of sent multicast datagrams, i.e. the number of routers they may pass
+     *
+     * @param timeToLive Time to live (0-255), 1 keeps the datagrams in the local network
+     */
+    public void setTimeToLive(int timeToLive) {
+
+	if ((timeToLive < 0) || (timeToLive > 255)) {
+	    throw new IllegalArgumentException("Invalid time to live: " + timeToLive);
+	}
+
+	this.timeToLive = timeToLive;
+	setSendOption(StandardSocketOptions.IP_MULTICAST_TTL, timeToLive);
+    }
+
+    /**
+     * Gives the time to live of sent multicast datagrams back
+     *
+     * @return Time to live
+     */
+    public int getTimeToLive() {
+	return this.timeToLive;
+    }
+
+    /**
+     * Sets, if sent multicast datagrams are looped back to the local host. This is necessary to reach other members on the same host, the own datagrams are dropped by the receiver anyway.
+     *
+     * @param loopback true, if datagrams are looped back (default)
+     */
+    public void setLoopback(boolean loopback) {
+
+	this.loopback = loopback;
+	setSendOption(StandardSocketOptions.IP_MULTICAST_LOOP, loopback);
+    }
+
+    /**
+     * Gives back, if sent multicast datagrams are looped back to the local host
+     *
+     * @return true, if datagrams are looped back
+     */
+    public boolean isLoopback() {
+	return this.loopback;
+    }
+
+    private <T> void setSendOption(SocketOption<T> option, T value) {
+
+	if ((this.sendChannel != null) && (this.sendChannel != this.channel)) {
+	    try {
+		this.sendChannel.setOption(option, value);
+	    } catch (IOException e) {
+		this.lastException = e;
+		SEDAPExpressUDPClient.logger.logp(Level.WARNING, "SEDAPExpressUDPClient", "setSendOption()", "Could not set " + option.name() + ": " + e.getLocalizedMessage());
+	    }
+	}
+    }
+
+    /**
+     * Gives the local address datagrams are sent from back
+     *
+     * @return Local address, null if not connected
+     */
+    SocketAddress getLocalSendAddress() {
+
+	try {
+	    return (this.sendChannel != null) ? this.sendChannel.getLocalAddress() : null;
+	} catch (IOException e) {
+	    return null;
+	}
+    }
+
+    private static StandardProtocolFamily getProtocolFamily(InetAddress address) {
+	return (address instanceof Inet6Address) ? StandardProtocolFamily.INET6 : StandardProtocolFamily.INET;
+    }
+
+    /**
+     * Searches an interface for multicast, which is up and has an address of the same protocol family as the group. Interfaces supporting multicast are preferred over the loopback interface.
+     *
+     * @param group Multicast group
+     * @return Network interface
+     * @throws SocketException if no suitable interface exists
+     */
+    static NetworkInterface findMulticastInterface(InetAddress group) throws SocketException {
+
+	NetworkInterface fallback = null;
+
+	final Enumeration<NetworkInterface> enumInterf = NetworkInterface.getNetworkInterfaces();
+	while (enumInterf.hasMoreElements()) {
+	    final NetworkInterface networkInterface = enumInterf.nextElement();
+
+	    if (networkInterface.isUp() && networkInterface.inetAddresses().anyMatch(address -> address.getClass() == group.getClass())) {
+		if (networkInterface.supportsMulticast() && !networkInterface.isLoopback()) {
+		    return networkInterface;
+		}
+		if (fallback == null) {
+		    fallback = networkInterface;
+		}
+	    }
+	}
+
+	if (fallback == null) {
+	    throw new SocketException("No network interface for multicast group " + group.getHostAddress());
+	}
 
-	return false;
+	return fallback;
+    }
+
+    /**
+     * Sets the size of the socket receive buffer (SO_RCVBUF). A larger buffer absorbs longer sensor bursts, the operating system may limit the size (e.g. net.core.rmem_max on Linux).
+     *
+     * @param size Requested size in bytes
+     */
+    public void setSocketReceiveBufferSize(int size) {
+
+	if (size <= 0) {
+	    throw new IllegalArgumentException("Invalid receive buffer size: " + size);
+	}
+
+	this.socketReceiveBufferSize = size;
+
+	if (this.channel != null) {
+	    try {
+		this.channel.setOption(StandardSocketOptions.SO_RCVBUF, size);
+	    } catch (IOException e) {
+		this.lastException = e;
+		SEDAPExpressUDPClient.logger.logp(Level.WARNING, "SEDAPExpressUDPClient", "setSocketReceiveBufferSize()", "Could not set receive buffer size: " + e.getLocalizedMessage());
+	    }
+	}
+    }
+
+    /**
+     * Gives the size of the socket receive buffer back, once connected this is the size granted by the operating system
+     *
+     * @return Receive buffer size in bytes
+     */
+    public int getSocketReceiveBufferSize() {
+
+	if (this.channel != null) {
+	    try {
+		return this.channel.getOption(StandardSocketOptions.SO_RCVBUF);
+	    } catch (IOException e) {
+		this.lastException = e;
+	    }
+	}
+
+	return this.socketReceiveBufferSize;
+    }
+
+    /**
+     * Gives the number of received datagrams back, datagrams from own addresses are not counted
+     *
+     * @return received datagrams
+     */
+    public long getReceivedDatagrams() {
+	return this.receivedDatagrams;
+    }
+
+    /**
+     * Gives the number of datagrams back, which have been discarded because they did not contain any valid message. Datagrams discarded by the operating system because of a full socket buffer are only visible in its statistics (e.g. netstat -su).
+     *
+     * @return dropped datagrams
+     */
+    public long getDroppedDatagrams() {
+	return this.droppedDatagrams;
+    }
+
+    /**
+     * Supports the text and the binary encoding
+     */
+    @Override
+    protected boolean isEncodingSupported(Encoding encoding) {
+	return true;
+    }
+
+    /**
+     * Lets the client send CONTACT and OWNUNIT updates in the binary encoding as delta against the last update of the same contact, with a keyframe containing all fields after the given number of
+     * updates or time. The receivers have to enable delta encoding as well, they drop updates of a contact until its next keyframe. Should be called before {@link #connect()}.
+     *
+     * @param keyframeInterval Number of updates from keyframe to keyframe, e.g. {@link SEDAPExpressBinaryCodec#DEFAULT_KEYFRAME_INTERVAL}
+     * @param keyframeAge      Maximum age of a keyframe in milliseconds, e.g. {@link SEDAPExpressBinaryCodec#DEFAULT_KEYFRAME_AGE}
+     */
+    public void setDeltaEncoding(int keyframeInterval, long keyframeAge) {
+
+	this.sendLock.lock();
+	try {
+	    this.encoder.setKeyframeInterval(keyframeInterval, keyframeAge);
+	    this.encoder.setDeltaEncoding(true);
+	    this.decoder.setDeltaEncoding(true);
+	} finally {
+	    this.sendLock.unlock();
+	}
+    }
+
+    /**
+     * Lets the client send every CONTACT and OWNUNIT completely again, which is the default
+     */
+    public void disableDeltaEncoding() {
+
+	this.sendLock.lock();
+	try {
+	    this.encoder.setDeltaEncoding(false);
+	    this.decoder.setDeltaEncoding(false);
+	} finally {
+	    this.sendLock.unlock();
+	}
+    }
+
+    /**
+     * Gives the number of received delta updates back, which have been dropped because the keyframe of their contact has not been received
+     *
+     * @return dropped delta updates
+     */
+    public long getMissingKeyframes() {
+	return this.decoder.getMissingKeyframes();
     }
 
     @Override
     public void stopCommunicator() {
 
-	this.status = false;
+	try {
+	    // Send the messages still waiting for packing
+	    this.packer.stop((this.sendChannel != null) && this.sendChannel.isOpen());
+	} catch (IOException e) {
+	    this.lastException = e;
+	} finally {
+	    this.status = false;
+	}
 
-	if (this.socket != null) {
-	    this.socket.close();
+	try {
+	    this.memberships.clear(); // Dropped by closing the channel
+	    if ((this.sendChannel != null) && (this.sendChannel != this.channel)) {
+		this.sendChannel.close();
+	    }
+	    if (this.channel != null) {
+		this.channel.close();
+	    }
+	    if (this.selector != null) {
+		this.selector.close();
+	    }
+	} catch (IOException e) {
+	    this.lastException = e;
 	}
 
 	SEDAPExpressUDPClient.logger.logp(Level.INFO, "SEDAPExpressUDPClient", "stopCommunicator()", "UDP server stopped");
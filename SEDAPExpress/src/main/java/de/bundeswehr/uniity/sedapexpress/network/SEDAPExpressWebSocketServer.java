@@ -0,0 +1,760 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressOutboundQueue.SlowConsumerPolicy;
+
+/**
+ * WebSocket server class for SEDAP-Express (RFC 6455)
+ * <p>
+ * Browser based and thin clients connect to ws://host:port/SEDAPEXPRESS (any path is accepted) instead of polling the {@link SEDAPExpressRESTServer}. Every sent message is pushed to all clients as one text frame,
+ * which is encoded once and shared read only by the outgoing queues of the connections. Text or binary frames received from a client may contain one or more messages separated by line ends, they are distributed to
+ * the subscribers of this server. Like the {@link SEDAPExpressTCPServer} all connections are served by a single selector thread, a client reading too slowly is limited by the {@link SlowConsumerPolicy} of its queue.
+ *
+ * @author Volker Voß
+ *
+ */
+public class SEDAPExpressWebSocketServer extends SEDAPExpressCommunicator implements Runnable {
+
+    protected static Logger logger = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    static {
+	SEDAPExpressWebSocketServer.logger.setLevel(Level.ALL);
+    }
+
+    /** Magic string of the opening handshake */
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    /** Initial size of the receive buffer of a connection */
+    private static final int RECEIVE_BUFFER_SIZE = 16 * 1024;
+
+    /** Maximum length of the HTTP request of the opening handshake */
+    private static final int MAX_HANDSHAKE_LENGTH = 16 * 1024;
+
+    /** Maximum number of pending connections */
+    private static final int BACKLOG = 1024;
+
+    /** Maximum length of a received message, a client sending longer messages is disconnected */
+    static final int MAX_MESSAGE_LENGTH = 8 * 1024 * 1024;
+
+    static final int OPCODE_CONTINUATION = 0x0;
+    static final int OPCODE_TEXT = 0x1;
+    static final int OPCODE_BINARY = 0x2;
+    static final int OPCODE_CLOSE = 0x8;
+    static final int OPCODE_PING = 0x9;
+    static final int OPCODE_PONG = 0xA;
+
+    /** Status codes of a close frame */
+    private static final int CLOSE_GOING_AWAY = 1001;
+    private static final int CLOSE_PROTOCOL_ERROR = 1002;
+    private static final int CLOSE_TOO_BIG = 1009;
+
+    private Exception lastException = null;
+
+    private ServerSocketChannel serverSocket;
+    private Selector selector;
+    private final String intf;
+    private final int port;
+
+    private volatile boolean status = true;
+
+    private final ConcurrentLinkedDeque<Connection> clients = new ConcurrentLinkedDeque<>();
+
+    /** Connections with new outgoing frames, they are written by the selector thread */
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    private volatile SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP_OLDEST;
+
+    private volatile long maxQueuedBytes = SEDAPExpressOutboundQueue.DEFAULT_MAX_QUEUED_BYTES;
+
+    /**
+     * State of a client connection, only accessed by the selector thread except for the outgoing queue
+     */
+    private static final class Connection {
+
+	private final SocketChannel channel;
+	private final String host;
+	private SelectionKey key;
+
+	private ByteBuffer input = ByteBuffer.allocate(SEDAPExpressWebSocketServer.RECEIVE_BUFFER_SIZE);
+
+	/** Set after the opening handshake, only then messages are pushed to the client */
+	private volatile boolean open = false;
+	/** Set if the connection is closed as soon as the queued frames are written */
+	private boolean closing = false;
+
+	/** Payload of the frames of a fragmented message received so far, null if no message is fragmented */
+	private ByteArrayOutputStream fragments;
+
+	private final SEDAPExpressOutboundQueue output;
+	/** True while the connection is in the pending writes */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	/** Set if a message has been rejected, the connection is closed by the selector thread */
+	private volatile boolean overflow = false;
+
+	private Connection(SocketChannel channel, SEDAPExpressOutboundQueue output) {
+
+	    this.channel = channel;
+	    this.output = output;
+
+	    String remoteAddress;
+	    try {
+		remoteAddress = channel.getRemoteAddress().toString().substring(1);
+	    } catch (IOException e) {
+		remoteAddress = "";
+	    }
+	    this.host = remoteAddress;
+	}
+    }
+
+    /**
+     * Instantiate a new SEDAP-Express WebSocket server on the given interface
+     *
+     * @param intf Interface to bind to
+     * @param port Port to be used
+     */
+    public SEDAPExpressWebSocketServer(String intf, int port) {
+
+	super();
+
+	this.intf = intf;
+	this.port = port;
+    }
+
+    /**
+     * Instantiate a new SEDAP-Express WebSocket server
+     *
+     * @param port Port to be used
+     */
+    public SEDAPExpressWebSocketServer(int port) {
+	this("0.0.0.0", port);
+    }
+
+    public boolean connect() {
+
+	try {
+
+	    this.selector = Selector.open();
+
+	    this.serverSocket = ServerSocketChannel.open();
+	    this.serverSocket.configureBlocking(false);
+	    this.serverSocket.bind(new InetSocketAddress(this.intf, this.port), SEDAPExpressWebSocketServer.BACKLOG);
+	    this.serverSocket.register(this.selector, SelectionKey.OP_ACCEPT);
+
+	    SEDAPExpressWebSocketServer.logger.logp(Level.INFO, "SEDAPExpressWebSocketServer", "connect()", "WebSocket server listening on port: " + this.port);
+	    logInput("WebSocket server listening on port: " + this.port);
+
+	    this.lastException = null;
+
+	    startThread(this);
+
+	    return true;
+
+	} catch (Exception e) {
+	    this.lastException = e;
+	    return false;
+	}
+    }
+
+    /**
+     * Returns the number of clients, which have completed the opening handshake
+     *
+     * @return number of clients
+     */
+    public int getNumberOfClients() {
+
+	int clients = 0;
+	for (Connection client : this.clients) {
+	    if (client.open) {
+		clients++;
+	    }
+	}
+	return clients;
+    }
+
+    @Override
+    public void run() {
+
+	try {
+	    while (this.status) {
+
+		this.selector.select();
+
+		Connection connection;
+		while ((connection = this.pendingWrites.poll()) != null) {
+		    connection.scheduled.set(false);
+		    if (connection.key.isValid()) {
+			write(connection);
+		    }
+		}
+
+		final Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+		while (keys.hasNext()) {
+
+		    final SelectionKey key = keys.next();
+		    keys.remove();
+
+		    if (!key.isValid()) {
+			continue;
+		    }
+
+		    if (key.isAcceptable()) {
+			accept();
+		    } else {
+			connection = (Connection) key.attachment();
+			if (key.isReadable()) {
+			    read(connection);
+			}
+			if (key.isValid() && key.isWritable()) {
+			    write(connection);
+			}
+		    }
+		}
+	    }
+	} catch (Exception e) {
+	    if (this.status) { // Only if not manually triggered
+		this.lastException = e;
+		SEDAPExpressWebSocketServer.logger.logp(Level.SEVERE, "SEDAPExpressWebSocketServer", "run()", "Could not listening on port: " + this.port, e);
+		logInput("Could not listening on port: " + this.port);
+	    }
+	    this.status = false;
+	} finally {
+	    // Say goodbye to the clients, as far as their sockets accept it without blocking
+	    final ByteBuffer goodbye = SEDAPExpressWebSocketServer.encodeCloseFrame(SEDAPExpressWebSocketServer.CLOSE_GOING_AWAY);
+	    for (Connection client : this.clients) {
+		if (client.open) {
+		    try {
+			client.channel.write(goodbye.duplicate());
+		    } catch (IOException e) {
+		    }
+		}
+		close(client, false);
+	    }
+	    try {
+		this.serverSocket.close();
+		this.selector.close();
+	    } catch (IOException e) {
+	    }
+	}
+    }
+
+    private void accept() throws IOException {
+
+	// Accept all pending connections at once
+	SocketChannel channel;
+	while ((channel = this.serverSocket.accept()) != null) {
+
+	    channel.configureBlocking(false);
+	    channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+	    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+	    final Connection connection = new Connection(channel, new SEDAPExpressOutboundQueue(this.slowConsumerPolicy, this.maxQueuedBytes));
+	    connection.key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+	    this.clients.add(connection);
+	}
+    }
+
+    /**
+     * Reads the available bytes of a connection, performs the opening handshake and processes all completely received frames.
+     */
+    private void read(Connection connection) {
+
+	if (connection.closing) {
+	    return;
+	}
+
+	ByteBuffer input = connection.input;
+
+	final int read;
+	try {
+	    read = connection.channel.read(input);
+	} catch (IOException e) {
+	    this.lastException = e;
+	    close(connection, true);
+	    return;
+	}
+
+	if (read < 0) {
+	    close(connection, true);
+	    return;
+	}
+
+	final byte[] data = input.array();
+	final int end = input.position();
+	int start = 0;
+
+	if (!connection.open) {
+	    start = handshake(connection, data, end);
+	    if (start <= 0) {
+		if ((start == 0) && !input.hasRemaining()) {
+		    SEDAPExpressWebSocketServer.logger.logp(Level.WARNING, "SEDAPExpressWebSocketServer", "read()", "Opening handshake of " + connection.host + " is longer than " + SEDAPExpressWebSocketServer.MAX_HANDSHAKE_LENGTH + " bytes");
+		    close(connection, true);
+		}
+		return;
+	    }
+	}
+
+	int needed = 0;
+	while (!connection.closing && (start < end)) {
+	    final int consumed = processFrame(connection, data, start, end);
+	    if (consumed < 0) {
+		// Frame is incomplete, -consumed bytes are needed
+		needed = -consumed;
+		break;
+	    }
+	    start += consumed;
+	}
+
+	if (connection.closing) {
+	    write(connection);
+	    return;
+	}
+
+	// Keep the beginning of an incomplete frame
+	if (start > 0) {
+	    System.arraycopy(data, start, data, 0, end - start);
+	    input.position(end - start);
+	}
+	if (needed > input.capacity()) {
+	    connection.input = ByteBuffer.allocate(needed).put(input.flip());
+	} else if ((input.capacity() > SEDAPExpressWebSocketServer.RECEIVE_BUFFER_SIZE) && (input.position() < SEDAPExpressWebSocketServer.RECEIVE_BUFFER_SIZE) && (needed <= SEDAPExpressWebSocketServer.RECEIVE_BUFFER_SIZE)) {
+	    // Release the enlarged buffer of a long frame as soon as the unread data fits into the normal one
+	    connection.input = ByteBuffer.allocate(SEDAPExpressWebSocketServer.RECEIVE_BUFFER_SIZE).put(input.flip());
+	}
+    }
+
+    /**
+     * Processes the HTTP request of the opening handshake, if it has been received completely
+     *
+     * @return Index of the first byte after the request, 0 if the request is incomplete, -1 if the request has been rejected
+     */
+    private int handshake(Connection connection, byte[] data, int end) {
+
+	int length = -1;
+	for (int i = 3; i < end; i++) {
+	    if ((data[i] == '\n') && (data[i - 1] == '\r') && (data[i - 2] == '\n') && (data[i - 3] == '\r')) {
+		length = i + 1;
+		break;
+	    }
+	}
+	if (length < 0) {
+	    return 0;
+	}
+
+	final String[] lines = new String(data, 0, length, StandardCharsets.ISO_8859_1).split("\r\n");
+	String webSocketKey = null;
+	boolean upgrade = false;
+	for (int i = 1; i < lines.length; i++) {
+	    final int separator = lines[i].indexOf(':');
+	    if (separator > 0) {
+		final String name = lines[i].substring(0, separator).trim().toLowerCase(Locale.ROOT);
+		final String value = lines[i].substring(separator + 1).trim();
+		if ("upgrade".equals(name)) {
+		    upgrade = "websocket".equalsIgnoreCase(value);
+		} else if ("sec-websocket-key".equals(name)) {
+		    webSocketKey = value;
+		}
+	    }
+	}
+
+	final String response;
+	if (lines[0].startsWith("GET ") && upgrade && (webSocketKey != null)) {
+	    response = "HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Accept: " + SEDAPExpressWebSocketServer.createAcceptKey(webSocketKey) + "\r\n\r\n";
+	} else {
+	    response = "HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\nConnection: close\r\n\r\n";
+	    connection.closing = true;
+	}
+	connection.output.offer(ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)), null);
+
+	if (connection.closing) {
+	    write(connection);
+	    return -1;
+	}
+
+	connection.open = true;
+
+	SEDAPExpressWebSocketServer.logger.logp(Level.INFO, "SEDAPExpressWebSocketServer", "handshake()", "Added new client " + connection.host);
+	logInput("Added new client " + connection.host);
+
+	write(connection);
+	return length;
+    }
+
+    /**
+     * Processes one frame
+     *
+     * @return Number of bytes of the frame, or the negative number of bytes needed, if the frame is incomplete
+     */
+    private int processFrame(Connection connection, byte[] data, int start, int end) {
+
+	if ((end - start) < 2) {
+	    return -2;
+	}
+
+	final boolean fin = (data[start] & 0x80) != 0;
+	final int opcode = data[start] & 0x0F;
+	final boolean masked = (data[start + 1] & 0x80) != 0;
+	long length = data[start + 1] & 0x7F;
+	int header = 2;
+
+	if (length == 126) {
+	    header = 4;
+	    if ((end - start) < header) {
+		return -header;
+	    }
+	    length = ((data[start + 2] & 0xFF) << 8) | (data[start + 3] & 0xFF);
+	} else if (length == 127) {
+	    header = 10;
+	    if ((end - start) < header) {
+		return -header;
+	    }
+	    length = 0;
+	    for (int i = 2; i < 10; i++) {
+		length = (length << 8) | (data[start + i] & 0xFF);
+	    }
+	}
+
+	// Clients have to mask their frames
+	if (!masked || ((opcode >= SEDAPExpressWebSocketServer.OPCODE_CLOSE) && (!fin || (length > 125)))) {
+	    closeWithStatus(connection, SEDAPExpressWebSocketServer.CLOSE_PROTOCOL_ERROR);
+	    return 0;
+	}
+
+	final long received = (connection.fragments != null) ? connection.fragments.size() : 0;
+	if ((length < 0) || ((length + received) > SEDAPExpressWebSocketServer.MAX_MESSAGE_LENGTH)) {
+	    SEDAPExpressWebSocketServer.logger.logp(Level.WARNING, "SEDAPExpressWebSocketServer", "processFrame()", "Disconnecting client " + connection.host + ", message longer than " + SEDAPExpressWebSocketServer.MAX_MESSAGE_LENGTH + " bytes");
+	    closeWithStatus(connection, SEDAPExpressWebSocketServer.CLOSE_TOO_BIG);
+	    return 0;
+	}
+
+	final int frameLength = header + 4 + (int) length;
+	if ((end - start) < frameLength) {
+	    return -frameLength;
+	}
+
+	// Unmask the payload in place
+	final int mask = start + header;
+	final int payload = mask + 4;
+	for (int i = 0; i < length; i++) {
+	    data[payload + i] ^= data[mask + (i & 3)];
+	}
+
+	switch (opcode) {
+	case OPCODE_TEXT, OPCODE_BINARY -> {
+	    if (connection.fragments != null) {
+		closeWithStatus(connection, SEDAPExpressWebSocketServer.CLOSE_PROTOCOL_ERROR);
+	    } else if (fin) {
+		processMessages(data, payload, (int) length);
+	    } else {
+		connection.fragments = new ByteArrayOutputStream();
+		connection.fragments.write(data, payload, (int) length);
+	    }
+	}
+	case OPCODE_CONTINUATION -> {
+	    if (connection.fragments == null) {
+		closeWithStatus(connection, SEDAPExpressWebSocketServer.CLOSE_PROTOCOL_ERROR);
+	    } else {
+		connection.fragments.write(data, payload, (int) length);
+		if (fin) {
+		    final byte[] message = connection.fragments.toByteArray();
+		    connection.fragments = null;
+		    processMessages(message, 0, message.length);
+		}
+	    }
+	}
+	case OPCODE_PING -> {
+	    final byte[] application = new byte[(int) length];
+	    System.arraycopy(data, payload, application, 0, application.length);
+	    connection.output.offer(SEDAPExpressWebSocketServer.encodeFrame(SEDAPExpressWebSocketServer.OPCODE_PONG, application), null);
+	    write(connection);
+	}
+	case OPCODE_CLOSE -> {
+	    // Echo the status code and close the connection afterwards
+	    final byte[] status = new byte[(int) Math.min(length, 2)];
+	    System.arraycopy(data, payload, status, 0, status.length);
+	    connection.output.offer(SEDAPExpressWebSocketServer.encodeFrame(SEDAPExpressWebSocketServer.OPCODE_CLOSE, status), null);
+	    connection.closing = true;
+	}
+	case OPCODE_PONG -> {
+	}
+	default -> closeWithStatus(connection, SEDAPExpressWebSocketServer.CLOSE_PROTOCOL_ERROR);
+	}
+
+	return frameLength;
+    }
+
+    /**
+     * Distributes the messages of a received WebSocket message, several messages are separated by line ends
+     */
+    private void processMessages(byte[] data, int offset, int length) {
+
+	final String received = new String(data, offset, length, StandardCharsets.UTF_8);
+
+	int start = 0;
+	while (start < received.length()) {
+	    int end = received.indexOf('\n', start);
+	    if (end < 0) {
+		end = received.length();
+	    }
+	    final String message = received.substring(start, ((end > start) && (received.charAt(end - 1) == '\r')) ? end - 1 : end);
+	    if (!message.isEmpty()) {
+		try {
+		    distributeReceivedSEDAPExpressMessage(SEDAPExpressMessage.deserialize(message));
+		} catch (Exception e) {
+		    this.lastException = e;
+		    SEDAPExpressWebSocketServer.logger.log(Level.SEVERE, "SEDAPExpressWebSocketServer, could not deserialize message: " + message, e);
+		}
+	    }
+	    start = end + 1;
+	}
+    }
+
+    private void closeWithStatus(Connection connection, int status) {
+
+	connection.output.clear();
+	connection.output.offer(SEDAPExpressWebSocketServer.encodeCloseFrame(status), null);
+	connection.closing = true;
+    }
+
+    /**
+     * Writes queued frames until the queue is empty or the socket does not accept more data.
+     */
+    private void write(Connection connection) {
+
+	if (connection.overflow) {
+	    SEDAPExpressWebSocketServer.logger.logp(Level.WARNING, "SEDAPExpressWebSocketServer", "write()", "Disconnecting slow client " + connection.host + ", more than " + this.maxQueuedBytes + " bytes queued");
+	    logInput("Disconnecting slow client " + connection.host);
+	    close(connection, true);
+	    return;
+	}
+
+	try {
+	    if (connection.output.writeTo(connection.channel)) {
+		if (connection.closing) {
+		    close(connection, true);
+		} else {
+		    connection.key.interestOps(SelectionKey.OP_READ);
+		}
+	    } else {
+		// Socket buffer is full, continue when the channel is writable again. A closing connection does not read any more, so it only waits for writing.
+		connection.key.interestOps(connection.closing ? SelectionKey.OP_WRITE : (SelectionKey.OP_READ | SelectionKey.OP_WRITE));
+	    }
+	} catch (IOException e) {
+	    this.lastException = e;
+	    close(connection, true);
+	}
+    }
+
+    private void close(Connection connection, boolean remove) {
+
+	connection.open = false;
+	connection.key.cancel();
+	try {
+	    connection.channel.close();
+	} catch (IOException e) {
+	}
+	connection.output.clear();
+
+	if (remove && this.clients.remove(connection) && this.status) { // Only if not manually triggered
+	    SEDAPExpressWebSocketServer.logger.logp(Level.INFO, "SEDAPExpressWebSocketServer", "close()", "Removed client " + connection.host);
+	    logInput("Removed client " + connection.host);
+	}
+    }
+
+    /**
+     * Calculates the value of the Sec-WebSocket-Accept header
+     *
+     * @param webSocketKey Value of the Sec-WebSocket-Key header of the client
+     * @return BASE64 encoded SHA-1 hash of the key and the WebSocket GUID
+     */
+    static String createAcceptKey(String webSocketKey) {
+
+	try {
+	    final MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+	    return Base64.getEncoder().encodeToString(sha1.digest((webSocketKey + SEDAPExpressWebSocketServer.WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1)));
+	} catch (NoSuchAlgorithmException e) {
+	    throw new IllegalStateException(e);
+	}
+    }
+
+    /**
+     * Encodes an unmasked frame, as sent by a server
+     *
+     * @param opcode  Opcode of the frame
+     * @param payload Payload
+     * @return read only frame, which can be shared by several queues with {@link ByteBuffer#duplicate()}
+     */
+    static ByteBuffer encodeFrame(int opcode, byte[] payload) {
+
+	final int header = (payload.length < 126) ? 2 : (payload.length <= 0xFFFF) ? 4 : 10;
+	final ByteBuffer frame = ByteBuffer.allocate(header + payload.length);
+
+	frame.put((byte) (0x80 | opcode));
+	if (header == 2) {
+	    frame.put((byte) payload.length);
+	} else if (header == 4) {
+	    frame.put((byte) 126);
+	    frame.putShort((short) payload.length);
+	} else {
+	    frame.put((byte) 127);
+	    frame.putLong(payload.length);
+	}
+	frame.put(payload);
+
+	return frame.flip().asReadOnlyBuffer();
+    }
+
+    private static ByteBuffer encodeCloseFrame(int status) {
+	return SEDAPExpressWebSocketServer.encodeFrame(SEDAPExpressWebSocketServer.OPCODE_CLOSE, new byte[] { (byte) (status >> 8), (byte) status });
+    }
+
+    @Override
+    public boolean sendSEDAPExpressMessage(SEDAPExpressMessage message) throws IOException {
+
+	if (this.clients.isEmpty()) {
+	    return false;
+	}
+
+	// Encode the text frame once without the line end, every client gets its own read only view of the same bytes
+	final String serialized = SEDAPExpressMessage.serialize(message);
+	final ByteBuffer frame = SEDAPExpressWebSocketServer.encodeFrame(SEDAPExpressWebSocketServer.OPCODE_TEXT, serialized.substring(0, serialized.length() - 1).getBytes(StandardCharsets.UTF_8));
+	final String key = SEDAPExpressOutboundQueue.getCoalescingKey(message);
+
+	boolean wakeup = false;
+	for (Connection client : this.clients) {
+	    if (!client.open) {
+		continue;
+	    }
+	    if (!client.output.offer(frame.duplicate(), key)) {
+		client.overflow = true;
+	    }
+	    // The selector thread writes everything queued until it takes the connection, so it is scheduled only once
+	    if (client.scheduled.compareAndSet(false, true)) {
+		this.pendingWrites.add(client);
+		wakeup = true;
+	    }
+	}
+	if (wakeup) {
+	    this.selector.wakeup();
+	}
+
+	return true;
+    }
+
+    /**
+     * Sets the behaviour for clients, which do not read fast enough. Only affects clients connecting afterwards, {@link SlowConsumerPolicy#BLOCK} is not supported.
+     *
+     * @param policy         Slow consumer policy
+     * @param maxQueuedBytes Maximum number of bytes queued per client
+     */
+    public void setSlowConsumerPolicy(SlowConsumerPolicy policy, long maxQueuedBytes) {
+
+	if (policy == SlowConsumerPolicy.BLOCK) {
+	    throw new IllegalArgumentException("A slow client must not block the other clients");
+	}
+	this.slowConsumerPolicy = policy;
+	this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    /**
+     * Gives the slow consumer policy back
+     *
+     * @return policy
+     */
+    public SlowConsumerPolicy getSlowConsumerPolicy() {
+	return this.slowConsumerPolicy;
+    }
+
+    /**
+     * Gives the number of bytes waiting to be sent to all clients back
+     *
+     * @return queued bytes
+     */
+    public long getQueuedBytes() {
+
+	long queuedBytes = 0;
+	for (Connection client : this.clients) {
+	    queuedBytes += client.output.getQueuedBytes();
+	}
+	return queuedBytes;
+    }
+
+    /**
+     * Gives the number of messages, which have been dropped for the connected clients because they read too slowly, back
+     *
+     * @return dropped messages
+     */
+    public long getDroppedMessages() {
+
+	long droppedMessages = 0;
+	for (Connection client : this.clients) {
+	    droppedMessages += client.output.getDroppedMessages();
+	}
+	return droppedMessages;
+    }
+
+    @Override
+    public void stopCommunicator() {
+
+	this.status = false;
+
+	if (this.selector != null) {
+	    this.selector.wakeup();
+	}
+
+	SEDAPExpressWebSocketServer.logger.logp(Level.INFO, "SEDAPExpressWebSocketServer", "stopCommunicator()", "WebSocket server stopped");
+	logInput("WebSocket server stopped");
+    }
+
+    @Override
+    public Exception getLastException() {
+
+	return this.lastException;
+    }
+
+}
@@ -0,0 +1,308 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.processing;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+
+/**
+ * Subscriber, which decouples a subscriber from the receiving thread of a communicator
+ * <p>
+ * Received messages are put into a bounded ring buffer and delivered to the subscriber by an own thread in the order of their reception. A slow subscriber therefore does not delay the reading of the network. If the
+ * buffer is full, the {@link OverflowPolicy} decides which message is lost.
+ *
+ * @author Volker Voß
+ *
+ */
+public class SEDAPExpressAsyncSubscriber implements SEDAPExpressSubscriber, Runnable, AutoCloseable {
+
+    protected static Logger logger = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    /**
+     * Behaviour if the buffer of the subscriber is full
+     */
+    public enum OverflowPolicy {
+
+	/** The oldest buffered message is dropped */
+	DROP_OLDEST,
+
+	/** The new message is dropped */
+	DROP_NEWEST,
+
+	/** The receiving thread waits until the subscriber has processed a message */
+	BLOCK
+    }
+
+    private final SEDAPExpressSubscriber subscriber;
+
+    private final OverflowPolicy policy;
+
+    /** Ring buffer of the messages and their reception times, guarded by the lock */
+    private final SEDAPExpressMessage[] messages;
+    private final long[] receptionTimes;
+    private int head = 0;
+    private int count = 0;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = this.lock.newCondition();
+    private final Condition notFull = this.lock.newCondition();
+
+    private volatile boolean running = true;
+
+    private volatile long receivedMessages = 0;
+    private volatile long processedMessages = 0;
+    private volatile long droppedMessages = 0;
+    private volatile int maxBufferedMessages = 0;
+    private volatile long lastLatency = 0;
+    private volatile long maxLatency = 0;
+
+    /**
+     * Instantiate a new asynchronous subscriber and start its delivering thread
+     *
+     * @param subscriber    Subscriber to deliver the messages to
+     * @param capacity      Maximum number of buffered messages
+     * @param policy        Behaviour if the buffer is full
+     * @param threadFactory Factory for the delivering thread
+     */
+    public SEDAPExpressAsyncSubscriber(SEDAPExpressSubscriber subscriber, int capacity, OverflowPolicy policy, ThreadFactory threadFactory) {
+
+	if (capacity < 1) {
+	    throw new IllegalArgumentException("Capacity must be at least 1");
+	}
+
+	this.subscriber = subscriber;
+	this.policy = policy;
+	this.messages = new SEDAPExpressMessage[capacity];
+	this.receptionTimes = new long[capacity];
+
+	threadFactory.newThread(this).start();
+    }
+
+    /**
+     * Instantiate a new asynchronous subscriber with a platform thread, which drops the oldest message if the buffer is full
+     *
+     * @param subscriber Subscriber to deliver the messages to
+     * @param capacity   Maximum number of buffered messages
+     */
+    public SEDAPExpressAsyncSubscriber(SEDAPExpressSubscriber subscriber, int capacity) {
+	this(subscriber, capacity, OverflowPolicy.DROP_OLDEST, Thread::new);
+    }
+
+    @Override
+    public void processSEDAPExpressMessage(SEDAPExpressMessage message) {
+
+	this.lock.lock();
+	try {
+	    this.receivedMessages++;
+
+	    if (this.count == this.messages.length) {
+		switch (this.policy) {
+		case DROP_NEWEST:
+		    this.droppedMessages++;
+		    return;
+		case DROP_OLDEST:
+		    this.messages[this.head] = null;
+		    this.head = (this.head + 1) % this.messages.length;
+		    this.count--;
+		    this.droppedMessages++;
+		    break;
+		case BLOCK:
+		    while ((this.count == this.messages.length) && this.running) {
+			this.notFull.awaitUninterruptibly();
+		    }
+		    if (!this.running) {
+			return;
+		    }
+		    break;
+		}
+	    }
+
+	    final int tail = (this.head + this.count) % this.messages.length;
+	    this.messages[tail] = message;
+	    this.receptionTimes[tail] = System.nanoTime();
+	    this.count++;
+	    if (this.count > this.maxBufferedMessages) {
+		this.maxBufferedMessages = this.count;
+	    }
+	    this.notEmpty.signal();
+	} finally {
+	    this.lock.unlock();
+	}
+    }
+
+    @Override
+    public void run() {
+
+	while (this.running) {
+
+	    final SEDAPExpressMessage message;
+	    final long receptionTime;
+
+	    this.lock.lock();
+	    try {
+		while ((this.count == 0) && this.running) {
+		    this.notEmpty.awaitUninterruptibly();
+		}
+		if (!this.running) {
+		    return;
+		}
+
+		message = this.messages[this.head];
+		receptionTime = this.receptionTimes[this.head];
+		this.messages[this.head] = null;
+		this.head = (this.head + 1) % this.messages.length;
+		this.count--;
+		this.notFull.signal();
+	    } finally {
+		this.lock.unlock();
+	    }
+
+	    final long latency = System.nanoTime() - receptionTime;
+	    this.lastLatency = latency;
+	    if (latency > this.maxLatency) {
+		this.maxLatency = latency;
+	    }
+
+	    try {
+		this.subscriber.processSEDAPExpressMessage(message);
+	    } catch (Exception e) {
+		SEDAPExpressAsyncSubscriber.logger.logp(Level.SEVERE, "SEDAPExpressAsyncSubscriber", "run()", "Subscriber could not process message: " + message, e);
+	    }
+	    this.processedMessages++;
+	}
+    }
+
+    /**
+     * Stops the delivering thread, buffered messages are discarded
+     */
+    @Override
+    public void close() {
+
+	this.lock.lock();
+	try {
+	    this.running = false;
+	    Arrays.fill(this.messages, null);
+	    this.count = 0;
+	    this.notEmpty.signalAll();
+	    this.notFull.signalAll();
+	} finally {
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Gives the subscriber, to which the messages are delivered, back
+     *
+     * @return subscriber
+     */
+    public SEDAPExpressSubscriber getSubscriber() {
+	return this.subscriber;
+    }
+
+    /**
+     * Gives the overflow policy back
+     *
+     * @return policy
+     */
+    public OverflowPolicy getPolicy() {
+	return this.policy;
+    }
+
+    /**
+     * Gives the number of messages waiting for the subscriber back, which is the current lag of the subscriber
+     *
+     * @return buffered messages
+     */
+    public int getBufferedMessages() {
+
+	this.lock.lock();
+	try {
+	    return this.count;
+	} finally {
+	    this.lock.unlock();
+	}
+    }
+
+    /**
+     * Gives the highest number of messages, which have been waiting for the subscriber at the same time, back
+     *
+     * @return maximum buffered messages
+     */
+    public int getMaxBufferedMessages() {
+	return this.maxBufferedMessages;
+    }
+
+    /**
+     * Gives the number of received messages back
+     *
+     * @return received messages
+     */
+    public long getReceivedMessages() {
+	return this.receivedMessages;
+    }
+
+    /**
+     * Gives the number of messages processed by the subscriber back
+     *
+     * @return processed messages
+     */
+    public long getProcessedMessages() {
+	return this.processedMessages;
+    }
+
+    /**
+     * Gives the number of messages dropped because the buffer was full back
+     *
+     * @return dropped messages
+     */
+    public long getDroppedMessages() {
+	return this.droppedMessages;
+    }
+
+    /**
+     * Gives the time between reception and delivery of the last delivered message back
+     *
+     * @return latency in nanoseconds
+     */
+    public long getLastLatency() {
+	return this.lastLatency;
+    }
+
+    /**
+     * Gives the longest time between reception and delivery of a message back
+     *
+     * @return latency in nanoseconds
+     */
+    public long getMaxLatency() {
+	return this.maxLatency;
+    }
+}
@@ -0,0 +1,1104 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.protobuf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.jcajce.provider.asymmetric.dh.BCDHPublicKey;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
+import de.bundeswehr.uniity.sedapexpress.messages.ACKNOWLEDGE;
+import de.bundeswehr.uniity.sedapexpress.messages.COMMAND;
+import de.bundeswehr.uniity.sedapexpress.messages.COMMAND.CommandFlag;
+import de.bundeswehr.uniity.sedapexpress.messages.COMMAND.CommandType;
+import de.bundeswehr.uniity.sedapexpress.messages.CONTACT;
+import de.bundeswehr.uniity.sedapexpress.messages.CONTACT.Source;
+import de.bundeswehr.uniity.sedapexpress.messages.EMISSION;
+import de.bundeswehr.uniity.sedapexpress.messages.EMISSION.FreqAgility;
+import de.bundeswehr.uniity.sedapexpress.messages.EMISSION.Function;
+import de.bundeswehr.uniity.sedapexpress.messages.EMISSION.PRFAgility;
+import de.bundeswehr.uniity.sedapexpress.messages.GENERIC;
+import de.bundeswehr.uniity.sedapexpress.messages.GENERIC.ContentType;
+import de.bundeswehr.uniity.sedapexpress.messages.GRAPHIC;
+import de.bundeswehr.uniity.sedapexpress.messages.GRAPHIC.GraphicType;
+import de.bundeswehr.uniity.sedapexpress.messages.HEARTBEAT;
+import de.bundeswehr.uniity.sedapexpress.messages.KEYEXCHANGE;
+import de.bundeswehr.uniity.sedapexpress.messages.KEYEXCHANGE.AlgorithmType;
+import de.bundeswehr.uniity.sedapexpress.messages.METEO;
+import de.bundeswehr.uniity.sedapexpress.messages.OWNUNIT;
+import de.bundeswehr.uniity.sedapexpress.messages.RESEND;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Acknowledgement;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Classification;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.DataEncoding;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.DeleteFlag;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.messages.STATUS;
+import de.bundeswehr.uniity.sedapexpress.messages.STATUS.CommandState;
+import de.bundeswehr.uniity.sedapexpress.messages.STATUS.OperationalState;
+import de.bundeswehr.uniity.sedapexpress.messages.STATUS.TechnicalState;
+import de.bundeswehr.uniity.sedapexpress.messages.TEXT;
+import de.bundeswehr.uniity.sedapexpress.messages.TEXT.TextType;
+import de.bundeswehr.uniity.sedapexpress.messages.TIMESYNC;
+
+/**
+ * Converter between {@link SEDAPExpressMessage} and the typed Protobuf messages of Documentation/Schemes/sedapexpress.proto
+ * <p>
+ * Every message is encoded as SEDAPExpressMessage with the header fields and one typed content message, numbers as double or varint, lists as packed repeated fields and binary data as bytes instead of the text
+ * format. The conversion is lossless, a decoded message serializes to the same text as the original one. The codec writes the wire format with {@link CodedOutputStream} directly, so no generated classes are needed,
+ * and reuses its buffers. An instance must not be used by concurrent threads.
+ *
+ * @author Volker Voß
+ *
+ */
+public final class SEDAPExpressProtobufCodec {
+
+    /** Initial size of the encoding buffers, they grow with larger messages */
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    /** Header fields of SEDAPExpressMessage */
+    private static final int FIELD_NUMBER = 1;
+    private static final int FIELD_TIME = 2;
+    private static final int FIELD_SENDER = 3;
+    private static final int FIELD_CLASSIFICATION = 4;
+    private static final int FIELD_ACKNOWLEDGEMENT = 5;
+    private static final int FIELD_MAC = 16;
+
+    /** Content fields of SEDAPExpressMessage, the frequent types have one byte tags */
+    private static final int FIELD_CONTACT = 6;
+    private static final int FIELD_OWNUNIT = 7;
+    private static final int FIELD_EMISSION = 8;
+    private static final int FIELD_STATUS = 9;
+    private static final int FIELD_HEARTBEAT = 10;
+    private static final int FIELD_TEXT = 11;
+    private static final int FIELD_COMMAND = 12;
+    private static final int FIELD_ACKNOWLEDGE = 13;
+    private static final int FIELD_METEO = 14;
+    private static final int FIELD_RESEND = 15;
+    private static final int FIELD_GENERIC = 17;
+    private static final int FIELD_GRAPHIC = 18;
+    private static final int FIELD_KEYEXCHANGE = 19;
+    private static final int FIELD_TIMESYNC = 20;
+
+    /** Field of the messages in SEDAPExpressMessages */
+    private static final int FIELD_MESSAGES = 1;
+
+    private static final Classification[] CLASSIFICATIONS = Classification.values();
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+    private static final DataEncoding[] DATA_ENCODINGS = DataEncoding.values();
+    private static final Source[] SOURCES = Source.values();
+    private static final ContentType[] CONTENT_TYPES = ContentType.values();
+    private static final CommandFlag[] COMMAND_FLAGS = CommandFlag.values();
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
+    private static final FreqAgility[] FREQ_AGILITIES = FreqAgility.values();
+    private static final PRFAgility[] PRF_AGILITIES = PRFAgility.values();
+    private static final Function[] FUNCTIONS = Function.values();
+    private static final GraphicType[] GRAPHIC_TYPES = GraphicType.values();
+    private static final AlgorithmType[] ALGORITHM_TYPES = AlgorithmType.values();
+    private static final TechnicalState[] TECHNICAL_STATES = TechnicalState.values();
+    private static final OperationalState[] OPERATIONAL_STATES = OperationalState.values();
+    private static final CommandState[] COMMAND_STATES = CommandState.values();
+    private static final TextType[] TEXT_TYPES = TextType.values();
+
+    /** Encoded message */
+    private byte[] buffer = new byte[SEDAPExpressProtobufCodec.INITIAL_BUFFER_SIZE];
+
+    /** Encoded content of the message, it is copied behind its length into the buffer */
+    private byte[] content = new byte[SEDAPExpressProtobufCodec.INITIAL_BUFFER_SIZE];
+
+    /**
+     * Encodes a message
+     *
+     * @param message Message
+     * @return SEDAPExpressMessage in the Protobuf wire format
+     */
+    public byte[] encode(SEDAPExpressMessage message) {
+
+	final int length = encodeToBuffer(message); // May replace the buffer
+	return Arrays.copyOf(this.buffer, length);
+    }
+
+    /**
+     * Encodes several messages
+     *
+     * @param messages Messages
+     * @return SEDAPExpressMessages in the Protobuf wire format
+     */
+    public byte[] encodeAll(Collection<? extends SEDAPExpressMessage> messages) {
+
+	final ByteArrayOutputStream result = new ByteArrayOutputStream();
+	final CodedOutputStream output = CodedOutputStream.newInstance(result);
+	try {
+	    for (SEDAPExpressMessage message : messages) {
+		final int length = encodeToBuffer(message);
+		output.writeTag(SEDAPExpressProtobufCodec.FIELD_MESSAGES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+		output.writeUInt32NoTag(length);
+		output.writeRawBytes(this.buffer, 0, length);
+	    }
+	    output.flush();
+	} catch (IOException e) {
+	    throw new UncheckedIOException(e);
+	}
+	return result.toByteArray();
+    }
+
+    /**
+     * Encodes a message with its length as varint in front, like MessageLite.writeDelimitedTo()
+     *
+     * @param message Message
+     * @return length prefixed SEDAPExpressMessage in the Protobuf wire format
+     */
+    public byte[] encodeDelimited(SEDAPExpressMessage message) {
+
+	final int length = encodeToBuffer(message);
+	final byte[] result = new byte[CodedOutputStream.computeUInt32SizeNoTag(length) + length];
+	try {
+	    final CodedOutputStream output = CodedOutputStream.newInstance(result);
+	    output.writeUInt32NoTag(length);
+	    output.writeRawBytes(this.buffer, 0, length);
+	} catch (IOException e) {
+	    throw new UncheckedIOException(e);
+	}
+	return result;
+    }
+
+    /**
+     * Writes a message with its length as varint in front, like MessageLite.writeDelimitedTo()
+     *
+     * @param message Message
+     * @param output  Stream to write to
+     * @throws IOException if the stream could not be written
+     */
+    public void writeDelimitedTo(SEDAPExpressMessage message, CodedOutputStream output) throws IOException {
+
+	final int length = encodeToBuffer(message);
+	output.writeUInt32NoTag(length);
+	output.writeRawBytes(this.buffer, 0, length);
+    }
+
+    /**
+     * Decodes a message
+     *
+     * @param data   Buffer
+     * @param offset Start of the message
+     * @param length Length of the message
+     * @return decoded message
+     * @throws InvalidProtocolBufferException if the data is not a valid SEDAPExpressMessage
+     */
+    public SEDAPExpressMessage decode(byte[] data, int offset, int length) throws InvalidProtocolBufferException {
+
+	try {
+	    return decode(CodedInputStream.newInstance(data, offset, length));
+	} catch (InvalidProtocolBufferException e) {
+	    throw e;
+	} catch (IOException e) {
+	    throw new InvalidProtocolBufferException(e);
+	}
+    }
+
+    /**
+     * Decodes a message, which fills the stream up to its end or the current limit
+     *
+     * @param input Stream
+     * @return decoded message
+     * @throws IOException if the stream could not be read or contains no valid SEDAPExpressMessage
+     */
+    public SEDAPExpressMessage decode(CodedInputStream input) throws IOException {
+
+	Byte number = null;
+	Long time = null;
+	String sender = null;
+	Classification classification = null;
+	Acknowledgement acknowledgement = null;
+	String mac = null;
+	SEDAPExpressMessage message = null;
+
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    final int field = WireFormat.getTagFieldNumber(tag);
+	    switch (field) {
+	    case FIELD_NUMBER -> number = (byte) input.readUInt32();
+	    case FIELD_TIME -> time = input.readUInt64();
+	    case FIELD_SENDER -> sender = input.readString();
+	    case FIELD_CLASSIFICATION -> classification = SEDAPExpressProtobufCodec.byOrdinal(SEDAPExpressProtobufCodec.CLASSIFICATIONS, input.readEnum());
+	    case FIELD_ACKNOWLEDGEMENT -> acknowledgement = input.readBool() ? Acknowledgement.TRUE : Acknowledgement.FALSE;
+	    case FIELD_MAC -> mac = input.readString();
+	    case FIELD_CONTACT, FIELD_OWNUNIT, FIELD_EMISSION, FIELD_STATUS, FIELD_HEARTBEAT, FIELD_TEXT, FIELD_COMMAND, FIELD_ACKNOWLEDGE, FIELD_METEO, FIELD_RESEND, FIELD_GENERIC, FIELD_GRAPHIC, FIELD_KEYEXCHANGE,
+		    FIELD_TIMESYNC -> {
+		final int limit = input.pushLimit(input.readRawVarint32());
+		message = SEDAPExpressProtobufCodec.decodeContent(field, input);
+		input.popLimit(limit);
+	    }
+	    default -> input.skipField(tag);
+	    }
+	}
+
+	if (message == null) {
+	    throw new InvalidProtocolBufferException("SEDAPExpressMessage without content");
+	}
+
+	message.setNumber(number);
+	message.setTime(time);
+	message.setSender(sender);
+	message.setClassification(classification);
+	message.setAcknowledgement(acknowledgement);
+	message.setMAC(mac);
+
+	return message;
+    }
+
+    /**
+     * Reads a message with its length as varint in front, like Parser.parseDelimitedFrom()
+     *
+     * @param input Stream
+     * @return decoded message, null at the end of the stream
+     * @throws IOException if the stream could not be read or contains no valid SEDAPExpressMessage
+     */
+    public SEDAPExpressMessage parseDelimitedFrom(CodedInputStream input) throws IOException {
+
+	if (input.isAtEnd()) {
+	    return null;
+	}
+
+	final int limit = input.pushLimit(input.readRawVarint32());
+	final SEDAPExpressMessage message = decode(input);
+	input.popLimit(limit);
+	return message;
+    }
+
+    /**
+     * Decodes several messages
+     *
+     * @param data   Buffer
+     * @param offset Start of the SEDAPExpressMessages
+     * @param length Length of the SEDAPExpressMessages
+     * @return decoded messages
+     * @throws InvalidProtocolBufferException if the data is not a valid SEDAPExpressMessages
+     */
+    public List<SEDAPExpressMessage> decodeAll(byte[] data, int offset, int length) throws InvalidProtocolBufferException {
+
+	final List<SEDAPExpressMessage> messages = new ArrayList<>();
+	try {
+	    final CodedInputStream input = CodedInputStream.newInstance(data, offset, length);
+	    int tag;
+	    while ((tag = input.readTag()) != 0) {
+		if (tag == ((SEDAPExpressProtobufCodec.FIELD_MESSAGES << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED)) {
+		    final int limit = input.pushLimit(input.readRawVarint32());
+		    messages.add(decode(input));
+		    input.popLimit(limit);
+		} else {
+		    input.skipField(tag);
+		}
+	    }
+	} catch (InvalidProtocolBufferException e) {
+	    throw e;
+	} catch (IOException e) {
+	    throw new InvalidProtocolBufferException(e);
+	}
+	return messages;
+    }
+
+    /**
+     * Encodes a message into the buffer, which grows if necessary
+     *
+     * @return length of the encoded message
+     */
+    private int encodeToBuffer(SEDAPExpressMessage message) {
+
+	final MessageType type = message.getMessageType();
+	final int field = SEDAPExpressProtobufCodec.getContentField(type);
+
+	try {
+	    // Content first, its length precedes it
+	    int contentLength;
+	    while (true) {
+		try {
+		    final CodedOutputStream output = CodedOutputStream.newInstance(this.content);
+		    SEDAPExpressProtobufCodec.encodeContent(message, type, output);
+		    contentLength = output.getTotalBytesWritten();
+		    break;
+		} catch (CodedOutputStream.OutOfSpaceException e) {
+		    this.content = new byte[this.content.length * 2];
+		}
+	    }
+
+	    while (true) {
+		try {
+		    final CodedOutputStream output = CodedOutputStream.newInstance(this.buffer);
+		    if (message.getNumber() != null) {
+			output.writeUInt32(SEDAPExpressProtobufCodec.FIELD_NUMBER, message.getNumber() & 0xFF);
+		    }
+		    if (message.getTime() != null) {
+			output.writeUInt64(SEDAPExpressProtobufCodec.FIELD_TIME, message.getTime());
+		    }
+		    SEDAPExpressProtobufCodec.writeString(output, SEDAPExpressProtobufCodec.FIELD_SENDER, message.getSender());
+		    SEDAPExpressProtobufCodec.writeEnum(output, SEDAPExpressProtobufCodec.FIELD_CLASSIFICATION, message.getClassification());
+		    if (message.getAcknowledgement() != null) {
+			output.writeBool(SEDAPExpressProtobufCodec.FIELD_ACKNOWLEDGEMENT, message.getAcknowledgement() == Acknowledgement.TRUE);
+		    }
+		    SEDAPExpressProtobufCodec.writeString(output, SEDAPExpressProtobufCodec.FIELD_MAC, message.getMAC());
+
+		    output.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+		    output.writeUInt32NoTag(contentLength);
+		    output.writeRawBytes(this.content, 0, contentLength);
+		    return output.getTotalBytesWritten();
+		} catch (CodedOutputStream.OutOfSpaceException e) {
+		    this.buffer = new byte[Math.max(this.buffer.length * 2, contentLength + SEDAPExpressProtobufCodec.INITIAL_BUFFER_SIZE)];
+		}
+	    }
+	} catch (IOException e) {
+	    throw new UncheckedIOException(e);
+	}
+    }
+
+    private static int getContentField(MessageType type) {
+
+	return switch (type) {
+	case ACKNOWLEDGE -> SEDAPExpressProtobufCodec.FIELD_ACKNOWLEDGE;
+	case COMMAND -> SEDAPExpressProtobufCodec.FIELD_COMMAND;
+	case CONTACT -> SEDAPExpressProtobufCodec.FIELD_CONTACT;
+	case EMISSION -> SEDAPExpressProtobufCodec.FIELD_EMISSION;
+	case GENERIC -> SEDAPExpressProtobufCodec.FIELD_GENERIC;
+	case GRAPHIC -> SEDAPExpressProtobufCodec.FIELD_GRAPHIC;
+	case HEARTBEAT -> SEDAPExpressProtobufCodec.FIELD_HEARTBEAT;
+	case KEYEXCHANGE -> SEDAPExpressProtobufCodec.FIELD_KEYEXCHANGE;
+	case METEO -> SEDAPExpressProtobufCodec.FIELD_METEO;
+	case OWNUNIT -> SEDAPExpressProtobufCodec.FIELD_OWNUNIT;
+	case RESEND -> SEDAPExpressProtobufCodec.FIELD_RESEND;
+	case STATUS -> SEDAPExpressProtobufCodec.FIELD_STATUS;
+	case TEXT -> SEDAPExpressProtobufCodec.FIELD_TEXT;
+	case TIMESYNC -> SEDAPExpressProtobufCodec.FIELD_TIMESYNC;
+	};
+    }
+
+    private static void encodeContent(SEDAPExpressMessage message, MessageType type, CodedOutputStream output) throws IOException {
+
+	switch (type) {
+
+	case ACKNOWLEDGE -> {
+	    final ACKNOWLEDGE acknowledge = (ACKNOWLEDGE) message;
+	    SEDAPExpressProtobufCodec.writeString(output, 1, acknowledge.getRecipient());
+	    SEDAPExpressProtobufCodec.writeEnum(output, 2, acknowledge.getTypeOfTheMessage());
+	    if (acknowledge.getNumberOfTheMessage() != null) {
+		output.writeUInt32(3, acknowledge.getNumberOfTheMessage() & 0xFF);
+	    }
+	}
+
+	case COMMAND -> {
+	    final COMMAND command = (COMMAND) message;
+	    SEDAPExpressProtobufCodec.writeString(output, 1, command.getRecipient());
+	    if (command.getCmdId() != null) {
+		output.writeUInt32(2, command.getCmdId() & 0xFFFF);
+	    }
+	    if (command.getCmdFlag() != null) {
+		output.writeEnum(3, command.getCmdFlag().getFlagValue() & 0xFF);
+	    }
+	    if (command.getCmdType() != null) {
+		output.writeEnum(4, command.getCmdType().getTypeValue() & 0xFF);
+	    }
+	    SEDAPExpressProtobufCodec.writeStrings(output, 5, command.getCmdTypeDependentParameters());
+	}
+
+	case CONTACT -> {
+	    final CONTACT contact = (CONTACT) message;
+	    SEDAPExpressProtobufCodec.writeString(output, 1, contact.getContactID());
+	    if (contact.getDeleteFlag() != null) {
+		output.writeBool(2, contact.getDeleteFlag() == DeleteFlag.TRUE);
+	    }
+	    SEDAPExpressProtobufCodec.writeDouble(output, 3, contact.getLatitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 4, contact.getLongitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 5, contact.getAltitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 6, contact.getRelativeXDistance());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 7, contact.getRelativeYDistance());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 8, contact.getRelativeZDistance());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 9, contact.getSpeed());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 10, contact.getCourse());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 11, contact.getHeading());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 12, contact.getRoll());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 13, contact.getPitch());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 14, contact.getWidth());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 15, contact.getLength());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 16, contact.getHeight());
+	    SEDAPExpressProtobufCodec.writeString(output, 17, contact.getName());
+	    if ((contact.getSource() != null) && !contact.getSource().isEmpty()) {
+		// Packed, in the fixed order of the text format
+		int size = 0;
+		for (Source source : SEDAPExpressProtobufCodec.SOURCES) {
+		    if (contact.getSource().contains(source)) {
+			size += CodedOutputStream.computeEnumSizeNoTag(source.ordinal());
+		    }
+		}
+		output.writeTag(18, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+		output.writeUInt32NoTag(size);
+		for (Source source : SEDAPExpressProtobufCodec.SOURCES) {
+		    if (contact.getSource().contains(source)) {
+			output.writeEnumNoTag(source.ordinal());
+		    }
+		}
+	    }
+	    SEDAPExpressProtobufCodec.writeChars(output, 19, contact.getSIDC());
+	    SEDAPExpressProtobufCodec.writeString(output, 20, contact.getMMSI());
+	    SEDAPExpressProtobufCodec.writeString(output, 21, contact.getICAO());
+	    if (contact.getMultimediaData() != null) {
+		output.writeByteArray(22, contact.getMultimediaData());
+	    }
+	    SEDAPExpressProtobufCodec.writeString(output, 23, contact.getComment());
+	}
+
+	case EMISSION -> {
+	    final EMISSION emission = (EMISSION) message;
+	    SEDAPExpressProtobufCodec.writeString(output, 1, emission.getEmissionID());
+	    if (emission.getDeleteFlag() != null) {
+		output.writeBool(2, emission.getDeleteFlag() == DeleteFlag.TRUE);
+	    }
+	    SEDAPExpressProtobufCodec.writeDouble(output, 3, emission.getSensorLatitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 4, emission.getSensorLongitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 5, emission.getSensorAltitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 6, emission.getEmitterLatitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 7, emission.getEmitterLongitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 8, emission.getEmitterAltitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 9, emission.getBearing());
+	    SEDAPExpressProtobufCodec.writeDoubles(output, 10, emission.getFrequency());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 11, emission.getBandwidth());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 12, emission.getPower());
+	    if (emission.getFreqAgility() != null) {
+		output.writeEnum(13, emission.getFreqAgility().getFreqAgility());
+	    }
+	    if (emission.getPrfAgility() != null) {
+		output.writeEnum(14, emission.getPrfAgility().getPRFAgility());
+	    }
+	    if (emission.getFunction() != null) {
+		output.writeEnum(15, emission.getFunction().getFunction());
+	    }
+	    if (emission.getSpotNumber() != null) {
+		output.writeSInt32(16, emission.getSpotNumber());
+	    }
+	    SEDAPExpressProtobufCodec.writeChars(output, 17, emission.getSidc());
+	    SEDAPExpressProtobufCodec.writeString(output, 18, emission.getComment());
+	}
+
+	case GENERIC -> {
+	    final GENERIC generic = (GENERIC) message;
+	    SEDAPExpressProtobufCodec.writeEnum(output, 1, generic.getContentType());
+	    SEDAPExpressProtobufCodec.writeEnum(output, 2, generic.getEncoding());
+	    SEDAPExpressProtobufCodec.writeString(output, 3, generic.getContent());
+	}
+
+	case GRAPHIC -> {
+	    final GRAPHIC graphic = (GRAPHIC) message;
+	    if (graphic.getGraphicType() != null) {
+		output.writeEnum(1, graphic.getGraphicType().getType());
+	    }
+	    SEDAPExpressProtobufCodec.writeDouble(output, 2, graphic.getLineWidth());
+	    if (graphic.getLineColor() != null) {
+		output.writeFixed32(3, graphic.getLineColor());
+	    }
+	    if (graphic.getFillColor() != null) {
+		output.writeFixed32(4, graphic.getFillColor());
+	    }
+	    if (graphic.getTextColor() != null) {
+		output.writeFixed32(5, graphic.getTextColor());
+	    }
+	    SEDAPExpressProtobufCodec.writeEnum(output, 6, graphic.getEncoding());
+	    SEDAPExpressProtobufCodec.writeString(output, 7, graphic.getAnnotation());
+	}
+
+	case HEARTBEAT -> SEDAPExpressProtobufCodec.writeString(output, 1, ((HEARTBEAT) message).getRecipient());
+
+	case KEYEXCHANGE -> {
+	    final KEYEXCHANGE keyExchange = (KEYEXCHANGE) message;
+	    SEDAPExpressProtobufCodec.writeString(output, 1, keyExchange.getRecipient());
+	    if (keyExchange.getAlgorithmType() != null) {
+		output.writeEnum(2, keyExchange.getAlgorithmType().getAlgorithmTypeValue());
+	    }
+	    if (keyExchange.getPhase() != null) {
+		output.writeSInt32(3, keyExchange.getPhase());
+	    }
+	    if (keyExchange.getKeyLengthSharedSecret() != null) {
+		output.writeSInt32(4, keyExchange.getKeyLengthSharedSecret());
+	    }
+	    if (keyExchange.getKeyLengthDHKEM() != null) {
+		output.writeSInt32(5, keyExchange.getKeyLengthDHKEM());
+	    }
+	    if (keyExchange.getPrimeNumber() != null) {
+		output.writeByteArray(6, keyExchange.getPrimeNumber().toByteArray());
+	    }
+	    if (keyExchange.getNaturalNumber() != null) {
+		output.writeByteArray(7, keyExchange.getNaturalNumber().toByteArray());
+	    }
+	    if (keyExchange.getIV() != null) {
+		output.writeFixed64(8, keyExchange.getIV());
+	    }
+	    if (keyExchange.getPublicKey() != null) {
+		output.writeByteArray(9, keyExchange.getPublicKey().getEncoded());
+	    }
+	}
+
+	case METEO -> {
+	    final METEO meteo = (METEO) message;
+	    SEDAPExpressProtobufCodec.writeDouble(output, 1, meteo.getSpeedThroughWater());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 2, meteo.getWaterSpeed());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 3, meteo.getWaterDirection());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 4, meteo.getWaterTemperature());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 5, meteo.getWaterDepth());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 6, meteo.getAirTemperature());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 7, meteo.getDewPoint());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 8, meteo.getHumidityRel());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 9, meteo.getPressure());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 10, meteo.getWindSpeed());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 11, meteo.getWindDirection());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 12, meteo.getVisibility());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 13, meteo.getCloudHeight());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 14, meteo.getCloudCover());
+	    SEDAPExpressProtobufCodec.writeString(output, 15, meteo.getReference());
+	}
+
+	case OWNUNIT -> {
+	    final OWNUNIT ownUnit = (OWNUNIT) message;
+	    SEDAPExpressProtobufCodec.writeDouble(output, 1, ownUnit.getLatitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 2, ownUnit.getLongitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 3, ownUnit.getAltitude());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 4, ownUnit.getSpeed());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 5, ownUnit.getCourse());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 6, ownUnit.getHeading());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 7, ownUnit.getRoll());
+	    SEDAPExpressProtobufCodec.writeDouble(output, 8, ownUnit.getPitch());
+	    SEDAPExpressProtobufCodec.writeString(output, 9, ownUnit.getName());
+	    SEDAPExpressProtobufCodec.writeChars(output, 10, ownUnit.getSIDC());
+	}
+
+	case RESEND -> {
+	    final RESEND resend = (RESEND) message;
+	    SEDAPExpressProtobufCodec.writeString(output, 1, resend.getRecipient());
+	    SEDAPExpressProtobufCodec.writeEnum(output, 2, resend.getNameOfTheMissingMessage());
+	    if (resend.getNumberOfTheMissingMessage() != null) {
+		output.writeUInt32(3, resend.getNumberOfTheMissingMessage() & 0xFF);
+	    }
+	}
+
+	case STATUS -> {
+	    final STATUS status = (STATUS) message;
+	    if (status.getTecState() != null) {
+		output.writeEnum(1, status.getTecState().getState());
+	    }
+	    if (status.getOpsState() != null) {
+		output.writeEnum(2, status.getOpsState().getState());
+	    }
+	    SEDAPExpressProtobufCodec.writeStrings(output, 3, status.getAmmunitionLevelNames());
+	    SEDAPExpressProtobufCodec.writeDoubles(output, 4, status.getAmmunitionLevels());
+	    SEDAPExpressProtobufCodec.writeStrings(output, 5, status.getFuelLevelNames());
+	    SEDAPExpressProtobufCodec.writeDoubles(output, 6, status.getFuelLevels());
+	    SEDAPExpressProtobufCodec.writeStrings(output, 7, status.getBatterieLevelNames());
+	    SEDAPExpressProtobufCodec.writeDoubles(output, 8, status.getBatterieLevels());
+	    if (status.getCmdId() != null) {
+		output.writeSInt32(9, status.getCmdId());
+	    }
+	    if (status.getCmdState() != null) {
+		output.writeEnum(10, status.getCmdState().getState());
+	    }
+	    SEDAPExpressProtobufCodec.writeString(output, 11, status.getHostname());
+	    SEDAPExpressProtobufCodec.writeStrings(output, 12, status.getMediaUrls());
+	    SEDAPExpressProtobufCodec.writeString(output, 13, status.getFreeText());
+	}
+
+	case TEXT -> {
+	    final TEXT text = (TEXT) message;
+	    SEDAPExpressProtobufCodec.writeString(output, 1, text.getRecipient());
+	    if (text.getType() != null) {
+		output.writeEnum(2, text.getType().getType());
+	    }
+	    SEDAPExpressProtobufCodec.writeEnum(output, 3, text.getEncoding());
+	    SEDAPExpressProtobufCodec.writeString(output, 4, text.getTextContent());
+	    SEDAPExpressProtobufCodec.writeString(output, 5, text.getReference());
+	}
+
+	case TIMESYNC -> {
+	    final TIMESYNC timeSync = (TIMESYNC) message;
+	    if (timeSync.getTimestamp() != null) {
+		output.writeUInt64(1, timeSync.getTimestamp());
+	    }
+	}
+	}
+	output.flush();
+    }
+
+    private static SEDAPExpressMessage decodeContent(int field, CodedInputStream input) throws IOException {
+
+	return switch (field) {
+	case FIELD_ACKNOWLEDGE -> SEDAPExpressProtobufCodec.decodeAcknowledge(input);
+	case FIELD_COMMAND -> SEDAPExpressProtobufCodec.decodeCommand(input);
+	case FIELD_CONTACT -> SEDAPExpressProtobufCodec.decodeContact(input);
+	case FIELD_EMISSION -> SEDAPExpressProtobufCodec.decodeEmission(input);
+	case FIELD_GENERIC -> SEDAPExpressProtobufCodec.decodeGeneric(input);
+	case FIELD_GRAPHIC -> SEDAPExpressProtobufCodec.decodeGraphic(input);
+	case FIELD_HEARTBEAT -> SEDAPExpressProtobufCodec.decodeHeartbeat(input);
+	case FIELD_KEYEXCHANGE -> SEDAPExpressProtobufCodec.decodeKeyExchange(input);
+	case FIELD_METEO -> SEDAPExpressProtobufCodec.decodeMeteo(input);
+	case FIELD_OWNUNIT -> SEDAPExpressProtobufCodec.decodeOwnUnit(input);
+	case FIELD_RESEND -> SEDAPExpressProtobufCodec.decodeResend(input);
+	case FIELD_STATUS -> SEDAPExpressProtobufCodec.decodeStatus(input);
+	case FIELD_TEXT -> SEDAPExpressProtobufCodec.decodeText(input);
+	case FIELD_TIMESYNC -> SEDAPExpressProtobufCodec.decodeTimeSync(input);
+	default -> throw new InvalidProtocolBufferException("Unknown content field " + field);
+	};
+    }
+
+    private static ACKNOWLEDGE decodeAcknowledge(CodedInputStream input) throws IOException {
+
+	final ACKNOWLEDGE acknowledge = new ACKNOWLEDGE();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> acknowledge.setRecipient(input.readString());
+	    case 2 -> acknowledge.setTypeOfTheMessage(SEDAPExpressProtobufCodec.byOrdinal(SEDAPExpressProtobufCodec.MESSAGE_TYPES, input.readEnum()));
+	    case 3 -> acknowledge.setNumberOfTheMessage((byte) input.readUInt32());
+	    default -> input.skipField(tag);
+	    }
+	}
+	return acknowledge;
+    }
+
+    private static COMMAND decodeCommand(CodedInputStream input) throws IOException {
+
+	final COMMAND command = new COMMAND();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> command.setRecipient(input.readString());
+	    case 2 -> command.setCmdId((short) input.readUInt32());
+	    case 3 -> command.setCmdFlag(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.COMMAND_FLAGS, flag -> flag.getFlagValue() & 0xFF, input.readEnum()));
+	    case 4 -> command.setCmdType(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.COMMAND_TYPES, type -> type.getTypeValue() & 0xFF, input.readEnum()));
+	    case 5 -> command.setCmdTypeDependentParameters(SEDAPExpressProtobufCodec.add(command.getCmdTypeDependentParameters(), input.readString()));
+	    default -> input.skipField(tag);
+	    }
+	}
+	return command;
+    }
+
+    private static CONTACT decodeContact(CodedInputStream input) throws IOException {
+
+	final CONTACT contact = new CONTACT();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> contact.setContactID(input.readString());
+	    case 2 -> contact.setDeleteFlag(DeleteFlag.getValueOfDeleteFlag(input.readBool()));
+	    case 3 -> contact.setLatitude(input.readDouble());
+	    case 4 -> contact.setLongitude(input.readDouble());
+	    case 5 -> contact.setAltitude(input.readDouble());
+	    case 6 -> contact.setRelativeXDistance(input.readDouble());
+	    case 7 -> contact.setRelativeYDistance(input.readDouble());
+	    case 8 -> contact.setRelativeZDistance(input.readDouble());
+	    case 9 -> contact.setSpeed(input.readDouble());
+	    case 10 -> contact.setCourse(input.readDouble());
+	    case 11 -> contact.setHeading(input.readDouble());
+	    case 12 -> contact.setRoll(input.readDouble());
+	    case 13 -> contact.setPitch(input.readDouble());
+	    case 14 -> contact.setWidth(input.readDouble());
+	    case 15 -> contact.setLength(input.readDouble());
+	    case 16 -> contact.setHeight(input.readDouble());
+	    case 17 -> contact.setName(input.readString());
+	    case 18 -> contact.setSource(SEDAPExpressProtobufCodec.readSources(input, tag, contact.getSource()));
+	    case 19 -> contact.setSIDC(input.readString().toCharArray());
+	    case 20 -> contact.setMMSI(input.readString());
+	    case 21 -> contact.setICAO(input.readString());
+	    case 22 -> contact.setMultimediaData(input.readByteArray());
+	    case 23 -> contact.setComment(input.readString());
+	    default -> input.skipField(tag);
+	    }
+	}
+	return contact;
+    }
+
+    private static EMISSION decodeEmission(CodedInputStream input) throws IOException {
+
+	final EMISSION emission = new EMISSION();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> emission.setEmissionID(input.readString());
+	    case 2 -> emission.setDeleteFlag(DeleteFlag.getValueOfDeleteFlag(input.readBool()));
+	    case 3 -> emission.setSensorLatitude(input.readDouble());
+	    case 4 -> emission.setSensorLongitude(input.readDouble());
+	    case 5 -> emission.setSensorAltitude(input.readDouble());
+	    case 6 -> emission.setEmitterLatitude(input.readDouble());
+	    case 7 -> emission.setEmitterLongitude(input.readDouble());
+	    case 8 -> emission.setEmitterAltitude(input.readDouble());
+	    case 9 -> emission.setBearing(input.readDouble());
+	    case 10 -> emission.setFrequency(SEDAPExpressProtobufCodec.readDoubles(input, tag, emission.getFrequency()));
+	    case 11 -> emission.setBandwidth(input.readDouble());
+	    case 12 -> emission.setPower(input.readDouble());
+	    case 13 -> emission.setFreqAgility(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.FREQ_AGILITIES, FreqAgility::getFreqAgility, input.readEnum()));
+	    case 14 -> emission.setPrfAgility(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.PRF_AGILITIES, PRFAgility::getPRFAgility, input.readEnum()));
+	    case 15 -> emission.setFunction(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.FUNCTIONS, Function::getFunction, input.readEnum()));
+	    case 16 -> emission.setSpotNumber(input.readSInt32());
+	    case 17 -> emission.setSidc(input.readString().toCharArray());
+	    case 18 -> emission.setComment(input.readString());
+	    default -> input.skipField(tag);
+	    }
+	}
+	return emission;
+    }
+
+    private static GENERIC decodeGeneric(CodedInputStream input) throws IOException {
+
+	final GENERIC generic = new GENERIC();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> generic.setContentType(SEDAPExpressProtobufCodec.byOrdinal(SEDAPExpressProtobufCodec.CONTENT_TYPES, input.readEnum()));
+	    case 2 -> generic.setEncoding(SEDAPExpressProtobufCodec.byOrdinal(SEDAPExpressProtobufCodec.DATA_ENCODINGS, input.readEnum()));
+	    case 3 -> generic.setContent(input.readString());
+	    default -> input.skipField(tag);
+	    }
+	}
+	return generic;
+    }
+
+    private static GRAPHIC decodeGraphic(CodedInputStream input) throws IOException {
+
+	final GRAPHIC graphic = new GRAPHIC();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> graphic.setGraphicType(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.GRAPHIC_TYPES, GraphicType::getType, input.readEnum()));
+	    case 2 -> graphic.setLineWidth(input.readDouble());
+	    case 3 -> graphic.setLineColor(input.readFixed32());
+	    case 4 -> graphic.setFillColor(input.readFixed32());
+	    case 5 -> graphic.setTextColor(input.readFixed32());
+	    case 6 -> graphic.setEncoding(SEDAPExpressProtobufCodec.byOrdinal(SEDAPExpressProtobufCodec.DATA_ENCODINGS, input.readEnum()));
+	    case 7 -> graphic.setAnnotation(input.readString());
+	    default -> input.skipField(tag);
+	    }
+	}
+	return graphic;
+    }
+
+    private static HEARTBEAT decodeHeartbeat(CodedInputStream input) throws IOException {
+
+	final HEARTBEAT heartbeat = new HEARTBEAT();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    if (WireFormat.getTagFieldNumber(tag) == 1) {
+		heartbeat.setRecipient(input.readString());
+	    } else {
+		input.skipField(tag);
+	    }
+	}
+	return heartbeat;
+    }
+
+    private static KEYEXCHANGE decodeKeyExchange(CodedInputStream input) throws IOException {
+
+	final KEYEXCHANGE keyExchange = new KEYEXCHANGE();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> keyExchange.setRecipient(input.readString());
+	    case 2 -> keyExchange.setAlgorithmType(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.ALGORITHM_TYPES, AlgorithmType::getAlgorithmTypeValue, input.readEnum()));
+	    case 3 -> keyExchange.setPhase(input.readSInt32());
+	    case 4 -> keyExchange.setKeyLengthSharedSecret(input.readSInt32());
+	    case 5 -> keyExchange.setKeyLengthDHKEM(input.readSInt32());
+	    case 6 -> keyExchange.setPrimeNumber(new BigInteger(input.readByteArray()));
+	    case 7 -> keyExchange.setNaturalNumber(new BigInteger(input.readByteArray()));
+	    case 8 -> keyExchange.setIV(input.readFixed64());
+	    case 9 -> {
+		try {
+		    keyExchange.setPublicKey(new BCDHPublicKey(SubjectPublicKeyInfo.getInstance(ASN1Sequence.getInstance(input.readByteArray()))));
+		} catch (IllegalArgumentException e) {
+		    throw new InvalidProtocolBufferException("Invalid public key: " + e.getMessage());
+		}
+	    }
+	    default -> input.skipField(tag);
+	    }
+	}
+	return keyExchange;
+    }
+
+    private static METEO decodeMeteo(CodedInputStream input) throws IOException {
+
+	final METEO meteo = new METEO();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> meteo.setSpeedThroughWater(input.readDouble());
+	    case 2 -> meteo.setWaterSpeed(input.readDouble());
+	    case 3 -> meteo.setWaterDirection(input.readDouble());
+	    case 4 -> meteo.setWaterTemperature(input.readDouble());
+	    case 5 -> meteo.setWaterDepth(input.readDouble());
+	    case 6 -> meteo.setAirTemperature(input.readDouble());
+	    case 7 -> meteo.setDewPoint(input.readDouble());
+	    case 8 -> meteo.setHumidityRel(input.readDouble());
+	    case 9 -> meteo.setPressure(input.readDouble());
+	    case 10 -> meteo.setWindSpeed(input.readDouble());
+	    case 11 -> meteo.setWindDirection(input.readDouble());
+	    case 12 -> meteo.setVisibility(input.readDouble());
+	    case 13 -> meteo.setCloudHeight(input.readDouble());
+	    case 14 -> meteo.setCloudCover(input.readDouble());
+	    case 15 -> meteo.setReference(input.readString());
+	    default -> input.skipField(tag);
+	    }
+	}
+	return meteo;
+    }
+
+    private static OWNUNIT decodeOwnUnit(CodedInputStream input) throws IOException {
+
+	final OWNUNIT ownUnit = new OWNUNIT();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> ownUnit.setLatitude(input.readDouble());
+	    case 2 -> ownUnit.setLongitude(input.readDouble());
+	    case 3 -> ownUnit.setAltitude(input.readDouble());
+	    case 4 -> ownUnit.setSpeed(input.readDouble());
+	    case 5 -> ownUnit.setCourse(input.readDouble());
+	    case 6 -> ownUnit.setHeading(input.readDouble());
+	    case 7 -> ownUnit.setRoll(input.readDouble());
+	    case 8 -> ownUnit.setPitch(input.readDouble());
+	    case 9 -> ownUnit.setName(input.readString());
+	    case 10 -> ownUnit.setSIDC(input.readString().toCharArray());
+	    default -> input.skipField(tag);
+	    }
+	}
+	return ownUnit;
+    }
+
+    private static RESEND decodeResend(CodedInputStream input) throws IOException {
+
+	final RESEND resend = new RESEND();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> resend.setRecipient(input.readString());
+	    case 2 -> resend.setNameOfTheMissingMessage(SEDAPExpressProtobufCodec.byOrdinal(SEDAPExpressProtobufCodec.MESSAGE_TYPES, input.readEnum()));
+	    case 3 -> resend.setNumberOfTheMissingMessage((byte) input.readUInt32());
+	    default -> input.skipField(tag);
+	    }
+	}
+	return resend;
+    }
+
+    private static STATUS decodeStatus(CodedInputStream input) throws IOException {
+
+	final STATUS status = new STATUS();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> status.setTecState(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.TECHNICAL_STATES, TechnicalState::getState, input.readEnum()));
+	    case 2 -> status.setOpsState(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.OPERATIONAL_STATES, OperationalState::getState, input.readEnum()));
+	    case 3 -> status.setAmmunitionLevelNames(SEDAPExpressProtobufCodec.add(status.getAmmunitionLevelNames(), input.readString()));
+	    case 4 -> status.setAmmunitionLevels(SEDAPExpressProtobufCodec.readDoubles(input, tag, status.getAmmunitionLevels()));
+	    case 5 -> status.setFuelLevelNames(SEDAPExpressProtobufCodec.add(status.getFuelLevelNames(), input.readString()));
+	    case 6 -> status.setFuelLevels(SEDAPExpressProtobufCodec.readDoubles(input, tag, status.getFuelLevels()));
+	    case 7 -> status.setBatterieLevelNames(SEDAPExpressProtobufCodec.add(status.getBatterieLevelNames(), input.readString()));
+	    case 8 -> status.setBatterieLevels(SEDAPExpressProtobufCodec.readDoubles(input, tag, status.getBatterieLevels()));
+	    case 9 -> status.setCmdId(input.readSInt32());
+	    case 10 -> status.setCmdState(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.COMMAND_STATES, CommandState::getState, input.readEnum()));
+	    case 11 -> status.setHostname(input.readString());
+	    case 12 -> status.setMediaUrls(SEDAPExpressProtobufCodec.add(status.getMediaUrls(), input.readString()));
+	    case 13 -> status.setFreeText(input.readString());
+	    default -> input.skipField(tag);
+	    }
+	}
+	return status;
+    }
+
+    private static TEXT decodeText(CodedInputStream input) throws IOException {
+
+	final TEXT text = new TEXT();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    switch (WireFormat.getTagFieldNumber(tag)) {
+	    case 1 -> text.setRecipient(input.readString());
+	    case 2 -> text.setType(SEDAPExpressProtobufCodec.byCode(SEDAPExpressProtobufCodec.TEXT_TYPES, TextType::getType, input.readEnum()));
+	    case 3 -> text.setEncoding(SEDAPExpressProtobufCodec.byOrdinal(SEDAPExpressProtobufCodec.DATA_ENCODINGS, input.readEnum()));
+	    case 4 -> text.setTextContent(input.readString());
+	    case 5 -> text.setReference(input.readString());
+	    default -> input.skipField(tag);
+	    }
+	}
+	return text;
+    }
+
+    private static TIMESYNC decodeTimeSync(CodedInputStream input) throws IOException {
+
+	final TIMESYNC timeSync = new TIMESYNC();
+	int tag;
+	while ((tag = input.readTag()) != 0) {
+	    if (WireFormat.getTagFieldNumber(tag) == 1) {
+		timeSync.setTimestamp(input.readUInt64());
+	    } else {
+		input.skipField(tag);
+	    }
+	}
+	return timeSync;
+    }
+
+    private static void writeString(CodedOutputStream output, int field, String value) throws IOException {
+
+	if (value != null) {
+	    output.writeString(field, value);
+	}
+    }
+
+    private static void writeChars(CodedOutputStream output, int field, char[] value) throws IOException {
+
+	if (value != null) {
+	    output.writeString(field, String.valueOf(value));
+	}
+    }
+
+    private static void writeDouble(CodedOutputStream output, int field, Double value) throws IOException {
+
+	if (value != null) {
+	    output.writeDouble(field, value);
+	}
+    }
+
+    private static void writeEnum(CodedOutputStream output, int field, Enum<?> value) throws IOException {
+
+	if (value != null) {
+	    output.writeEnum(field, value.ordinal());
+	}
+    }
+
+    private static void writeStrings(CodedOutputStream output, int field, List<String> values) throws IOException {
+
+	if (values != null) {
+	    for (String value : values) {
+		output.writeString(field, (value != null) ? value : "");
+	    }
+	}
+    }
+
+    /**
+     * Writes a packed repeated double field, a missing value is written as NaN
+     */
+    private static void writeDoubles(CodedOutputStream output, int field, List<Double> values) throws IOException {
+
+	if ((values == null) || values.isEmpty()) {
+	    return;
+	}
+
+	output.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+	output.writeUInt32NoTag(values.size() * Double.BYTES);
+	for (Double value : values) {
+	    output.writeDoubleNoTag((value != null) ? value : Double.NaN);
+	}
+    }
+
+    /**
+     * Reads a packed or unpacked repeated double field
+     */
+    private static List<Double> readDoubles(CodedInputStream input, int tag, List<Double> values) throws IOException {
+
+	final List<Double> result = (values != null) ? values : new ArrayList<>();
+
+	if (WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+	    final int limit = input.pushLimit(input.readRawVarint32());
+	    while (input.getBytesUntilLimit() > 0) {
+		result.add(SEDAPExpressProtobufCodec.toNullable(input.readDouble()));
+	    }
+	    input.popLimit(limit);
+	} else {
+	    result.add(SEDAPExpressProtobufCodec.toNullable(input.readDouble()));
+	}
+	return result;
+    }
+
+    /**
+     * Reads a packed or unpacked repeated Source field
+     */
+    private static Set<Source> readSources(CodedInputStream input, int tag, Set<Source> sources) throws IOException {
+
+	final Set<Source> result = (sources != null) ? sources : EnumSet.noneOf(Source.class);
+
+	if (WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+	    final int limit = input.pushLimit(input.readRawVarint32());
+	    while (input.getBytesUntilLimit() > 0) {
+		final Source source = SEDAPExpressProtobufCodec.byOrdinal(SEDAPExpressProtobufCodec.SOURCES, input.readEnum());
+		if (source != null) {
+		    result.add(source);
+		}
+	    }
+	    input.popLimit(limit);
+	} else {
+	    final Source source = SEDAPExpressProtobufCodec.byOrdinal(SEDAPExpressProtobufCodec.SOURCES, input.readEnum());
+	    if (source != null) {
+		result.add(source);
+	    }
+	}
+	return result;
+    }
+
+    private static List<String> add(List<String> values, String value) {
+
+	final List<String> result = (values != null) ? values : new ArrayList<>();
+	result.add(value);
+	return result;
+    }
+
+    private static Double toNullable(double value) {
+	return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * Gives the constant with the given order back, an unknown value of a newer schema gives null
+     */
+    private static <E extends Enum<E>> E byOrdinal(E[] values, int ordinal) {
+	return ((ordinal >= 0) && (ordinal < values.length)) ? values[ordinal] : null;
+    }
+
+    /**
+     * Gives the constant with the given numeric code of the text format back, an unknown value of a newer schema gives null
+     */
+    private static <E extends Enum<E>> E byCode(E[] values, ToIntFunction<E> code, int value) {
+
+	for (E constant : values) {
+	    if (code.applyAsInt(constant) == value) {
+		return constant;
+	    }
+	}
+	return null;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+
+class SEDAPExpressJSONCodecTest {
+
+    private static final List<String> MESSAGES = List.of("HEARTBEAT;41;661D5420;89AD;U;;;FE2A", "TEXT;42;661D5420;89AD;U;;;;;;\"Grüße <&>\"");
+
+    @Test
+    final void testCompatibleWithGson() throws Exception {
+
+	// Written by the codec, read by Gson
+	final StringWriter writer = new StringWriter();
+	SEDAPExpressJSONCodec.write(writer, SEDAPExpressJSONCodecTest.MESSAGES, 10L, 12L, 3L);
+	final SEDAPExpressJSONMessage parsed = new Gson().fromJson(writer.toString(), SEDAPExpressJSONMessage.class);
+	Assertions.assertEquals(SEDAPExpressJSONCodecTest.MESSAGES, parsed.getMessages().stream().map(Message::getMessage).toList());
+	Assertions.assertEquals(10L, parsed.getOffset());
+	Assertions.assertEquals(12L, parsed.getNextOffset());
+	Assertions.assertEquals(3L, parsed.getLostMessages());
+
+	// Written by Gson, read by the codec
+	final SEDAPExpressJSONMessage jsonMessage = new SEDAPExpressJSONMessage();
+	SEDAPExpressJSONCodecTest.MESSAGES.forEach(message -> jsonMessage.getMessages().add(new Message(message)));
+	final List<String> received = new ArrayList<>();
+	final SEDAPExpressJSONMessage result = SEDAPExpressJSONCodec.read(new StringReader(new Gson().toJson(jsonMessage)), received::add);
+	Assertions.assertEquals(SEDAPExpressJSONCodecTest.MESSAGES, received);
+	Assertions.assertNull(result.getNextOffset());
+	Assertions.assertNull(result.getLostMessages());
+	Assertions.assertTrue(result.getMessages().isEmpty());
+
+	// Unknown members and null values are skipped
+	received.clear();
+	SEDAPExpressJSONCodec.read(new StringReader("{\"version\":{\"major\":1},\"messages\":[null,{\"message\":null},{\"id\":1,\"message\":\"A\"}],\"nextOffset\":5}"), received::add);
+	Assertions.assertEquals(List.of("A"), received);
+
+	// The offset of the first message is known while reading the messages
+	final SEDAPExpressJSONMessage offsets = new SEDAPExpressJSONMessage();
+	final List<Long> messageOffsets = new ArrayList<>();
+	SEDAPExpressJSONCodec.read(new StringReader(writer.toString()), offsets, message -> messageOffsets.add(offsets.getOffset() + messageOffsets.size()));
+	Assertions.assertEquals(List.of(10L, 11L), messageOffsets);
+	Assertions.assertEquals(12L, offsets.getNextOffset());
+    }
+
+    @Test
+    final void testGzip() throws Exception {
+
+	final List<String> messages = new ArrayList<>();
+	for (int i = 0; i < 1000; i++) {
+	    messages.add("HEARTBEAT;" + Integer.toHexString(i & 0x7F) + ";661D5420;89AD;U;;;FE2A");
+	}
+
+	final ByteArrayOutputStream plain = new ByteArrayOutputStream();
+	SEDAPExpressJSONCodec.write(plain, false, messages, 0L, 1000L, 0L);
+	final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+	SEDAPExpressJSONCodec.write(compressed, true, messages, 0L, 1000L, 0L);
+	Assertions.assertTrue(compressed.size() < (plain.size() / 10), compressed.size() + " of " + plain.size() + " bytes");
+
+	final List<String> received = new ArrayList<>();
+	final SEDAPExpressJSONMessage result = SEDAPExpressJSONCodec.read(new ByteArrayInputStream(compressed.toByteArray()), true, received::add);
+	Assertions.assertEquals(messages, received);
+	Assertions.assertEquals(1000L, result.getNextOffset());
+    }
+
+    @Test
+    final void testIsGzip() {
+
+	Assertions.assertTrue(SEDAPExpressJSONCodec.isGzip("gzip"));
+	Assertions.assertTrue(SEDAPExpressJSONCodec.isGzip("deflate, GZIP;q=0.8"));
+	Assertions.assertFalse(SEDAPExpressJSONCodec.isGzip("gzip;q=0"));
+	Assertions.assertFalse(SEDAPExpressJSONCodec.isGzip("deflate, br"));
+	Assertions.assertFalse(SEDAPExpressJSONCodec.isGzip(null));
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Size of a moving track in the text format, the binary format and with delta encoding. Only runs with -Dsedapexpress.benchmark=true.
+ */
+@EnabledIfSystemProperty(named = "sedapexpress.benchmark", matches = "true")
+class SEDAPExpressBinaryCodecBenchmarkTest {
+
+    private static final int UPDATES = 1000;
+
+    @Test
+    final void testDeltaSize() {
+
+	System.out.println(String.format("%-10s %10s %10s %10s %8s", "Keyframes", "Text", "Binary", "Delta", "Factor"));
+	for (int interval : new int[] { 1, 5, 10, 20, 50 }) {
+	    final SEDAPExpressBinaryCodec codec = new SEDAPExpressBinaryCodec();
+	    final SEDAPExpressBinaryCodec deltaCodec = new SEDAPExpressBinaryCodec();
+	    deltaCodec.setDeltaEncoding(true);
+	    deltaCodec.setKeyframeInterval(interval, Long.MAX_VALUE);
+
+	    final CONTACT contact = SEDAPExpressBinaryCodecTest.createTrack();
+	    long text = 0;
+	    long binary = 0;
+	    long delta = 0;
+	    for (int update = 0; update < SEDAPExpressBinaryCodecBenchmarkTest.UPDATES; update++) {
+		SEDAPExpressBinaryCodecTest.moveTrack(contact, update);
+		text += SEDAPExpressMessage.serialize(contact).getBytes(StandardCharsets.UTF_8).length;
+		binary += codec.encode(contact).length;
+		delta += deltaCodec.encode(contact).length;
+	    }
+	    Assertions.assertTrue(delta > 0);
+	    System.out.println(String.format("%-10d %10d %10d %10d %8.1f", interval, text, binary, delta, (double) text / delta));
+	}
+    }
+}
@@ -0,0 +1,293 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.CONTACT.Source;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Acknowledgement;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Classification;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.DeleteFlag;
+
+class SEDAPExpressBinaryCodecTest {
+
+    private static final List<String> MESSAGES = List.of(
+	    "CONTACT;5E;0000661D4410;66A3;R;;;100;FALSE;53.32;-8.11;0;;;;120;275;;;;;;;FGS Bayern;RA;SFSPFCLFF------;;;;VXNlIENIMjI=",
+	    "OWNUNIT;11;1B351C87;22AA;U;TRUE;4389F10D;77.88;-10.12;5577.0;33.44;55.66;1.1;-2.2;3.3;Ownunit;SFGPIB----H----",
+	    "STATUS;41;000050505050;BB91;C;TRUE;93B37ACC;2;1;MLG#50#Shell#12.5;Tank1#75.3;MainAkku#10.8;;;MTAuOC4wLjY=;cnRzcDovLzEwLjguMC42L3N0cmVhbTE=;U2FtcGxlVGV4dCE=",
+	    "COMMAND;55;00001B351C87;5BCD;S;TRUE;4389F10D;7D31;1221;01;0C;hold-engagement;1000",
+	    "ACKNOWLEDGE;18;661D64C0;129E;R;;;LASSY;COMMAND;2B",
+	    "RESEND;20;661D64C0;129E;R;;;FE2A;TEXT;5D",
+	    "HEARTBEAT;41;661D5420;89AD;U;;;FE2A",
+	    "TEXT;15;661D6565;324E;R;;;;3;;\"This is a notice!\";1133");
+
+    @Test
+    final void testRoundTrip() {
+
+	final SEDAPExpressBinaryCodec codec = new SEDAPExpressBinaryCodec();
+
+	for (String text : SEDAPExpressBinaryCodecTest.MESSAGES) {
+	    final SEDAPExpressMessage message = SEDAPExpressMessage.deserialize(text);
+	    final byte[] data = codec.encode(message);
+
+	    final SEDAPExpressMessage decoded = codec.decode(data, 0, data.length);
+	    Assertions.assertNotNull(decoded, text);
+	    Assertions.assertEquals(message.getClass(), decoded.getClass());
+	    Assertions.assertEquals(SEDAPExpressMessage.serialize(message), SEDAPExpressMessage.serialize(decoded));
+	    Assertions.assertTrue(data.length < SEDAPExpressMessage.serialize(message).length(), text);
+	}
+    }
+
+    @Test
+    final void testContact() {
+
+	final SEDAPExpressBinaryCodec codec = new SEDAPExpressBinaryCodec();
+
+	// All fields, values with more decimal places than the fixed-point scale and non hexadecimal strings
+	final CONTACT contact = new CONTACT();
+	contact.setNumber((byte) 0x7F);
+	contact.setTime(1724321563123L);
+	contact.setSender("ab12");
+	contact.setClassification(Classification.Secret);
+	contact.setAcknowledgement(Acknowledgement.FALSE);
+	contact.setMAC("4389F10D");
+	contact.setContactID("Track-1");
+	contact.setDeleteFlag(DeleteFlag.TRUE);
+	contact.setLatitude(53.123456789012);
+	contact.setLongitude(-179.9999999);
+	contact.setAltitude(-12.5);
+	contact.setRelativeXDistance(1000.25);
+	contact.setRelativeYDistance(-0.001);
+	contact.setRelativeZDistance(0.0);
+	contact.setSpeed(12.34);
+	contact.setCourse(359.99);
+	contact.setHeading(1.0 / 3.0);
+	contact.setRoll(-4.0);
+	contact.setPitch(5.5);
+	contact.setWidth(10.0);
+	contact.setLength(100.0);
+	contact.setHeight(25.0);
+	contact.setName("Gorch Fock");
+	contact.setSource(EnumSet.of(Source.Radar, Source.AIS, Source.Manual));
+	contact.setSIDC("SFSPFCLFF------".toCharArray());
+	contact.setMMSI("211222333");
+	contact.setICAO("3C6444");
+	contact.setMultimediaData(new byte[] { 0, 1, (byte) 0xFF, 0x7F });
+	contact.setComment("Grüße");
+
+	final byte[] data = codec.encode(contact);
+	final CONTACT decoded = (CONTACT) codec.decode(data, 0, data.length);
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(contact), SEDAPExpressMessage.serialize(decoded));
+	Assertions.assertEquals(contact.getLatitude(), decoded.getLatitude());
+	Assertions.assertEquals(contact.getHeading(), decoded.getHeading());
+	Assertions.assertEquals("ab12", decoded.getSender());
+	Assertions.assertEquals(Acknowledgement.FALSE, decoded.getAcknowledgement());
+
+	// Empty fields take no space
+	final CONTACT empty = new CONTACT();
+	empty.setContactID("100");
+	final byte[] emptyData = codec.encode(empty);
+	Assertions.assertEquals(7, emptyData.length); // Type, bitmap (2 bytes), length and contact ID
+	final SEDAPExpressMessage emptyDecoded = codec.decode(emptyData, 0, emptyData.length);
+	Assertions.assertNull(emptyDecoded.getNumber());
+	Assertions.assertNull(emptyDecoded.getAcknowledgement());
+	Assertions.assertNull(((CONTACT) emptyDecoded).getLatitude());
+	Assertions.assertEquals("100", ((CONTACT) emptyDecoded).getContactID());
+    }
+
+    @Test
+    final void testSize() {
+
+	final SEDAPExpressBinaryCodec codec = new SEDAPExpressBinaryCodec();
+	final SEDAPExpressMessage contact = SEDAPExpressMessage.deserialize(SEDAPExpressBinaryCodecTest.MESSAGES.get(0));
+	final SEDAPExpressMessage ownUnit = SEDAPExpressMessage.deserialize(SEDAPExpressBinaryCodecTest.MESSAGES.get(1));
+
+	// Less than two thirds of the text format, the rest are mainly name and SIDC
+	Assertions.assertTrue((3 * codec.encode(contact).length) < (2 * SEDAPExpressMessage.serialize(contact).length()));
+	Assertions.assertTrue((3 * codec.encode(ownUnit).length) < (2 * SEDAPExpressMessage.serialize(ownUnit).length()));
+    }
+
+    @Test
+    final void testDelimited() {
+
+	final SEDAPExpressBinaryCodec codec = new SEDAPExpressBinaryCodec();
+	final ByteBuffer buffer = ByteBuffer.allocate(1024);
+	final List<String> expected = new ArrayList<>();
+	for (String text : SEDAPExpressBinaryCodecTest.MESSAGES) {
+	    final SEDAPExpressMessage message = SEDAPExpressMessage.deserialize(text);
+	    expected.add(SEDAPExpressMessage.serialize(message));
+	    codec.encode(message, buffer);
+	}
+
+	// A message, which does not fit, leaves the buffer unchanged
+	final ByteBuffer small = ByteBuffer.allocate(8);
+	Assertions.assertThrows(BufferOverflowException.class, () -> codec.encode(SEDAPExpressMessage.deserialize(SEDAPExpressBinaryCodecTest.MESSAGES.get(0)), small));
+	Assertions.assertEquals(0, small.position());
+
+	final List<String> decoded = new ArrayList<>();
+	Assertions.assertEquals(expected.size(), codec.decodeAll(buffer.array(), 0, buffer.position(), message -> decoded.add(SEDAPExpressMessage.serialize(message))));
+	Assertions.assertEquals(expected, decoded);
+
+	// Decoding stops at a truncated message
+	decoded.clear();
+	Assertions.assertEquals(expected.size() - 1, codec.decodeAll(buffer.array(), 0, buffer.position() - 1, message -> decoded.add(SEDAPExpressMessage.serialize(message))));
+    }
+
+    @Test
+    final void testDelta() {
+
+	final SEDAPExpressBinaryCodec sender = new SEDAPExpressBinaryCodec();
+	sender.setDeltaEncoding(true);
+	sender.setKeyframeInterval(5, 60000);
+	final SEDAPExpressBinaryCodec receiver = new SEDAPExpressBinaryCodec();
+	receiver.setDeltaEncoding(true);
+	final SEDAPExpressBinaryCodec lateReceiver = new SEDAPExpressBinaryCodec();
+	lateReceiver.setDeltaEncoding(true);
+
+	final CONTACT contact = (CONTACT) SEDAPExpressMessage.deserialize(SEDAPExpressBinaryCodecTest.MESSAGES.get(0));
+	final OWNUNIT ownUnit = (OWNUNIT) SEDAPExpressMessage.deserialize(SEDAPExpressBinaryCodecTest.MESSAGES.get(1));
+	for (int update = 0; update < 12; update++) {
+	    contact.setNumber((byte) update);
+	    contact.setTime(1724321563123L + (update * 1000L));
+	    contact.setLatitude(53.32 + (update * 0.0001));
+	    contact.setSpeed(12.0 + update);
+	    if (update == 3) {
+		// Removed and changed fields
+		contact.setName(null);
+		contact.setComment(null);
+		contact.setAcknowledgement(Acknowledgement.TRUE);
+	    }
+	    ownUnit.setLongitude(-10.12 + (update * 0.0001));
+
+	    final byte[] contactData = sender.encode(contact);
+	    final byte[] ownUnitData = sender.encode(ownUnit);
+
+	    // The receiver rebuilds the complete messages
+	    Assertions.assertEquals(SEDAPExpressMessage.serialize(contact), SEDAPExpressMessage.serialize(receiver.decode(contactData, 0, contactData.length)), "Update " + update);
+	    Assertions.assertEquals(SEDAPExpressMessage.serialize(ownUnit), SEDAPExpressMessage.serialize(receiver.decode(ownUnitData, 0, ownUnitData.length)), "Update " + update);
+
+	    // A receiver, which has missed the first keyframe, drops the deltas until the next keyframe
+	    final SEDAPExpressMessage late = (update == 0) ? null : lateReceiver.decode(contactData, 0, contactData.length);
+	    if (update < 5) {
+		Assertions.assertNull(late);
+	    } else {
+		Assertions.assertEquals(SEDAPExpressMessage.serialize(contact), SEDAPExpressMessage.serialize(late));
+	    }
+	}
+
+	// Keyframes at updates 0, 5 and 10
+	Assertions.assertEquals(18, sender.getDeltaFrames());
+	Assertions.assertEquals(18, receiver.getDeltaFrames());
+	Assertions.assertEquals(4, lateReceiver.getMissingKeyframes());
+
+	// A deleted contact is sent completely and forgotten
+	contact.setDeleteFlag(DeleteFlag.TRUE);
+	final byte[] deleteData = sender.encode(contact);
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(contact), SEDAPExpressMessage.serialize(receiver.decode(deleteData, 0, deleteData.length)));
+	contact.setDeleteFlag(DeleteFlag.FALSE);
+	final byte[] newData = sender.encode(contact);
+	Assertions.assertEquals(18, sender.getDeltaFrames());
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(contact), SEDAPExpressMessage.serialize(receiver.decode(newData, 0, newData.length)));
+
+	// Delta frames need delta encoding on both sides
+	final byte[] deltaData = sender.encode(contact);
+	Assertions.assertEquals(19, sender.getDeltaFrames());
+	Assertions.assertNull(new SEDAPExpressBinaryCodec().decode(deltaData, 0, deltaData.length));
+    }
+
+    @Test
+    final void testDeltaSize() {
+
+	final SEDAPExpressBinaryCodec codec = new SEDAPExpressBinaryCodec();
+	final SEDAPExpressBinaryCodec deltaCodec = new SEDAPExpressBinaryCodec();
+	deltaCodec.setDeltaEncoding(true);
+	final SEDAPExpressBinaryCodec receiver = new SEDAPExpressBinaryCodec();
+	receiver.setDeltaEncoding(true);
+
+	final CONTACT contact = SEDAPExpressBinaryCodecTest.createTrack();
+	int text = 0;
+	int binary = 0;
+	int delta = 0;
+	for (int update = 0; update < 100; update++) {
+	    SEDAPExpressBinaryCodecTest.moveTrack(contact, update);
+
+	    text += SEDAPExpressMessage.serialize(contact).length();
+	    binary += codec.encode(contact).length;
+	    final byte[] data = deltaCodec.encode(contact);
+	    delta += data.length;
+	    Assertions.assertEquals(SEDAPExpressMessage.serialize(contact), SEDAPExpressMessage.serialize(receiver.decode(data, 0, data.length)));
+	}
+
+	// The delta encoding has to reduce the text format at least by a factor of 3
+	Assertions.assertTrue(delta * 2 < binary, "binary: " + binary + " bytes, delta: " + delta + " bytes");
+	Assertions.assertTrue(delta * 3 < text, "text: " + text + " bytes, delta: " + delta + " bytes");
+    }
+
+    /**
+     * A track for the delta tests, the static attributes are set once.
+     */
+    static CONTACT createTrack() {
+
+	final CONTACT contact = (CONTACT) SEDAPExpressMessage.deserialize(SEDAPExpressBinaryCodecTest.MESSAGES.get(0));
+	contact.setMMSI("211222333");
+	contact.setWidth(20.0);
+	contact.setLength(120.0);
+	return contact;
+    }
+
+    /**
+     * Moves the track, position, speed and course change with every update.
+     */
+    static void moveTrack(final CONTACT contact, final int update) {
+
+	contact.setNumber((byte) update);
+	contact.setTime(1724321563123L + (update * 1000L));
+	contact.setLatitude(53.32 + (update * 0.00011));
+	contact.setLongitude(-8.11 + (update * 0.00023));
+	contact.setSpeed(12.0 + ((update % 7) * 0.1));
+	contact.setCourse(275.0 + (update % 3));
+    }
+
+    @Test
+    final void testInvalid() {
+
+	final SEDAPExpressBinaryCodec codec = new SEDAPExpressBinaryCodec();
+	final byte[] data = codec.encode(SEDAPExpressMessage.deserialize(SEDAPExpressBinaryCodecTest.MESSAGES.get(1)));
+
+	Assertions.assertNull(codec.decode(data, 0, data.length - 1));
+	Assertions.assertNull(codec.decode(new byte[] { 99, 0 }, 0, 2));
+	Assertions.assertNull(codec.decode("OWNUNIT".getBytes(StandardCharsets.ISO_8859_1), 0, 7));
+	Assertions.assertNull(codec.decode(data, 0, 0));
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.ValidationMode;
+
+/**
+ *
+ * @author Volker Voß
+ *
+ */
+class SEDAPExpressFieldParserTest {
+
+    @Test
+    final void testParseDouble() {
+
+	for (String value : new String[] { "0", "-0", "1", "1.", "43.21", "-111.22", "10011.0", "0.000001", "359.999", "53.123456789012", "-53.1234567890123456789", "123456789012345678", "0.1000000000000000000000001" }) {
+	    Assertions.assertEquals(Double.valueOf(value), SEDAPExpressFieldParser.parseDouble(value, true), value);
+	}
+
+	final Random random = new Random(4711);
+	for (int i = 0; i < 100000; i++) {
+	    final String value = SEDAPExpressNumberFormatter.format((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(8)));
+	    Assertions.assertEquals(Double.valueOf(value), SEDAPExpressFieldParser.parseDouble(value, true), value);
+	}
+
+	for (String value : new String[] { "", "-", ".5", "1.2.3", "1,5", "12x5", "1e5", "+1", "NaN", " 1", "1 " }) {
+	    Assertions.assertTrue(Double.isNaN(SEDAPExpressFieldParser.parseDouble(value, true)), value);
+	}
+
+	Assertions.assertTrue(Double.isNaN(SEDAPExpressFieldParser.parseDouble("-1.5", false)));
+	Assertions.assertEquals(1.5, SEDAPExpressFieldParser.parseDouble("1.5", false));
+    }
+
+    @Test
+    final void testParseHex() {
+
+	Assertions.assertEquals(0x00, SEDAPExpressFieldParser.parseHexByte("00"));
+	Assertions.assertEquals(0x5E, SEDAPExpressFieldParser.parseHexByte("5E"));
+	Assertions.assertEquals(0x7F, SEDAPExpressFieldParser.parseHexByte("7F"));
+	Assertions.assertEquals(-1, SEDAPExpressFieldParser.parseHexByte("80"));
+	Assertions.assertEquals(-1, SEDAPExpressFieldParser.parseHexByte("5e"));
+	Assertions.assertEquals(-1, SEDAPExpressFieldParser.parseHexByte("5"));
+	Assertions.assertEquals(-1, SEDAPExpressFieldParser.parseHexByte("05E"));
+
+	Assertions.assertEquals(0x661D4410L, SEDAPExpressFieldParser.parseHexLong("661D4410"));
+	Assertions.assertEquals(0x0195238E15ADL, SEDAPExpressFieldParser.parseHexLong("0195238e15ad"));
+	Assertions.assertEquals(Long.MAX_VALUE, SEDAPExpressFieldParser.parseHexLong("7FFFFFFFFFFFFFFF"));
+	Assertions.assertNull(SEDAPExpressFieldParser.parseHexLong("8000000000000000"));
+	Assertions.assertNull(SEDAPExpressFieldParser.parseHexLong("661D441"));
+	Assertions.assertNull(SEDAPExpressFieldParser.parseHexLong("661D441G"));
+
+	Assertions.assertEquals(Boolean.TRUE, SEDAPExpressFieldParser.parseFlag("TRUE"));
+	Assertions.assertEquals(Boolean.FALSE, SEDAPExpressFieldParser.parseFlag("FALSE"));
+	Assertions.assertNull(SEDAPExpressFieldParser.parseFlag("true"));
+	Assertions.assertNull(SEDAPExpressFieldParser.parseFlag(""));
+    }
+
+    @Test
+    final void testValidationModes() {
+
+	final String message = "CONTACT;5E;661D4410;66A3;R;;;100;FALSE;53.32;-8.11;0;;;;120;275;;;;;;;FGS Bayern;AR;SFSPFCLFF------;;;;VXNlIENIMjI=";
+
+	final CONTACT fast = (CONTACT) SEDAPExpressMessage.deserialize(message);
+
+	SEDAPExpressMessage.setValidationMode(ValidationMode.STRICT);
+	try {
+	    final CONTACT strict = (CONTACT) SEDAPExpressMessage.deserialize(message);
+
+	    Assertions.assertEquals(strict.toString(), fast.toString());
+	    Assertions.assertEquals(strict.getNumber(), fast.getNumber());
+	    Assertions.assertEquals(strict.getTime(), fast.getTime());
+	    Assertions.assertEquals(strict.getLongitude(), fast.getLongitude());
+	} finally {
+	    SEDAPExpressMessage.setValidationMode(ValidationMode.FAST);
+	}
+
+	Assertions.assertEquals(-8.11, fast.getLongitude());
+	Assertions.assertEquals(120d, fast.getSpeed());
+    }
+
+}
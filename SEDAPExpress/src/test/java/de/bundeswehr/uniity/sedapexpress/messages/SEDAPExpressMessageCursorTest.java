@@ -0,0 +1,123 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+
+/**
+ *
+ * @author Volker Voß
+ *
+ */
+class SEDAPExpressMessageCursorTest {
+
+    private static final String[] MESSAGES = { "CONTACT;5E;661D4410;66A3;R;;;100;FALSE;53.32;8.11;0;;;;120;275;;;;;;;FGS Bayern;AR;SFSPFCLFF------;;;;VXNlIENIMjI=", "HEARTBEAT;;;89AD;U;;;", "HEARTBEAT", "", ";", ";;A;",
+	    "TEXT;63;0195238E15AD;324E;S;TRUE;;;1;NONE;\"This is an alert!\";1000" };
+
+    private static List<String> toList(SEDAPExpressMessageCursor cursor) {
+
+	final List<String> result = new ArrayList<>();
+	cursor.forEachRemaining(result::add);
+	return result;
+    }
+
+    @Test
+    final void testSplitLikeSplitMessage() {
+
+	final SEDAPExpressMessageCursor cursor = new SEDAPExpressMessageCursor();
+
+	for (String message : SEDAPExpressMessageCursorTest.MESSAGES) {
+	    Assertions.assertEquals(SEDAPExpressMessage.splitMessage(message), toList(cursor.wrap(message)));
+	    Assertions.assertEquals(SEDAPExpressMessage.splitMessage(message), toList(cursor.wrap(message.getBytes(StandardCharsets.ISO_8859_1))));
+	}
+    }
+
+    @Test
+    final void testSliceAndBuffer() {
+
+	final byte[] data = "xxHEARTBEAT;42;661D5420;89AD;U\r\nCONTACT;;;;;;;100".getBytes(StandardCharsets.ISO_8859_1);
+
+	final SEDAPExpressMessageCursor cursor = new SEDAPExpressMessageCursor().wrap(data, 2, 30);
+
+	Assertions.assertEquals(5, cursor.getFieldCount());
+	Assertions.assertTrue(cursor.fieldEquals(0, "HEARTBEAT"));
+	Assertions.assertFalse(cursor.fieldEquals(0, "HEARTBEA"));
+	Assertions.assertEquals('U', cursor.charAt(4, 0));
+	Assertions.assertEquals(1, cursor.getFieldLength(4));
+	Assertions.assertEquals("HEARTBEAT;42;661D5420;89AD;U", cursor.toString());
+
+	final ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+	direct.put(data).flip().position(32);
+
+	cursor.wrap(direct);
+	Assertions.assertEquals(32, direct.position());
+	Assertions.assertEquals(8, cursor.getFieldCount());
+	Assertions.assertTrue(cursor.isFieldEmpty(1));
+	Assertions.assertEquals("100", cursor.getField(7));
+    }
+
+    @Test
+    final void testDeserialize() {
+
+	final String message = SEDAPExpressMessageCursorTest.MESSAGES[0];
+	final byte[] data = (message + '\n').getBytes(StandardCharsets.ISO_8859_1);
+
+	final CONTACT fromString = (CONTACT) SEDAPExpressMessage.deserialize(message);
+	final CONTACT fromBytes = (CONTACT) SEDAPExpressMessage.deserialize(data, 0, data.length);
+	final CONTACT fromBuffer = (CONTACT) SEDAPExpressMessage.deserialize(ByteBuffer.wrap(data));
+
+	Assertions.assertEquals(fromString.toString(), fromBytes.toString());
+	Assertions.assertEquals(fromString.toString(), fromBuffer.toString());
+	Assertions.assertEquals("FGS Bayern", fromBytes.getName());
+	Assertions.assertEquals("Use CH22", fromBytes.getComment());
+
+	Assertions.assertNull(SEDAPExpressMessage.deserialize("UNKNOWN;1;2;3"));
+    }
+
+    @Test
+    final void testMessageType() {
+
+	final SEDAPExpressMessageCursor cursor = new SEDAPExpressMessageCursor();
+
+	for (MessageType type : MessageType.values()) {
+	    Assertions.assertEquals(type, cursor.wrap(type.name() + ";;;").getMessageType(0));
+	}
+
+	Assertions.assertNull(cursor.wrap("CONTACTX;;").getMessageType(0));
+	Assertions.assertNull(cursor.wrap("contact;;").getMessageType(0));
+	Assertions.assertNull(cursor.wrap("TEX;;").getMessageType(0));
+	Assertions.assertNull(cursor.wrap(";;").getMessageType(0));
+    }
+
+}
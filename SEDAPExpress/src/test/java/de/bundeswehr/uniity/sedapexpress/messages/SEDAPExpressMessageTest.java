@@ -25,6 +25,8 @@
  */
 package de.bundeswehr.uniity.sedapexpress.messages;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -38,4 +40,32 @@ class SEDAPExpressMessageTest {
 	Assertions.assertEquals("HEARTBEAT;;661D5420", SEDAPExpressMessage.removeSemicolons("HEARTBEAT;;661D5420;;;;;"));
     }
 
+    @Test
+    final void testMessageFactoryRegistration() {
+
+	Assertions.assertNull(SEDAPExpressMessage.deserialize("XGENERIC;42;661D5420;89AD;U;;;1;NONE;SEDAP;VGVzdA=="));
+
+	SEDAPExpressMessage.registerMessageFactory("XGENERIC", GENERIC::new);
+	try {
+	    Assertions.assertInstanceOf(GENERIC.class, SEDAPExpressMessage.deserialize("XGENERIC;42;661D5420;89AD;U;;;1;NONE;SEDAP;VGVzdA=="));
+	} finally {
+	    SEDAPExpressMessage.unregisterMessageFactory("XGENERIC");
+	}
+	Assertions.assertNull(SEDAPExpressMessage.deserialize("XGENERIC;42;661D5420;89AD;U;;;1;NONE;SEDAP;VGVzdA=="));
+
+	final AtomicInteger counter = new AtomicInteger();
+	SEDAPExpressMessage.registerMessageFactory("HEARTBEAT", message -> {
+	    counter.incrementAndGet();
+	    return new HEARTBEAT(message);
+	});
+	try {
+	    Assertions.assertEquals("89AD", SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;U").getSender());
+	    Assertions.assertEquals(1, counter.get());
+	} finally {
+	    SEDAPExpressMessage.unregisterMessageFactory("HEARTBEAT");
+	}
+	Assertions.assertInstanceOf(HEARTBEAT.class, SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;U"));
+	Assertions.assertEquals(1, counter.get());
+    }
+
 }
@@ -0,0 +1,146 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.bouncycastle.util.encoders.Base64;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Acknowledgement;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Classification;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.DeleteFlag;
+
+class SEDAPExpressMessageWriterTest {
+
+    private static final String[] MESSAGES = {
+
+	    "ACKNOWLEDGE;18;0000661D64C0;129E;R;;;LASSY;COMMAND;2B",
+
+	    "COMMAND;55;00001B351C87;5BCD;S;TRUE;4389F10D;7D31;1221;01;0C;hold-engagement;1000",
+
+	    "CONTACT;5E;0000661D4410;66A3;R;;;100;FALSE;53.32;-8.11;0;;;;120;275;;;;;;;FGS Bayern;RA;SFSPFCLFF------;;;;VXNlIENIMjI=",
+
+	    "CONTACT;5F;0000661D5420;83C5;U;;;101;FALSE;36.32;12.11;2000;;;;44;;;;;;;;Unknown;O;;221333201;;;UG9zcyBOZXRoZXJsYW5kcw==",
+
+	    "CONTACT;60;000054742310;4371;S;TRUE;;102;TRUE;53.32;8.11",
+
+	    "HEARTBEAT;42;0000661D5420;89AD;U;;;FE2A",
+
+	    "HEARTBEAT;;;89AD;U",
+
+	    "OWNUNIT;5E;0000661D4410;66A3;R;;;53.32;8.11;0;5.5;21;22;;;FGS Bayern;SFSPFCLFF------",
+
+	    "RESEND;20;0000661D64C0;129E;R;;;FE2A;TEXT;5D",
+
+	    "STATUS;41;000050505050;BB91;C;TRUE;93B37ACC;2;1;MLG#50#Shell#12.5;Tank1#75.3;MainAkku#10.8;;;MTAuOC4wLjY=;cnRzcDovLzEwLjguMC42L3N0cmVhbTE=;U2FtcGxlVGV4dCE=",
+
+	    "TEXT;26;0000661D7032;324E;U;;;E4F1;4;BASE64;IlRoaXMgaXMgYSBjaGF0IG1lc3NhZ2UhIg==" };
+
+    @Test
+    final void testRoundTrip() {
+
+	for (String message : SEDAPExpressMessageWriterTest.MESSAGES) {
+	    Assertions.assertEquals(message, SEDAPExpressMessage.deserialize(message).toString());
+	}
+    }
+
+    @Test
+    final void testSerializeToByteBuffer() {
+
+	final ByteBuffer buffer = ByteBuffer.allocate(4096);
+	final SEDAPExpressMessageWriter writer = new SEDAPExpressMessageWriter(buffer);
+
+	final StringBuilder expected = new StringBuilder();
+	for (String message : SEDAPExpressMessageWriterTest.MESSAGES) {
+	    final SEDAPExpressMessage msg = SEDAPExpressMessage.deserialize(message);
+	    Assertions.assertEquals(message.length(), writer.write(msg));
+	    writer.newLine();
+	    expected.append(SEDAPExpressMessage.serialize(msg));
+	}
+
+	buffer.flip();
+	Assertions.assertEquals(expected.toString(), StandardCharsets.ISO_8859_1.decode(buffer).toString());
+
+	final ByteBuffer direct = ByteBuffer.allocateDirect(256);
+	final SEDAPExpressMessage heartbeat = SEDAPExpressMessage.deserialize("HEARTBEAT;42;0000661D5420;89AD;U;;;FE2A");
+	Assertions.assertEquals(40, SEDAPExpressMessage.serialize(heartbeat, direct));
+	direct.flip();
+	Assertions.assertEquals("HEARTBEAT;42;0000661D5420;89AD;U;;;FE2A\n", StandardCharsets.ISO_8859_1.decode(direct).toString());
+    }
+
+    @Test
+    final void testSerializeToAppendable() throws IOException {
+
+	for (String message : SEDAPExpressMessageWriterTest.MESSAGES) {
+	    final StringBuilder result = new StringBuilder("#");
+	    SEDAPExpressMessage.deserialize(message).serializeTo(result);
+	    Assertions.assertEquals("#" + message, result.toString());
+	}
+    }
+
+    @Test
+    final void testTrailingSeparators() {
+
+	final HEARTBEAT heartbeat = new HEARTBEAT(null, 0x661D5420L, null, null, null, null, null);
+	Assertions.assertEquals("HEARTBEAT;;0000661D5420", heartbeat.toString());
+
+	final CONTACT contact = new CONTACT((byte) 0x60, 0x54742310L, "4371", Classification.Secret, Acknowledgement.TRUE, null, "102", DeleteFlag.TRUE, 53.32, 8.11, null, null, null, null, null, null, null, null, null, null,
+		null, null, null, "", null, null, null, null, null);
+	Assertions.assertEquals("CONTACT;60;000054742310;4371;S;TRUE;;102;TRUE;53.32;8.11", contact.toString());
+    }
+
+    @Test
+    final void testBufferOverflow() {
+
+	final ByteBuffer buffer = ByteBuffer.allocate(64);
+	buffer.put((byte) 'X');
+
+	final SEDAPExpressMessage contact = SEDAPExpressMessage.deserialize(SEDAPExpressMessageWriterTest.MESSAGES[2]);
+	Assertions.assertThrows(BufferOverflowException.class, () -> contact.serializeTo(buffer));
+	Assertions.assertEquals(1, buffer.position());
+    }
+
+    @Test
+    final void testBase64() {
+
+	final Random random = new Random(4711);
+	final SEDAPExpressMessageWriter writer = new SEDAPExpressMessageWriter();
+	for (int length = 1; length < 40; length++) {
+	    final byte[] data = new byte[length];
+	    random.nextBytes(data);
+
+	    final StringBuilder result = new StringBuilder();
+	    writer.wrap(result).appendBase64(data);
+	    Assertions.assertEquals(Base64.toBase64String(data), result.toString());
+	}
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleFunction;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Throughput of the number formatter compared to the DecimalFormat it replaces. Only runs with -Dsedapexpress.benchmark=true.
+ */
+@EnabledIfSystemProperty(named = "sedapexpress.benchmark", matches = "true")
+class SEDAPExpressNumberFormatterBenchmarkTest {
+
+    private static final int VALUES = 1 << 16;
+
+    private static final int ROUNDS = 40;
+
+    private static final int THREADS = 4;
+
+    private static double[] createValues() {
+
+	final Random random = new Random(4711);
+	final double[] values = new double[SEDAPExpressNumberFormatterBenchmarkTest.VALUES];
+	for (int i = 0; i < values.length; i++) {
+	    values[i] = switch (i % 4) {
+	    case 0 -> (random.nextDouble() * 180) - 90; // latitude
+	    case 1 -> Math.round(random.nextDouble() * 3600000000L) / 1e7; // rounded longitude
+	    case 2 -> Math.round(random.nextDouble() * 100000) / 10.0; // altitude
+	    default -> random.nextDouble() * 360; // course
+	    };
+	}
+	return values;
+    }
+
+    /**
+     * Returns formatted values per second of one thread.
+     */
+    private static double measure(double[] values, DoubleFunction<CharSequence> formatter) {
+
+	long length = 0;
+	long best = Long.MAX_VALUE;
+	for (int round = 0; round < SEDAPExpressNumberFormatterBenchmarkTest.ROUNDS; round++) {
+	    final long start = System.nanoTime();
+	    for (double value : values) {
+		length += formatter.apply(value).length();
+	    }
+	    best = Math.min(best, System.nanoTime() - start);
+	}
+	Assertions.assertTrue(length > 0);
+	return (values.length * 1e9) / best;
+    }
+
+    /**
+     * Returns formatted values per second of all threads together.
+     */
+    private static double measureConcurrent(double[] values, DoubleFunction<CharSequence> formatter) throws InterruptedException {
+
+	final CountDownLatch start = new CountDownLatch(1);
+	final CountDownLatch done = new CountDownLatch(SEDAPExpressNumberFormatterBenchmarkTest.THREADS);
+	final AtomicLong length = new AtomicLong();
+	for (int t = 0; t < SEDAPExpressNumberFormatterBenchmarkTest.THREADS; t++) {
+	    new Thread(() -> {
+		try {
+		    start.await();
+		    long sum = 0;
+		    for (int round = 0; round < (SEDAPExpressNumberFormatterBenchmarkTest.ROUNDS / 4); round++) {
+			for (double value : values) {
+			    sum += formatter.apply(value).length();
+			}
+		    }
+		    length.addAndGet(sum);
+		} catch (InterruptedException e) {
+		    Thread.currentThread().interrupt();
+		} finally {
+		    done.countDown();
+		}
+	    }).start();
+	}
+
+	final long begin = System.nanoTime();
+	start.countDown();
+	done.await();
+	final long duration = System.nanoTime() - begin;
+
+	Assertions.assertTrue(length.get() > 0);
+	return ((double) SEDAPExpressNumberFormatterBenchmarkTest.THREADS * (SEDAPExpressNumberFormatterBenchmarkTest.ROUNDS / 4) * values.length * 1e9) / duration;
+    }
+
+    @Test
+    final void testThroughput() throws InterruptedException {
+
+	final double[] values = SEDAPExpressNumberFormatterBenchmarkTest.createValues();
+	final DecimalFormat decimalFormat = new DecimalFormat(SEDAPExpressNumberFormatter.PATTERN, DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+	final StringBuilder builder = new StringBuilder();
+	final SEDAPExpressMessageWriter writer = new SEDAPExpressMessageWriter();
+
+	final double decimalFormatRate = SEDAPExpressNumberFormatterBenchmarkTest.measure(values, decimalFormat::format);
+	final double formatterRate = SEDAPExpressNumberFormatterBenchmarkTest.measure(values, SEDAPExpressNumberFormatter::format);
+	final double writerRate = SEDAPExpressNumberFormatterBenchmarkTest.measure(values, value -> {
+	    builder.setLength(0);
+	    writer.wrap(builder).appendNumber(value);
+	    return builder;
+	});
+
+	final double synchronizedRate = SEDAPExpressNumberFormatterBenchmarkTest.measureConcurrent(values, value -> {
+	    synchronized (decimalFormat) {
+		return decimalFormat.format(value);
+	    }
+	});
+	final double concurrentRate = SEDAPExpressNumberFormatterBenchmarkTest.measureConcurrent(values, SEDAPExpressNumberFormatter::format);
+
+	System.out.printf(Locale.ENGLISH, "DecimalFormat:                          %,14.0f values/s%n", decimalFormatRate);
+	System.out.printf(Locale.ENGLISH, "SEDAPExpressNumberFormatter (String):   %,14.0f values/s%n", formatterRate);
+	System.out.printf(Locale.ENGLISH, "SEDAPExpressMessageWriter:              %,14.0f values/s%n", writerRate);
+	System.out.printf(Locale.ENGLISH, "%d threads, synchronized DecimalFormat: %,14.0f values/s%n", SEDAPExpressNumberFormatterBenchmarkTest.THREADS, synchronizedRate);
+	System.out.printf(Locale.ENGLISH, "%d threads, formatter:                  %,14.0f values/s%n", SEDAPExpressNumberFormatterBenchmarkTest.THREADS, concurrentRate);
+    }
+}
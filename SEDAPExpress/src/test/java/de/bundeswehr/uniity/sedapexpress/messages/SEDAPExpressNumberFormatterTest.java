@@ -0,0 +1,145 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.messages;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SEDAPExpressNumberFormatterTest {
+
+    private final DecimalFormat reference = new DecimalFormat(SEDAPExpressNumberFormatter.PATTERN, DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+
+    private void assertFormat(double value) {
+
+	final String expected = this.reference.format(value);
+	Assertions.assertEquals(expected, SEDAPExpressNumberFormatter.format(value), () -> "Value " + Double.toString(value));
+
+	final char[] buffer = new char[SEDAPExpressNumberFormatter.MAX_LENGTH + 3];
+	final int length = SEDAPExpressNumberFormatter.format(value, buffer, 3);
+	if (length >= 0) {
+	    Assertions.assertEquals(expected, new String(buffer, 3, length), () -> "Value " + Double.toString(value));
+	}
+    }
+
+    @Test
+    final void testSpecialValues() {
+
+	Assertions.assertEquals("0", SEDAPExpressNumberFormatter.format(0.0));
+	Assertions.assertEquals("-0", SEDAPExpressNumberFormatter.format(-0.0));
+	Assertions.assertEquals("0.5", SEDAPExpressNumberFormatter.format(0.5));
+	Assertions.assertEquals("-8.11", SEDAPExpressNumberFormatter.format(-8.11));
+	Assertions.assertEquals("5577", SEDAPExpressNumberFormatter.format(5577.0));
+	Assertions.assertEquals("0.3", SEDAPExpressNumberFormatter.format(0.1 + 0.2));
+	Assertions.assertEquals("0.000000000001", SEDAPExpressNumberFormatter.format(1e-12));
+	Assertions.assertEquals("0", SEDAPExpressNumberFormatter.format(1e-13));
+	Assertions.assertEquals("-0", SEDAPExpressNumberFormatter.format(-1e-13));
+	Assertions.assertEquals("12345678.12345679", SEDAPExpressNumberFormatter.format(12345678.123456789));
+
+	final double[] values = { Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MAX_VALUE, -Double.MAX_VALUE, Double.MIN_VALUE, Double.MIN_NORMAL, 1e15, 1e15 - 0.125, 999999999999999.9,
+		1e14 + 0.015625, 1.0000000000005, 0.5e-12, 1.5e-12, 2.5e-12, -2.5e-12, 0.0000000000015, 123.456, 1e-5, 4.35, 0.125, 9007199254740993.0, Long.MAX_VALUE };
+	for (double value : values) {
+	    assertFormat(value);
+	}
+    }
+
+    @Test
+    final void testTies() {
+
+	// Binary fractions with exactly representable 13th fraction digit 5
+	for (int exponent = 13; exponent < 60; exponent++) {
+	    for (int numerator = 1; numerator < 1000; numerator++) {
+		assertFormat(numerator / Math.pow(2, exponent));
+		assertFormat(-numerator / Math.pow(2, exponent));
+		assertFormat(numerator + (1 / Math.pow(2, exponent)));
+	    }
+	}
+
+	// Decimal ties at the 12th fraction digit
+	for (int i = 0; i < 10000; i++) {
+	    assertFormat((i + 0.5) / 1e12);
+	    assertFormat(1 + ((i + 0.5) / 1e12));
+	}
+    }
+
+    @Test
+    final void testRandomValues() {
+
+	final Random random = new Random(4711);
+	for (int i = 0; i < 100000; i++) {
+	    // Coordinates, rounded values and all magnitudes
+	    assertFormat((random.nextDouble() * 360) - 180);
+	    assertFormat(Math.round(random.nextDouble() * 1e9) / 1e7);
+	    assertFormat(Math.round(random.nextDouble() * 1e12) / Math.pow(10, random.nextInt(16)));
+	    assertFormat(random.nextDouble() * Math.pow(10, random.nextInt(34) - 17));
+	    assertFormat((double) random.nextLong() / (1L << random.nextInt(63)));
+	    assertFormat(Double.longBitsToDouble(random.nextLong()));
+	}
+    }
+
+    @Test
+    final void testConcurrentFormatting() throws Exception {
+
+	final int threads = 8;
+	final ExecutorService executor = Executors.newFixedThreadPool(threads);
+	try {
+	    final List<Future<Integer>> results = new ArrayList<>();
+	    for (int t = 0; t < threads; t++) {
+		final long seed = t;
+		final Callable<Integer> task = () -> {
+		    // Every thread compares with its own DecimalFormat, the formatter under test is shared
+		    final DecimalFormat format = new DecimalFormat(SEDAPExpressNumberFormatter.PATTERN, DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+		    final Random random = new Random(seed);
+		    int errors = 0;
+		    for (int i = 0; i < 50000; i++) {
+			// Magnitudes up to 1e20 also exercise the DecimalFormat fallback
+			final double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(21));
+			if (!format.format(value).equals(SEDAPExpressNumberFormatter.format(value))) {
+			    errors++;
+			}
+		    }
+		    return errors;
+		};
+		results.add(executor.submit(task));
+	    }
+	    for (Future<Integer> result : results) {
+		Assertions.assertEquals(0, result.get());
+	    }
+	} finally {
+	    executor.shutdown();
+	}
+    }
+}
@@ -0,0 +1,335 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal MQTT v5 broker stand-in for tests: acknowledges CONNECT, SUBSCRIBE and PUBLISH (QoS 1 and 2) after a configurable latency and records the received publishes. Every publish is forwarded with QoS 0 to the connections with a matching topic filter, a shared subscription ($share/group/filter) delivers it to one member of the group in turn.
+ *
+ * @author Volker Voß
+ *
+ */
+final class MQTTBrokerStandIn implements AutoCloseable {
+
+    /**
+     * Received PUBLISH packet
+     */
+    record Publish(String topic, int qos, boolean retain, String payload) {
+    }
+
+    private final ServerSocket serverSocket;
+
+    private final long latency;
+
+    private final ScheduledExecutorService acknowledger = Executors.newSingleThreadScheduledExecutor();
+
+    private final List<Publish> publishes = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger lines = new AtomicInteger();
+
+    private final List<String> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Topic filter of a connection
+     */
+    private record Subscription(OutputStream output, String group, String filter) {
+    }
+
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+
+    private final Map<String, AtomicInteger> shareGroups = new ConcurrentHashMap<>();
+
+    private final List<Socket> connections = new CopyOnWriteArrayList<>();
+
+    /**
+     * Starts the stand-in on a free local port
+     *
+     * @param latency Delay of every acknowledgement in microseconds, simulating the round-trip to a broker
+     */
+    MQTTBrokerStandIn(long latency) throws IOException {
+
+	this.latency = latency;
+	this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+	final Thread acceptor = new Thread(() -> {
+	    try {
+		while (!this.serverSocket.isClosed()) {
+		    final Socket socket = this.serverSocket.accept();
+		    this.connections.add(socket);
+		    final Thread reader = new Thread(() -> serve(socket));
+		    reader.setDaemon(true);
+		    reader.start();
+		}
+	    } catch (IOException e) {
+		// Closed
+	    }
+	});
+	acceptor.setDaemon(true);
+	acceptor.start();
+    }
+
+    String getAddress() {
+	return "tcp://127.0.0.1:" + this.serverSocket.getLocalPort();
+    }
+
+    List<String> getSubscriptions() {
+	return this.subscriptions;
+    }
+
+    List<Publish> getPublishes() {
+	return this.publishes;
+    }
+
+    /**
+     * Gives the number of received SEDAP-Express lines in all payloads back
+     */
+    int getLines() {
+	return this.lines.get();
+    }
+
+    private void serve(Socket socket) {
+
+	try (socket) {
+	    final DataInputStream input = new DataInputStream(socket.getInputStream());
+	    final OutputStream output = socket.getOutputStream();
+
+	    while (true) {
+		final int header = input.read();
+		if (header < 0) {
+		    return;
+		}
+		final byte[] body = new byte[MQTTBrokerStandIn.readVariableInt(input)];
+		input.readFully(body);
+
+		switch (header >> 4) {
+		case 1 -> send(output, 0, new byte[] { 0x20, 0x03, 0x00, 0x00, 0x00 }); // CONNECT -> CONNACK
+		case 3 -> { // PUBLISH
+		    final int qos = (header >> 1) & 3;
+		    final int topicLength = ((body[0] & 0xFF) << 8) | (body[1] & 0xFF);
+		    int position = 2 + topicLength;
+		    final String topic = new String(body, 2, topicLength, StandardCharsets.UTF_8);
+		    int packetId = 0;
+		    if (qos > 0) {
+			packetId = ((body[position] & 0xFF) << 8) | (body[position + 1] & 0xFF);
+			position += 2;
+		    }
+		    position = MQTTBrokerStandIn.skipProperties(body, position);
+
+		    final String payload = new String(body, position, body.length - position, StandardCharsets.ISO_8859_1);
+		    this.publishes.add(new Publish(topic, qos, (header & 1) != 0, payload));
+		    this.lines.addAndGet(payload.isEmpty() ? 0 : (int) payload.chars().filter(c -> c == '\n').count() + 1);
+		    forward(topic, Arrays.copyOfRange(body, position, body.length));
+
+		    if (qos == 1) {
+			send(output, this.latency, new byte[] { 0x40, 0x02, (byte) (packetId >> 8), (byte) packetId }); // PUBACK
+		    } else if (qos == 2) {
+			send(output, this.latency, new byte[] { 0x50, 0x02, (byte) (packetId >> 8), (byte) packetId }); // PUBREC
+		    }
+		}
+		case 6 -> send(output, 0, new byte[] { 0x70, 0x02, body[0], body[1] }); // PUBREL -> PUBCOMP
+		case 8 -> { // SUBSCRIBE -> SUBACK granting QoS 1 for every topic filter
+		    int position = MQTTBrokerStandIn.skipProperties(body, 2);
+		    int filters = 0;
+		    while (position < body.length) {
+			final int filterLength = ((body[position] & 0xFF) << 8) | (body[position + 1] & 0xFF);
+			final String filter = new String(body, position + 2, filterLength, StandardCharsets.UTF_8);
+			this.subscriptions.add(filter);
+			if (filter.startsWith("$share/")) {
+			    final int groupEnd = filter.indexOf('/', 7);
+			    this.subscribers.add(new Subscription(output, filter.substring(7, groupEnd), filter.substring(groupEnd + 1)));
+			} else {
+			    this.subscribers.add(new Subscription(output, null, filter));
+			}
+			position += 2 + filterLength + 1; // Filter and subscription options
+			filters++;
+		    }
+		    final byte[] suback = new byte[5 + filters];
+		    suback[0] = (byte) 0x90;
+		    suback[1] = (byte) (3 + filters);
+		    suback[2] = body[0];
+		    suback[3] = body[1];
+		    Arrays.fill(suback, 5, suback.length, (byte) 0x01);
+		    send(output, this.latency, suback);
+		}
+		case 12 -> send(output, 0, new byte[] { (byte) 0xD0, 0x00 }); // PINGREQ -> PINGRESP
+		case 14 -> { // DISCONNECT
+		    return;
+		}
+		default -> {
+		    // Ignored
+		}
+		}
+	    }
+	} catch (IOException e) {
+	    // Connection closed
+	}
+    }
+
+    /**
+     * Forwards a publish with QoS 0 to every matching connection once, and to one member of every matching share group
+     */
+    private void forward(String topic, byte[] payload) {
+
+	final Set<OutputStream> receivers = new LinkedHashSet<>();
+	final Map<String, List<OutputStream>> groups = new HashMap<>();
+	for (final Subscription subscription : this.subscribers) {
+	    if (MQTTBrokerStandIn.matches(subscription.filter(), topic)) {
+		if (subscription.group() == null) {
+		    receivers.add(subscription.output());
+		} else {
+		    final List<OutputStream> members = groups.computeIfAbsent(subscription.group(), group -> new ArrayList<>());
+		    if (!members.contains(subscription.output())) {
+			members.add(subscription.output());
+		    }
+		}
+	    }
+	}
+	groups.forEach((group, members) -> receivers.add(members.get(Math.floorMod(this.shareGroups.computeIfAbsent(group, g -> new AtomicInteger()).getAndIncrement(), members.size()))));
+
+	if (receivers.isEmpty()) {
+	    return;
+	}
+
+	final byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+	final int remaining = 2 + topicBytes.length + 1 + payload.length;
+	final ByteArrayOutputStream packet = new ByteArrayOutputStream(remaining + 5);
+	packet.write(0x30); // PUBLISH, QoS 0
+	int length = remaining;
+	do {
+	    packet.write((length & 0x7F) | ((length > 0x7F) ? 0x80 : 0));
+	    length >>>= 7;
+	} while (length > 0);
+	packet.write(topicBytes.length >> 8);
+	packet.write(topicBytes.length);
+	packet.writeBytes(topicBytes);
+	packet.write(0); // No properties
+	packet.writeBytes(payload);
+
+	for (final OutputStream receiver : receivers) {
+	    send(receiver, 0, packet.toByteArray());
+	}
+    }
+
+    /**
+     * Checks a topic against a topic filter with the wildcards + and #
+     */
+    static boolean matches(String filter, String topic) {
+
+	final String[] filterLevels = filter.split("/", -1);
+	final String[] topicLevels = topic.split("/", -1);
+	for (int i = 0; i < filterLevels.length; i++) {
+	    if ("#".equals(filterLevels[i])) {
+		return true;
+	    }
+	    if ((i >= topicLevels.length) || (!"+".equals(filterLevels[i]) && !filterLevels[i].equals(topicLevels[i]))) {
+		return false;
+	    }
+	}
+	return filterLevels.length == topicLevels.length;
+    }
+
+    private void send(OutputStream output, long delay, byte[] packet) {
+
+	final Runnable write = () -> {
+	    synchronized (output) {
+		try {
+		    output.write(packet);
+		    output.flush();
+		} catch (IOException e) {
+		    // Connection closed
+		}
+	    }
+	};
+
+	if (delay == 0) {
+	    write.run();
+	} else {
+	    this.acknowledger.schedule(write, delay, TimeUnit.MICROSECONDS);
+	}
+    }
+
+    /**
+     * Skips the properties of a packet
+     *
+     * @return Position behind the properties
+     */
+    private static int skipProperties(byte[] body, int position) {
+
+	int length = 0;
+	int shift = 0;
+	int b;
+	do {
+	    b = body[position++] & 0xFF;
+	    length |= (b & 0x7F) << shift;
+	    shift += 7;
+	} while ((b & 0x80) != 0);
+	return position + length;
+    }
+
+    private static int readVariableInt(DataInputStream input) throws IOException {
+
+	int value = 0;
+	int shift = 0;
+	int b;
+	do {
+	    b = input.readUnsignedByte();
+	    value |= (b & 0x7F) << shift;
+	    shift += 7;
+	} while ((b & 0x80) != 0);
+	return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+	this.serverSocket.close();
+	for (final Socket socket : this.connections) {
+	    socket.close();
+	}
+	this.acknowledger.shutdownNow();
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+
+/**
+ * Publishing throughput of the MQTT client against a local broker stand-in, which acknowledges every publish after a simulated round-trip time. Only runs with -Dsedapexpress.benchmark=true, the
+ * round-trip time can be set in microseconds with -Dsedapexpress.benchmark.latency=1000.
+ */
+@EnabledIfSystemProperty(named = "sedapexpress.benchmark", matches = "true")
+class SEDAPExpressMQTTBenchmarkTest {
+
+    private static final int MESSAGES = 5000;
+
+    private static final long LATENCY = Long.getLong("sedapexpress.benchmark.latency", 1000);
+
+    private static void measure(String name, int maxInFlight, long batchInterval) throws Exception {
+
+	try (MQTTBrokerStandIn broker = new MQTTBrokerStandIn(SEDAPExpressMQTTBenchmarkTest.LATENCY)) {
+	    final SEDAPExpressMQTTClient client = new SEDAPExpressMQTTClient(broker.getAddress(), "bench", "bench", "", null, null, null);
+	    Logger.getLogger(Logger.GLOBAL_LOGGER_NAME).setLevel(Level.WARNING);
+	    client.setMaxInFlight(maxInFlight);
+	    if (batchInterval > 0) {
+		client.setBatching(batchInterval, SEDAPExpressMQTTClient.DEFAULT_MAX_BATCH_SIZE);
+	    }
+	    Assertions.assertTrue(client.connect());
+
+	    try {
+		final SEDAPExpressMessage contact = SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT);
+		final long start = System.nanoTime();
+		for (int i = 0; i < SEDAPExpressMQTTBenchmarkTest.MESSAGES; i++) {
+		    client.sendSEDAPExpressMessage(contact);
+		}
+		while (client.getPublishedMessages() < SEDAPExpressMQTTBenchmarkTest.MESSAGES) {
+		    Thread.sleep(1);
+		    Assertions.assertEquals(0, client.getFailedMessages());
+		}
+		final long end = System.nanoTime();
+
+		Assertions.assertEquals(SEDAPExpressMQTTBenchmarkTest.MESSAGES, broker.getLines());
+		System.out.printf(Locale.ENGLISH, "%-28s %6d messages in %6d publishes: %8.1f ms, %,10.0f messages/s%n", name, SEDAPExpressMQTTBenchmarkTest.MESSAGES, client.getPublishedPayloads(), (end - start) / 1e6,
+			SEDAPExpressMQTTBenchmarkTest.MESSAGES / ((end - start) / 1e9));
+	    } finally {
+		client.stopCommunicator();
+	    }
+	}
+    }
+
+    @Test
+    final void testPublishing() throws Exception {
+
+	System.out.printf(Locale.ENGLISH, "QoS 1, acknowledgement after %d us%n", SEDAPExpressMQTTBenchmarkTest.LATENCY);
+	SEDAPExpressMQTTBenchmarkTest.measure("1 in flight (synchronous)", 1, 0);
+	SEDAPExpressMQTTBenchmarkTest.measure("32 in flight", 32, 0);
+	SEDAPExpressMQTTBenchmarkTest.measure("32 in flight, 5 ms batches", 32, 5);
+    }
+}
@@ -0,0 +1,284 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressCommunicator.Encoding;
+
+class SEDAPExpressMQTTClientTest {
+
+    static final String HEARTBEAT = "HEARTBEAT;42;661D5420;89AD;U;;;FE2A";
+
+    static final String CONTACT = "CONTACT;5E;661D4410;66A3;R;;;100;FALSE;53.32;-8.11;0;;;;120;275;;;;;;;FGS Bayern;AR;SFSPFCLFF------";
+
+    @Test
+    final void testPublish() throws Exception {
+
+	try (MQTTBrokerStandIn broker = new MQTTBrokerStandIn(0)) {
+	    final SEDAPExpressMQTTClient client = new SEDAPExpressMQTTClient(broker.getAddress(), "test", "test", "", null, null, null);
+	    client.setQoS(0, MessageType.HEARTBEAT);
+	    client.setQoS(2, MessageType.CONTACT);
+	    Assertions.assertThrows(IllegalArgumentException.class, () -> client.setQoS(3, MessageType.TEXT));
+	    Assertions.assertEquals(1, client.getQoS(MessageType.TEXT));
+
+	    Assertions.assertTrue(client.connect());
+	    try {
+		client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT));
+		client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.HEARTBEAT));
+		client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT));
+
+		SEDAPExpressNetworkTestUtils.waitFor(() -> client.getPublishedMessages() == 3);
+		Assertions.assertEquals(3, client.getPublishedMessages());
+		Assertions.assertEquals(0, client.getFailedMessages());
+
+		final List<MQTTBrokerStandIn.Publish> publishes = broker.getPublishes();
+		Assertions.assertEquals(3, publishes.size());
+		Assertions.assertEquals("SEDAP-X/test/CONTACT", publishes.get(0).topic());
+		Assertions.assertEquals(2, publishes.get(0).qos());
+		Assertions.assertEquals(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT).toString(), publishes.get(0).payload());
+		Assertions.assertEquals("SEDAP-X/test/HEARTBEAT", publishes.get(1).topic());
+		Assertions.assertEquals(0, publishes.get(1).qos());
+	    } finally {
+		client.stopCommunicator();
+	    }
+	}
+    }
+
+    @Test
+    final void testBatching() throws Exception {
+
+	try (MQTTBrokerStandIn broker = new MQTTBrokerStandIn(0)) {
+	    final SEDAPExpressMQTTClient client = new SEDAPExpressMQTTClient(broker.getAddress(), "test", "test", "", null, null, null);
+	    final String contact = SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT).toString();
+	    client.setBatching(200, 10 * (contact.length() + 1));
+
+	    Assertions.assertTrue(client.connect());
+	    try {
+		for (int i = 0; i < 25; i++) {
+		    client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT));
+		}
+		client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.HEARTBEAT));
+
+		SEDAPExpressNetworkTestUtils.waitFor(() -> client.getPublishedMessages() == 26);
+		Assertions.assertEquals(26, broker.getLines());
+
+		// Two full CONTACT payloads, the rest of the CONTACTs and the HEARTBEAT after the interval
+		final List<MQTTBrokerStandIn.Publish> publishes = broker.getPublishes();
+		Assertions.assertEquals(4, publishes.size());
+		Assertions.assertEquals(String.join("\n", Collections.nCopies(10, contact)), publishes.get(0).payload());
+		Assertions.assertEquals(4, client.getPublishedPayloads());
+	    } finally {
+		client.stopCommunicator();
+	    }
+	}
+    }
+
+    @Test
+    final void testBinaryEncoding() throws Exception {
+
+	try (MQTTBrokerStandIn broker = new MQTTBrokerStandIn(0)) {
+	    final SEDAPExpressMQTTClient client = new SEDAPExpressMQTTClient(broker.getAddress(), "test", "test", "", null, null, null);
+	    Assertions.assertTrue(client.setEncoding(Encoding.BINARY));
+	    client.setBatching(200, 1024);
+
+	    Assertions.assertTrue(client.connect());
+	    try {
+		for (int i = 0; i < 5; i++) {
+		    client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT));
+		}
+		client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.HEARTBEAT));
+		SEDAPExpressNetworkTestUtils.waitFor(() -> client.getPublishedMessages() == 6);
+
+		// One payload per topic, which a binary receiver splits into the messages
+		final List<MQTTBrokerStandIn.Publish> publishes = broker.getPublishes();
+		Assertions.assertEquals(2, publishes.size());
+		Assertions.assertTrue(publishes.get(0).payload().length() < (5 * SEDAPExpressMQTTClientTest.CONTACT.length()));
+
+		final SEDAPExpressMQTTClient receiver = new SEDAPExpressMQTTClient("tcp://127.0.0.1:1", "test", "test", "", null, null, null);
+		Assertions.assertTrue(receiver.setEncoding(Encoding.BINARY));
+		final List<SEDAPExpressMessage> received = new ArrayList<>();
+		receiver.subscribeMessages(received::add, MessageType.CONTACT, MessageType.HEARTBEAT);
+		for (MQTTBrokerStandIn.Publish publish : publishes) {
+		    receiver.messageArrived(publish.topic(), new MqttMessage(publish.payload().getBytes(StandardCharsets.ISO_8859_1)));
+		}
+		Assertions.assertEquals(6, received.size());
+		Assertions.assertEquals(SEDAPExpressMessage.serialize(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT)), SEDAPExpressMessage.serialize(received.get(0)));
+		Assertions.assertEquals(SEDAPExpressMessage.serialize(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.HEARTBEAT)), SEDAPExpressMessage.serialize(received.get(5)));
+	    } finally {
+		client.stopCommunicator();
+	    }
+	}
+    }
+
+    @Test
+    final void testRetainedContacts() throws Exception {
+
+	try (MQTTBrokerStandIn broker = new MQTTBrokerStandIn(0)) {
+	    final SEDAPExpressMQTTClient client = new SEDAPExpressMQTTClient(broker.getAddress(), "test", "test", "", null, null, null);
+	    client.setRetainedContacts(true);
+
+	    Assertions.assertTrue(client.connect());
+	    try {
+		client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT));
+		client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.HEARTBEAT));
+		client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT.replace(";100;FALSE;", ";100;TRUE;")));
+
+		SEDAPExpressNetworkTestUtils.waitFor(() -> client.getPublishedPayloads() == 4);
+		final List<MQTTBrokerStandIn.Publish> publishes = broker.getPublishes();
+		Assertions.assertEquals(4, publishes.size());
+
+		Assertions.assertEquals("SEDAP-X/test/CONTACT/100", publishes.get(0).topic());
+		Assertions.assertTrue(publishes.get(0).retain());
+		Assertions.assertEquals("SEDAP-X/test/HEARTBEAT", publishes.get(1).topic());
+		Assertions.assertFalse(publishes.get(1).retain());
+
+		// The deletion is delivered to the current subscribers, then the retained message is cleared
+		Assertions.assertEquals("SEDAP-X/test/CONTACT/100", publishes.get(2).topic());
+		Assertions.assertFalse(publishes.get(2).retain());
+		Assertions.assertTrue(publishes.get(2).payload().contains(";100;TRUE;"));
+		Assertions.assertEquals("SEDAP-X/test/CONTACT/100", publishes.get(3).topic());
+		Assertions.assertTrue(publishes.get(3).retain());
+		Assertions.assertTrue(publishes.get(3).payload().isEmpty());
+
+		Assertions.assertEquals(3, client.getPublishedMessages());
+	    } finally {
+		client.stopCommunicator();
+	    }
+	}
+
+	Assertions.assertEquals("A_B_C_", SEDAPExpressMQTTClient.toTopicLevel("A/B+C#"));
+    }
+
+    @Test
+    final void testRoundTrip() throws Exception {
+
+	try (MQTTBrokerStandIn broker = new MQTTBrokerStandIn(0)) {
+	    final SEDAPExpressMQTTClient receiver = new SEDAPExpressMQTTClient(broker.getAddress(), "test", "test", "", null, null, null);
+	    Assertions.assertArrayEquals(new String[] { "SEDAP-X/test/+", "SEDAP-X/test/CONTACT/+" }, receiver.getSubscriptionFilters());
+	    final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	    receiver.subscribeMessages(received::add, MessageType.CONTACT, MessageType.HEARTBEAT);
+
+	    final SEDAPExpressMQTTClient sender = new SEDAPExpressMQTTClient(broker.getAddress(), "test", "test", "", null, null, null);
+	    sender.setSubscribedTypes(MessageType.TEXT);
+
+	    Assertions.assertTrue(receiver.connect());
+	    Assertions.assertTrue(sender.connect());
+	    try {
+		SEDAPExpressNetworkTestUtils.waitFor(() -> broker.getSubscriptions().size() == 3);
+
+		sender.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT));
+		sender.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.HEARTBEAT));
+		SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 2);
+
+		// The per contact topic is covered as well
+		sender.setRetainedContacts(true);
+		sender.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT));
+
+		SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 3);
+		Assertions.assertEquals(3, received.size());
+		Assertions.assertEquals(MessageType.CONTACT, received.get(0).getMessageType());
+		Assertions.assertEquals(MessageType.HEARTBEAT, received.get(1).getMessageType());
+		Assertions.assertEquals(SEDAPExpressMessage.serialize(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT)), SEDAPExpressMessage.serialize(received.get(2)));
+	    } finally {
+		sender.stopCommunicator();
+		receiver.stopCommunicator();
+	    }
+	}
+    }
+
+    @Test
+    final void testSharedSubscription() throws Exception {
+
+	try (MQTTBrokerStandIn broker = new MQTTBrokerStandIn(0)) {
+	    final SEDAPExpressMQTTClient first = new SEDAPExpressMQTTClient(broker.getAddress(), "test", "test", "", null, null, null);
+	    final SEDAPExpressMQTTClient second = new SEDAPExpressMQTTClient(broker.getAddress(), "test", "test", "", null, null, null);
+	    Assertions.assertThrows(IllegalArgumentException.class, () -> first.setSharedSubscription("a/b"));
+
+	    final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	    for (final SEDAPExpressMQTTClient client : List.of(first, second)) {
+		client.setSharedSubscription("gateways");
+		client.setSubscribedTypes(MessageType.CONTACT, MessageType.OWNUNIT);
+		client.subscribeMessages(received::add, MessageType.CONTACT, MessageType.HEARTBEAT);
+	    }
+	    Assertions.assertArrayEquals(new String[] { "$share/gateways/SEDAP-X/test/CONTACT", "$share/gateways/SEDAP-X/test/CONTACT/+", "$share/gateways/SEDAP-X/test/OWNUNIT" }, first.getSubscriptionFilters());
+
+	    final SEDAPExpressMQTTClient sender = new SEDAPExpressMQTTClient(broker.getAddress(), "test", "test", "", null, null, null);
+	    sender.setSubscribedTypes(MessageType.TEXT);
+
+	    Assertions.assertTrue(first.connect());
+	    Assertions.assertTrue(second.connect());
+	    Assertions.assertTrue(sender.connect());
+	    try {
+		SEDAPExpressNetworkTestUtils.waitFor(() -> broker.getSubscriptions().size() == 7);
+
+		// Every CONTACT reaches one member of the group, the HEARTBEAT is not subscribed
+		for (int i = 0; i < 10; i++) {
+		    sender.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.CONTACT));
+		}
+		sender.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressMQTTClientTest.HEARTBEAT));
+
+		SEDAPExpressNetworkTestUtils.waitFor(() -> sender.getPublishedMessages() == 11);
+		SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 10);
+		Assertions.assertEquals(10, received.size());
+		Assertions.assertTrue(received.stream().allMatch(msg -> msg.getMessageType() == MessageType.CONTACT));
+	    } finally {
+		sender.stopCommunicator();
+		first.stopCommunicator();
+		second.stopCommunicator();
+	    }
+
+	    first.setSharedSubscription(null);
+	    first.setSubscribedTypes();
+	    Assertions.assertNull(first.getSubscribedTypes());
+	    Assertions.assertArrayEquals(new String[] { "SEDAP-X/test/+", "SEDAP-X/test/CONTACT/+" }, first.getSubscriptionFilters());
+	}
+    }
+
+    @Test
+    final void testReceiveBatch() throws Exception {
+
+	final SEDAPExpressMQTTClient client = new SEDAPExpressMQTTClient("tcp://127.0.0.1:1", "test", "test", "", null, null, null);
+	final List<SEDAPExpressMessage> received = new ArrayList<>();
+	client.subscribeMessages(received::add, MessageType.CONTACT, MessageType.HEARTBEAT);
+
+	client.messageArrived("SEDAP-X/test/CONTACT", new MqttMessage((SEDAPExpressMQTTClientTest.CONTACT + "\n" + SEDAPExpressMQTTClientTest.CONTACT + "\n").getBytes(StandardCharsets.ISO_8859_1)));
+	client.messageArrived("SEDAP-X/test/HEARTBEAT", new MqttMessage(SEDAPExpressMQTTClientTest.HEARTBEAT.getBytes(StandardCharsets.ISO_8859_1)));
+
+	Assertions.assertEquals(3, received.size());
+	Assertions.assertEquals(MessageType.HEARTBEAT, received.get(2).getMessageType());
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressMessageLog.Slice;
+
+class SEDAPExpressMessageLogTest {
+
+    @Test
+    final void testRead() throws Exception {
+
+	final SEDAPExpressMessageLog log = new SEDAPExpressMessageLog(4);
+	Assertions.assertEquals(0, log.append("A"));
+	Assertions.assertEquals(1, log.append("B"));
+	Assertions.assertEquals(2, log.append("C"));
+
+	// Every consumer reads from its own offset
+	Slice slice = log.read(-1, 10, 0, TimeUnit.MILLISECONDS);
+	Assertions.assertEquals(List.of("A", "B", "C"), slice.messages());
+	Assertions.assertEquals(0, slice.offset());
+	Assertions.assertEquals(3, slice.nextOffset());
+
+	slice = log.read(1, 1, 0, TimeUnit.MILLISECONDS);
+	Assertions.assertEquals(List.of("B"), slice.messages());
+	Assertions.assertEquals(2, slice.nextOffset());
+
+	slice = log.read(3, 10, 0, TimeUnit.MILLISECONDS);
+	Assertions.assertTrue(slice.messages().isEmpty());
+	Assertions.assertEquals(3, slice.nextOffset());
+
+	// An offset behind the end, e.g. from before a restart, starts with the oldest message
+	slice = log.read(100, 10, 0, TimeUnit.MILLISECONDS);
+	Assertions.assertEquals(List.of("A", "B", "C"), slice.messages());
+    }
+
+    @Test
+    final void testOverwrite() throws Exception {
+
+	final SEDAPExpressMessageLog log = new SEDAPExpressMessageLog(3);
+	for (int i = 0; i < 5; i++) {
+	    log.append(Integer.toString(i));
+	}
+
+	Assertions.assertEquals(2, log.getFirstSequence());
+	Assertions.assertEquals(5, log.getNextSequence());
+
+	final Slice slice = log.read(0, 10, 0, TimeUnit.MILLISECONDS);
+	Assertions.assertEquals(List.of("2", "3", "4"), slice.messages());
+	Assertions.assertEquals(2, slice.offset());
+	Assertions.assertEquals(2, slice.lostMessages());
+	Assertions.assertEquals(0, log.read(-1, 10, 0, TimeUnit.MILLISECONDS).lostMessages());
+    }
+
+    @Test
+    final void testLongPoll() throws Exception {
+
+	final SEDAPExpressMessageLog log = new SEDAPExpressMessageLog(10);
+
+	long start = System.nanoTime();
+	Assertions.assertTrue(log.read(0, 10, 50, TimeUnit.MILLISECONDS).messages().isEmpty());
+	Assertions.assertTrue((System.nanoTime() - start) >= TimeUnit.MILLISECONDS.toNanos(50));
+
+	// A waiting reader gets the message as soon as it is appended
+	final Thread writer = new Thread(() -> {
+	    try {
+		Thread.sleep(100);
+	    } catch (InterruptedException e) {
+	    }
+	    log.append("A");
+	});
+	writer.start();
+	start = System.nanoTime();
+	final Slice slice = log.read(0, 10, 10, TimeUnit.SECONDS);
+	Assertions.assertEquals(List.of("A"), slice.messages());
+	Assertions.assertTrue((System.nanoTime() - start) < TimeUnit.SECONDS.toNanos(5));
+
+	log.close();
+	start = System.nanoTime();
+	Assertions.assertTrue(log.read(1, 10, 10, TimeUnit.SECONDS).messages().isEmpty());
+	Assertions.assertTrue((System.nanoTime() - start) < TimeUnit.SECONDS.toNanos(5));
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressOutboundQueue.SlowConsumerPolicy;
+
+class SEDAPExpressOutboundQueueTest {
+
+    /**
+     * Channel, which accepts at most a given number of bytes per write like a full socket buffer
+     */
+    private static final class LimitedChannel implements GatheringByteChannel {
+
+	private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+	private int limit;
+	private int writes = 0;
+
+	private LimitedChannel(int limit) {
+	    this.limit = limit;
+	}
+
+	@Override
+	public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+
+	    this.writes++;
+	    long written = 0;
+	    for (int i = offset; (i < (offset + length)) && (written < this.limit); i++) {
+		while (srcs[i].hasRemaining() && (written < this.limit)) {
+		    this.data.write(srcs[i].get());
+		    written++;
+		}
+	    }
+	    return written;
+	}
+
+	@Override
+	public long write(ByteBuffer[] srcs) throws IOException {
+	    return write(srcs, 0, srcs.length);
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException {
+	    return (int) write(new ByteBuffer[] { src }, 0, 1);
+	}
+
+	@Override
+	public boolean isOpen() {
+	    return true;
+	}
+
+	@Override
+	public void close() {
+	}
+
+	private String getData() {
+	    return this.data.toString(StandardCharsets.ISO_8859_1);
+	}
+    }
+
+    private static ByteBuffer line(String text) {
+	return ByteBuffer.wrap((text + "\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    final void testPartialWrites() throws IOException {
+
+	final SEDAPExpressOutboundQueue queue = new SEDAPExpressOutboundQueue();
+	final SEDAPExpressMessage message = SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;U;;;FE2A");
+	final ByteBuffer shared = SEDAPExpressOutboundQueue.encode(message);
+	Assertions.assertTrue(shared.isReadOnly());
+
+	for (int i = 0; i < 10; i++) {
+	    Assertions.assertTrue(queue.offer(shared.duplicate(), null));
+	}
+	Assertions.assertEquals(10L * shared.remaining(), queue.getQueuedBytes());
+
+	final LimitedChannel channel = new LimitedChannel(7);
+	while (!queue.writeTo(channel)) {
+	    Assertions.assertTrue(queue.getQueuedBytes() > 0);
+	}
+
+	Assertions.assertTrue(queue.isEmpty());
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(message).repeat(10), channel.getData());
+	Assertions.assertEquals(10L * shared.remaining(), queue.getWrittenBytes());
+    }
+
+    @Test
+    final void testGatheringWrite() throws IOException {
+
+	final SEDAPExpressOutboundQueue queue = new SEDAPExpressOutboundQueue();
+	for (int i = 0; i < 20; i++) {
+	    queue.offer(SEDAPExpressOutboundQueueTest.line("MESSAGE" + i), null);
+	}
+
+	final LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+	Assertions.assertTrue(queue.writeTo(channel));
+	Assertions.assertEquals(1, channel.writes);
+	Assertions.assertTrue(channel.getData().endsWith("MESSAGE19\n"));
+    }
+
+    @Test
+    final void testDropOldest() throws IOException {
+
+	final SEDAPExpressOutboundQueue queue = new SEDAPExpressOutboundQueue(SlowConsumerPolicy.DROP_OLDEST, 12);
+	queue.offer(SEDAPExpressOutboundQueueTest.line("FIRST"), null);
+
+	// The first message is being written and must not be dropped
+	final LimitedChannel channel = new LimitedChannel(2);
+	Assertions.assertFalse(queue.writeTo(channel));
+
+	Assertions.assertTrue(queue.offer(SEDAPExpressOutboundQueueTest.line("SECOND"), null));
+	Assertions.assertTrue(queue.offer(SEDAPExpressOutboundQueueTest.line("THIRD"), null));
+	Assertions.assertEquals(1, queue.getDroppedMessages());
+	Assertions.assertTrue(queue.getQueuedBytes() <= 12);
+
+	channel.limit = Integer.MAX_VALUE;
+	Assertions.assertTrue(queue.writeTo(channel));
+	Assertions.assertEquals("FIRST\nTHIRD\n", channel.getData());
+    }
+
+    @Test
+    final void testCoalesce() throws IOException {
+
+	final SEDAPExpressOutboundQueue queue = new SEDAPExpressOutboundQueue(SlowConsumerPolicy.COALESCE, 120);
+
+	final SEDAPExpressMessage first = SEDAPExpressMessage.deserialize("CONTACT;5E;661D4410;66A3;R;;;100;FALSE;53.32;-8.11;0");
+	final SEDAPExpressMessage other = SEDAPExpressMessage.deserialize("CONTACT;5F;661D4411;66A3;R;;;101;FALSE;53.32;-8.11;0");
+	final SEDAPExpressMessage second = SEDAPExpressMessage.deserialize("CONTACT;60;661D4412;66A3;R;;;100;FALSE;53.33;-8.12;0");
+	Assertions.assertEquals("66A3;100", SEDAPExpressOutboundQueue.getCoalescingKey(first));
+
+	Assertions.assertTrue(queue.offer(first));
+	Assertions.assertTrue(queue.offer(other));
+	// Queue is full, the newer position of contact 100 replaces the queued one
+	Assertions.assertTrue(queue.offer(second));
+	Assertions.assertEquals(1, queue.getCoalescedMessages());
+	Assertions.assertEquals(0, queue.getDroppedMessages());
+
+	final LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+	Assertions.assertTrue(queue.writeTo(channel));
+	final String[] lines = channel.getData().split("\n");
+	Assertions.assertEquals(2, lines.length);
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(second).strip(), lines[0]);
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(other).strip(), lines[1]);
+    }
+
+    @Test
+    final void testCoalesceLimit() throws IOException {
+
+	final SEDAPExpressOutboundQueue queue = new SEDAPExpressOutboundQueue(SlowConsumerPolicy.COALESCE, 100);
+	Assertions.assertTrue(queue.offer(SEDAPExpressOutboundQueueTest.line("A".repeat(40)), "1"));
+	Assertions.assertTrue(queue.offer(SEDAPExpressOutboundQueueTest.line("B".repeat(40)), "2"));
+
+	// A longer state of contact 1 drops the oldest other message, so the limit holds
+	Assertions.assertTrue(queue.offer(SEDAPExpressOutboundQueueTest.line("C".repeat(60)), "1"));
+	Assertions.assertEquals(1, queue.getCoalescedMessages());
+	Assertions.assertEquals(1, queue.getDroppedMessages());
+	Assertions.assertEquals(61, queue.getQueuedBytes());
+
+	final LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+	Assertions.assertTrue(queue.writeTo(channel));
+	Assertions.assertEquals("C".repeat(60) + "\n", channel.getData());
+    }
+
+    @Test
+    final void testDisconnect() {
+
+	final SEDAPExpressOutboundQueue queue = new SEDAPExpressOutboundQueue(SlowConsumerPolicy.DISCONNECT, 10);
+	Assertions.assertTrue(queue.offer(SEDAPExpressOutboundQueueTest.line("FIRST"), null));
+	Assertions.assertFalse(queue.offer(SEDAPExpressOutboundQueueTest.line("SECOND"), null));
+	Assertions.assertEquals(1, queue.getDroppedMessages());
+	Assertions.assertEquals(6, queue.getQueuedBytes());
+    }
+
+    @Test
+    final void testBlock() throws IOException {
+
+	final SEDAPExpressOutboundQueue queue = new SEDAPExpressOutboundQueue(SlowConsumerPolicy.BLOCK, 10);
+	Assertions.assertTrue(queue.offer(SEDAPExpressOutboundQueueTest.line("FIRST"), null));
+	Assertions.assertFalse(queue.offer(SEDAPExpressOutboundQueueTest.line("SECOND"), null));
+	Assertions.assertEquals(0, queue.getDroppedMessages());
+
+	final LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+	Assertions.assertTrue(queue.writeTo(channel));
+
+	// A message longer than the limit is accepted by an empty queue
+	Assertions.assertTrue(queue.offer(SEDAPExpressOutboundQueueTest.line("SECOND MESSAGE"), null));
+	Assertions.assertTrue(queue.writeTo(channel));
+	Assertions.assertEquals("FIRST\nSECOND MESSAGE\n", channel.getData());
+    }
+}
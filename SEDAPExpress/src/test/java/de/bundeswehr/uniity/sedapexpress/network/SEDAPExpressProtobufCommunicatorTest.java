@@ -0,0 +1,179 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.CodedInputStream;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressProtobufCommunicator.Transport;
+import de.bundeswehr.uniity.sedapexpress.protobuf.SEDAPExpressProtobufCodec;
+
+class SEDAPExpressProtobufCommunicatorTest {
+
+    private static final String HEARTBEAT = "HEARTBEAT;4%s;661D5420;89AD;U;;;FE2A";
+
+    private static final String CONTACT = "CONTACT;5E;0000661D4410;66A3;R;;;100;FALSE;53.32;-8.11;0;;;;120;275;;;;;;;FGS Bayern;RA;SFSPFCLFF------;;;;VXNlIENIMjI=";
+
+    private static SEDAPExpressMessage heartbeat(int i) {
+	return SEDAPExpressMessage.deserialize(String.format(SEDAPExpressProtobufCommunicatorTest.HEARTBEAT, Integer.toHexString(i & 0xF)));
+    }
+
+    @Test
+    final void testProcessDelimited() throws IOException {
+
+	final SEDAPExpressProtobufCommunicator communicator = new SEDAPExpressProtobufCommunicator(Transport.TCP, "127.0.0.1", 50110);
+	final List<SEDAPExpressMessage> received = new ArrayList<>();
+	communicator.subscribeMessages(received::add, MessageType.HEARTBEAT, MessageType.CONTACT);
+
+	final SEDAPExpressProtobufCodec codec = new SEDAPExpressProtobufCodec();
+	final byte[] first = codec.encodeDelimited(SEDAPExpressMessage.deserialize(SEDAPExpressProtobufCommunicatorTest.CONTACT));
+	final byte[] second = codec.encodeDelimited(SEDAPExpressProtobufCommunicatorTest.heartbeat(2));
+	final byte[] data = new byte[first.length + second.length];
+	System.arraycopy(first, 0, data, 0, first.length);
+	System.arraycopy(second, 0, data, first.length, second.length);
+
+	// Only complete messages are consumed
+	Assertions.assertEquals(0, communicator.processDelimited(data, 0, 1));
+	Assertions.assertEquals(first.length, communicator.processDelimited(data, 0, data.length - 1));
+	Assertions.assertEquals(second.length, communicator.processDelimited(data, first.length, second.length));
+	Assertions.assertEquals(2, received.size());
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(SEDAPExpressMessage.deserialize(SEDAPExpressProtobufCommunicatorTest.CONTACT)), SEDAPExpressMessage.serialize(received.get(0)));
+
+	// A message without content is skipped, the following one is still received
+	final byte[] invalid = { 0x02, 0x08, 0x01 };
+	final byte[] mixed = new byte[invalid.length + second.length];
+	System.arraycopy(invalid, 0, mixed, 0, invalid.length);
+	System.arraycopy(second, 0, mixed, invalid.length, second.length);
+	Assertions.assertEquals(mixed.length, communicator.processDelimited(mixed, 0, mixed.length));
+	Assertions.assertEquals(3, received.size());
+	Assertions.assertEquals(1, communicator.getInvalidMessages());
+
+	// A length prefix beyond the limit breaks the framing
+	final byte[] tooLong = { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F };
+	Assertions.assertThrows(IOException.class, () -> communicator.processDelimited(tooLong, 0, tooLong.length));
+    }
+
+    @Test
+    final void testTCP() throws Exception {
+
+	final SEDAPExpressProtobufCodec codec = new SEDAPExpressProtobufCodec();
+
+	try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+
+	    final SEDAPExpressProtobufCommunicator communicator = new SEDAPExpressProtobufCommunicator(Transport.TCP, "127.0.0.1", server.getLocalPort());
+	    final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	    communicator.subscribeMessages(received::add, MessageType.HEARTBEAT);
+	    Assertions.assertTrue(communicator.connect());
+
+	    try (Socket peer = server.accept()) {
+
+		// Messages split over several writes
+		final List<String> expected = new ArrayList<>();
+		final OutputStream output = peer.getOutputStream();
+		for (int i = 0; i < 10; i++) {
+		    final SEDAPExpressMessage message = SEDAPExpressProtobufCommunicatorTest.heartbeat(i);
+		    expected.add(SEDAPExpressMessage.serialize(message));
+		    final byte[] data = codec.encodeDelimited(message);
+		    output.write(data, 0, 3);
+		    output.flush();
+		    Thread.sleep(2);
+		    output.write(data, 3, data.length - 3);
+		}
+		output.flush();
+
+		SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 10);
+		Assertions.assertEquals(expected, received.stream().map(SEDAPExpressMessage::serialize).toList());
+
+		// Messages sent by the communicator
+		final SEDAPExpressMessage contact = SEDAPExpressMessage.deserialize(SEDAPExpressProtobufCommunicatorTest.CONTACT);
+		Assertions.assertTrue(communicator.sendSEDAPExpressMessage(contact));
+		Assertions.assertTrue(communicator.sendSEDAPExpressMessage(SEDAPExpressProtobufCommunicatorTest.heartbeat(1)));
+
+		final CodedInputStream input = CodedInputStream.newInstance(peer.getInputStream());
+		Assertions.assertEquals(SEDAPExpressMessage.serialize(contact), SEDAPExpressMessage.serialize(codec.parseDelimitedFrom(input)));
+		Assertions.assertEquals(SEDAPExpressMessage.serialize(SEDAPExpressProtobufCommunicatorTest.heartbeat(1)), SEDAPExpressMessage.serialize(codec.parseDelimitedFrom(input)));
+		Assertions.assertEquals(2, communicator.getSentMessages());
+	    } finally {
+		communicator.stopCommunicator();
+	    }
+	}
+    }
+
+    @Test
+    final void testUDPPacking() throws Exception {
+
+	final SEDAPExpressProtobufCommunicator receiver = new SEDAPExpressProtobufCommunicator(Transport.UDP, "127.0.0.1", 0);
+	final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	receiver.subscribeMessages(received::add, MessageType.HEARTBEAT);
+	Assertions.assertTrue(receiver.connect());
+
+	final SEDAPExpressProtobufCommunicator sender = new SEDAPExpressProtobufCommunicator(Transport.UDP, "127.0.0.1", receiver.getLocalPort());
+	sender.setLocalPort(0);
+	Assertions.assertTrue(sender.connect());
+
+	try {
+	    // Packed until the datagram is full or the delay has passed
+	    sender.setPacking(SEDAPExpressUDPClient.DEFAULT_PACKING_SIZE, 50);
+	    final List<String> expected = new ArrayList<>();
+	    for (int i = 0; i < 100; i++) {
+		final SEDAPExpressMessage message = SEDAPExpressProtobufCommunicatorTest.heartbeat(i);
+		expected.add(SEDAPExpressMessage.serialize(message));
+		Assertions.assertTrue(sender.sendSEDAPExpressMessage(message));
+	    }
+
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 100);
+	    Assertions.assertEquals(expected, received.stream().map(SEDAPExpressMessage::serialize).toList());
+	    Assertions.assertTrue(sender.getSentDatagrams() < 10, sender.getSentDatagrams() + " datagrams");
+
+	    // Every message in its own datagram
+	    sender.setPacking(SEDAPExpressUDPClient.DEFAULT_PACKING_SIZE, 0);
+	    final long datagrams = sender.getSentDatagrams();
+	    Assertions.assertTrue(sender.sendSEDAPExpressMessage(SEDAPExpressProtobufCommunicatorTest.heartbeat(1)));
+	    Assertions.assertEquals(datagrams + 1, sender.getSentDatagrams());
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 101);
+
+	    // Too large for one datagram
+	    sender.setPacking(16, 0);
+	    Assertions.assertFalse(sender.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize(SEDAPExpressProtobufCommunicatorTest.CONTACT)));
+	} finally {
+	    sender.stopCommunicator();
+	    receiver.stopCommunicator();
+	}
+    }
+}
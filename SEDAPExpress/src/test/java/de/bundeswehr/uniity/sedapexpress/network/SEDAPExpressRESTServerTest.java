@@ -0,0 +1,235 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+
+import de.bundeswehr.uniity.sedapexpress.json.SEDAPExpressJSONCodec;
+import de.bundeswehr.uniity.sedapexpress.json.SEDAPExpressJSONMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+
+class SEDAPExpressRESTServerTest {
+
+    @Test
+    final void testConsumers() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressRESTServer server = new SEDAPExpressRESTServer(port, 100);
+	server.setStopDelay(0);
+	Assertions.assertTrue(server.connect());
+
+	final SEDAPExpressRESTClient first = new SEDAPExpressRESTClient("http://127.0.0.1:" + port, 5000);
+	final SEDAPExpressRESTClient second = new SEDAPExpressRESTClient("http://127.0.0.1:" + port, 5000);
+	final List<SEDAPExpressMessage> firstReceived = new CopyOnWriteArrayList<>();
+	final List<SEDAPExpressMessage> secondReceived = new CopyOnWriteArrayList<>();
+	final List<Long> receptionTimes = new CopyOnWriteArrayList<>();
+	first.subscribeMessages(message -> {
+	    firstReceived.add(message);
+	    receptionTimes.add(System.nanoTime());
+	}, MessageType.HEARTBEAT);
+	second.subscribeMessages(secondReceived::add, MessageType.HEARTBEAT);
+
+	try {
+	    Assertions.assertTrue(first.connect());
+	    Assertions.assertTrue(second.connect());
+
+	    // Both clients wait at the server now
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> server.getWaitingRequests() == 2);
+	    Assertions.assertEquals(2, server.getWaitingRequests());
+
+	    final long sent = System.nanoTime();
+	    for (int i = 0; i < 3; i++) {
+		server.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize("HEARTBEAT;4" + i + ";661D5420;89AD;U;;;FE2A"));
+	    }
+
+	    // Every client gets all messages, without waiting for its request delay
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> (firstReceived.size() == 3) && (secondReceived.size() == 3));
+	    Assertions.assertEquals(3, firstReceived.size());
+	    Assertions.assertEquals(3, secondReceived.size());
+	    Assertions.assertTrue((receptionTimes.get(0) - sent) < 2_000_000_000L, "Latency " + ((receptionTimes.get(0) - sent) / 1000000) + " ms");
+	    Assertions.assertEquals(3, first.getOffset());
+	    Assertions.assertEquals(0, first.getLostMessages());
+
+	    // Requests without offset share the messages like before
+	    final HttpClient http = HttpClient.newHttpClient();
+	    final HttpRequest request = HttpRequest.newBuilder(new URI("http://127.0.0.1:" + port + "/SEDAPEXPRESS")).GET().build();
+	    SEDAPExpressJSONMessage response = new Gson().fromJson(http.send(request, HttpResponse.BodyHandlers.ofString()).body(), SEDAPExpressJSONMessage.class);
+	    Assertions.assertEquals(3, response.getMessages().size());
+	    Assertions.assertNull(response.getNextOffset());
+	    response = new Gson().fromJson(http.send(request, HttpResponse.BodyHandlers.ofString()).body(), SEDAPExpressJSONMessage.class);
+	    Assertions.assertTrue(response.getMessages().isEmpty());
+	} finally {
+	    first.stopCommunicator();
+	    second.stopCommunicator();
+	    server.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testCompression() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressRESTServer server = new SEDAPExpressRESTServer(port, 100);
+	server.setStopDelay(0);
+	final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	server.subscribeMessages(received::add, MessageType.HEARTBEAT);
+	Assertions.assertTrue(server.connect());
+
+	final SEDAPExpressRESTClient client = new SEDAPExpressRESTClient("http://127.0.0.1:" + port, 5000);
+	client.setCompressRequests(true);
+
+	try {
+	    for (int i = 0; i < 100; i++) {
+		server.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize("HEARTBEAT;" + Integer.toHexString(i) + ";661D5420;89AD;U;;;FE2A"));
+	    }
+
+	    // The response is compressed, if the client accepts it
+	    final HttpClient http = HttpClient.newHttpClient();
+	    final URI uri = new URI("http://127.0.0.1:" + port + "/SEDAPEXPRESS?offset=0");
+	    final HttpResponse<byte[]> plain = http.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+	    Assertions.assertTrue(plain.headers().firstValue("Content-Encoding").isEmpty());
+	    final HttpResponse<byte[]> compressed = http.send(HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+	    Assertions.assertEquals("gzip", compressed.headers().firstValue("Content-Encoding").orElse(null));
+	    Assertions.assertTrue(compressed.body().length < (plain.body().length / 4), compressed.body().length + " of " + plain.body().length + " bytes");
+	    final List<String> messages = new ArrayList<>();
+	    Assertions.assertEquals(100L, SEDAPExpressJSONCodec.read(new ByteArrayInputStream(compressed.body()), true, messages::add).getNextOffset());
+	    Assertions.assertEquals(100, messages.size());
+
+	    // The client reads compressed responses and sends compressed messages
+	    final List<SEDAPExpressMessage> clientReceived = new CopyOnWriteArrayList<>();
+	    client.subscribeMessages(clientReceived::add, MessageType.HEARTBEAT);
+	    Assertions.assertTrue(client.connect());
+	    client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize("HEARTBEAT;7F;661D5420;89AD;U;;;FE2A"));
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> (clientReceived.size() == 100) && (received.size() == 1));
+	    Assertions.assertEquals(100, clientReceived.size());
+	    Assertions.assertEquals(1, received.size());
+	} finally {
+	    client.stopCommunicator();
+	    server.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testFailingSubscriber() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressRESTServer server = new SEDAPExpressRESTServer(port, 100);
+	server.setStopDelay(0);
+	Assertions.assertTrue(server.connect());
+
+	final SEDAPExpressRESTClient client = new SEDAPExpressRESTClient("http://127.0.0.1:" + port, 5000);
+	final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	client.subscribeMessages(message -> {
+	    received.add(message);
+	    if (received.size() == 2) {
+		throw new IllegalStateException("Subscriber failed");
+	    }
+	}, MessageType.HEARTBEAT);
+
+	try {
+	    for (int i = 0; i < 3; i++) {
+		server.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize("HEARTBEAT;4" + i + ";661D5420;89AD;U;;;FE2A"));
+	    }
+	    Assertions.assertTrue(client.connect());
+
+	    // The response breaks at the second message, the client continues behind it without receiving a message twice
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 3);
+	    Thread.sleep(200);
+	    Assertions.assertEquals(List.of("41", "42"), received.stream().skip(1).map(message -> String.format("%02X", message.getNumber())).toList());
+	    Assertions.assertEquals(3, received.size());
+	    Assertions.assertEquals(3, client.getOffset());
+	    Assertions.assertInstanceOf(IllegalStateException.class, client.getLastException());
+	} finally {
+	    client.stopCommunicator();
+	    server.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testWaitingRequests() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressRESTServer server = new SEDAPExpressRESTServer(port, 100);
+	server.setStopDelay(0);
+	final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	server.subscribeMessages(received::add, MessageType.HEARTBEAT);
+	Assertions.assertTrue(server.connect());
+
+	final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	final URI uri = new URI("http://127.0.0.1:" + port + "/SEDAPEXPRESS?offset=0&timeout=" + SEDAPExpressRESTServer.MAX_POLL_TIMEOUT);
+	final List<CompletableFuture<HttpResponse<String>>> waiting = new ArrayList<>();
+
+	try {
+	    // All places for waiting requests are taken
+	    for (int i = 0; i < SEDAPExpressRESTServer.MAX_WAITING_REQUESTS; i++) {
+		waiting.add(http.sendAsync(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString()));
+	    }
+	    Thread.sleep(500);
+
+	    // A further request is answered immediately and messages are still accepted
+	    final long start = System.nanoTime();
+	    final SEDAPExpressJSONMessage response = new Gson().fromJson(http.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString()).body(), SEDAPExpressJSONMessage.class);
+	    Assertions.assertEquals(0L, response.getNextOffset());
+	    final HttpResponse<String> post = http.send(HttpRequest.newBuilder(new URI("http://127.0.0.1:" + port + "/SEDAPEXPRESS")).POST(HttpRequest.BodyPublishers.ofString("{\"messages\":[{\"message\":\"HEARTBEAT;41;661D5420;89AD;U;;;FE2A\"}]}")).build(), HttpResponse.BodyHandlers.ofString());
+	    Assertions.assertEquals(200, post.statusCode());
+	    Assertions.assertEquals(1, received.size());
+	    Assertions.assertTrue((System.nanoTime() - start) < 5_000_000_000L, ((System.nanoTime() - start) / 1000000) + " ms");
+	    Assertions.assertTrue(waiting.stream().noneMatch(CompletableFuture::isDone));
+
+	    // The waiting requests get new messages
+	    server.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;U;;;FE2A"));
+	    for (CompletableFuture<HttpResponse<String>> request : waiting) {
+		Assertions.assertEquals(1L, new Gson().fromJson(request.get(10, TimeUnit.SECONDS).body(), SEDAPExpressJSONMessage.class).getNextOffset());
+	    }
+	} finally {
+	    server.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testParameters() {
+
+	Assertions.assertEquals("12", SEDAPExpressRESTServer.getParameter("offset=12&timeout=1000", "offset"));
+	Assertions.assertEquals("1000", SEDAPExpressRESTServer.getParameter("offset=12&timeout=1000", "timeout"));
+	Assertions.assertNull(SEDAPExpressRESTServer.getParameter("offsets=12", "offset"));
+	Assertions.assertNull(SEDAPExpressRESTServer.getParameter(null, "offset"));
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SEDAPExpressStreamFramerTest {
+
+    private static void write(Pipe pipe, String text) throws IOException {
+
+	final ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.ISO_8859_1));
+	while (buffer.hasRemaining()) {
+	    pipe.sink().write(buffer);
+	}
+    }
+
+    /**
+     * Reads until the pipe is empty
+     */
+    private static void readAll(SEDAPExpressStreamFramer framer, Pipe pipe) throws IOException {
+
+	while (framer.read(pipe.source()) > 0) {
+	    // Read the rest
+	}
+    }
+
+    @Test
+    final void testLines() throws IOException {
+
+	final Pipe pipe = Pipe.open();
+	pipe.source().configureBlocking(false);
+	final List<String> lines = new ArrayList<>();
+	final SEDAPExpressStreamFramer framer = new SEDAPExpressStreamFramer(new SEDAPExpressStreamFramer.LineDecoder((data, offset, length) -> lines.add(new String(data, offset, length, StandardCharsets.ISO_8859_1)), "test"),
+		4 * SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE);
+
+	// A line split across reads and several lines in one read, empty lines are skipped
+	SEDAPExpressStreamFramerTest.write(pipe, "HEART");
+	SEDAPExpressStreamFramerTest.readAll(framer, pipe);
+	Assertions.assertTrue(lines.isEmpty());
+	SEDAPExpressStreamFramerTest.write(pipe, "BEAT\nTEXT\n\nOWNUNIT\nCON");
+	SEDAPExpressStreamFramerTest.readAll(framer, pipe);
+	Assertions.assertEquals(List.of("HEARTBEAT", "TEXT", "OWNUNIT"), lines);
+
+	// The buffer grows for a long line and shrinks back afterwards
+	final String longLine = "X".repeat(3 * SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE);
+	SEDAPExpressStreamFramerTest.write(pipe, "TACT\n" + longLine.substring(0, SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE));
+	SEDAPExpressStreamFramerTest.readAll(framer, pipe);
+	SEDAPExpressStreamFramerTest.write(pipe, longLine.substring(SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE));
+	SEDAPExpressStreamFramerTest.readAll(framer, pipe);
+	Assertions.assertEquals(4 * SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE, framer.getCapacity());
+	SEDAPExpressStreamFramerTest.write(pipe, "\nTEXT\n");
+	SEDAPExpressStreamFramerTest.readAll(framer, pipe);
+	Assertions.assertEquals(List.of("HEARTBEAT", "TEXT", "OWNUNIT", "CONTACT", longLine, "TEXT"), lines);
+	Assertions.assertEquals(SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE, framer.getCapacity());
+    }
+
+    @Test
+    final void testOversizeLine() throws IOException {
+
+	final Pipe pipe = Pipe.open();
+	pipe.source().configureBlocking(false);
+	final List<String> lines = new ArrayList<>();
+	final SEDAPExpressStreamFramer framer = new SEDAPExpressStreamFramer(new SEDAPExpressStreamFramer.LineDecoder((data, offset, length) -> lines.add(new String(data, offset, length, StandardCharsets.ISO_8859_1)), "test"),
+		2 * SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE);
+
+	// A line longer than the maximum is discarded up to its line feed, the following lines are received
+	final String tooLong = "X".repeat(5 * SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE);
+	for (int i = 0; i < tooLong.length(); i += 1000) {
+	    SEDAPExpressStreamFramerTest.write(pipe, tooLong.substring(i, Math.min(i + 1000, tooLong.length())));
+	    SEDAPExpressStreamFramerTest.readAll(framer, pipe);
+	}
+	SEDAPExpressStreamFramerTest.write(pipe, "\nHEARTBEAT\n");
+	SEDAPExpressStreamFramerTest.readAll(framer, pipe);
+	Assertions.assertEquals(List.of("HEARTBEAT"), lines);
+	Assertions.assertEquals(SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE, framer.getCapacity());
+    }
+
+    @Test
+    final void testDecoderOverflow() throws IOException {
+
+	final Pipe pipe = Pipe.open();
+	pipe.source().configureBlocking(false);
+	final SEDAPExpressStreamFramer framer = new SEDAPExpressStreamFramer((data, offset, length) -> 0, SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE);
+
+	// By default a full buffer ends the stream
+	SEDAPExpressStreamFramerTest.write(pipe, "X".repeat(SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE));
+	Assertions.assertThrows(IOException.class, () -> SEDAPExpressStreamFramerTest.readAll(framer, pipe));
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.CONTACT.Source;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Classification;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressSubscriptionFilter.BattleDimension;
+import de.bundeswehr.uniity.sedapexpress.processing.SEDAPExpressSubscriber;
+
+class SEDAPExpressSubscriptionFilterTest {
+
+    private static SEDAPExpressMessage contact(String sender, char classification, String contactID, double latitude, double longitude, String source, String sidc) {
+	return SEDAPExpressMessage.deserialize(String.format(Locale.ENGLISH, "CONTACT;5E;661D4410;%s;%c;;;%s;FALSE;%.4f;%.4f;0;;;;120;275;;;;;;;Name;%s;%s", sender, classification, contactID, latitude, longitude, source, sidc));
+    }
+
+    @Test
+    final void testCriteria() {
+
+	final SEDAPExpressMessage contact = SEDAPExpressSubscriptionFilterTest.contact("66A3", 'R', "1234", 53.32, -8.11, "AR", "SFSPFCLFF------");
+
+	Assertions.assertTrue(new SEDAPExpressSubscriptionFilter().matches(contact));
+
+	Assertions.assertTrue(new SEDAPExpressSubscriptionFilter().senders("66A3", "1111").matches(contact));
+	Assertions.assertFalse(new SEDAPExpressSubscriptionFilter().senders("1111").matches(contact));
+
+	Assertions.assertTrue(new SEDAPExpressSubscriptionFilter().contactIDPrefix("12").matches(contact));
+	Assertions.assertFalse(new SEDAPExpressSubscriptionFilter().contactIDPrefix("2").matches(contact));
+
+	Assertions.assertTrue(new SEDAPExpressSubscriptionFilter().classificationCeiling(Classification.Restricted).matches(contact));
+	Assertions.assertFalse(new SEDAPExpressSubscriptionFilter().classificationCeiling(Classification.Unclas).matches(contact));
+
+	Assertions.assertTrue(new SEDAPExpressSubscriptionFilter().sources(Source.AIS, Source.Sonar).matches(contact));
+	Assertions.assertFalse(new SEDAPExpressSubscriptionFilter().sources(Source.IFF).matches(contact));
+
+	Assertions.assertTrue(new SEDAPExpressSubscriptionFilter().battleDimensions(BattleDimension.Sea_Surface).matches(contact));
+	Assertions.assertFalse(new SEDAPExpressSubscriptionFilter().battleDimensions(BattleDimension.Air, BattleDimension.Subsurface).matches(contact));
+
+	Assertions.assertTrue(new SEDAPExpressSubscriptionFilter().boundingBox(50, -10, 55, 0).matches(contact));
+	Assertions.assertFalse(new SEDAPExpressSubscriptionFilter().boundingBox(50, -5, 55, 0).matches(contact));
+	Assertions.assertTrue(new SEDAPExpressSubscriptionFilter().boundingBox(50, 170, 55, -5).matches(contact)); // Crossing the antimeridian
+
+	Assertions.assertFalse(new SEDAPExpressSubscriptionFilter().senders("66A3").classificationCeiling(Classification.Unclas).matches(contact));
+
+	// Criteria of fields a HEARTBEAT does not have are not checked
+	final SEDAPExpressMessage heartbeat = SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;U;;;FE2A");
+	Assertions.assertTrue(new SEDAPExpressSubscriptionFilter().contactIDPrefix("12").boundingBox(0, 0, 1, 1).battleDimensions(BattleDimension.Air).matches(heartbeat));
+	Assertions.assertFalse(new SEDAPExpressSubscriptionFilter().senders("66A3").matches(heartbeat));
+
+	// Messages without classification exceed every classification ceiling
+	final SEDAPExpressMessage unclassified = SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;;;;FE2A");
+	Assertions.assertNull(unclassified.getClassification());
+	Assertions.assertFalse(new SEDAPExpressSubscriptionFilter().classificationCeiling(Classification.Top_Secret).matches(unclassified));
+	Assertions.assertTrue(new SEDAPExpressSubscriptionFilter().senders("89AD").matches(unclassified));
+
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new SEDAPExpressSubscriptionFilter().boundingBox(10, 0, 5, 1));
+    }
+
+    /**
+     * Counts the delivered messages of a subscriber
+     */
+    private static final class CountingSubscriber implements SEDAPExpressSubscriber {
+
+	private final SEDAPExpressSubscriptionFilter filter;
+	private int received = 0;
+
+	private CountingSubscriber(SEDAPExpressSubscriptionFilter filter) {
+	    this.filter = filter;
+	}
+
+	@Override
+	public void processSEDAPExpressMessage(SEDAPExpressMessage message) {
+	    this.received++;
+	}
+    }
+
+    @Test
+    final void testIndex() {
+
+	final Random random = new Random(4711);
+	final String[] senders = { "66A3", "1111", "2222", "3333" };
+	final String[] sources = { "A", "R", "AR", "I", "M" };
+	final String[] sidcs = { "SFSPFCLFF------", "SHAPMF---------", "SUGPU----------", "SNUP-----------" };
+
+	final SEDAPExpressSubscriptionTable table = new SEDAPExpressSubscriptionTable();
+	final List<CountingSubscriber> subscribers = new ArrayList<>();
+	for (int i = 0; i < 300; i++) {
+	    final SEDAPExpressSubscriptionFilter filter = new SEDAPExpressSubscriptionFilter();
+	    switch (i % 5) {
+	    case 0 -> filter.senders(senders[random.nextInt(senders.length)]);
+	    case 1 -> {
+		final double latitude = (random.nextDouble() * 160) - 80;
+		final double longitude = (random.nextDouble() * 360) - 180;
+		filter.boundingBox(latitude, longitude, Math.min(90, latitude + (random.nextDouble() * 20)), ((longitude + (random.nextDouble() * 30) + 180) % 360) - 180);
+	    }
+	    case 2 -> filter.boundingBox(-90, -180, 90, 180).battleDimensions(BattleDimension.Air);
+	    case 3 -> filter.contactIDPrefix(Integer.toString(random.nextInt(10))).classificationCeiling(Classification.Restricted);
+	    default -> filter.sources(Source.AIS).senders(senders[random.nextInt(senders.length)]);
+	    }
+	    final CountingSubscriber subscriber = new CountingSubscriber(filter);
+	    subscribers.add(subscriber);
+	    table.subscribe(subscriber, filter, MessageType.CONTACT);
+	}
+	final CountingSubscriber unfiltered = new CountingSubscriber(null);
+	table.subscribe(unfiltered, MessageType.CONTACT);
+
+	final int[] expected = new int[subscribers.size()];
+	for (int m = 0; m < 2000; m++) {
+	    final SEDAPExpressMessage contact = SEDAPExpressSubscriptionFilterTest.contact(senders[random.nextInt(senders.length)], "PURS".charAt(random.nextInt(4)), Integer.toString(random.nextInt(100000)),
+		    (random.nextDouble() * 180) - 90, (random.nextDouble() * 360) - 180, sources[random.nextInt(sources.length)], sidcs[random.nextInt(sidcs.length)]);
+	    table.distribute(contact);
+	    for (int i = 0; i < expected.length; i++) {
+		if (subscribers.get(i).filter.matches(contact)) {
+		    expected[i]++;
+		}
+	    }
+	}
+
+	for (int i = 0; i < expected.length; i++) {
+	    Assertions.assertEquals(expected[i], subscribers.get(i).received, "Subscriber " + i);
+	}
+	Assertions.assertEquals(2000, unfiltered.received);
+    }
+
+    @Test
+    final void testReplaceSubscription() {
+
+	final SEDAPExpressSubscriptionTable table = new SEDAPExpressSubscriptionTable();
+	final CountingSubscriber subscriber = new CountingSubscriber(null);
+	final SEDAPExpressSubscriptionFilter filter = new SEDAPExpressSubscriptionFilter().senders("1111");
+	final SEDAPExpressMessage contact = SEDAPExpressSubscriptionFilterTest.contact("66A3", 'R', "1234", 53.32, -8.11, "AR", "SFSPFCLFF------");
+
+	table.subscribe(subscriber, MessageType.CONTACT);
+	table.subscribe(subscriber, filter, MessageType.CONTACT);
+	Assertions.assertEquals(List.of(subscriber), table.getSubscribers(MessageType.CONTACT));
+	Assertions.assertSame(filter, table.getFilter(subscriber, MessageType.CONTACT));
+	table.distribute(contact);
+	Assertions.assertEquals(0, subscriber.received);
+
+	table.subscribe(subscriber, MessageType.CONTACT);
+	Assertions.assertNull(table.getFilter(subscriber, MessageType.CONTACT));
+	table.distribute(contact);
+	Assertions.assertEquals(1, subscriber.received);
+
+	table.subscribe(subscriber, filter, MessageType.CONTACT);
+	table.unsubscribe(subscriber, MessageType.CONTACT);
+	Assertions.assertFalse(table.isSubscribed(subscriber));
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.HEARTBEAT;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.processing.SEDAPExpressSubscriber;
+
+class SEDAPExpressSubscriptionTableTest {
+
+    @Test
+    final void testSubscribe() {
+
+	final SEDAPExpressSubscriptionTable table = new SEDAPExpressSubscriptionTable();
+	final List<String> received = new ArrayList<>();
+	final SEDAPExpressSubscriber first = message -> received.add("first");
+	final SEDAPExpressSubscriber second = message -> received.add("second");
+
+	table.subscribe(first, MessageType.HEARTBEAT);
+	table.subscribe(second, MessageType.HEARTBEAT);
+	table.subscribe(first, MessageType.HEARTBEAT);
+	table.subscribe(second, MessageType.CONTACT);
+
+	Assertions.assertEquals(List.of(first, second), table.getSubscribers(MessageType.HEARTBEAT));
+	Assertions.assertEquals(List.of(second), table.getSubscribers(MessageType.CONTACT));
+	Assertions.assertTrue(table.getSubscribers(MessageType.TEXT).isEmpty());
+
+	table.distribute(SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;U;;;FE2A"));
+	Assertions.assertEquals(List.of("first", "second"), received);
+    }
+
+    @Test
+    final void testUnsubscribe() {
+
+	final SEDAPExpressSubscriptionTable table = new SEDAPExpressSubscriptionTable();
+	final SEDAPExpressSubscriber first = message -> Assertions.fail("Unsubscribed");
+	final SEDAPExpressSubscriber second = message -> {
+	};
+
+	table.subscribe(first, MessageType.HEARTBEAT);
+	table.subscribe(second, MessageType.HEARTBEAT);
+	final List<SEDAPExpressSubscriber> before = table.getSubscribers(MessageType.HEARTBEAT);
+
+	table.unsubscribe(first, MessageType.HEARTBEAT);
+	table.unsubscribe(first, MessageType.CONTACT);
+
+	Assertions.assertEquals(List.of(second), table.getSubscribers(MessageType.HEARTBEAT));
+	Assertions.assertEquals(List.of(first, second), before);
+	Assertions.assertFalse(table.isSubscribed(first));
+	Assertions.assertTrue(table.isSubscribed(second));
+
+	table.distribute(new HEARTBEAT((byte) 1, 0L, "89AD", null, null, null));
+    }
+
+    @Test
+    final void testMessageType() {
+
+	Assertions.assertEquals(MessageType.HEARTBEAT, new HEARTBEAT().getMessageType());
+	Assertions.assertEquals(MessageType.CONTACT, SEDAPExpressMessage.deserialize("CONTACT;5E;661D4410;66A3;R;;;100;FALSE;53.32;-8.11;0").getMessageType());
+
+	// Application specific classes are mapped by their name
+	final class TEXT extends SEDAPExpressMessage {
+	    private static final long serialVersionUID = 1L;
+	}
+	Assertions.assertEquals(MessageType.TEXT, new TEXT().getMessageType());
+    }
+}
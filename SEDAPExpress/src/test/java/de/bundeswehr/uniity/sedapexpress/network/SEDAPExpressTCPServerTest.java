@@ -0,0 +1,220 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressOutboundQueue.SlowConsumerPolicy;
+
+class SEDAPExpressTCPServerTest {
+
+    private static final String HEARTBEAT = "HEARTBEAT;42;661D5420;89AD;U;;;FE2A";
+
+    private static void write(OutputStream output, String text) throws IOException, InterruptedException {
+
+	output.write(text.getBytes(StandardCharsets.ISO_8859_1));
+	output.flush();
+	Thread.sleep(50); // Lets the server read the part on its own
+    }
+
+    private static List<String> serialize(List<SEDAPExpressMessage> messages) {
+	return messages.stream().map(SEDAPExpressMessage::serialize).toList();
+    }
+
+    @Test
+    final void testFraming() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressTCPServer server = new SEDAPExpressTCPServer("127.0.0.1", port);
+	final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	server.subscribeMessages(received::add, MessageType.HEARTBEAT, MessageType.TEXT);
+	Assertions.assertTrue(server.connect());
+
+	try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+	    socket.setTcpNoDelay(true);
+	    final OutputStream output = socket.getOutputStream();
+	    final String heartbeat = SEDAPExpressMessage.serialize(SEDAPExpressMessage.deserialize(SEDAPExpressTCPServerTest.HEARTBEAT));
+
+	    // A line split across reads
+	    SEDAPExpressTCPServerTest.write(output, heartbeat.substring(0, 10));
+	    SEDAPExpressTCPServerTest.write(output, heartbeat.substring(10, 20));
+	    Assertions.assertTrue(received.isEmpty());
+	    SEDAPExpressTCPServerTest.write(output, heartbeat.substring(20) + "\n");
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 1);
+	    Assertions.assertEquals(List.of(heartbeat), SEDAPExpressTCPServerTest.serialize(received));
+
+	    // Several lines in one read, CR/LF and empty lines are tolerated
+	    received.clear();
+	    SEDAPExpressTCPServerTest.write(output, heartbeat + "\r\n\n" + heartbeat + "\n" + heartbeat + "\n");
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 3);
+	    Assertions.assertEquals(List.of(heartbeat, heartbeat, heartbeat), SEDAPExpressTCPServerTest.serialize(received));
+
+	    // The receive buffer grows for a long line and shrinks back afterwards
+	    received.clear();
+	    final String text = "TEXT;43;661D5421;89AD;U;;;;;;Alert;" + "X".repeat(100000);
+	    SEDAPExpressTCPServerTest.write(output, text.substring(0, 60000));
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> server.getMaxReceiveBufferSize() > SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE);
+	    Assertions.assertTrue(server.getMaxReceiveBufferSize() > SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE);
+	    SEDAPExpressTCPServerTest.write(output, text.substring(60000) + "\n");
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 1);
+	    Assertions.assertEquals(1, received.size());
+	    Assertions.assertEquals(SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE, server.getMaxReceiveBufferSize());
+	} finally {
+	    server.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testOversizeLine() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressTCPServer server = new SEDAPExpressTCPServer("127.0.0.1", port);
+	final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	server.subscribeMessages(received::add, MessageType.HEARTBEAT);
+	Assertions.assertTrue(server.connect());
+
+	try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+	    final OutputStream output = socket.getOutputStream();
+
+	    // A line longer than the maximum message length is discarded, the connection stays usable
+	    final byte[] block = new byte[1024 * 1024];
+	    java.util.Arrays.fill(block, (byte) 'X');
+	    for (int i = 0; i <= (SEDAPExpressTCPServer.MAX_MESSAGE_LENGTH / block.length); i++) {
+		output.write(block);
+	    }
+	    SEDAPExpressTCPServerTest.write(output, "\n" + SEDAPExpressTCPServerTest.HEARTBEAT + "\n");
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 1);
+	    Assertions.assertEquals(1, received.size());
+	    Assertions.assertEquals(1, server.getNumberOfClients());
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> server.getMaxReceiveBufferSize() == SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE);
+	    Assertions.assertEquals(SEDAPExpressStreamFramer.INITIAL_BUFFER_SIZE, server.getMaxReceiveBufferSize());
+	} finally {
+	    server.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testFanOut() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressTCPServer server = new SEDAPExpressTCPServer("127.0.0.1", port);
+	Assertions.assertTrue(server.connect());
+
+	final List<SEDAPExpressTCPClient> clients = new ArrayList<>();
+	final List<List<SEDAPExpressMessage>> received = new ArrayList<>();
+	try {
+	    for (int i = 0; i < 3; i++) {
+		final SEDAPExpressTCPClient client = new SEDAPExpressTCPClient("127.0.0.1", port);
+		final List<SEDAPExpressMessage> messages = new CopyOnWriteArrayList<>();
+		client.subscribeMessages(messages::add, MessageType.HEARTBEAT);
+		Assertions.assertTrue(client.connect());
+		clients.add(client);
+		received.add(messages);
+	    }
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> server.getNumberOfClients() == 3);
+	    Assertions.assertEquals(3, server.getNumberOfClients());
+
+	    // Every client gets every message in order
+	    final List<String> sent = new ArrayList<>();
+	    for (int i = 0; i < 100; i++) {
+		final SEDAPExpressMessage message = SEDAPExpressMessage.deserialize("HEARTBEAT;" + String.format("%02X", i) + ";661D5420;89AD;U;;;FE2A");
+		Assertions.assertTrue(server.sendSEDAPExpressMessage(message));
+		sent.add(SEDAPExpressMessage.serialize(message));
+	    }
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> received.stream().allMatch(messages -> messages.size() == 100));
+	    for (List<SEDAPExpressMessage> messages : received) {
+		Assertions.assertEquals(sent, SEDAPExpressTCPServerTest.serialize(messages));
+	    }
+	    Assertions.assertEquals(0, server.getDroppedMessages());
+	} finally {
+	    clients.forEach(SEDAPExpressTCPClient::stopCommunicator);
+	    server.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testClientQueue() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressTCPServer server = new SEDAPExpressTCPServer("127.0.0.1", port);
+	final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	server.subscribeMessages(received::add, MessageType.HEARTBEAT);
+	Assertions.assertTrue(server.connect());
+
+	// A small queue lets the sending threads wait for each other and write together
+	final SEDAPExpressTCPClient client = new SEDAPExpressTCPClient("127.0.0.1", port);
+	client.setSlowConsumerPolicy(SlowConsumerPolicy.BLOCK, 1024);
+	try {
+	    Assertions.assertTrue(client.connect());
+
+	    final AtomicLong sentBytes = new AtomicLong();
+	    final List<Thread> threads = new ArrayList<>();
+	    for (int t = 0; t < 4; t++) {
+		final int thread = t;
+		final Thread sender = new Thread(() -> {
+		    for (int i = 0; i < 250; i++) {
+			try {
+			    final SEDAPExpressMessage message = SEDAPExpressMessage.deserialize("HEARTBEAT;" + String.format("%02X", i) + ";661D5420;89AD;U;;;" + thread);
+			    sentBytes.addAndGet(SEDAPExpressMessage.serialize(message).length());
+			    Assertions.assertTrue(client.sendSEDAPExpressMessage(message));
+			} catch (IOException e) {
+			    throw new IllegalStateException(e);
+			}
+		    }
+		});
+		sender.start();
+		threads.add(sender);
+	    }
+	    for (Thread thread : threads) {
+		thread.join();
+	    }
+
+	    // Every message arrives as a complete line
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 1000);
+	    Assertions.assertEquals(1000, received.size());
+	    Assertions.assertEquals(0, client.getQueuedBytes());
+	    Assertions.assertEquals(0, client.getDroppedMessages());
+	    Assertions.assertEquals(sentBytes.get(), client.getSentBytes());
+	} finally {
+	    client.stopCommunicator();
+	    server.stopCommunicator();
+	}
+    }
+}
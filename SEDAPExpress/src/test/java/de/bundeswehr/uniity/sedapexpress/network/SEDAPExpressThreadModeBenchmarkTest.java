@@ -0,0 +1,140 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressCommunicator.ThreadMode;
+
+/**
+ * Scaling of the number of TCP client connections with platform and virtual threads. Every client blocks in its own receiving thread. Only runs with -Dsedapexpress.benchmark=true,
+ * virtual threads additionally need a Java 21 runtime. The connection counts can be set with -Dsedapexpress.benchmark.connections=100,1000.
+ */
+@EnabledIfSystemProperty(named = "sedapexpress.benchmark", matches = "true")
+class SEDAPExpressThreadModeBenchmarkTest {
+
+    private static final String HOST = "127.0.0.1";
+
+    private static final int[] CONNECTIONS = SEDAPExpressThreadModeBenchmarkTest.parseConnections(System.getProperty("sedapexpress.benchmark.connections", "100,500,1000,2000"));
+
+    private static int[] parseConnections(String value) {
+
+	final String[] parts = value.split(",");
+	final int[] connections = new int[parts.length];
+	for (int i = 0; i < parts.length; i++) {
+	    connections[i] = Integer.parseInt(parts[i].trim());
+	}
+	return connections;
+    }
+
+    private static long usedHeap() {
+
+	final Runtime runtime = Runtime.getRuntime();
+	for (int i = 0; i < 3; i++) {
+	    System.gc();
+	}
+	return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void measure(ThreadMode mode, int connections) throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressTCPServer server = new SEDAPExpressTCPServer(SEDAPExpressThreadModeBenchmarkTest.HOST, port);
+	new SEDAPExpressTCPClient(SEDAPExpressThreadModeBenchmarkTest.HOST, port); // Initializes the logger of the clients before it is quieted
+	Logger.getLogger(Logger.GLOBAL_LOGGER_NAME).setLevel(Level.WARNING);
+	Assertions.assertTrue(server.connect());
+
+	final List<SEDAPExpressTCPClient> clients = new ArrayList<>(connections);
+	final CountDownLatch received = new CountDownLatch(connections);
+	final int threadsBefore = Thread.activeCount();
+	final long heapBefore = SEDAPExpressThreadModeBenchmarkTest.usedHeap();
+
+	try {
+	    final long start = System.nanoTime();
+	    for (int i = 0; i < connections; i++) {
+		final SEDAPExpressTCPClient client = new SEDAPExpressTCPClient(SEDAPExpressThreadModeBenchmarkTest.HOST, port);
+		Assertions.assertTrue(client.setThreadMode(mode));
+		client.subscribeMessages(message -> received.countDown(), MessageType.HEARTBEAT);
+		Assertions.assertTrue(client.connect(), "Connection " + i + " failed");
+		clients.add(client);
+	    }
+	    final long connected = System.nanoTime();
+
+	    while (server.getNumberOfClients() < connections) {
+		Thread.sleep(1);
+	    }
+
+	    // Thread.activeCount() ignores virtual threads, so only the platform threads are counted
+	    final int threads = Math.max(0, Thread.activeCount() - threadsBefore);
+	    final long heap = SEDAPExpressThreadModeBenchmarkTest.usedHeap() - heapBefore;
+
+	    final long sent = System.nanoTime();
+	    server.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;U;;;FE2A"));
+	    Assertions.assertTrue(received.await(60, TimeUnit.SECONDS), "Not all clients received the HEARTBEAT");
+	    final long delivered = System.nanoTime();
+
+	    System.out.printf(Locale.ENGLISH, "%-8s %6d connections: connect %8.1f ms, fan-out %7.1f ms, %6d platform threads, %,10d KiB heap%n", mode, connections, (connected - start) / 1e6, (delivered - sent) / 1e6, threads,
+		    heap / 1024);
+	} finally {
+	    for (SEDAPExpressTCPClient client : clients) {
+		client.stopCommunicator();
+	    }
+	    server.stopCommunicator();
+	}
+    }
+
+    private static void measure(ThreadMode mode) throws Exception {
+
+	for (int connections : SEDAPExpressThreadModeBenchmarkTest.CONNECTIONS) {
+	    SEDAPExpressThreadModeBenchmarkTest.measure(mode, connections);
+	}
+    }
+
+    @Test
+    final void testPlatformThreads() throws Exception {
+	SEDAPExpressThreadModeBenchmarkTest.measure(ThreadMode.PLATFORM);
+    }
+
+    @Test
+    final void testVirtualThreads() throws Exception {
+
+	Assumptions.assumeTrue(SEDAPExpressCommunicator.isVirtualThreadSupported(), "Virtual threads require Java 21 or newer");
+	SEDAPExpressThreadModeBenchmarkTest.measure(ThreadMode.VIRTUAL);
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressBinaryCodec;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressCommunicator.Encoding;
+
+class SEDAPExpressUDPClientTest {
+
+    @Test
+    final void testProcessDatagram() {
+
+	final SEDAPExpressUDPClient client = new SEDAPExpressUDPClient("127.0.0.1", 50100);
+	final List<SEDAPExpressMessage> received = new ArrayList<>();
+	client.subscribeMessages(received::add, MessageType.HEARTBEAT, MessageType.TEXT);
+
+	final String heartbeat = "HEARTBEAT;42;661D5420;89AD;U;;;FE2A";
+	final String text = "TEXT;43;661D5421;89AD;U;;;;;;Alert;Hello";
+
+	// Several messages per datagram, the last one without line feed, CR/LF and empty lines are tolerated
+	final byte[] data = ("XX" + heartbeat + "\r\n\n" + text + "\n" + heartbeat + "YY").getBytes(StandardCharsets.ISO_8859_1);
+	Assertions.assertEquals(3, client.processDatagram(data, 2, data.length - 4));
+	Assertions.assertEquals(3, received.size());
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(SEDAPExpressMessage.deserialize(heartbeat)), SEDAPExpressMessage.serialize(received.get(0)));
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(SEDAPExpressMessage.deserialize(text)), SEDAPExpressMessage.serialize(received.get(1)));
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(SEDAPExpressMessage.deserialize(heartbeat)), SEDAPExpressMessage.serialize(received.get(2)));
+
+	final byte[] garbage = "NOMESSAGE;1;2\n".getBytes(StandardCharsets.ISO_8859_1);
+	Assertions.assertEquals(0, client.processDatagram(garbage, 0, garbage.length));
+	Assertions.assertEquals(0, client.processDatagram(garbage, 0, 0));
+
+	Assertions.assertEquals(3, client.getReceivedDatagrams());
+	Assertions.assertEquals(2, client.getDroppedDatagrams());
+    }
+
+    @Test
+    final void testProcessBinaryDatagram() {
+
+	final SEDAPExpressUDPClient client = new SEDAPExpressUDPClient("127.0.0.1", 50102);
+	Assertions.assertTrue(client.setEncoding(Encoding.BINARY));
+	Assertions.assertFalse(new SEDAPExpressTCPClient("127.0.0.1", 50102).setEncoding(Encoding.BINARY));
+
+	final List<SEDAPExpressMessage> received = new ArrayList<>();
+	client.subscribeMessages(received::add, MessageType.HEARTBEAT, MessageType.OWNUNIT);
+
+	final SEDAPExpressMessage heartbeat = SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;U;;;FE2A");
+	final SEDAPExpressMessage ownUnit = SEDAPExpressMessage.deserialize("OWNUNIT;11;1B351C87;22AA;U;TRUE;4389F10D;77.88;-10.12;5577.0;33.44;55.66;1.1;-2.2;3.3;Ownunit;SFGPIB----H----");
+
+	// Several length prefixed messages per datagram
+	final ByteBuffer buffer = ByteBuffer.allocate(512);
+	final SEDAPExpressBinaryCodec codec = new SEDAPExpressBinaryCodec();
+	codec.encode(heartbeat, buffer);
+	codec.encode(ownUnit, buffer);
+	Assertions.assertEquals(2, client.processDatagram(buffer.array(), 0, buffer.position()));
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(heartbeat), SEDAPExpressMessage.serialize(received.get(0)));
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(ownUnit), SEDAPExpressMessage.serialize(received.get(1)));
+
+	// Text is no valid binary datagram
+	final byte[] text = SEDAPExpressMessage.serialize(heartbeat).getBytes(StandardCharsets.ISO_8859_1);
+	Assertions.assertEquals(0, client.processDatagram(text, 0, text.length));
+	Assertions.assertEquals(1, client.getDroppedDatagrams());
+
+	// Delta updates are rebuilt to complete messages
+	client.setDeltaEncoding(SEDAPExpressBinaryCodec.DEFAULT_KEYFRAME_INTERVAL, SEDAPExpressBinaryCodec.DEFAULT_KEYFRAME_AGE);
+	codec.setDeltaEncoding(true);
+	buffer.clear();
+	codec.encode(ownUnit, buffer);
+	ownUnit.setNumber((byte) 12);
+	codec.encode(ownUnit, buffer);
+	Assertions.assertEquals(1, codec.getDeltaFrames());
+	Assertions.assertEquals(2, client.processDatagram(buffer.array(), 0, buffer.position()));
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(ownUnit), SEDAPExpressMessage.serialize(received.get(3)));
+
+	// Without the keyframe, the delta update is dropped
+	client.disableDeltaEncoding();
+	client.setDeltaEncoding(SEDAPExpressBinaryCodec.DEFAULT_KEYFRAME_INTERVAL, SEDAPExpressBinaryCodec.DEFAULT_KEYFRAME_AGE);
+	buffer.clear();
+	codec.encode(ownUnit, buffer);
+	Assertions.assertEquals(0, client.processDatagram(buffer.array(), 0, buffer.position()));
+	Assertions.assertEquals(1, client.getMissingKeyframes());
+    }
+
+    @Test
+    final void testFailingSubscriber() {
+
+	final SEDAPExpressUDPClient client = new SEDAPExpressUDPClient("127.0.0.1", 50104);
+	final List<SEDAPExpressMessage> received = new ArrayList<>();
+	client.subscribeMessages(message -> {
+	    received.add(message);
+	    if (received.size() == 1) {
+		throw new IllegalStateException("Subscriber failed");
+	    }
+	}, MessageType.HEARTBEAT);
+
+	// The messages behind the failing one are distributed nevertheless
+	final String heartbeat = "HEARTBEAT;42;661D5420;89AD;U;;;FE2A";
+	final byte[] data = (heartbeat + "\n" + heartbeat + "\n" + heartbeat).getBytes(StandardCharsets.ISO_8859_1);
+	Assertions.assertEquals(3, client.processDatagram(data, 0, data.length));
+	Assertions.assertEquals(3, received.size());
+	Assertions.assertInstanceOf(IllegalStateException.class, client.getLastException());
+
+	// Also in binary encoding
+	received.clear();
+	Assertions.assertTrue(client.setEncoding(Encoding.BINARY));
+	final ByteBuffer buffer = ByteBuffer.allocate(512);
+	final SEDAPExpressBinaryCodec codec = new SEDAPExpressBinaryCodec();
+	codec.encode(SEDAPExpressMessage.deserialize(heartbeat), buffer);
+	codec.encode(SEDAPExpressMessage.deserialize(heartbeat), buffer);
+	Assertions.assertEquals(2, client.processDatagram(buffer.array(), 0, buffer.position()));
+	Assertions.assertEquals(2, received.size());
+	Assertions.assertEquals(0, client.getDroppedDatagrams());
+    }
+
+    @Test
+    final void testSocketReceiveBufferSize() {
+
+	final SEDAPExpressUDPClient client = new SEDAPExpressUDPClient("127.0.0.1", 50101);
+	client.setSocketReceiveBufferSize(256 * 1024);
+	Assertions.assertEquals(256 * 1024, client.getSocketReceiveBufferSize());
+	Assertions.assertThrows(IllegalArgumentException.class, () -> client.setSocketReceiveBufferSize(0));
+
+	try {
+	    Assertions.assertTrue(client.connect());
+	    // The operating system may round the requested size
+	    Assertions.assertTrue(client.getSocketReceiveBufferSize() > 0);
+	} finally {
+	    client.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testPacking() throws Exception {
+
+	final SEDAPExpressUDPClient client = new SEDAPExpressUDPClient("127.0.0.1", 50102);
+	final SEDAPExpressMessage heartbeat = SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;U;;;FE2A");
+	final int length = SEDAPExpressMessage.serialize(heartbeat).length();
+
+	Assertions.assertThrows(IllegalArgumentException.class, () -> client.setPacking(0, 5));
+	Assertions.assertThrows(IllegalArgumentException.class, () -> client.setPacking(SEDAPExpressUDPClient.MAX_UDP_PAYLOAD + 1, 5));
+
+	try {
+	    Assertions.assertTrue(client.connect());
+
+	    // Every message in its own datagram
+	    Assertions.assertTrue(client.sendSEDAPExpressMessage(heartbeat));
+	    Assertions.assertEquals(1, client.getSentDatagrams());
+
+	    // Five messages fit into one datagram, the delay is too long to send the rest
+	    client.setPacking(5 * length, 60000);
+	    for (int i = 0; i < 12; i++) {
+		Assertions.assertTrue(client.sendSEDAPExpressMessage(heartbeat));
+	    }
+	    Assertions.assertEquals(3, client.getSentDatagrams());
+	    Assertions.assertEquals(13, client.getSentMessages());
+
+	    // Changing the packing sends the collected messages
+	    client.setPacking(5 * length, 10);
+	    Assertions.assertEquals(4, client.getSentDatagrams());
+
+	    // The delay has passed
+	    Assertions.assertTrue(client.sendSEDAPExpressMessage(heartbeat));
+	    final long deadline = System.currentTimeMillis() + 5000;
+	    while ((client.getSentDatagrams() < 5) && (System.currentTimeMillis() < deadline)) {
+		Thread.sleep(10);
+	    }
+	    Assertions.assertEquals(5, client.getSentDatagrams());
+
+	    // A message larger than the datagram size can not be sent
+	    Assertions.assertFalse(client.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize("TEXT;43;661D5421;89AD;U;;;;;;Alert;" + "X".repeat(5 * length))));
+
+	    client.disablePacking();
+	    Assertions.assertEquals(0, client.getPackingSize());
+	    Assertions.assertTrue(client.sendSEDAPExpressMessage(heartbeat));
+	    Assertions.assertEquals(6, client.getSentDatagrams());
+	} finally {
+	    client.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testMulticast() throws Exception {
+
+	final InetAddress group = InetAddress.getByName("239.255.42.99");
+	final SEDAPExpressUDPClient first = new SEDAPExpressUDPClient(group.getHostAddress(), 50103);
+	final SEDAPExpressUDPClient second = new SEDAPExpressUDPClient(group.getHostAddress(), 50103);
+	final List<SEDAPExpressMessage> firstReceived = new CopyOnWriteArrayList<>();
+	final List<SEDAPExpressMessage> secondReceived = new CopyOnWriteArrayList<>();
+	first.subscribeMessages(firstReceived::add, MessageType.HEARTBEAT);
+	second.subscribeMessages(secondReceived::add, MessageType.HEARTBEAT);
+
+	Assertions.assertThrows(IllegalArgumentException.class, () -> first.setTimeToLive(256));
+	Assertions.assertFalse(first.joinGroup(group)); // Not connected
+
+	try {
+	    Assertions.assertTrue(first.connect());
+	    Assertions.assertTrue(second.connect());
+	    Assertions.assertEquals(Set.of(group), first.getGroups());
+	    Assertions.assertNotNull(first.getNetworkInterface());
+
+	    // The other member on this host receives the datagram, the own one is dropped
+	    Assertions.assertTrue(first.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize("HEARTBEAT;42;661D5420;89AD;U;;;FE2A")));
+	    final long deadline = System.currentTimeMillis() + 5000;
+	    while (secondReceived.isEmpty() && (System.currentTimeMillis() < deadline)) {
+		Thread.sleep(10);
+	    }
+	    Assertions.assertEquals(1, secondReceived.size());
+	    Thread.sleep(200);
+	    Assertions.assertTrue(firstReceived.isEmpty());
+
+	    // After leaving the group nothing is received any more
+	    Assertions.assertTrue(second.leaveGroup(group));
+	    Assertions.assertFalse(second.leaveGroup(group));
+	    Assertions.assertTrue(first.sendSEDAPExpressMessage(SEDAPExpressMessage.deserialize("HEARTBEAT;43;661D5420;89AD;U;;;FE2A")));
+	    Thread.sleep(200);
+	    Assertions.assertEquals(1, secondReceived.size());
+	} finally {
+	    first.stopCommunicator();
+	    second.stopCommunicator();
+	}
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.network;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.MessageType;
+import de.bundeswehr.uniity.sedapexpress.network.SEDAPExpressOutboundQueue.SlowConsumerPolicy;
+
+class SEDAPExpressWebSocketServerTest {
+
+    private static final String HEARTBEAT = "HEARTBEAT;41;661D5420;89AD;U;;;FE2A";
+
+    @Test
+    final void testAcceptKey() {
+
+	// Example of RFC 6455
+	Assertions.assertEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=", SEDAPExpressWebSocketServer.createAcceptKey("dGhlIHNhbXBsZSBub25jZQ=="));
+    }
+
+    @Test
+    final void testEncodeFrame() {
+
+	ByteBuffer frame = SEDAPExpressWebSocketServer.encodeFrame(SEDAPExpressWebSocketServer.OPCODE_TEXT, new byte[5]);
+	Assertions.assertEquals(7, frame.remaining());
+	Assertions.assertEquals((byte) 0x81, frame.get(0));
+	Assertions.assertEquals(5, frame.get(1));
+
+	frame = SEDAPExpressWebSocketServer.encodeFrame(SEDAPExpressWebSocketServer.OPCODE_TEXT, new byte[300]);
+	Assertions.assertEquals(304, frame.remaining());
+	Assertions.assertEquals(126, frame.get(1));
+	Assertions.assertEquals(300, frame.getShort(2));
+
+	frame = SEDAPExpressWebSocketServer.encodeFrame(SEDAPExpressWebSocketServer.OPCODE_BINARY, new byte[70000]);
+	Assertions.assertEquals(70010, frame.remaining());
+	Assertions.assertEquals(127, frame.get(1));
+	Assertions.assertEquals(70000, frame.getLong(2));
+    }
+
+    @Test
+    final void testPushAndReceive() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressWebSocketServer server = new SEDAPExpressWebSocketServer("127.0.0.1", port);
+	final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	server.subscribeMessages(received::add, MessageType.HEARTBEAT);
+	Assertions.assertTrue(server.connect());
+
+	final List<String> pushed = new CopyOnWriteArrayList<>();
+	final WebSocket.Listener listener = new WebSocket.Listener() {
+
+	    private final StringBuilder text = new StringBuilder();
+
+	    @Override
+	    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+		this.text.append(data);
+		if (last) {
+		    pushed.add(this.text.toString());
+		    this.text.setLength(0);
+		}
+		webSocket.request(1);
+		return null;
+	    }
+	};
+
+	final WebSocket webSocket = HttpClient.newHttpClient().newWebSocketBuilder().buildAsync(new URI("ws://127.0.0.1:" + port + "/SEDAPEXPRESS"), listener).get(10, TimeUnit.SECONDS);
+	try {
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> server.getNumberOfClients() == 1);
+
+	    // Messages are pushed as soon as they are sent, one text frame per message without line end
+	    final List<String> sent = new ArrayList<>();
+	    for (int i = 0; i < 3; i++) {
+		final SEDAPExpressMessage message = SEDAPExpressMessage.deserialize("HEARTBEAT;4" + i + ";661D5420;89AD;U;;;FE2A");
+		sent.add(SEDAPExpressMessage.serialize(message).trim());
+		Assertions.assertTrue(server.sendSEDAPExpressMessage(message));
+	    }
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> pushed.size() == 3);
+	    Assertions.assertEquals(sent, pushed);
+
+	    // Messages from the client on the same connection, one or several per frame
+	    webSocket.sendText(SEDAPExpressWebSocketServerTest.HEARTBEAT, true).get(10, TimeUnit.SECONDS);
+	    webSocket.sendText("HEARTBEAT;42;661D5420;89AD;U;;;FE2A\nHEARTBEAT;43;661D5420;89AD;U;;;FE2A\n", true).get(10, TimeUnit.SECONDS);
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> received.size() == 3);
+	    Assertions.assertEquals(3, received.size());
+	    Assertions.assertEquals(SEDAPExpressMessage.serialize(SEDAPExpressMessage.deserialize(SEDAPExpressWebSocketServerTest.HEARTBEAT)), SEDAPExpressMessage.serialize(received.get(0)));
+
+	    webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "").get(10, TimeUnit.SECONDS);
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> server.getNumberOfClients() == 0);
+	    Assertions.assertEquals(0, server.getNumberOfClients());
+	} finally {
+	    webSocket.abort();
+	    server.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testBackPressure() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressWebSocketServer server = new SEDAPExpressWebSocketServer("127.0.0.1", port);
+	server.setSlowConsumerPolicy(SlowConsumerPolicy.DROP_OLDEST, 64 * 1024);
+	Assertions.assertTrue(server.connect());
+
+	// A client, which completes the handshake but never reads the pushed messages
+	try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+	    socket.setReceiveBufferSize(4096);
+	    final OutputStream output = socket.getOutputStream();
+	    output.write(("GET /SEDAPEXPRESS HTTP/1.1\r\nHost: 127.0.0.1\r\nUpgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+	    output.flush();
+
+	    final InputStream input = socket.getInputStream();
+	    final StringBuilder response = new StringBuilder();
+	    while (!response.toString().endsWith("\r\n\r\n")) {
+		response.append((char) input.read());
+	    }
+	    Assertions.assertTrue(response.toString().startsWith("HTTP/1.1 101"));
+	    Assertions.assertTrue(response.toString().contains("Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo="));
+
+	    final SEDAPExpressMessage message = SEDAPExpressMessage.deserialize(SEDAPExpressWebSocketServerTest.HEARTBEAT);
+	    for (int i = 0; i < 100000; i++) {
+		server.sendSEDAPExpressMessage(message);
+	    }
+
+	    // The queue of the slow client is limited, the sender never blocks
+	    SEDAPExpressNetworkTestUtils.waitFor(() -> server.getDroppedMessages() > 0);
+	    Assertions.assertTrue(server.getDroppedMessages() > 0);
+	    Assertions.assertTrue(server.getQueuedBytes() <= (64 * 1024));
+	} finally {
+	    server.stopCommunicator();
+	}
+    }
+
+    @Test
+    final void testRejectPlainRequest() throws Exception {
+
+	final int port = SEDAPExpressNetworkTestUtils.freePort();
+	final SEDAPExpressWebSocketServer server = new SEDAPExpressWebSocketServer("127.0.0.1", port);
+	Assertions.assertTrue(server.connect());
+
+	try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+	    socket.getOutputStream().write("GET /SEDAPEXPRESS HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+	    final String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.ISO_8859_1);
+	    Assertions.assertTrue(response.startsWith("HTTP/1.1 400"), response);
+	    Assertions.assertEquals(0, server.getNumberOfClients());
+	} finally {
+	    server.stopCommunicator();
+	}
+    }
+}
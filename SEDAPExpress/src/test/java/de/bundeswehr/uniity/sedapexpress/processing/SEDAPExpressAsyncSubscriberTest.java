@@ -0,0 +1,169 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.processing;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.bundeswehr.uniity.sedapexpress.messages.HEARTBEAT;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.processing.SEDAPExpressAsyncSubscriber.OverflowPolicy;
+
+class SEDAPExpressAsyncSubscriberTest {
+
+    private static HEARTBEAT heartbeat(int number) {
+	return new HEARTBEAT((byte) number, 0x661D5420L, "89AD", null, null, null);
+    }
+
+    private static List<Byte> numbers(List<SEDAPExpressMessage> messages) {
+	return messages.stream().map(SEDAPExpressMessage::getNumber).toList();
+    }
+
+    /**
+     * Subscriber, which waits in the first message until it is released
+     */
+    private static final class BlockedSubscriber implements SEDAPExpressSubscriber {
+
+	private final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@Override
+	public void processSEDAPExpressMessage(SEDAPExpressMessage message) {
+
+	    this.started.countDown();
+	    try {
+		this.release.await();
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+	    }
+	    this.received.add(message);
+	}
+    }
+
+    private static void awaitProcessed(SEDAPExpressAsyncSubscriber asyncSubscriber, long processed) throws InterruptedException {
+
+	final long end = System.currentTimeMillis() + 5000;
+	while ((asyncSubscriber.getProcessedMessages() < processed) && (System.currentTimeMillis() < end)) {
+	    Thread.sleep(1);
+	}
+	Assertions.assertEquals(processed, asyncSubscriber.getProcessedMessages());
+    }
+
+    @Test
+    final void testOrder() throws InterruptedException {
+
+	final List<SEDAPExpressMessage> received = new CopyOnWriteArrayList<>();
+	try (SEDAPExpressAsyncSubscriber asyncSubscriber = new SEDAPExpressAsyncSubscriber(received::add, 16)) {
+	    for (int i = 0; i < 100; i++) {
+		asyncSubscriber.processSEDAPExpressMessage(SEDAPExpressAsyncSubscriberTest.heartbeat(i));
+		Thread.yield();
+	    }
+	    SEDAPExpressAsyncSubscriberTest.awaitProcessed(asyncSubscriber, 100 - asyncSubscriber.getDroppedMessages());
+	    Assertions.assertEquals(100, asyncSubscriber.getReceivedMessages());
+	    Assertions.assertEquals(0, asyncSubscriber.getBufferedMessages());
+	}
+
+	byte last = -1;
+	for (SEDAPExpressMessage message : received) {
+	    Assertions.assertTrue(message.getNumber() > last);
+	    last = message.getNumber();
+	}
+    }
+
+    @Test
+    final void testDropOldest() throws InterruptedException {
+
+	final BlockedSubscriber subscriber = new BlockedSubscriber();
+	try (SEDAPExpressAsyncSubscriber asyncSubscriber = new SEDAPExpressAsyncSubscriber(subscriber, 3, OverflowPolicy.DROP_OLDEST, Thread::new)) {
+
+	    asyncSubscriber.processSEDAPExpressMessage(SEDAPExpressAsyncSubscriberTest.heartbeat(0));
+	    Assertions.assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+
+	    for (int i = 1; i <= 5; i++) {
+		asyncSubscriber.processSEDAPExpressMessage(SEDAPExpressAsyncSubscriberTest.heartbeat(i));
+	    }
+	    Assertions.assertEquals(3, asyncSubscriber.getBufferedMessages());
+	    Assertions.assertEquals(3, asyncSubscriber.getMaxBufferedMessages());
+	    Assertions.assertEquals(2, asyncSubscriber.getDroppedMessages());
+
+	    subscriber.release.countDown();
+	    SEDAPExpressAsyncSubscriberTest.awaitProcessed(asyncSubscriber, 4);
+	    Assertions.assertTrue(asyncSubscriber.getMaxLatency() > 0);
+	}
+	Assertions.assertEquals(List.of((byte) 0, (byte) 3, (byte) 4, (byte) 5), SEDAPExpressAsyncSubscriberTest.numbers(subscriber.received));
+    }
+
+    @Test
+    final void testDropNewest() throws InterruptedException {
+
+	final BlockedSubscriber subscriber = new BlockedSubscriber();
+	try (SEDAPExpressAsyncSubscriber asyncSubscriber = new SEDAPExpressAsyncSubscriber(subscriber, 3, OverflowPolicy.DROP_NEWEST, Thread::new)) {
+
+	    asyncSubscriber.processSEDAPExpressMessage(SEDAPExpressAsyncSubscriberTest.heartbeat(0));
+	    Assertions.assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+
+	    for (int i = 1; i <= 5; i++) {
+		asyncSubscriber.processSEDAPExpressMessage(SEDAPExpressAsyncSubscriberTest.heartbeat(i));
+	    }
+	    Assertions.assertEquals(2, asyncSubscriber.getDroppedMessages());
+
+	    subscriber.release.countDown();
+	    SEDAPExpressAsyncSubscriberTest.awaitProcessed(asyncSubscriber, 4);
+	}
+	Assertions.assertEquals(List.of((byte) 0, (byte) 1, (byte) 2, (byte) 3), SEDAPExpressAsyncSubscriberTest.numbers(subscriber.received));
+    }
+
+    @Test
+    final void testBlock() throws InterruptedException {
+
+	final BlockedSubscriber subscriber = new BlockedSubscriber();
+	try (SEDAPExpressAsyncSubscriber asyncSubscriber = new SEDAPExpressAsyncSubscriber(subscriber, 2, OverflowPolicy.BLOCK, Thread::new)) {
+
+	    asyncSubscriber.processSEDAPExpressMessage(SEDAPExpressAsyncSubscriberTest.heartbeat(0));
+	    Assertions.assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+	    asyncSubscriber.processSEDAPExpressMessage(SEDAPExpressAsyncSubscriberTest.heartbeat(1));
+	    asyncSubscriber.processSEDAPExpressMessage(SEDAPExpressAsyncSubscriberTest.heartbeat(2));
+
+	    final Thread producer = new Thread(() -> asyncSubscriber.processSEDAPExpressMessage(SEDAPExpressAsyncSubscriberTest.heartbeat(3)));
+	    producer.start();
+	    producer.join(200);
+	    Assertions.assertTrue(producer.isAlive(), "Producer should wait for free space");
+
+	    subscriber.release.countDown();
+	    producer.join(5000);
+	    Assertions.assertFalse(producer.isAlive());
+	    SEDAPExpressAsyncSubscriberTest.awaitProcessed(asyncSubscriber, 4);
+	    Assertions.assertEquals(0, asyncSubscriber.getDroppedMessages());
+	}
+	Assertions.assertEquals(List.of((byte) 0, (byte) 1, (byte) 2, (byte) 3), SEDAPExpressAsyncSubscriberTest.numbers(subscriber.received));
+    }
+}
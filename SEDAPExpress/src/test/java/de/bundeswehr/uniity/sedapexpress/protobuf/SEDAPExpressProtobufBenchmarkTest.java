@@ -0,0 +1,106 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.protobuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+
+/**
+ * Size and throughput of the Protobuf codec compared to the text format. Only runs with -Dsedapexpress.benchmark=true.
+ */
+@EnabledIfSystemProperty(named = "sedapexpress.benchmark", matches = "true")
+class SEDAPExpressProtobufBenchmarkTest {
+
+    private static final int ITERATIONS = 20000;
+
+    private static final int ROUNDS = 20;
+
+    /**
+     * Returns messages per second of one thread, the operation gets the index of the message.
+     */
+    private static double measure(int messages, IntUnaryOperator operation) {
+
+	long length = 0;
+	long best = Long.MAX_VALUE;
+	for (int round = 0; round < SEDAPExpressProtobufBenchmarkTest.ROUNDS; round++) {
+	    final long start = System.nanoTime();
+	    for (int i = 0; i < SEDAPExpressProtobufBenchmarkTest.ITERATIONS; i++) {
+		length += operation.applyAsInt(i % messages);
+	    }
+	    best = Math.min(best, System.nanoTime() - start);
+	}
+	Assertions.assertTrue(length > 0);
+	return (SEDAPExpressProtobufBenchmarkTest.ITERATIONS * 1e9) / best;
+    }
+
+    @Test
+    final void testSizeAndThroughput() throws Exception {
+
+	final SEDAPExpressProtobufCodec codec = new SEDAPExpressProtobufCodec();
+	final List<SEDAPExpressMessage> messages = SEDAPExpressProtobufCodecTest.createMessages();
+
+	long textTotal = 0;
+	long protobufTotal = 0;
+	System.out.println(String.format("%-12s %8s %10s", "Type", "Text", "Protobuf"));
+	for (SEDAPExpressMessage message : messages) {
+	    final int text = SEDAPExpressMessage.serialize(message).getBytes(StandardCharsets.UTF_8).length;
+	    final int protobuf = codec.encode(message).length;
+	    textTotal += text;
+	    protobufTotal += protobuf;
+	    System.out.println(String.format("%-12s %8d %10d", message.getMessageType(), text, protobuf));
+	}
+	System.out.println(String.format("%-12s %8d %10d", "Total", textTotal, protobufTotal));
+
+	final List<String> texts = messages.stream().map(SEDAPExpressMessage::serialize).toList();
+	final List<byte[]> encoded = messages.stream().map(codec::encode).toList();
+
+	final int count = messages.size();
+	final double textEncodeRate = SEDAPExpressProtobufBenchmarkTest.measure(count, i -> SEDAPExpressMessage.serialize(messages.get(i)).length());
+	final double protobufEncodeRate = SEDAPExpressProtobufBenchmarkTest.measure(count, i -> codec.encode(messages.get(i)).length);
+	final double textDecodeRate = SEDAPExpressProtobufBenchmarkTest.measure(count, i -> (SEDAPExpressMessage.deserialize(texts.get(i)) != null) ? 1 : 0);
+	final double protobufDecodeRate = SEDAPExpressProtobufBenchmarkTest.measure(count, i -> {
+	    try {
+		return (codec.decode(encoded.get(i), 0, encoded.get(i).length) != null) ? 1 : 0;
+	    } catch (InvalidProtocolBufferException e) {
+		throw new IllegalStateException(e);
+	    }
+	});
+
+	System.out.println(String.format("Encode text     : %,12.0f msg/s", textEncodeRate));
+	System.out.println(String.format("Encode Protobuf : %,12.0f msg/s", protobufEncodeRate));
+	System.out.println(String.format("Decode text     : %,12.0f msg/s", textDecodeRate));
+	System.out.println(String.format("Decode Protobuf : %,12.0f msg/s", protobufDecodeRate));
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Note: This license has also been called the “Simplified BSD License” and the “FreeBSD License”.
+ *
+ * Copyright 2024-2025 UNIITY POC: Volker Voß, Federal Armed Forces of Germany
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSEnARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY
+ * OF SUCH DAMAGE.
+ */
+package de.bundeswehr.uniity.sedapexpress.protobuf;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnknownFieldSet;
+
+import de.bundeswehr.uniity.sedapexpress.messages.CONTACT;
+import de.bundeswehr.uniity.sedapexpress.messages.EMISSION;
+import de.bundeswehr.uniity.sedapexpress.messages.EMISSION.FreqAgility;
+import de.bundeswehr.uniity.sedapexpress.messages.EMISSION.Function;
+import de.bundeswehr.uniity.sedapexpress.messages.EMISSION.PRFAgility;
+import de.bundeswehr.uniity.sedapexpress.messages.GENERIC;
+import de.bundeswehr.uniity.sedapexpress.messages.GENERIC.ContentType;
+import de.bundeswehr.uniity.sedapexpress.messages.GRAPHIC;
+import de.bundeswehr.uniity.sedapexpress.messages.GRAPHIC.GraphicType;
+import de.bundeswehr.uniity.sedapexpress.messages.KEYEXCHANGE;
+import de.bundeswehr.uniity.sedapexpress.messages.KEYEXCHANGE.AlgorithmType;
+import de.bundeswehr.uniity.sedapexpress.messages.METEO;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Acknowledgement;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.Classification;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.DataEncoding;
+import de.bundeswehr.uniity.sedapexpress.messages.SEDAPExpressMessage.DeleteFlag;
+import de.bundeswehr.uniity.sedapexpress.messages.TIMESYNC;
+
+class SEDAPExpressProtobufCodecTest {
+
+    static final List<String> TEXT_MESSAGES = List.of(
+	    "CONTACT;5E;0000661D4410;66A3;R;;;100;FALSE;53.32;-8.11;0;;;;120;275;;;;;;;FGS Bayern;RA;SFSPFCLFF------;;;;VXNlIENIMjI=",
+	    "OWNUNIT;11;1B351C87;22AA;U;TRUE;4389F10D;77.88;-10.12;5577.0;33.44;55.66;1.1;-2.2;3.3;Ownunit;SFGPIB----H----",
+	    "STATUS;41;000050505050;BB91;C;TRUE;93B37ACC;2;1;MLG#50#Shell#12.5;Tank1#75.3;MainAkku#10.8;;;MTAuOC4wLjY=;cnRzcDovLzEwLjguMC42L3N0cmVhbTE=;U2FtcGxlVGV4dCE=",
+	    "COMMAND;55;00001B351C87;5BCD;S;TRUE;4389F10D;7D31;1221;01;0C;hold-engagement;1000",
+	    "ACKNOWLEDGE;18;661D64C0;129E;R;;;LASSY;COMMAND;2B",
+	    "RESEND;20;661D64C0;129E;R;;;FE2A;TEXT;5D",
+	    "HEARTBEAT;41;661D5420;89AD;U;;;FE2A",
+	    "TEXT;15;661D6565;324E;R;;;;3;;\"This is a notice!\";1133");
+
+    /**
+     * Messages of all types, the ones without a text sample are built by their setters
+     */
+    static List<SEDAPExpressMessage> createMessages() {
+
+	final List<SEDAPExpressMessage> messages = new ArrayList<>();
+	SEDAPExpressProtobufCodecTest.TEXT_MESSAGES.forEach(message -> messages.add(SEDAPExpressMessage.deserialize(message)));
+
+	final EMISSION emission = new EMISSION();
+	emission.setNumber((byte) 0x7F);
+	emission.setTime(1724321563000L);
+	emission.setSender("66A3");
+	emission.setClassification(Classification.Confidential);
+	emission.setEmissionID("E1");
+	emission.setDeleteFlag(DeleteFlag.FALSE);
+	emission.setSensorLatitude(53.5);
+	emission.setSensorLongitude(8.125);
+	emission.setEmitterLatitude(54.0);
+	emission.setEmitterLongitude(-7.0);
+	emission.setBearing(271.5);
+	emission.setFrequency(new ArrayList<>(List.of(9400.0, 9410.5)));
+	emission.setBandwidth(12.0);
+	emission.setPower(-30.5);
+	emission.setFreqAgility(FreqAgility.values()[1]);
+	emission.setPrfAgility(PRFAgility.values()[2]);
+	emission.setFunction(Function.values()[3]);
+	emission.setSpotNumber(7);
+	emission.setSidc("SFSPFCLFF------".toCharArray());
+	emission.setComment("Radar");
+	messages.add(emission);
+
+	final GENERIC generic = new GENERIC();
+	generic.setNumber((byte) 1);
+	generic.setTime(1724321563000L);
+	generic.setSender("66A3");
+	generic.setClassification(Classification.Public);
+	generic.setContentType(ContentType.values()[1]);
+	generic.setEncoding(DataEncoding.NONE);
+	generic.setContent("<xml/>");
+	messages.add(generic);
+
+	final GRAPHIC graphic = new GRAPHIC();
+	graphic.setNumber((byte) 2);
+	graphic.setTime(1724321563000L);
+	graphic.setSender("66A3");
+	graphic.setClassification(Classification.Public);
+	graphic.setGraphicType(GraphicType.values()[2]);
+	graphic.setLineWidth(1.5);
+	graphic.setLineColor(0xFF00FF00);
+	graphic.setFillColor(0x80808080);
+	graphic.setTextColor(0);
+	graphic.setEncoding(DataEncoding.NONE);
+	graphic.setAnnotation("Area");
+	messages.add(graphic);
+
+	final KEYEXCHANGE keyExchange = new KEYEXCHANGE();
+	keyExchange.setNumber((byte) 3);
+	keyExchange.setTime(1724321563000L);
+	keyExchange.setSender("66A3");
+	keyExchange.setClassification(Classification.Public);
+	keyExchange.setRecipient("FE2A");
+	keyExchange.setAlgorithmType(AlgorithmType.values()[1]);
+	keyExchange.setPhase(0);
+	keyExchange.setKeyLengthSharedSecret(256);
+	keyExchange.setKeyLengthDHKEM(2048);
+	keyExchange.setPrimeNumber(new BigInteger("170141183460469231731687303715884105727"));
+	keyExchange.setNaturalNumber(BigInteger.TWO);
+	keyExchange.setIV(-4711L);
+	messages.add(keyExchange);
+
+	final METEO meteo = new METEO();
+	meteo.setNumber((byte) 4);
+	meteo.setTime(1724321563000L);
+	meteo.setSender("66A3");
+	meteo.setClassification(Classification.Public);
+	meteo.setWaterTemperature(12.5);
+	meteo.setAirTemperature(-3.25);
+	meteo.setWindSpeed(18.0);
+	meteo.setWindDirection(270.0);
+	meteo.setReference("FE2A");
+	messages.add(meteo);
+
+	final TIMESYNC timeSync = new TIMESYNC();
+	timeSync.setNumber((byte) 5);
+	timeSync.setTime(1724321563000L);
+	timeSync.setSender("66A3");
+	timeSync.setClassification(Classification.Public);
+	timeSync.setAcknowledgement(Acknowledgement.TRUE);
+	timeSync.setTimestamp(1724321563123L);
+	messages.add(timeSync);
+
+	return messages;
+    }
+
+    @Test
+    final void testRoundTrip() throws Exception {
+
+	final SEDAPExpressProtobufCodec codec = new SEDAPExpressProtobufCodec();
+	final List<SEDAPExpressMessage> messages = SEDAPExpressProtobufCodecTest.createMessages();
+	Assertions.assertEquals(SEDAPExpressMessage.MessageType.values().length, messages.stream().map(SEDAPExpressMessage::getMessageType).distinct().count());
+
+	for (SEDAPExpressMessage message : messages) {
+	    final byte[] data = codec.encode(message);
+
+	    // Valid Protobuf wire format
+	    Assertions.assertFalse(UnknownFieldSet.parseFrom(data).asMap().isEmpty());
+
+	    final SEDAPExpressMessage decoded = codec.decode(data, 0, data.length);
+	    Assertions.assertEquals(message.getClass(), decoded.getClass());
+	    Assertions.assertEquals(SEDAPExpressMessage.serialize(message), SEDAPExpressMessage.serialize(decoded));
+	}
+    }
+
+    @Test
+    final void testEncodeAll() throws Exception {
+
+	final SEDAPExpressProtobufCodec codec = new SEDAPExpressProtobufCodec();
+	final List<SEDAPExpressMessage> messages = SEDAPExpressProtobufCodecTest.createMessages();
+
+	final byte[] data = codec.encodeAll(messages);
+	final List<SEDAPExpressMessage> decoded = codec.decodeAll(data, 0, data.length);
+	Assertions.assertEquals(messages.stream().map(SEDAPExpressMessage::serialize).toList(), decoded.stream().map(SEDAPExpressMessage::serialize).toList());
+    }
+
+    @Test
+    final void testDelimited() throws Exception {
+
+	final SEDAPExpressProtobufCodec codec = new SEDAPExpressProtobufCodec();
+	final List<SEDAPExpressMessage> messages = SEDAPExpressProtobufCodecTest.createMessages();
+
+	final byte[] data = new byte[8192];
+	final CodedOutputStream output = CodedOutputStream.newInstance(data);
+	for (SEDAPExpressMessage message : messages) {
+	    codec.writeDelimitedTo(message, output);
+	}
+
+	final CodedInputStream input = CodedInputStream.newInstance(data, 0, output.getTotalBytesWritten());
+	final List<String> decoded = new ArrayList<>();
+	SEDAPExpressMessage message;
+	while ((message = codec.parseDelimitedFrom(input)) != null) {
+	    decoded.add(SEDAPExpressMessage.serialize(message));
+	}
+	Assertions.assertEquals(messages.stream().map(SEDAPExpressMessage::serialize).toList(), decoded);
+    }
+
+    @Test
+    final void testGrowingBuffer() throws Exception {
+
+	final SEDAPExpressProtobufCodec codec = new SEDAPExpressProtobufCodec();
+	final SEDAPExpressMessage contact = SEDAPExpressMessage.deserialize(SEDAPExpressProtobufCodecTest.TEXT_MESSAGES.get(0));
+	((CONTACT) contact).setMultimediaData(new byte[100000]);
+
+	final byte[] data = codec.encode(contact);
+	Assertions.assertTrue(data.length > 100000);
+	Assertions.assertEquals(SEDAPExpressMessage.serialize(contact), SEDAPExpressMessage.serialize(codec.decode(data, 0, data.length)));
+    }
+
+    @Test
+    final void testInvalid() {
+
+	final SEDAPExpressProtobufCodec codec = new SEDAPExpressProtobufCodec();
+
+	// Header without content
+	Assertions.assertThrows(InvalidProtocolBufferException.class, () -> codec.decode(new byte[] { 0x08, 0x01 }, 0, 2));
+
+	// Truncated
+	final byte[] data = codec.encode(SEDAPExpressMessage.deserialize(SEDAPExpressProtobufCodecTest.TEXT_MESSAGES.get(1)));
+	Assertions.assertThrows(InvalidProtocolBufferException.class, () -> codec.decode(data, 0, data.length - 3));
+    }
+}